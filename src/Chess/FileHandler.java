@@ -1,4 +1,5 @@
 package Chess;
+import Chess.engine.*;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.FileWriter;
@@ -45,6 +46,21 @@ public class FileHandler {
      * @param playerWhite true if the human player is playing as white, false otherwise
      */
 public void saveGame(List<Move> moveHistory, String filename, String gameMode, int aiLevel, boolean playerWhite) {
+    saveGame(moveHistory, filename, gameMode, aiLevel, playerWhite, "*");
+}
+
+    /**
+     * Saves a game to a PGN file together with its result.
+     *
+     * @param moveHistory the list of moves made in the game
+     * @param filename the path where the game should be saved
+     * @param gameMode the game mode ("Human vs Human", "Human vs AI", or "AI vs AI")
+     * @param aiLevel the AI difficulty level (1-10)
+     * @param playerWhite true if the human player is playing as white, false otherwise
+     * @param result the PGN result from {@link PositionStatus#getResult()}, "*" if the game goes on
+     */
+public void saveGame(List<Move> moveHistory, String filename, String gameMode, int aiLevel, boolean playerWhite,
+        String result) {
     // System.out.println("\nFileHandler.saveGame() called");
     // System.out.println("Filename: " + filename);
     // System.out.println("Game Mode: " + gameMode);
@@ -59,6 +75,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
         writer.println("[Date \"" + new java.util.Date() + "\"]");
         writer.println("[White \"Player 1\"]");
         writer.println("[Black \"Player 2\"]");
+        writer.println("[Result \"" + result + "\"]");
         
         // Custom metadata for game restoration
         writer.println("[GameMode \"" + gameMode + "\"]");
@@ -100,7 +117,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
                 (moveHistory == null ? "null" : "empty"));
         }
         
-        writer.println("*");
+        writer.println(result);
   
     } catch (IOException e) {
         System.err.println("ERROR: Error saving game: " + e.getMessage());
@@ -406,7 +423,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
             }
             
             Piece pawn = board.getPieceAt(sourceRow, sourceCol);
-            if (pawn instanceof Pawn && pawn.getColor().equals(playerColor)) {
+            if (PieceType.of(pawn) == PieceType.PAWN && pawn.getPieceColor() == PieceColor.of(playerColor)) {
                 Piece captured = board.getPieceAt(destRow, destCol);
                 return new Move(new Coordinate(sourceRow, sourceCol), to, pawn, captured);
             }
@@ -419,7 +436,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
         if (oneSquareBack >= 0 && oneSquareBack < 8) {
             Piece piece = board.getPieceAt(oneSquareBack, destCol);
             
-            if (piece instanceof Pawn && piece.getColor().equals(playerColor)) {
+            if (PieceType.of(piece) == PieceType.PAWN && piece.getPieceColor() == PieceColor.of(playerColor)) {
                 // Check if destination is empty
                 if (board.getPieceAt(destRow, destCol) == null) {
                     System.out.println("      Found pawn at row " + oneSquareBack + " (one square back)");
@@ -433,7 +450,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
         if (twoSquaresBack >= 0 && twoSquaresBack < 8) {
             Piece piece = board.getPieceAt(twoSquaresBack, destCol);
             
-            if (piece instanceof Pawn && piece.getColor().equals(playerColor)) {
+            if (PieceType.of(piece) == PieceType.PAWN && piece.getPieceColor() == PieceColor.of(playerColor)) {
                 // Check both destination and path are empty
                 boolean pathClear = (board.getPieceAt(oneSquareBack, destCol) == null) &&
                                 (board.getPieceAt(destRow, destCol) == null);
@@ -490,7 +507,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
             for (int col = 0; col < 8; col++) {
                 Piece piece = board.getPieceAt(row, col);
 
-                if (piece != null && piece.getColor().equals(playerColor)) {
+                if (piece != null && piece.getPieceColor() == PieceColor.of(playerColor)) {
                     // Check if this piece matches the symbol
                     if (matchesPieceSymbol(piece, pieceSymbol)) {
                         // Check if this piece can legally move to destination
@@ -524,15 +541,15 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
     private boolean matchesPieceSymbol(Piece piece, char symbol) {
         switch (symbol) {
             case 'N':
-                return piece instanceof Knight;
+                return piece.getType() == PieceType.KNIGHT;
             case 'B':
-                return piece instanceof Bishop;
+                return piece.getType() == PieceType.BISHOP;
             case 'R':
-                return piece instanceof Rook;
+                return piece.getType() == PieceType.ROOK;
             case 'Q':
-                return piece instanceof Queen;
+                return piece.getType() == PieceType.QUEEN;
             case 'K':
-                return piece instanceof King;
+                return piece.getType() == PieceType.KING;
             default:
                 return false;
         }
@@ -558,7 +575,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
 
         for (int col = 0; col < 8; col++) {
             Piece p = board.getPieceAt(playerColor.equals("White") ? 0 : 7, col);
-            if (p instanceof King && p.getColor().equals(playerColor)) {
+            if (PieceType.of(p) == PieceType.KING && p.getPieceColor() == PieceColor.of(playerColor)) {
                 king = (King) p;
                 kingCol = col;
                 break;
@@ -605,19 +622,7 @@ public void saveGame(List<Move> moveHistory, String filename, String gameMode, i
      * @return the PGN symbol ('K', 'Q', 'R', 'B', 'N', or empty string for pawns)
      */
     private String getPieceSymbol(Piece piece) {
-        if (piece instanceof King)
-            return "K";
-        if (piece instanceof Queen)
-            return "Q";
-        if (piece instanceof Rook)
-            return "R";
-        if (piece instanceof Bishop)
-            return "B";
-        if (piece instanceof Knight)
-            return "N";
-        if (piece instanceof Pawn)
-            return "";
-        return "";
+        return piece == null ? "" : piece.getType().getSymbol();
     }
     
     /**
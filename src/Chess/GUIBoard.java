@@ -1,4 +1,5 @@
 package Chess;
+import Chess.engine.*;
 import Chess.ui.ResourceManager;
 import Chess.ui.ThemeManager;
 import javax.swing.*;
@@ -237,7 +238,7 @@ public class GUIBoard extends JPanel {
             Piece piece = clickedSquare.getPiece();
 
             Player curPlayer = currentGame.getCurrentPlayer();
-            if (!piece.getColor().equals(curPlayer.getColor())) {
+            if (piece.getPieceColor() != PieceColor.of(curPlayer.getColor())) {
                 return;
             }
 
@@ -251,7 +252,7 @@ public class GUIBoard extends JPanel {
         String choosePromotionPiece = null;
         if (piece != null) {
             // Promotion check and Prompt
-            if (piece instanceof Pawn) {
+            if (piece.getType() == PieceType.PAWN) {
                 Pawn pawn = (Pawn) piece;
                 if (pawn.promotionRank(rank)) {
                     choosePromotionPiece = promotionPiecePrompt();
@@ -308,11 +309,14 @@ public class GUIBoard extends JPanel {
                     // Get current player BEFORE changing turn
                     String currentPlayerColor = currentGame.getCurrentPlayer().getColor();
                     
-                    // Add move to display
-                    gameScreen.addMove(moveNotation, currentPlayerColor);
-                    
                     // Change turn
                     currentGame.changeTurn();
+
+                    // "+" or "#" from the new position's status, which the game-over check reuses
+                    moveNotation += currentGame.getStatus().getNotationSuffix();
+                    
+                    // Add move to display
+                    gameScreen.addMove(moveNotation, currentPlayerColor);
                     
                     // Update turn display
                     gameScreen.updateTurn(currentGame.getCurrentPlayer().getColor());
@@ -335,7 +339,7 @@ public class GUIBoard extends JPanel {
         updateDisplay();
         
         // Trigger AI move if it's AI's turn
-        if (currentGame.getCurrentPlayer() instanceof AIPlayer) {
+        if (GameManager.isComputer(currentGame.getCurrentPlayer())) {
             new javax.swing.Timer(2000, e -> {
                 ((javax.swing.Timer) e.getSource()).stop();
                 manager.processAIMoves();
@@ -386,7 +390,7 @@ public class GUIBoard extends JPanel {
         String capture = (targetPiece != null && !piece.isSameColor(targetPiece)) ? "x" : "";
 
         // Pawn moves don't include piece symbol
-        if (piece instanceof Pawn) {
+        if (piece.getType() == PieceType.PAWN) {
             if (!capture.isEmpty()) {
                 String fromSquare = coordinateToNotation(from);
                 return fromSquare.charAt(0) + "x" + toSquare;
@@ -422,19 +426,7 @@ public class GUIBoard extends JPanel {
      * @return a {@link String} representing the PGN symbol for the piece
      */
     private String getPieceSymbol(Piece piece) {
-        if (piece instanceof King)
-            return "K";
-        if (piece instanceof Queen)
-            return "Q";
-        if (piece instanceof Rook)
-            return "R";
-        if (piece instanceof Bishop)
-            return "B";
-        if (piece instanceof Knight)
-            return "N";
-        if (piece instanceof Pawn)
-            return "";
-        return "";
+        return piece == null ? "" : piece.getType().getSymbol();
     }
 
     public ThemeManager getTheme(){
@@ -535,25 +527,7 @@ public class GUIBoard extends JPanel {
         if (piece == null)
             return null;
 
-        String color = piece.getColor().equals("White") ? "W" : "B";
-        String type = piece.getClass().getSimpleName().toLowerCase();
-
-        switch (type) {
-            case "pawn":
-                return "pawn_" + color;
-            case "rook":
-                return "rook_" + color;
-            case "knight":
-                return "knight_" + color;
-            case "bishop":
-                return "bishop_" + color;
-            case "queen":
-                return "queen_" + color;
-            case "king":
-                return "king_" + color;
-            default:
-                return null;
-        }
+        return piece.getType().getImageName() + "_" + (piece.isWhite() ? "W" : "B");
     }
 
     /**
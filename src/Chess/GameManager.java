@@ -1,7 +1,10 @@
 package Chess;
+import Chess.engine.*;
+import Chess.uci.UciEnginePlayer;
 import Chess.ui.*;
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
 
@@ -174,7 +177,7 @@ public void startGame() {
         String symbol = getPieceSymbol(piece);
         String capture = (move.getCapturedPiece() != null) ? "x" : "";
 
-        if (piece instanceof Pawn) {
+        if (piece.getType() == PieceType.PAWN) {
             if (!capture.isEmpty()) {
                 char fromFile = (char) ('a' + move.getFrom().getCol());
                 return fromFile + "x" + destination;
@@ -193,19 +196,7 @@ public void startGame() {
      *         for pawns)
      */
     private String getPieceSymbol(Piece piece) {
-        if (piece instanceof King)
-            return "K";
-        if (piece instanceof Queen)
-            return "Q";
-        if (piece instanceof Rook)
-            return "R";
-        if (piece instanceof Bishop)
-            return "B";
-        if (piece instanceof Knight)
-            return "N";
-        if (piece instanceof Pawn)
-            return "";
-        return "";
+        return piece.getType().getSymbol();
     }
 
     /**
@@ -218,6 +209,23 @@ public void startGame() {
      *                    as black
      */
     public void startGame(int aiLevel, String gameMode, boolean playerWhite) {
+        startGame(aiLevel, gameMode, playerWhite, null);
+    }
+
+    /**
+     * Starts a new standard chess game session, against an outside UCI
+     * engine in the "Human vs UCI Engine" mode.
+     *
+     * @param aiLevel       the AI difficulty level (1-10), for the engine its
+     *                      time per move and skill level
+     * @param gameMode      the type of game mode (e.g., "Human vs Human", "Human
+     *                      vs AI", "Human vs UCI Engine", "AI vs AI")
+     * @param playerWhite   true if the player is playing as white, false if
+     *                      playing as black
+     * @param engineCommand the command line that starts the engine; only used
+     *                      in the "Human vs UCI Engine" mode
+     */
+    public void startGame(int aiLevel, String gameMode, boolean playerWhite, String engineCommand) {
         Player whitePlayer = null;
         Player blackPlayer = null;
 
@@ -235,11 +243,23 @@ public void startGame() {
                     blackPlayer = new HumanPlayer("Black", "Black");
                 }
                 break;
+            case "Human vs UCI Engine":
+                Player engine = startEngine(engineCommand, playerWhite ? "Black" : "White", aiLevel);
+                if (engine == null) {
+                    return;
+                }
+                whitePlayer = playerWhite ? new HumanPlayer("White", "White") : engine;
+                blackPlayer = playerWhite ? engine : new HumanPlayer("Black", "Black");
+                break;
             case "AI vs AI":
                 whitePlayer = new AIPlayer("White", "White", aiLevel);
                 blackPlayer = new AIPlayer("Black", "Black", aiLevel);
                 break;
         }
+        closeEngines(); // the last game's engine would keep running otherwise
+
+        // nothing from the last game is worth keeping, and a big cache is cleared on all cores
+        EvalCache.shared().clear();
 
         Board board = new Board(gameScreen);
         board.initializeBoard();
@@ -265,7 +285,7 @@ public void startGame() {
             aiStartTimer.start();
         }
 
-        if (gameMode.equals("Human vs AI") && currentGame.getCurrentPlayer() instanceof AIPlayer) {
+        if (!gameMode.equals("AI vs AI") && isComputer(currentGame.getCurrentPlayer())) {
             javax.swing.Timer aiStartTimer = new javax.swing.Timer(2000, e -> {
                 ((javax.swing.Timer) e.getSource()).stop();
                 processAIMoves(); // ai makes it's move
@@ -275,6 +295,53 @@ public void startGame() {
         }
     }
 
+    /**
+     * Starts the UCI engine for a game, telling the user if it can't be
+     *
+     * @param commandLine the command line of the engine
+     * @param color       the engine's color
+     * @param aiLevel     the AI difficulty level (1-10)
+     * @return the engine player, or {@code null} if it didn't start
+     */
+    private Player startEngine(String commandLine, String color, int aiLevel) {
+        List<String> command = UciEnginePlayer.parseCommand(commandLine == null ? "" : commandLine);
+        if (command.isEmpty()) {
+            JOptionPane.showMessageDialog(mainFrame, "Enter the command that starts the engine.",
+                    "UCI Engine", JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        try {
+            return new UciEnginePlayer(color, command, aiLevel);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(mainFrame, "Could not start the engine:\n" + e.getMessage(),
+                    "UCI Engine", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
+
+    /**
+     * Stops the engine processes of the current game, if it has any.
+     */
+    private void closeEngines() {
+        if (currentGame == null || currentGame.getPlayers() == null) {
+            return;
+        }
+        for (Player player : currentGame.getPlayers()) {
+            if (player instanceof UciEnginePlayer) {
+                ((UciEnginePlayer) player).close();
+            }
+        }
+    }
+
+    /**
+     * @param player a player of the current game
+     * @return true if the player's moves come from the AI or an engine
+     *         rather than from clicks
+     */
+    public static boolean isComputer(Player player) {
+        return player != null && !(player instanceof HumanPlayer);
+    }
+
     /**
      * Handles a move event coming from the GUI.
      * <p>
@@ -328,7 +395,8 @@ public void startGame() {
         int aiLevel = getAILevel();
         boolean playerWhite = isPlayerWhite();
         
-        fileHandler.saveGame(history, filename, gameMode, aiLevel, playerWhite);
+        fileHandler.saveGame(history, filename, gameMode, aiLevel, playerWhite,
+                currentGame.getStatus().getResult());
         System.out.println("Saved to: " + filename);
     }
 
@@ -347,8 +415,8 @@ public void startGame() {
         Player white = players.get(0);
         Player black = players.get(1);
         
-        boolean whiteIsAI = white instanceof AIPlayer;
-        boolean blackIsAI = black instanceof AIPlayer;
+        boolean whiteIsAI = isComputer(white);
+        boolean blackIsAI = isComputer(black);
         
         if (!whiteIsAI && !blackIsAI) {
             return "Human vs Human";
@@ -429,6 +497,7 @@ public void startGame() {
             return false;
         }
         
+        closeEngines();
         this.currentGame = gameState.game;
         
         // Recreate GameScreen with loaded state
@@ -448,7 +517,7 @@ public void startGame() {
         showScreen("game");
         
         // If it's AI's turn after loading, trigger AI move after a delay
-        if (currentGame.getCurrentPlayer() instanceof AIPlayer) {
+        if (isComputer(currentGame.getCurrentPlayer())) {
             javax.swing.Timer aiStartTimer = new javax.swing.Timer(2000, e -> {
                 ((javax.swing.Timer)e.getSource()).stop();
                 processAIMoves();
@@ -497,11 +566,51 @@ public void startGame() {
     if(currentGame == null || gameScreen == null){
         return;
     }
-    if(currentGame.getCurrentPlayer() instanceof AIPlayer){
-        AIPlayer ai = (AIPlayer) currentGame.getCurrentPlayer();
-        
-       
-        Move aiMove = ai.makeMove(currentGame.getBoard());
+    if(isComputer(currentGame.getCurrentPlayer())){
+        Player ai = currentGame.getCurrentPlayer();
+        ChessGame game = currentGame;
+
+        // the AI thinks on a snapshot in the background, so the window keeps
+        // responding and nothing the GUI does can change the board under it
+        Position snapshot = game.getBoard().snapshot();
+        new SwingWorker<Move, Void>() {
+            @Override
+            protected Move doInBackground() {
+                return ai.makeMove(snapshot.toBoard());
+            }
+
+            @Override
+            protected void done() {
+                Move aiMove;
+                try {
+                    aiMove = get();
+                } catch (Exception e) {
+                    System.out.println("ERROR: AI search failed: " + e.getMessage());
+                    return;
+                }
+                // an undo or a new game while the AI was thinking makes the move stale
+                if (game != currentGame || !snapshot.equals(game.getBoard().snapshot())) {
+                    return;
+                }
+                if (aiMove == null && ai instanceof UciEnginePlayer && !game.checkGameOver()) {
+                    JOptionPane.showMessageDialog(mainFrame, ai.getName() + " did not answer with a move.",
+                            "UCI Engine", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                playAIMove(ai, aiMove);
+            }
+        }.execute();
+    }
+}
+
+    /**
+     * Plays the move the AI chose on its snapshot on the live board, then
+     * hands over to the next player
+     *
+     * @param ai     the AI or engine player that moved
+     * @param aiMove the chosen move, or {@code null} if it found none
+     */
+    private void playAIMove(Player ai, Move aiMove) {
         if(aiMove != null){
            
             // CRITICAL: Execute the move on the board FIRST
@@ -511,14 +620,15 @@ public void startGame() {
                 aiMove.getFrom().getCol(),
                 aiMove.getTo().getRow(),
                 aiMove.getTo().getCol(),
-                null, true
+                aiMove.getPromotionPiece() != null ? aiMove.getPromotionPiece() : AIPlayer.promotionFor(aiMove),
+                true
             );
             
             if (moved) {
                 
                 
-                // THEN add to history
-                currentGame.addMove(aiMove);
+                // THEN add to history, with the pieces of the live board
+                currentGame.addMove(board.getLastMove());
                 
                 
                 
@@ -542,6 +652,9 @@ public void startGame() {
                         aiMove.getFrom(), aiMove.getTo(), aiMove.getMovedPiece());
                 }
                 
+                // "+" or "#", the status is cached for the game-over check below
+                moveAlgebricNotation += currentGame.getStatus().getNotationSuffix();
+
                 // Show move in UI
                 gameScreen.addMove(moveAlgebricNotation, ai.getColor());
                 
@@ -558,14 +671,14 @@ public void startGame() {
         }
     
         // Check if next player is also AI
-        if (currentGame.getCurrentPlayer() instanceof AIPlayer) {
+        if (isComputer(currentGame.getCurrentPlayer())) {
             new javax.swing.Timer(2000, e -> {
                 ((javax.swing.Timer)e.getSource()).stop();
                 processAIMoves();
             }).start();
         }
     }
-}
+
     // Game  Overwriter Here 
 
     /**
@@ -578,18 +691,19 @@ public void startGame() {
         }
         
         Player currentPlayer = currentGame.getCurrentPlayer();
-        RuleEngine ruleEngine = currentGame.getRuleEngine();
+        // computed once for this move, the GUI and hints read the same status
+        PositionStatus status = currentGame.getStatus();
         
         // Check for checkmate
-        if (ruleEngine.isCheckmate(currentPlayer)) {
+        if (status.isCheckmate()) {
             String winner = currentPlayer.getColor().equals("White") ? "Black" : "White";
             showGameOverDialog("Checkmate!", winner + " wins!");
             return true;
         }
         
-        // Check for stalemate
-        if (ruleEngine.isStalemate(currentPlayer)) {
-            showGameOverDialog("Stalemate!", "The game is a draw!");
+        // Check for stalemate, repetition and the fifty-move rule
+        if (status.isDraw()) {
+            showGameOverDialog(status.getDrawReason() + "!", "The game is a draw!");
             return true;
         }
         
@@ -20,9 +20,17 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
+import Chess.engine.Board;
+import Chess.engine.BoardListener;
+import Chess.engine.ChessGame;
+import Chess.engine.GetHint;
+import Chess.engine.Piece;
+import Chess.engine.Position;
+import Chess.engine.PositionStatus;
 import Chess.ui.ResourceManager;
 import Chess.ui.ThemeManager;
 import Chess.ui.UIComponents;
@@ -34,7 +42,7 @@ import Chess.ui.UIComponents;
  * @author Group3
  * @version 2.1
  */
-public class GameScreen extends JPanel {
+public class GameScreen extends JPanel implements BoardListener {
     private final GameManager manager;
     private final ThemeManager theme;
     private GUIBoard chessBoard;
@@ -72,7 +80,7 @@ public class GameScreen extends JPanel {
     public GameScreen(GameManager manager, Board board, int aiLev) {
         this.manager = manager;
         this.board = board;
-        board.setGameScreen(this);
+        board.setListener(this);
         this.aiLevel = aiLev;
         this.setLayout(new BorderLayout());
         this.theme = ThemeManager.getInstance();
@@ -290,20 +298,35 @@ public class GameScreen extends JPanel {
         // ======Adding update to Hint ========
 
         hintBtn.addActionListener(e -> {
-            try {
-                GetHint getHint = new GetHint(board);
-                ChessGame currentGame = manager.getCurrentGame();
-                if (currentGame != null) {
-                    String playerColor = currentGame.getCurrentPlayer().getColor();
-                    String hint = getHint.generateHint(playerColor);
-                    ModernDialog.showInfo(this, hint, "Hint for " + playerColor);
-                } else {
-                    ModernDialog.showInfo(this, "No active game to provide hints for.", "Hint");
-                }
-            } catch (Exception ex) {
-                ModernDialog.showWarning(this, "Could not generate hint: " + ex.getMessage(), "Hint Error");
-                ex.printStackTrace();
+            ChessGame currentGame = manager.getCurrentGame();
+            if (currentGame == null) {
+                ModernDialog.showInfo(this, "No active game to provide hints for.", "Hint");
+                return;
             }
+            String playerColor = currentGame.getCurrentPlayer().getColor();
+            PositionStatus status = currentGame.getStatus();
+
+            // the hint can search for a while, so it works on a snapshot off the event thread
+            Position snapshot = board.snapshot();
+            hintBtn.setEnabled(false);
+            new SwingWorker<String, Void>() {
+                @Override
+                protected String doInBackground() {
+                    return new GetHint(snapshot.toBoard(), status).generateHint(playerColor);
+                }
+
+                @Override
+                protected void done() {
+                    hintBtn.setEnabled(true);
+                    try {
+                        ModernDialog.showInfo(GameScreen.this, get(), "Hint for " + playerColor);
+                    } catch (Exception ex) {
+                        ModernDialog.showWarning(GameScreen.this, "Could not generate hint: " + ex.getMessage(),
+                                "Hint Error");
+                        ex.printStackTrace();
+                    }
+                }
+            }.execute();
         });
 
         resignBtn.addActionListener(e -> {
@@ -567,6 +590,16 @@ public class GameScreen extends JPanel {
         addMove(move, "White");
     }
 
+    /**
+     * Shows a piece the board reports as captured in the capture panels.
+     *
+     * @param piece the captured piece
+     */
+    @Override
+    public void pieceCaptured(Piece piece) {
+        addCapturedPiece(piece.getType().getImageName() + "_" + (piece.isWhite() ? "W" : "B"), piece.isWhite());
+    }
+
     /**
      * Adds a captured piece icon to the appropriate capture panel.
      *
@@ -0,0 +1,280 @@
+package Chess.analysis;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Board;
+import Chess.engine.Evaluator;
+import Chess.engine.Move;
+import Chess.engine.Position;
+import Chess.engine.PositionStatus;
+import Chess.engine.RuleEngine;
+import Chess.engine.SearchListener;
+import Chess.search.MateSolver;
+import Chess.search.X88Position;
+import Chess.tablebase.KpkBitbase;
+import Chess.tablebase.Tablebase;
+import Chess.uci.UciMoves;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search behind one {@link AnalysisRequest}
+ * <p>
+ * An AI of the requested level thinks about the position until it is done or
+ * the time or node limit is up, like a UCI {@code go movetime}. The score is
+ * the search's score for the move it picks; a move from the opening book
+ * gets the static evaluation after it instead. Before that, the checks the
+ * AI scores its own positions with run on the position itself: a dead draw
+ * or a tablebase draw is reported as a draw, a tablebase win or loss and a
+ * mate the mate search finds as moves to mate. The look-ahead is two plies,
+ * so the PV is the move and the reply that is best for the opponent by the
+ * evaluator.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class Analysis implements SearchListener {
+
+    // as in the UCI front-end
+    private static final int CENTIPAWNS_PER_UNIT = 10;
+    private static final int MATE_RANGE = 1000;
+    // as the AI's mate search
+    private static final int MATE_SEARCH_MOVES = 3;
+    private static final int MATE_SEARCH_NODES = 20_000;
+    // as the AI's quick mate search, for the reply to a root move
+    private static final int REPLY_MATE_MOVES = 2;
+    private static final int REPLY_MATE_NODES = 2_000;
+
+    // a root move whose score isn't known without a search
+    static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private final AnalysisRequest request;
+    private final AIPlayer ai;
+    private final long deadline;
+    private Move bestMove;
+    private int bestScore = Integer.MIN_VALUE;
+
+    /**
+     * @param request the position and limits
+     */
+    public Analysis(AnalysisRequest request) {
+        this(request, System.nanoTime());
+    }
+
+    /**
+     * @param request  the position and limits
+     * @param accepted when the request came in, by {@link System#nanoTime()};
+     *                 its think time runs from then, not from when an engine
+     *                 gets to it
+     */
+    public Analysis(AnalysisRequest request, long accepted) {
+        this.request = request;
+        this.deadline = accepted + TimeUnit.MILLISECONDS.toNanos(request.getMoveTime());
+        this.ai = new AIPlayer("Analysis", request.getSideToMove(), request.getLevel());
+        ai.setSearchListener(this);
+    }
+
+    /**
+     * Searches the position
+     *
+     * @return what the search found
+     */
+    public AnalysisResult run() {
+        long start = System.currentTimeMillis();
+        String side = request.getSideToMove();
+        Board board = request.getPosition().toBoard();
+        RuleEngine rules = new RuleEngine(board);
+        List<Move> legal = rules.getLegalMoves(side);
+        PositionStatus status = rules.computeStatus(side);
+        if (legal.isEmpty()) {
+            return new AnalysisResult(request.getFen(), status.isCheckmate() ? "checkmate" : "stalemate", null, 0,
+                    false, status.isStalemate(), List.of(), 0, 0);
+        }
+
+        // what is known without a search, by the same checks the AI scores its positions with
+        boolean draw = status.isDraw() || board.isDeadDraw();
+        int mateIn = 0;
+        int kpkScore = KpkBitbase.UNKNOWN;
+        if (!draw) {
+            Tablebase tablebase = Tablebase.shared();
+            int value = tablebase == null ? Tablebase.UNKNOWN : tablebase.probe(board, side);
+            if (value != Tablebase.UNKNOWN) {
+                int moves = (Tablebase.plies(value) + 1) / 2;
+                draw = value == Tablebase.DRAW;
+                mateIn = Tablebase.isWin(value) ? moves : -moves;
+            } else {
+                kpkScore = KpkBitbase.shared().evaluate(board, side, side);
+                draw = kpkScore == KpkBitbase.DRAW;
+            }
+        }
+
+        // a forced mate is played and shown as one, whatever the search would make of it
+        String uci = null;
+        long mateNodes = 0;
+        if (!draw && mateIn == 0 && request.getLevel() >= AIPlayer.MATE_SEARCH_MIN_LEVEL) {
+            MateSolver.Mate mate = findMate(board, side, legal);
+            if (mate != null) {
+                uci = uci(mate.getMove());
+                mateIn = mate.getMoves();
+                mateNodes = mate.getNodes();
+            }
+        }
+
+        Move played;
+        if (uci != null) {
+            played = UciMoves.find(legal, uci);
+        } else {
+            Move move = ai.makeMove(request.getPosition().toBoard());
+            played = move == null ? null : UciMoves.find(legal, UciMoves.toUci(move));
+            if (played == null) {
+                // the AI only plays legal moves, this is a bug in it and not something to paper over
+                String picked = move == null ? "no move" : UciMoves.toUci(move);
+                System.err.println("ERROR: AI picked " + picked + " in " + request.getFen());
+                return new AnalysisResult(request.getFen(), "error", null, 0, false, false, List.of(),
+                        ai.getNodes(), System.currentTimeMillis() - start);
+            }
+            uci = UciMoves.toUci(played);
+        }
+
+        Position after = play(request.getPosition(), played, uci);
+        Evaluator evaluator = ai.getEvaluator();
+        int reported;
+        boolean mate = mateIn != 0;
+        if (draw) {
+            reported = 0;
+        } else if (mate) {
+            reported = mateIn;
+        } else if (kpkScore != KpkBitbase.UNKNOWN) {
+            reported = kpkScore * CENTIPAWNS_PER_UNIT;
+        } else {
+            boolean searched = bestMove != null && UciMoves.toUci(bestMove).equals(uci);
+            int score = searched ? bestScore : evaluator.evaluate(after.toBoard(), side);
+            reported = shown(score);
+            mate = isMate(score);
+        }
+
+        List<String> pv = new ArrayList<>();
+        pv.add(uci);
+        String reply = bestReply(after, opponent(side), evaluator);
+        if (reply != null) {
+            pv.add(reply);
+        }
+
+        return new AnalysisResult(request.getFen(), "ok", uci, reported, mate, draw, pv, ai.getNodes() + mateNodes,
+                System.currentTimeMillis() - start);
+    }
+
+    // the mate search's mate for the side to move, or null if it found none with a legal first move
+    static MateSolver.Mate findMate(Board board, String side, List<Move> legal) {
+        MateSolver.Mate mate = new MateSolver(MATE_SEARCH_NODES).solve(board, side, MATE_SEARCH_MOVES);
+        return mate != null && UciMoves.find(legal, uci(mate.getMove())) != null ? mate : null;
+    }
+
+    /**
+     * Scores a root move by what is known of the position after it without a
+     * search: a mate or stalemate, a draw, the tablebase or the KPK bitbase,
+     * and a short mate for the opponent. In search units for the side that
+     * played the move, so {@link #isMate(int)} and {@link #shown(int)} apply.
+     *
+     * @return the score, or {@link #NO_SCORE} if it takes a search
+     */
+    static int knownScore(Position after, String mover) {
+        Board board = after.toBoard();
+        String side = opponent(mover);
+        PositionStatus status = new RuleEngine(board).computeStatus(side);
+        if (status.isCheckmate()) {
+            return Tablebase.MATE_SCORE;
+        }
+        if (status.isDraw() || board.isDeadDraw()) {
+            return 0;
+        }
+        Tablebase tablebase = Tablebase.shared();
+        int value = tablebase == null ? Tablebase.UNKNOWN : tablebase.probe(board, side);
+        if (value != Tablebase.UNKNOWN) {
+            return Tablebase.moverScore(value);
+        }
+        int kpkScore = KpkBitbase.shared().evaluate(board, mover, side);
+        if (kpkScore != KpkBitbase.UNKNOWN) {
+            return kpkScore;
+        }
+        MateSolver.Mate mate = new MateSolver(REPLY_MATE_NODES).solve(board, side, REPLY_MATE_MOVES);
+        if (mate != null) {
+            return -(Tablebase.MATE_SCORE - 2 * mate.getMoves() + 2);
+        }
+        return NO_SCORE;
+    }
+
+    // a mate search move in UCI notation
+    static String uci(int move) {
+        int from = X88Position.from(move);
+        int to = X88Position.to(move);
+        int promotion = X88Position.promotion(move);
+        return square(from) + square(to) + (promotion == 0 ? ""
+                : promotion == X88Position.QUEEN ? "q"
+                : promotion == X88Position.ROOK ? "r"
+                : promotion == X88Position.BISHOP ? "b" : "n");
+    }
+
+    private static String square(int square) {
+        return "" + (char) ('a' + X88Position.col(square)) + (X88Position.row(square) + 1);
+    }
+
+    // whether a search score is a forced mate
+    static boolean isMate(int score) {
+        return Math.abs(score) > Tablebase.MATE_SCORE - MATE_RANGE;
+    }
+
+    // a search score as centipawns, or as moves to mate, negative when getting mated
+    static int shown(int score) {
+        if (isMate(score)) {
+            int moves = (Tablebase.MATE_SCORE - Math.abs(score) + 1) / 2 + 1;
+            return score > 0 ? moves : -moves;
+        }
+        return score * CENTIPAWNS_PER_UNIT;
+    }
+
+    // the reply the evaluator likes best for the side playing it, or null if there is none
+    static String bestReply(Position position, String side, Evaluator evaluator) {
+        List<Move> replies = new RuleEngine(position.toBoard()).getLegalMoves(side);
+        String best = null;
+        int bestScore = Integer.MIN_VALUE;
+        for (Move reply : replies) {
+            String uci = UciMoves.toUci(reply);
+            int score = evaluator.evaluate(play(position, reply, uci).toBoard(), side);
+            if (score > bestScore) {
+                bestScore = score;
+                best = uci;
+            }
+        }
+        return best;
+    }
+
+    static Position play(Position position, Move move, String uci) {
+        Board board = position.toBoard();
+        String promotion = AIPlayer.promotionFor(move) == null ? null
+                : UciMoves.promotion(uci) != null ? UciMoves.promotion(uci) : "Queen";
+        board.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                move.getTo().getCol(), promotion, false);
+        return board.snapshot();
+    }
+
+    static String opponent(String side) {
+        return side.equals("White") ? "Black" : "White";
+    }
+
+    @Override
+    public boolean isStopped() {
+        return System.nanoTime() - deadline >= 0
+                || (request.getNodes() > 0 && ai.getNodes() >= request.getNodes());
+    }
+
+    @Override
+    public synchronized void rootMoveSearched(Move move, int score, int searched, int total) {
+        if (score > bestScore) {
+            bestScore = score;
+            bestMove = move;
+        }
+    }
+}
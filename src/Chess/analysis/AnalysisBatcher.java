@@ -0,0 +1,246 @@
+package Chess.analysis;
+
+import Chess.engine.EvalCache;
+import Chess.engine.GameThreads;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects analysis requests into small batches and runs them on a shared
+ * pool of engine threads
+ * <p>
+ * Requests wait in a bounded queue. One thread takes whatever arrives within
+ * a short window as a batch, answers the requests it has a cached result for,
+ * folds requests for the same position and limits into one search, also
+ * with a search already running, and starts the rest as engine threads come
+ * free. So a front-end firing the same position from many browser tabs costs
+ * one search, and a burst costs one hand-over instead of one per request.
+ * All searches evaluate through the shared {@link EvalCache}, so positions
+ * one request has evaluated are cheap for the next.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class AnalysisBatcher {
+
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService engines;
+    private final Semaphore engineSlots;
+    private final int engineThreads;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final Map<String, AnalysisResult> cache;
+    // requests waiting for a search that is already running, by key
+    private final Map<String, List<Pending>> running = new HashMap<>();
+    private final LatencyStats latency = new LatencyStats(4096);
+    private final Thread batcher;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batched = new AtomicLong();
+
+    // a request with the future its answer goes to
+    private static final class Pending {
+        final AnalysisRequest request;
+        final CompletableFuture<String> answer = new CompletableFuture<>();
+        // the think time and the latency both run from here
+        final long start = System.nanoTime();
+
+        Pending(AnalysisRequest request) {
+            this.request = request;
+        }
+    }
+
+    /**
+     * @param engineThreads the searches running at once
+     * @param queueCapacity the requests that may wait
+     * @param maxBatch      the most requests taken in one batch
+     * @param windowMillis  how long a batch waits for more requests after
+     *                      its first
+     * @param cacheEntries  the results kept for repeated requests
+     */
+    public AnalysisBatcher(int engineThreads, int queueCapacity, int maxBatch, long windowMillis, int cacheEntries) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.engines = Executors.newFixedThreadPool(engineThreads, GameThreads.daemonThreads("analysis-engine-"));
+        this.engineSlots = new Semaphore(engineThreads);
+        this.engineThreads = engineThreads;
+        this.maxBatch = maxBatch;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        // least recently used out first
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AnalysisResult> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+        this.batcher = new Thread(this::batchLoop, "analysis-batcher");
+        batcher.setDaemon(true);
+        batcher.start();
+    }
+
+    /**
+     * Queues a request
+     *
+     * @param request the request
+     * @return the answer as JSON to come, or {@code null} if the queue is full
+     */
+    public CompletableFuture<String> submit(AnalysisRequest request) {
+        requests.incrementAndGet();
+        Pending pending = new Pending(request);
+        if (!queue.offer(pending)) {
+            rejected.incrementAndGet();
+            return null;
+        }
+        return pending.answer;
+    }
+
+    private void batchLoop() {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                long end = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    // whatever is there already comes along without waiting
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    Pending next = queue.poll(end - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batches.incrementAndGet();
+                batched.addAndGet(batch.size());
+                dispatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private void dispatch(List<Pending> batch) throws InterruptedException {
+        Map<String, List<Pending>> byKey = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byKey.computeIfAbsent(pending.request.key(), key -> new ArrayList<>()).add(pending);
+        }
+        for (Map.Entry<String, List<Pending>> entry : byKey.entrySet()) {
+            String key = entry.getKey();
+            List<Pending> group = entry.getValue();
+            AnalysisResult result;
+            synchronized (cache) {
+                result = cache.get(key);
+            }
+            if (result != null) {
+                cacheHits.addAndGet(group.size());
+                complete(group, result.toJson(true));
+                continue;
+            }
+            synchronized (running) {
+                List<Pending> waiting = running.get(key);
+                if (waiting != null) {
+                    shared.addAndGet(group.size());
+                    waiting.addAll(group);
+                    continue;
+                }
+                running.put(key, new ArrayList<>(group));
+            }
+            shared.addAndGet(group.size() - 1);
+            // the requests after this one wait in the queue until an engine is free
+            engineSlots.acquire();
+            searches.incrementAndGet();
+            Pending first = group.get(0);
+            engines.execute(() -> search(key, first.request, first.start));
+        }
+    }
+
+    private void search(String key, AnalysisRequest request, long accepted) {
+        AnalysisResult result = null;
+        RuntimeException error = null;
+        try {
+            result = new Analysis(request, accepted).run();
+            synchronized (cache) {
+                cache.put(key, result);
+            }
+        } catch (RuntimeException e) {
+            error = e;
+            failed.incrementAndGet();
+            System.err.println("Analysis of " + request.getFen() + " failed: " + e);
+        } finally {
+            engineSlots.release();
+        }
+        List<Pending> waiting;
+        synchronized (running) {
+            waiting = running.remove(key);
+        }
+        if (error != null) {
+            for (Pending pending : waiting) {
+                pending.answer.completeExceptionally(error);
+            }
+            return;
+        }
+        // the first asked for the search, the others share it
+        complete(waiting.subList(0, 1), result.toJson(false));
+        complete(waiting.subList(1, waiting.size()), result.toJson(true));
+    }
+
+    private void complete(List<Pending> group, String json) {
+        for (Pending pending : group) {
+            latency.record(System.nanoTime() - pending.start);
+            pending.answer.complete(json);
+        }
+    }
+
+    /** Stops taking batches; searches running are left to finish. */
+    public void close() {
+        batcher.interrupt();
+        engines.shutdown();
+    }
+
+    /** @return the requests waiting for a batch */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /** @return the latencies from queueing a request to its answer */
+    public LatencyStats getLatency() {
+        return latency;
+    }
+
+    /** @return the state of the queue, the engines and the caches as a JSON object */
+    public String statsJson() {
+        long batchCount = batches.get();
+        EvalCache evalCache = EvalCache.shared();
+        return "{\"queued\":" + queue.size() + ",\"queueCapacity\":" + (queue.size() + queue.remainingCapacity())
+                + ",\"searching\":" + (engineThreads - engineSlots.availablePermits())
+                + ",\"engineThreads\":" + engineThreads + ",\"requests\":" + requests.get()
+                + ",\"rejected\":" + rejected.get() + ",\"searches\":" + searches.get()
+                + ",\"cacheHits\":" + cacheHits.get() + ",\"sharedSearches\":" + shared.get()
+                + ",\"failed\":" + failed.get() + ",\"batches\":" + batchCount
+                + String.format(Locale.ROOT, ",\"averageBatch\":%.2f", batchCount == 0 ? 0.0
+                        : (double) batched.get() / batchCount)
+                + String.format(Locale.ROOT, ",\"evalCacheHitRate\":%.3f", evalCache.getHitRate())
+                + ",\"latencyMs\":{" + latency.toJson() + "}}";
+    }
+}
@@ -0,0 +1,123 @@
+package Chess.analysis;
+
+import Chess.engine.Fen;
+import Chess.engine.Position;
+
+import java.util.Map;
+
+/**
+ * One position to analyse and how long to think about it
+ * <p>
+ * The same position with the same limits is the same request, whatever the
+ * move counters of its FEN, so {@link #key()} is what the service batches
+ * and caches by.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class AnalysisRequest {
+
+    /** The think time when the request doesn't give one, in milliseconds. */
+    public static final long DEFAULT_MOVE_TIME = 1000;
+
+    private final String fen;
+    private final Position position;
+    private final String sideToMove;
+    private final int level;
+    private final long moveTime;
+    private final long nodes;
+    private final String key;
+
+    /**
+     * @param fen      the position, or "startpos"
+     * @param level    the AI level, 1 to 10
+     * @param moveTime the most milliseconds to think
+     * @param nodes    the most nodes to search, or 0 for no limit
+     * @throws IllegalArgumentException if the FEN or a limit is bad
+     */
+    public AnalysisRequest(String fen, int level, long moveTime, long nodes) {
+        if (level < 1 || level > 10) {
+            throw new IllegalArgumentException("level must be from 1 to 10");
+        }
+        if (moveTime < 1) {
+            throw new IllegalArgumentException("movetime must be positive");
+        }
+        if (nodes < 0) {
+            throw new IllegalArgumentException("nodes must not be negative");
+        }
+        Fen parsed = Fen.parse(fen.equals("startpos") ? Fen.START : fen);
+        this.position = parsed.getPosition();
+        this.sideToMove = parsed.getSideToMove();
+        this.fen = Fen.toFen(position, sideToMove);
+        this.level = level;
+        this.moveTime = moveTime;
+        this.nodes = nodes;
+        // board, side, castling and en passant; the move counters don't change the analysis
+        String[] fields = this.fen.split(" ");
+        this.key = fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3] + " " + level + " " + moveTime
+                + " " + nodes;
+    }
+
+    /**
+     * Makes a request from the members of a JSON object or the parameters of
+     * a query string: {@code fen} (needed), {@code level} (10),
+     * {@code movetime} (1000) and {@code nodes} (0)
+     *
+     * @param params      the members or parameters
+     * @param maxMoveTime the longest think time allowed; longer ones are cut
+     *                    to it
+     * @return the request
+     * @throws IllegalArgumentException if something is missing or bad
+     */
+    public static AnalysisRequest from(Map<String, String> params, long maxMoveTime) {
+        String fen = params.get("fen");
+        if (fen == null || fen.isBlank()) {
+            throw new IllegalArgumentException("fen is missing");
+        }
+        try {
+            int level = params.containsKey("level") ? Integer.parseInt(params.get("level")) : 10;
+            long moveTime = params.containsKey("movetime") ? Long.parseLong(params.get("movetime"))
+                    : DEFAULT_MOVE_TIME;
+            long nodes = params.containsKey("nodes") ? Long.parseLong(params.get("nodes")) : 0;
+            return new AnalysisRequest(fen.trim(), level, Math.min(moveTime, maxMoveTime), nodes);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("level, movetime and nodes must be whole numbers");
+        }
+    }
+
+    /** @return the position as FEN */
+    public String getFen() {
+        return fen;
+    }
+
+    /** @return the position */
+    public Position getPosition() {
+        return position;
+    }
+
+    /** @return "White" or "Black" */
+    public String getSideToMove() {
+        return sideToMove;
+    }
+
+    /** @return the AI level */
+    public int getLevel() {
+        return level;
+    }
+
+    /** @return the most milliseconds to think */
+    public long getMoveTime() {
+        return moveTime;
+    }
+
+    /** @return the most nodes to search, or 0 for no limit */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** @return what requests with the same analysis share */
+    public String key() {
+        return key;
+    }
+}
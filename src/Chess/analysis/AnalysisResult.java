@@ -0,0 +1,104 @@
+package Chess.analysis;
+
+import java.util.List;
+
+/**
+ * What the analysis of one position found
+ * <p>
+ * Scores are from the side to move's view, in centipawns or, for a forced
+ * mate, in moves to mate, negative when the side to move gets mated; as in
+ * the UCI front-end. A draw, a dead draw or one the tablebase knows, scores
+ * 0 and is flagged as one. A position without moves has no best move, only
+ * its status.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class AnalysisResult {
+
+    private final String fen;
+    private final String status;
+    private final String bestMove;
+    private final int score;
+    private final boolean mate;
+    private final boolean draw;
+    private final List<String> pv;
+    private final long nodes;
+    private final long searchMillis;
+
+    /**
+     * @param fen          the position
+     * @param status       "ok", "checkmate", "stalemate" or "error"
+     * @param bestMove     the best move in UCI notation, or {@code null}
+     * @param score        the score
+     * @param mate         whether the score is moves to mate
+     * @param draw         whether the position is a known draw
+     * @param pv           the best move and the reply expected to it
+     * @param nodes        the nodes searched
+     * @param searchMillis how long the search took
+     */
+    public AnalysisResult(String fen, String status, String bestMove, int score, boolean mate, boolean draw,
+            List<String> pv, long nodes, long searchMillis) {
+        this.fen = fen;
+        this.status = status;
+        this.bestMove = bestMove;
+        this.score = score;
+        this.mate = mate;
+        this.draw = draw;
+        this.pv = List.copyOf(pv);
+        this.nodes = nodes;
+        this.searchMillis = searchMillis;
+    }
+
+    /**
+     * @param cached whether the result came from the cache or a search
+     *               started for another request
+     * @return the result as a JSON object
+     */
+    public String toJson(boolean cached) {
+        StringBuilder json = new StringBuilder("{\"fen\":").append(Json.quote(fen));
+        json.append(",\"status\":").append(Json.quote(status));
+        json.append(",\"bestmove\":").append(bestMove == null ? "null" : Json.quote(bestMove));
+        json.append(",\"score\":");
+        if (bestMove == null) {
+            json.append("null");
+        } else {
+            json.append(mate ? "{\"mate\":" : "{\"cp\":").append(score).append('}');
+        }
+        json.append(",\"draw\":").append(draw);
+        json.append(",\"pv\":[");
+        for (int i = 0; i < pv.size(); i++) {
+            json.append(i > 0 ? "," : "").append(Json.quote(pv.get(i)));
+        }
+        json.append("],\"nodes\":").append(nodes);
+        json.append(",\"time\":").append(searchMillis);
+        json.append(",\"cached\":").append(cached).append('}');
+        return json.toString();
+    }
+
+    /** @return the best move in UCI notation, or {@code null} */
+    public String getBestMove() {
+        return bestMove;
+    }
+
+    /** @return the score, see {@link #isMate()} */
+    public int getScore() {
+        return score;
+    }
+
+    /** @return whether the score is moves to mate rather than centipawns */
+    public boolean isMate() {
+        return mate;
+    }
+
+    /** @return whether the position is a known draw, scored 0 */
+    public boolean isDraw() {
+        return draw;
+    }
+
+    /** @return the best move and the reply expected to it */
+    public List<String> getPv() {
+        return pv;
+    }
+}
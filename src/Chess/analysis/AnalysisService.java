@@ -0,0 +1,236 @@
+package Chess.analysis;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.EvalCache;
+import Chess.engine.GameThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A local HTTP service that analyses positions and answers in JSON, for web
+ * front-ends
+ * <p>
+ * {@code POST /analyze} with {@code {"fen": "...", "level": 10,
+ * "movetime": 1000, "nodes": 0}}, or {@code GET /analyze?fen=...&movetime=500},
+ * answers with the best move, its score and the PV:
+ * {@code {"fen":"...","status":"ok","bestmove":"e2e4","score":{"cp":30},
+ * "draw":false,"pv":["e2e4","e7e5"],"nodes":1234,"time":998,"cached":false}}. Only
+ * {@code fen} is needed; {@code startpos} is the starting position.
+ * {@code GET /stats} shows the queue depth, the engines, the caches and the
+ * latency percentiles. A full queue answers 503, a bad request 400.
+ * </p>
+ * <p>
+ * Requests are batched onto a fixed number of engine threads by an
+ * {@link AnalysisBatcher}; the HTTP side only waits, on a virtual thread per
+ * exchange on Java 21 and later.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class AnalysisService {
+
+    private static final int MAX_BODY = 64 * 1024;
+
+    private final AnalysisBatcher batcher;
+    private final long maxMoveTime;
+    private HttpServer server;
+
+    /**
+     * @param batcher     runs the searches
+     * @param maxMoveTime the longest think time a request may ask for
+     */
+    public AnalysisService(AnalysisBatcher batcher, long maxMoveTime) {
+        this.batcher = batcher;
+        this.maxMoveTime = maxMoveTime;
+    }
+
+    /**
+     * Starts answering requests
+     *
+     * @param address         where to listen
+     * @param fallbackThreads the threads for exchanges without virtual threads
+     * @throws IOException if the address can't be bound
+     */
+    public void start(InetSocketAddress address, int fallbackThreads) throws IOException {
+        server = HttpServer.create(address, 256);
+        server.setExecutor(GameThreads.newPerTaskExecutor(fallbackThreads, "analysis-http-"));
+        server.createContext("/analyze", this::analyze);
+        server.createContext("/stats", this::stats);
+        server.start();
+    }
+
+    /** @return the port listened on */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Stops listening and the engines. */
+    public void stop() {
+        server.stop(0);
+        batcher.close();
+    }
+
+    private void analyze(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, String> params;
+            String method = exchange.getRequestMethod();
+            if (method.equals("POST")) {
+                params = Json.parseObject(readBody(exchange.getRequestBody()));
+            } else if (method.equals("GET")) {
+                params = query(exchange.getRequestURI().getRawQuery());
+            } else {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                send(exchange, 405, error("use GET or POST"));
+                return;
+            }
+            AnalysisRequest request = AnalysisRequest.from(params, maxMoveTime);
+            CompletableFuture<String> answer = batcher.submit(request);
+            if (answer == null) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 503, error("too many requests waiting, try again"));
+                return;
+            }
+            // the queue and the search together; a stuck engine shouldn't keep the client waiting for ever
+            send(exchange, 200, answer.get(maxMoveTime + 60000, TimeUnit.MILLISECONDS));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, error(e.getMessage()));
+        } catch (TimeoutException e) {
+            send(exchange, 504, error("the analysis took too long"));
+        } catch (ExecutionException e) {
+            send(exchange, 500, error("the analysis failed: " + e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, error("the service is stopping"));
+        }
+    }
+
+    private void stats(HttpExchange exchange) throws IOException {
+        send(exchange, 200, batcher.statsJson());
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY + 1);
+        if (body.length > MAX_BODY) {
+            throw new IllegalArgumentException("the request is too big");
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    // fen=...&level=...; a FEN's spaces come as + or %20
+    private static Map<String, String> query(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args {@code [--port 8080] [--bind 127.0.0.1] [--engine-threads N]
+     *             [--queue 1024] [--batch 64] [--window-ms 2]
+     *             [--cache 10000] [--hash MB] [--max-movetime 10000]
+     *             [--http-threads 64]}
+     * @throws IOException if the port can't be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        String bind = "127.0.0.1";
+        int engineThreads = Runtime.getRuntime().availableProcessors();
+        int queue = 1024;
+        int batch = 64;
+        long window = 2;
+        int cache = 10000;
+        int hash = 0;
+        long maxMoveTime = 10000;
+        int httpThreads = 64;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--bind":
+                    bind = args[i + 1];
+                    break;
+                case "--engine-threads":
+                    engineThreads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--queue":
+                    queue = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--window-ms":
+                    window = Long.parseLong(args[i + 1]);
+                    break;
+                case "--cache":
+                    cache = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--hash":
+                    hash = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--max-movetime":
+                    maxMoveTime = Long.parseLong(args[i + 1]);
+                    break;
+                case "--http-threads":
+                    httpThreads = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (hash > 0) {
+            EvalCache.configureShared((hash << 20) / Long.BYTES);
+        }
+
+        // the engine announces the book and tablebases it loads, which nobody reads here
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        // now rather than in the first request that needs them
+        AIPlayer.loadTables();
+
+        AnalysisService service = new AnalysisService(new AnalysisBatcher(engineThreads, queue, batch, window, cache),
+                maxMoveTime);
+        service.start(new InetSocketAddress(bind, port), httpThreads);
+        out.println("Analysis service on http://" + bind + ":" + service.getPort() + "/analyze, " + engineThreads
+                + " engine threads, batches of up to " + batch + " within " + window + " ms");
+    }
+}
@@ -0,0 +1,363 @@
+package Chess.analysis;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Board;
+import Chess.engine.Evaluator;
+import Chess.engine.Fen;
+import Chess.engine.Move;
+import Chess.engine.PackedPosition;
+import Chess.engine.RuleEngine;
+import Chess.engine.SearchListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores many positions at once, for data pipelines
+ * <p>
+ * Positions come as FEN strings or as {@link PackedPosition}s. Every one
+ * gets its static evaluation, and with searching on also the move the level
+ * 10 look-ahead picks and its score; the look-ahead is always two plies, so
+ * that is the fixed depth. The work is split over a fork/join pool. Each
+ * worker thread sets the positions up on one board of its own and keeps its
+ * own AIs, so nothing is made per position but the pieces.
+ * </p>
+ * <p>
+ * Scores are from White's view in evaluator units. A position that can't be
+ * read gets {@link #INVALID} and is counted in {@link Results#getErrors()};
+ * the others are scored all the same.
+ * </p>
+ * <p>
+ * From the command line it reads one FEN per line, or packed positions with
+ * {@code --packed}, from a file or standard input, and writes a line per
+ * position: the evaluation, and with {@code --search} the score and the
+ * move, separated by tabs; {@code -} for a position that couldn't be read.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class BatchEvaluator {
+
+    /** The score of a position that couldn't be read or searched. */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    private static final int MIN_GRAIN = 16;
+
+    private final ForkJoinPool pool;
+    private final boolean search;
+    // one board and one pair of AIs per worker thread, kept from batch to batch
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * @param pool   the pool to work on
+     * @param search whether to search the positions too, not only evaluate
+     *               them
+     */
+    public BatchEvaluator(ForkJoinPool pool, boolean search) {
+        this.pool = pool;
+        this.search = search;
+    }
+
+    /**
+     * @param threads the worker threads
+     * @param search  whether to search the positions too
+     */
+    public BatchEvaluator(int threads, boolean search) {
+        this(new ForkJoinPool(threads), search);
+    }
+
+    /**
+     * Scores positions given as FEN
+     *
+     * @param fens the positions
+     * @return the scores, in the same order
+     */
+    public Results evaluateFens(List<String> fens) {
+        return run(fens.size(), (board, i) -> Fen.setUp(board, fens.get(i)));
+    }
+
+    /**
+     * Scores packed positions lying one after the other
+     *
+     * @param packed the positions, {@link PackedPosition#BYTES} each
+     * @param count  how many there are
+     * @return the scores, in the same order
+     */
+    public Results evaluatePacked(byte[] packed, int count) {
+        if ((long) count * PackedPosition.BYTES > packed.length) {
+            throw new IllegalArgumentException(count + " packed positions don't fit in " + packed.length + " bytes");
+        }
+        return run(count, (board, i) -> PackedPosition.setUp(board, packed, i * PackedPosition.BYTES));
+    }
+
+    // sets position i up on a board and returns the side to move
+    private interface Loader {
+        String setUp(Board board, int index);
+    }
+
+    private Results run(int count, Loader loader) {
+        Results results = new Results(count, search);
+        // enough pieces for every thread to steal a few, not so many that splitting costs more than scoring
+        int grain = Math.max(MIN_GRAIN, count / (pool.getParallelism() * 8));
+        pool.invoke(new Chunk(loader, results, 0, count, grain));
+        return results;
+    }
+
+    // a range of positions, split in halves until it is small enough to score
+    private final class Chunk extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Loader loader;
+        private final Results results;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        Chunk(Loader loader, Results results, int from, int to, int grain) {
+            this.loader = loader;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                Worker worker = workers.get();
+                for (int i = from; i < to; i++) {
+                    worker.score(loader, i, results);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Chunk(loader, results, from, middle, grain), new Chunk(loader, results, middle, to, grain));
+        }
+    }
+
+    // the board and AIs of one worker thread
+    private final class Worker implements SearchListener {
+
+        private final Board board = new Board(null);
+        private final Evaluator evaluator = new Evaluator();
+        private final AIPlayer whiteAI = new AIPlayer("Batch White", "White", 10);
+        private final AIPlayer blackAI = new AIPlayer("Batch Black", "Black", 10);
+        private int bestScore;
+
+        Worker() {
+            whiteAI.setSearchListener(this);
+            blackAI.setSearchListener(this);
+        }
+
+        void score(Loader loader, int i, Results results) {
+            String side;
+            try {
+                side = loader.setUp(board, i);
+            } catch (IllegalArgumentException e) {
+                results.errors.incrementAndGet();
+                return;
+            }
+            results.evals[i] = evaluator.evaluate(board, "White");
+            if (!search) {
+                return;
+            }
+            List<Move> moves = new RuleEngine(board).getLegalMoves(side);
+            if (moves.isEmpty()) {
+                return;
+            }
+            AIPlayer ai = side.equals("White") ? whiteAI : blackAI;
+            bestScore = INVALID;
+            Move best = ai.HardestAIMove(board, moves);
+            if (best == null || bestScore == INVALID) {
+                return;
+            }
+            results.scores[i] = side.equals("White") ? bestScore : -bestScore;
+            results.moves[i] = encode(best);
+        }
+
+        @Override
+        public void rootMoveSearched(Move move, int score, int searched, int total) {
+            bestScore = Math.max(bestScore, score);
+        }
+    }
+
+    // from | to << 6, plus 1 << 12 for a promotion, which the look-ahead always makes to a queen
+    private static int encode(Move move) {
+        int from = move.getFrom().getRow() * 8 + move.getFrom().getCol();
+        int to = move.getTo().getRow() * 8 + move.getTo().getCol();
+        return from | to << 6 | (AIPlayer.promotionFor(move) != null ? 1 << 12 : 0);
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args {@code [--search] [--packed] [--threads N] [--batch 100000]
+     *             [FILE]}
+     * @throws IOException if the positions can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        boolean search = false;
+        boolean packed = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batch = 100000;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--search":
+                    search = true;
+                    break;
+                case "--packed":
+                    packed = true;
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    file = args[i];
+            }
+        }
+
+        // the engine announces the book and tablebases it loads; only the scores go to standard output
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        BatchEvaluator evaluator = new BatchEvaluator(threads, search);
+        long start = System.nanoTime();
+        long total = 0;
+        long errors = 0;
+        try (InputStream in = new BufferedInputStream(file == null ? System.in : new FileInputStream(file), 1 << 16)) {
+            BufferedReader lines = packed ? null : new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            byte[] buffer = packed ? new byte[batch * PackedPosition.BYTES] : null;
+            while (true) {
+                // a batch at a time, so the input can be bigger than the memory
+                Results results;
+                if (packed) {
+                    int read = in.readNBytes(buffer, 0, buffer.length);
+                    if (read % PackedPosition.BYTES != 0) {
+                        System.err.println("The input ends in the middle of a packed position");
+                    }
+                    results = evaluator.evaluatePacked(buffer, read / PackedPosition.BYTES);
+                } else {
+                    List<String> fens = new ArrayList<>();
+                    String line;
+                    while (fens.size() < batch && (line = lines.readLine()) != null) {
+                        fens.add(line);
+                    }
+                    results = evaluator.evaluateFens(fens);
+                }
+                if (results.size() == 0) {
+                    break;
+                }
+                write(results, search, out);
+                total += results.size();
+                errors += results.getErrors();
+            }
+        }
+        out.flush();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.println(String.format(Locale.ROOT, "%d positions, %d unreadable, %.1f s, %.0f positions/s on %d "
+                + "threads", total, errors, seconds, total / seconds, threads));
+    }
+
+    private static void write(Results results, boolean search, Writer out) throws IOException {
+        for (int i = 0; i < results.size(); i++) {
+            int eval = results.getEval(i);
+            out.write(eval == INVALID ? "-" : Integer.toString(eval));
+            if (search) {
+                int score = results.getScore(i);
+                String move = results.getBestMove(i);
+                out.write('\t');
+                out.write(score == INVALID ? "-" : Integer.toString(score));
+                out.write('\t');
+                out.write(move == null ? "-" : move);
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * The scores of a batch, by the index of the position
+     */
+    public static final class Results {
+
+        private final int[] evals;
+        private final int[] scores;
+        private final int[] moves;
+        private final AtomicInteger errors = new AtomicInteger();
+
+        Results(int count, boolean search) {
+            evals = new int[count];
+            Arrays.fill(evals, INVALID);
+            scores = new int[search ? count : 0];
+            Arrays.fill(scores, INVALID);
+            moves = new int[search ? count : 0];
+            Arrays.fill(moves, -1);
+        }
+
+        /** @return the number of positions */
+        public int size() {
+            return evals.length;
+        }
+
+        /**
+         * @param i the index of a position
+         * @return its static evaluation, or {@link #INVALID}
+         */
+        public int getEval(int i) {
+            return evals[i];
+        }
+
+        /**
+         * @param i the index of a position
+         * @return the score of its best move, or {@link #INVALID} if it
+         *         wasn't searched or has no moves
+         */
+        public int getScore(int i) {
+            return scores.length == 0 ? INVALID : scores[i];
+        }
+
+        /**
+         * @param i the index of a position
+         * @return its best move in UCI notation, or {@code null}
+         */
+        public String getBestMove(int i) {
+            if (moves.length == 0 || moves[i] < 0) {
+                return null;
+            }
+            int move = moves[i];
+            String uci = square(move & 63) + square(move >> 6 & 63);
+            return (move >> 12) == 0 ? uci : uci + "q";
+        }
+
+        /** @return how many positions couldn't be read */
+        public int getErrors() {
+            return errors.get();
+        }
+
+        private static String square(int sq) {
+            return "" + (char) ('a' + sq % 8) + (char) ('1' + sq / 8);
+        }
+    }
+}
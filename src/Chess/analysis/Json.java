@@ -0,0 +1,206 @@
+package Chess.analysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the analysis service: reading a flat object and
+ * quoting strings
+ * <p>
+ * Requests are a single object of strings, numbers, booleans and nulls, so
+ * there is no need for a library. Nested objects and arrays are refused.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Reads a flat JSON object
+     *
+     * @param text the JSON
+     * @return the members, numbers and booleans as their text; {@code null}
+     *         members are left out
+     * @throws IllegalArgumentException if it isn't a flat object
+     */
+    public static Map<String, String> parseObject(String text) {
+        Reader reader = new Reader(text);
+        Map<String, String> members = new LinkedHashMap<>();
+        reader.expect('{');
+        if (!reader.skip('}')) {
+            do {
+                String name = reader.string();
+                reader.expect(':');
+                String value = reader.value();
+                if (value != null) {
+                    members.put(name, value);
+                }
+            } while (reader.skip(','));
+            reader.expect('}');
+        }
+        reader.end();
+        return members;
+    }
+
+    /**
+     * @param text a string
+     * @return it as a JSON string, with quotes
+     */
+    public static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // walks through the text one token at a time
+    private static final class Reader {
+
+        private final String text;
+        private int at;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        void expect(char c) {
+            if (!skip(c)) {
+                throw error("'" + c + "' expected");
+            }
+        }
+
+        boolean skip(char c) {
+            blanks();
+            if (at < text.length() && text.charAt(at) == c) {
+                at++;
+                return true;
+            }
+            return false;
+        }
+
+        void end() {
+            blanks();
+            if (at < text.length()) {
+                throw error("nothing expected");
+            }
+        }
+
+        String value() {
+            blanks();
+            if (at >= text.length()) {
+                throw error("a value expected");
+            }
+            char c = text.charAt(at);
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw error("only strings, numbers and booleans are allowed");
+            }
+            int start = at;
+            while (at < text.length() && "-+.eE0123456789truefalsn".indexOf(text.charAt(at)) >= 0) {
+                at++;
+            }
+            String word = text.substring(start, at);
+            if (word.equals("null")) {
+                return null;
+            }
+            if (!word.equals("true") && !word.equals("false") && !word.matches("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?")) {
+                throw error("bad value '" + word + "'");
+            }
+            return word;
+        }
+
+        String string() {
+            blanks();
+            if (at >= text.length() || text.charAt(at) != '"') {
+                throw error("a string expected");
+            }
+            at++;
+            StringBuilder string = new StringBuilder();
+            while (at < text.length()) {
+                char c = text.charAt(at++);
+                if (c == '"') {
+                    return string.toString();
+                }
+                if (c != '\\') {
+                    string.append(c);
+                    continue;
+                }
+                if (at >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(at++);
+                switch (escaped) {
+                    case 'n':
+                        string.append('\n');
+                        break;
+                    case 't':
+                        string.append('\t');
+                        break;
+                    case 'r':
+                        string.append('\r');
+                        break;
+                    case 'b':
+                        string.append('\b');
+                        break;
+                    case 'f':
+                        string.append('\f');
+                        break;
+                    case 'u':
+                        if (at + 4 > text.length()) {
+                            throw error("bad \\u escape");
+                        }
+                        try {
+                            string.append((char) Integer.parseInt(text.substring(at, at + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("bad \\u escape");
+                        }
+                        at += 4;
+                        break;
+                    default:
+                        string.append(escaped); // \" \\ \/
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private void blanks() {
+            while (at < text.length() && Character.isWhitespace(text.charAt(at))) {
+                at++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Bad JSON at " + at + ": " + message);
+        }
+    }
+}
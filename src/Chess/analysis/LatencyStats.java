@@ -0,0 +1,69 @@
+package Chess.analysis;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The latencies of the last requests, for percentiles
+ * <p>
+ * A ring of the last few thousand samples; older ones drop out, so the
+ * percentiles follow the service as its load changes.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class LatencyStats {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long count;
+
+    /**
+     * @param window how many of the last samples to keep
+     */
+    public LatencyStats(int window) {
+        this.samples = new long[window];
+    }
+
+    /**
+     * @param nanos how long a request took
+     */
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+        count++;
+    }
+
+    /**
+     * @param percentiles the percentiles wanted, from 0 to 100
+     * @return them in milliseconds, or zeros before the first sample
+     */
+    public double[] percentiles(double... percentiles) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, size);
+        }
+        Arrays.sort(sorted);
+        double[] millis = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length && sorted.length > 0; i++) {
+            int rank = (int) Math.ceil(percentiles[i] / 100 * sorted.length) - 1;
+            millis[i] = sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1e6;
+        }
+        return millis;
+    }
+
+    /** @return the samples recorded since the start */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /** @return the median, 90th, 99th percentile and maximum as JSON members */
+    public String toJson() {
+        double[] p = percentiles(50, 90, 99, 100);
+        return String.format(Locale.ROOT, "\"p50\":%.2f,\"p90\":%.2f,\"p99\":%.2f,\"max\":%.2f", p[0], p[1], p[2],
+                p[3]);
+    }
+}
@@ -0,0 +1,522 @@
+package Chess.analysis;
+
+import Chess.engine.Fen;
+import Chess.engine.GameThreads;
+import Chess.engine.Move;
+import Chess.engine.RuleEngine;
+import Chess.uci.UciMoves;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Splits the root moves of a position over worker processes, for analysis
+ * that is too slow for one machine
+ * <p>
+ * {@link RootSplitWorker}s connect over TCP and each gets as many moves at a
+ * time as it has engine threads. A worker that finishes a move gets the next
+ * one, so a fast worker takes more of the list than a slow one. Once every
+ * move is handed out, an idle worker searches again the unfinished move the
+ * fewest others are on, and the first answer counts; a worker that goes away
+ * hands its moves back to the list. Workers search every move with a full
+ * window and score mates as mates, so the coordinator ranks the moves by
+ * their scores and keeps each one's PV.
+ * </p>
+ * <p>
+ * The protocol is a line per message:
+ * </p>
+ * <pre>
+ * worker:      hello NAME SLOTS
+ * coordinator: position ID FEN
+ * coordinator: search ID INDEX MOVE
+ * worker:      result ID INDEX SCORE NODES PV...     (SCORE is - if the move wasn't searched)
+ * coordinator: quit
+ * </pre>
+ * <p>
+ * Scores are in evaluator units for the side to move. Workers on the same
+ * machine can be started with {@link #spawnLocalWorkers(int, int)}; others
+ * connect with {@code RootSplitWorker --connect HOST:PORT}.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class RootSplitCoordinator implements Closeable {
+
+    // a move the worker couldn't search, ranked last
+    private static final int UNSCORED = Integer.MIN_VALUE;
+
+    private final ServerSocket server;
+    private final ThreadFactory threads = GameThreads.daemonThreads("root-split-");
+    private final List<WorkerLink> workers = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+
+    // the analysis in progress, all guarded by this
+    private int analysisId;
+    private String fen;
+    private List<String> moves = List.of();
+    private Line[] lines = new Line[0];
+    private int[] assigned = new int[0];
+    private final ArrayDeque<Integer> pending = new ArrayDeque<>();
+    private int remaining;
+    private int duplicates;
+    private boolean closed;
+
+    /**
+     * Starts taking workers
+     *
+     * @param server where workers connect
+     */
+    public RootSplitCoordinator(ServerSocket server) {
+        this.server = server;
+        threads.newThread(this::acceptWorkers).start();
+    }
+
+    /** @return the port workers connect to */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Starts worker processes on this machine, with the same Java and class
+     * path as this one
+     *
+     * @param count         how many
+     * @param engineThreads the engine threads of each
+     * @throws IOException if a process can't be started
+     */
+    public void spawnLocalWorkers(int count, int engineThreads) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int i = 0; i < count; i++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    RootSplitWorker.class.getName(), "--connect", "127.0.0.1:" + getPort(),
+                    "--threads", Integer.toString(engineThreads), "--name", "local-" + (i + 1));
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+            synchronized (processes) {
+                processes.add(builder.start());
+            }
+        }
+    }
+
+    /**
+     * Waits for workers to connect
+     *
+     * @param count         how many to wait for
+     * @param timeoutMillis how long to wait at most
+     * @return whether that many are connected
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean awaitWorkers(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (workers.size() < count && !closed) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) {
+                return false;
+            }
+            wait(left);
+        }
+        return workers.size() >= count;
+    }
+
+    /**
+     * Scores every move of a position on the workers
+     *
+     * @param position      the FEN, or "startpos"
+     * @param timeoutMillis how long to wait at most
+     * @return the moves, best first, or none if the side to move has no move
+     * @throws IllegalArgumentException if the position isn't a FEN
+     * @throws TimeoutException         if not all moves were scored in time
+     * @throws InterruptedException     if interrupted while waiting
+     */
+    public synchronized List<Line> analyse(String position, long timeoutMillis)
+            throws TimeoutException, InterruptedException {
+        String text = position.equals("startpos") ? Fen.START : position.trim();
+        Fen parsed = Fen.parse(text);
+        List<String> legal = new ArrayList<>();
+        for (Move move : new RuleEngine(parsed.getPosition().toBoard()).getLegalMoves(parsed.getSideToMove())) {
+            legal.add(UciMoves.toUci(move));
+        }
+        if (legal.isEmpty()) {
+            return List.of();
+        }
+
+        // the old analysis's searches are answered too, and those answers dropped by the ID
+        analysisId++;
+        fen = text;
+        moves = legal;
+        lines = new Line[legal.size()];
+        assigned = new int[legal.size()];
+        pending.clear();
+        for (int i = 0; i < legal.size(); i++) {
+            pending.add(i);
+        }
+        remaining = legal.size();
+        duplicates = 0;
+        for (WorkerLink worker : workers) {
+            worker.outstanding.clear();
+            worker.send("position " + analysisId + " " + fen);
+            assign(worker);
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (remaining > 0) {
+            long left = deadline - System.currentTimeMillis();
+            if (closed || left <= 0) {
+                int done = legal.size() - remaining;
+                remaining = 0;
+                throw new TimeoutException(done + " of " + legal.size() + " moves scored in time");
+            }
+            wait(left);
+        }
+
+        List<Line> ranked = new ArrayList<>(Arrays.asList(lines));
+        // equal scores keep the move order, as in a search on one machine
+        ranked.sort(Comparator.comparingInt(Line::getScore).reversed());
+        return ranked;
+    }
+
+    /** @return how many searches of the last analysis lost to another worker */
+    public synchronized int getDuplicates() {
+        return duplicates;
+    }
+
+    /** @return a line per connected worker with what it has done */
+    public synchronized List<String> describeWorkers() {
+        List<String> described = new ArrayList<>();
+        for (WorkerLink worker : workers) {
+            described.add(String.format(Locale.ROOT, "%s: %d slots, %d moves searched, %d nodes", worker.name,
+                    worker.slots, worker.searched, worker.nodes));
+        }
+        return described;
+    }
+
+    // fills the worker's free slots, with moves nobody has first and then with the least covered unfinished ones
+    private void assign(WorkerLink worker) {
+        while (remaining > 0 && worker.outstanding.size() < worker.slots) {
+            Integer index = pending.poll();
+            if (index == null) {
+                index = leastCovered(worker);
+            }
+            if (index == null) {
+                return;
+            }
+            worker.outstanding.add(index);
+            assigned[index]++;
+            worker.send("search " + analysisId + " " + index + " " + moves.get(index));
+        }
+    }
+
+    private Integer leastCovered(WorkerLink worker) {
+        Integer best = null;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i] == null && !worker.outstanding.contains(i) && (best == null || assigned[i] < assigned[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private synchronized void hello(WorkerLink worker, String name, int slots) {
+        worker.name = name;
+        worker.slots = Math.max(1, slots);
+        workers.add(worker);
+        if (remaining > 0) {
+            // joins the analysis in progress
+            worker.send("position " + analysisId + " " + fen);
+            assign(worker);
+        }
+        notifyAll();
+    }
+
+    private synchronized void result(WorkerLink worker, String[] words) {
+        int id = Integer.parseInt(words[1]);
+        int index = Integer.parseInt(words[2]);
+        if (id != analysisId || !worker.outstanding.remove(index)) {
+            return;
+        }
+        assigned[index]--;
+        worker.searched++;
+        worker.nodes += Long.parseLong(words[4]);
+        if (lines[index] != null) {
+            duplicates++;
+        } else if (remaining > 0) {
+            int score = words[3].equals("-") ? UNSCORED : Integer.parseInt(words[3]);
+            List<String> pv = words.length > 5 ? List.of(Arrays.copyOfRange(words, 5, words.length))
+                    : List.of(moves.get(index));
+            lines[index] = new Line(moves.get(index), score, pv, worker.name);
+            if (--remaining == 0) {
+                notifyAll();
+            }
+        }
+        assign(worker);
+    }
+
+    private synchronized void disconnected(WorkerLink worker) {
+        if (!workers.remove(worker)) {
+            return;
+        }
+        // its unfinished moves go back to the front of the list if nobody else has them
+        for (int index : worker.outstanding) {
+            assigned[index]--;
+            if (lines[index] == null && assigned[index] == 0) {
+                pending.addFirst(index);
+            }
+        }
+        worker.outstanding.clear();
+        for (WorkerLink other : workers) {
+            assign(other);
+        }
+        notifyAll();
+    }
+
+    private void acceptWorkers() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                WorkerLink worker = new WorkerLink(socket);
+                threads.newThread(() -> read(worker)).start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("Could not take a worker: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void read(WorkerLink worker) {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(worker.socket.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split(" +");
+                if (words[0].equals("hello") && words.length == 3) {
+                    hello(worker, words[1], Integer.parseInt(words[2]));
+                } else if (words[0].equals("result") && words.length >= 5) {
+                    result(worker, words);
+                } else {
+                    System.err.println("Unknown line from worker " + worker.name + ": " + line);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Lost worker " + worker.name + ": " + e.getMessage());
+        } finally {
+            disconnected(worker);
+            try {
+                worker.socket.close();
+            } catch (IOException e) {
+                // already gone
+            }
+        }
+    }
+
+    /**
+     * Tells the workers to quit, stops taking new ones and waits a moment
+     * for the spawned processes to end
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            for (WorkerLink worker : workers) {
+                worker.send("quit");
+            }
+            notifyAll();
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+        synchronized (processes) {
+            for (Process process : processes) {
+                try {
+                    if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                        process.destroy();
+                    }
+                } catch (InterruptedException e) {
+                    process.destroy();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // one connected worker; everything but the socket is guarded by the coordinator
+    private static final class WorkerLink {
+
+        private final Socket socket;
+        private final PrintWriter out;
+        private final Set<Integer> outstanding = new LinkedHashSet<>();
+        private String name;
+        private int slots;
+        private int searched;
+        private long nodes;
+
+        WorkerLink(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), true);
+            this.name = socket.getRemoteSocketAddress().toString();
+        }
+
+        void send(String line) {
+            out.println(line);
+        }
+    }
+
+    /**
+     * A root move with its score and PV
+     */
+    public static final class Line {
+
+        private final String move;
+        private final int score;
+        private final List<String> pv;
+        private final String worker;
+
+        Line(String move, int score, List<String> pv, String worker) {
+            this.move = move;
+            this.score = score;
+            this.pv = pv;
+            this.worker = worker;
+        }
+
+        /** @return the move in UCI notation */
+        public String getMove() {
+            return move;
+        }
+
+        /**
+         * @return its score for the side to move in evaluator units, or
+         *         {@link Integer#MIN_VALUE} if it couldn't be searched
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /** @return the move and the expected reply */
+        public List<String> getPv() {
+            return pv;
+        }
+
+        /** @return the name of the worker that scored it */
+        public String getWorker() {
+            return worker;
+        }
+
+        /** @return the score as {@code cp N} or {@code mate N}, or {@code -} */
+        public String getScoreText() {
+            if (score == UNSCORED) {
+                return "-";
+            }
+            return (Analysis.isMate(score) ? "mate " : "cp ") + Analysis.shown(score);
+        }
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args {@code [--fen FEN] [--port 0] [--bind 127.0.0.1]
+     *             [--spawn 2] [--worker-threads 1] [--workers N]
+     *             [--timeout 600000]}; with {@code --spawn 0} it waits for
+     *             workers started by hand
+     * @throws IOException if the port can't be opened or a worker not started
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String fen = "startpos";
+        int port = 0;
+        String bind = "127.0.0.1";
+        int spawn = 2;
+        int workerThreads = 1;
+        int wanted = -1;
+        long timeout = 600000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--fen":
+                    fen = args[i + 1];
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--bind":
+                    bind = args[i + 1];
+                    break;
+                case "--spawn":
+                    spawn = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--worker-threads":
+                    workerThreads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--workers":
+                    wanted = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--timeout":
+                    timeout = Long.parseLong(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (wanted < 0) {
+            wanted = Math.max(1, spawn);
+        }
+
+        try (RootSplitCoordinator coordinator = new RootSplitCoordinator(
+                new ServerSocket(port, 50, InetAddress.getByName(bind)))) {
+            System.out.println("Waiting for " + wanted + " workers on " + bind + ":" + coordinator.getPort());
+            coordinator.spawnLocalWorkers(spawn, workerThreads);
+            if (!coordinator.awaitWorkers(wanted, 60000)) {
+                System.err.println("Not enough workers connected, starting anyway");
+            }
+
+            long start = System.currentTimeMillis();
+            List<Line> lines;
+            try {
+                lines = coordinator.analyse(fen, timeout);
+            } catch (TimeoutException e) {
+                System.err.println("Gave up: " + e.getMessage());
+                System.exit(2);
+                return;
+            }
+            long time = System.currentTimeMillis() - start;
+
+            if (lines.isEmpty()) {
+                System.out.println("The side to move has no moves");
+                return;
+            }
+            for (int i = 0; i < lines.size(); i++) {
+                Line line = lines.get(i);
+                System.out.println(String.format(Locale.ROOT, "%3d. %-6s %-9s %-14s %s", i + 1, line.getMove(),
+                        line.getScoreText(), String.join(" ", line.getPv()), line.getWorker()));
+            }
+            System.out.println("Best move " + lines.get(0).getMove() + ", " + lines.size() + " moves in " + time
+                    + " ms, " + coordinator.getDuplicates() + " duplicate searches");
+            for (String worker : coordinator.describeWorkers()) {
+                System.out.println("  " + worker);
+            }
+        }
+    }
+}
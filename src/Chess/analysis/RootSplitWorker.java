@@ -0,0 +1,242 @@
+package Chess.analysis;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Fen;
+import Chess.engine.GameThreads;
+import Chess.engine.Move;
+import Chess.engine.Position;
+import Chess.engine.RuleEngine;
+import Chess.engine.SearchListener;
+import Chess.search.MateSolver;
+import Chess.uci.UciMoves;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A worker process for a {@link RootSplitCoordinator}
+ * <p>
+ * It connects to the coordinator, says how many moves it can search at
+ * once, and then scores the root moves it is sent. A move that mates, draws
+ * or leads to a tablebase position, or that starts the mate the mate search
+ * finds in the position, is scored as {@link Analysis} would, as a mate or a
+ * draw. Any other move is searched with a full window, so the coordinator
+ * can compare scores from different workers. The look-ahead is the level 10
+ * one, and the score is that search's estimate. The protocol is in
+ * {@link RootSplitCoordinator}.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class RootSplitWorker {
+
+    // no score yet; a legal move always gets one
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private final Socket socket;
+    private final PrintWriter out;
+    private final ExecutorService engines;
+    // per engine thread, the AIs of both colours
+    private final ThreadLocal<Searcher> searchers = ThreadLocal.withInitial(Searcher::new);
+    private volatile Root root;
+
+    /**
+     * @param socket  the connection to the coordinator
+     * @param threads the moves to search at once
+     * @throws IOException if the connection can't be written to
+     */
+    public RootSplitWorker(Socket socket, int threads) throws IOException {
+        this.socket = socket;
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        this.out = new PrintWriter(writer, true);
+        this.engines = Executors.newFixedThreadPool(threads, GameThreads.daemonThreads("root-split-engine-"));
+    }
+
+    /**
+     * Introduces itself and answers the coordinator until it says quit or
+     * goes away
+     *
+     * @param name  the name to show in the coordinator's statistics
+     * @param slots the moves it searches at once
+     * @throws IOException if the connection fails
+     */
+    public void serve(String name, int slots) throws IOException {
+        send("hello " + name + " " + slots);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split(" ", 4);
+                if (words[0].equals("quit")) {
+                    break;
+                } else if (words[0].equals("position") && words.length >= 3) {
+                    // position ID FEN, with the FEN's own spaces
+                    String fen = line.trim().split(" ", 3)[2];
+                    root = new Root(Integer.parseInt(words[1]), Fen.parse(fen.equals("startpos") ? Fen.START : fen));
+                } else if (words[0].equals("search") && words.length == 4) {
+                    int id = Integer.parseInt(words[1]);
+                    int index = Integer.parseInt(words[2]);
+                    String uci = words[3];
+                    engines.execute(() -> search(id, index, uci));
+                } else {
+                    System.err.println("Unknown command from the coordinator: " + line);
+                }
+            }
+        } finally {
+            engines.shutdownNow();
+            socket.close();
+        }
+    }
+
+    private void search(int id, int index, String uci) {
+        Root current = root;
+        if (current == null || id != current.id) {
+            // the coordinator has moved on to another position
+            send("result " + id + " " + index + " - 0");
+            return;
+        }
+        Position start = current.fen.getPosition();
+        String side = current.fen.getSideToMove();
+        Move move = UciMoves.find(current.legal, uci);
+        if (move == null) {
+            send("result " + id + " " + index + " - 0");
+            return;
+        }
+
+        Searcher searcher = searchers.get();
+        AIPlayer ai = side.equals("White") ? searcher.whiteAI : searcher.blackAI;
+        Position after = Analysis.play(start, move, uci);
+        MateSolver.Mate mate = current.mate();
+        long nodes = 0;
+        int score;
+        if (mate != null && Analysis.uci(mate.getMove()).equals(uci)) {
+            score = AIPlayer.mateScore(mate.getMoves());
+        } else {
+            score = Analysis.knownScore(after, side);
+        }
+        if (score == Analysis.NO_SCORE) {
+            nodes = ai.getNodes();
+            searcher.score = NO_SCORE;
+            // the only move on the list, so it is searched with the full window
+            ai.HardestAIMove(start.toBoard(), List.of(move));
+            nodes = ai.getNodes() - nodes;
+            score = searcher.score;
+        }
+        if (score == NO_SCORE) {
+            send("result " + id + " " + index + " - " + nodes);
+            return;
+        }
+
+        String pv = uci;
+        String reply = Analysis.bestReply(after, Analysis.opponent(side), ai.getEvaluator());
+        if (reply != null) {
+            pv += " " + reply;
+        }
+        send("result " + id + " " + index + " " + score + " " + nodes + " " + pv);
+    }
+
+    private void send(String line) {
+        // the engine threads answer at once
+        synchronized (out) {
+            out.println(line);
+        }
+    }
+
+    // the position of one analysis, and the mate search's mate in it, found once by the first move to ask
+    private static final class Root {
+
+        private final int id;
+        private final Fen fen;
+        private final List<Move> legal;
+        private boolean solved;
+        private MateSolver.Mate mate;
+
+        Root(int id, Fen fen) {
+            this.id = id;
+            this.fen = fen;
+            this.legal = new RuleEngine(fen.getPosition().toBoard()).getLegalMoves(fen.getSideToMove());
+        }
+
+        synchronized MateSolver.Mate mate() {
+            if (!solved) {
+                solved = true;
+                mate = Analysis.findMate(fen.getPosition().toBoard(), fen.getSideToMove(), legal);
+            }
+            return mate;
+        }
+    }
+
+    // the AIs of one engine thread, and the score of the move it searches
+    private final class Searcher implements SearchListener {
+
+        private final AIPlayer whiteAI = new AIPlayer("Root split White", "White", 10);
+        private final AIPlayer blackAI = new AIPlayer("Root split Black", "Black", 10);
+        private int score;
+
+        Searcher() {
+            whiteAI.setSearchListener(this);
+            blackAI.setSearchListener(this);
+        }
+
+        @Override
+        public void rootMoveSearched(Move move, int score, int searched, int total) {
+            this.score = score;
+        }
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args {@code --connect HOST:PORT [--threads N] [--name NAME]}
+     * @throws IOException if the coordinator can't be reached
+     */
+    public static void main(String[] args) throws IOException {
+        String connect = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String name = "worker-" + ProcessHandle.current().pid();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--connect":
+                    connect = args[i + 1];
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--name":
+                    name = args[i + 1];
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (connect == null || connect.lastIndexOf(':') < 0) {
+            System.err.println("Give the coordinator with --connect HOST:PORT");
+            System.exit(1);
+        }
+
+        // the engine announces the book and tablebases it loads, which nobody reads here
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        int colon = connect.lastIndexOf(':');
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(connect.substring(0, colon),
+                Integer.parseInt(connect.substring(colon + 1))), 10000);
+        socket.setTcpNoDelay(true);
+        new RootSplitWorker(socket, threads).serve(name, threads);
+    }
+}
@@ -0,0 +1,307 @@
+package Chess.backend;
+
+import Chess.engine.Board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays random games on several {@link BoardBackend}s in lockstep and checks
+ * that they agree
+ * <p>
+ * After every move, and again after every move taken back on the way back
+ * to the start, each backend has to produce the same legal moves, the same
+ * check status, the same side to move and the same Zobrist key as the first
+ * one. The first difference stops the run and is printed with the moves that
+ * led to it. The time each backend spent is reported, so the same run is also
+ * a benchmark. {@code --perft N} counts the positions N moves deep from the
+ * start on each backend instead.
+ * </p>
+ * <p>
+ * The {@code square} backend is the game's own board and is slow, so runs of
+ * millions of moves are easiest between the fast ones, e.g.
+ * {@code --backends 0x88,bitboard --games 20000}.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class BackendCrossCheck {
+
+    private final BoardBackend[] backends;
+    private final Random random;
+    private final long[] nanos;
+    private final int[][] moveLists;
+    private final int[] moveCounts;
+    private long positions = 0;
+    private long movesPlayed = 0;
+    private String failure;
+
+    /**
+     * Creates a check
+     *
+     * @param backends the backends; the first one is the reference
+     * @param seed     the seed of the random move choice, so a failing run can
+     *                 be repeated
+     */
+    public BackendCrossCheck(BoardBackend[] backends, long seed) {
+        this.backends = backends;
+        this.random = new Random(seed);
+        this.nanos = new long[backends.length];
+        this.moveLists = new int[backends.length][BoardBackend.MAX_MOVES];
+        this.moveCounts = new int[backends.length];
+    }
+
+    /**
+     * Creates a backend by name
+     *
+     * @param name "square", "0x88" or "bitboard"
+     * @return the backend
+     * @throws IllegalArgumentException for any other name
+     */
+    public static BoardBackend create(String name) {
+        switch (name) {
+            case "square":
+                return new SquareBoardBackend();
+            case "0x88":
+                return new X88Backend();
+            case "bitboard":
+                return new BitboardBackend();
+            default:
+                throw new IllegalArgumentException("Unknown backend: " + name);
+        }
+    }
+
+    /**
+     * Plays one random game from the starting position and takes it back
+     * again, comparing the backends at every step
+     *
+     * @param maxPlies the longest game to play
+     * @return {@code true} if the backends agreed all the way
+     */
+    public boolean playGame(int maxPlies) {
+        Board start = new Board(null);
+        for (int b = 0; b < backends.length; b++) {
+            long time = System.nanoTime();
+            backends[b].load(start, "White");
+            nanos[b] += System.nanoTime() - time;
+        }
+
+        List<Integer> line = new ArrayList<>();
+        while (compare(line) && line.size() < maxPlies && moveCounts[0] > 0) {
+            int move = moveLists[0][random.nextInt(moveCounts[0])];
+            for (int b = 0; b < backends.length; b++) {
+                long time = System.nanoTime();
+                backends[b].makeMove(move);
+                nanos[b] += System.nanoTime() - time;
+            }
+            line.add(move);
+            movesPlayed++;
+        }
+        if (failure != null) {
+            return false;
+        }
+
+        // take it all back: undo has bugs of its own
+        while (!line.isEmpty()) {
+            line.remove(line.size() - 1);
+            for (int b = 0; b < backends.length; b++) {
+                long time = System.nanoTime();
+                backends[b].unmakeMove();
+                nanos[b] += System.nanoTime() - time;
+            }
+            if (!compare(line)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // asks every backend about the position and compares the answers with the first one
+    private boolean compare(List<Integer> line) {
+        positions++;
+        boolean[] check = new boolean[backends.length];
+        boolean[] white = new boolean[backends.length];
+        long[] keys = new long[backends.length];
+        for (int b = 0; b < backends.length; b++) {
+            BoardBackend backend = backends[b];
+            long time = System.nanoTime();
+            moveCounts[b] = backend.generateLegalMoves(moveLists[b]);
+            check[b] = backend.isInCheck();
+            white[b] = backend.isWhiteToMove();
+            keys[b] = backend.getKey();
+            nanos[b] += System.nanoTime() - time;
+            Arrays.sort(moveLists[b], 0, moveCounts[b]);
+        }
+
+        for (int b = 1; b < backends.length; b++) {
+            String problem = null;
+            if (!Arrays.equals(moveLists[0], 0, moveCounts[0], moveLists[b], 0, moveCounts[b])) {
+                problem = "legal moves differ";
+            } else if (check[b] != check[0]) {
+                problem = "check status differs";
+            } else if (white[b] != white[0]) {
+                problem = "side to move differs";
+            } else if (keys[b] != keys[0]) {
+                problem = "keys differ";
+            }
+            if (problem != null) {
+                failure = describe(problem, line, check, keys);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String describe(String problem, List<Integer> line, boolean[] check, long[] keys) {
+        StringBuilder text = new StringBuilder(problem).append(" after");
+        for (int move : line) {
+            text.append(' ').append(BoardBackend.toString(move));
+        }
+        text.append('\n');
+        for (int b = 0; b < backends.length; b++) {
+            text.append(String.format("%-9s check=%-5b key=%016x moves:", backends[b].getName(), check[b], keys[b]));
+            for (int i = 0; i < moveCounts[b]; i++) {
+                text.append(' ').append(BoardBackend.toString(moveLists[b][i]));
+            }
+            text.append('\n');
+        }
+        for (int b = 0; b < backends.length; b++) {
+            text.append(backends[b].getName()).append(":\n").append(diagram(backends[b]));
+        }
+        return text.toString();
+    }
+
+    // the board as letters, White in capitals, rank 8 on top
+    private static String diagram(BoardBackend backend) {
+        StringBuilder text = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            for (int col = 0; col < 8; col++) {
+                int code = backend.pieceAt(row * 8 + col);
+                char letter = ".pnbrqk".charAt(code & 7);
+                text.append(code < 8 ? Character.toUpperCase(letter) : letter);
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Counts the leaf positions of the legal move tree. Apart from one move
+     * buffer per ply, made up front, this allocates nothing on the fast
+     * backends.
+     *
+     * @param backend the backend, back in the same position when this returns
+     * @param depth   the depth in plies
+     * @return the number of leaves
+     */
+    public static long perft(BoardBackend backend, int depth) {
+        return depth == 0 ? 1 : perft(backend, new int[depth][BoardBackend.MAX_MOVES], depth);
+    }
+
+    /**
+     * {@link #perft(BoardBackend, int)} with the move buffers passed in, so
+     * the count itself allocates nothing at all
+     *
+     * @param backend the backend, back in the same position when this returns
+     * @param buffers one buffer of {@link BoardBackend#MAX_MOVES} per ply,
+     *                at least {@code depth} of them
+     * @param depth   the depth in plies, at least 1
+     * @return the number of leaves
+     */
+    public static long perft(BoardBackend backend, int[][] buffers, int depth) {
+        int[] moves = buffers[depth - 1];
+        int count = backend.generateLegalMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            backend.makeMove(moves[i]);
+            nodes += perft(backend, buffers, depth - 1);
+            backend.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /** @return what went wrong, or {@code null} if the backends agreed so far */
+    public String getFailure() {
+        return failure;
+    }
+
+    /** @return the timing of every backend and the totals so far */
+    public String getReport() {
+        StringBuilder text = new StringBuilder();
+        text.append(movesPlayed).append(" moves played, ").append(positions).append(" positions compared\n");
+        for (int b = 0; b < backends.length; b++) {
+            text.append(String.format("%-9s %8d ms  %6.2f us/position%n", backends[b].getName(), nanos[b] / 1_000_000,
+                    nanos[b] / 1000.0 / Math.max(1, positions)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args {@code [--games N] [--plies N] [--seed N] [--backends a,b,...] [--perft N]}
+     */
+    public static void main(String[] args) {
+        int games = 100;
+        int plies = 300;
+        long seed = System.nanoTime();
+        int perftDepth = 0;
+        String names = "square,0x88,bitboard";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--plies":
+                    plies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "--backends":
+                    names = args[i + 1];
+                    break;
+                case "--perft":
+                    perftDepth = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        String[] split = names.split(",");
+        BoardBackend[] backends = new BoardBackend[split.length];
+        for (int i = 0; i < split.length; i++) {
+            backends[i] = create(split[i].trim());
+        }
+
+        if (perftDepth > 0) {
+            for (BoardBackend backend : backends) {
+                backend.load(new Board(null), "White");
+                long time = System.currentTimeMillis();
+                long nodes = perft(backend, perftDepth);
+                System.out.println(String.format("%-9s perft(%d) = %d in %d ms", backend.getName(), perftDepth, nodes,
+                        System.currentTimeMillis() - time));
+            }
+            return;
+        }
+
+        System.out.println("Cross-checking " + names + " with seed " + seed);
+        BackendCrossCheck check = new BackendCrossCheck(backends, seed);
+        for (int game = 1; game <= games; game++) {
+            if (!check.playGame(plies)) {
+                System.out.println("Game " + game + ": " + check.getFailure());
+                System.out.print(check.getReport());
+                System.exit(1);
+            }
+        }
+        System.out.print(check.getReport());
+    }
+}
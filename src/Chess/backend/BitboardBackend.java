@@ -0,0 +1,411 @@
+package Chess.backend;
+
+import Chess.engine.Board;
+import Chess.engine.King;
+import Chess.engine.Move;
+import Chess.engine.Piece;
+import Chess.engine.PieceType;
+import Chess.engine.Rook;
+import Chess.engine.Zobrist;
+
+import java.util.Arrays;
+
+/**
+ * {@link BoardBackend} with one 64-bit mask per piece type and color
+ * <p>
+ * Bit {@code row * 8 + col} of a mask is set where such a piece stands.
+ * Knight, king and pawn attacks come from tables, and sliding attacks
+ * follow precomputed rays up to the first piece in the way, which
+ * {@link Long#numberOfTrailingZeros(long)} finds without a loop. A mailbox
+ * of piece codes is kept beside the masks for "what is on this square".
+ * The Zobrist key is updated as pieces are put down and picked up.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class BitboardBackend implements BoardBackend {
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+
+    private static final int PAWN = 1;
+    private static final int KNIGHT = 2;
+    private static final int BISHOP = 3;
+    private static final int ROOK = 4;
+    private static final int QUEEN = 5;
+    private static final int KING = 6;
+
+    private static final int WHITE_SHORT = 1;
+    private static final int WHITE_LONG = 2;
+    private static final int BLACK_SHORT = 4;
+    private static final int BLACK_LONG = 8;
+
+    // the first four directions go up the square numbers, the rest go down
+    private static final int[][] DIRECTIONS = { { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 }, { -1, 0 }, { 0, -1 },
+            { -1, -1 }, { -1, 1 } };
+    private static final int NORTH = 0;
+    private static final int EAST = 1;
+    private static final int NORTH_EAST = 2;
+    private static final int NORTH_WEST = 3;
+    private static final int SOUTH = 4;
+    private static final int WEST = 5;
+    private static final int SOUTH_WEST = 6;
+    private static final int SOUTH_EAST = 7;
+
+    private static final long[][] RAYS = new long[8][64];
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // castling rights that survive a move touching the square
+    private static final int[] CASTLE_MASK = new int[64];
+
+    static {
+        int[][] knightSteps = { { 2, 1 }, { 2, -1 }, { -2, 1 }, { -2, -1 }, { 1, 2 }, { 1, -2 }, { -1, 2 },
+                { -1, -2 } };
+        for (int sq = 0; sq < 64; sq++) {
+            int row = sq / 8;
+            int col = sq % 8;
+            for (int d = 0; d < 8; d++) {
+                int r = row + DIRECTIONS[d][0];
+                int c = col + DIRECTIONS[d][1];
+                KING_ATTACKS[sq] |= bit(r, c);
+                while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    RAYS[d][sq] |= 1L << (r * 8 + c);
+                    r += DIRECTIONS[d][0];
+                    c += DIRECTIONS[d][1];
+                }
+                KNIGHT_ATTACKS[sq] |= bit(row + knightSteps[d][0], col + knightSteps[d][1]);
+            }
+            PAWN_ATTACKS[WHITE][sq] = bit(row + 1, col - 1) | bit(row + 1, col + 1);
+            PAWN_ATTACKS[BLACK][sq] = bit(row - 1, col - 1) | bit(row - 1, col + 1);
+            CASTLE_MASK[sq] = 15;
+        }
+        CASTLE_MASK[4] = 15 & ~(WHITE_SHORT | WHITE_LONG);
+        CASTLE_MASK[0] = 15 & ~WHITE_LONG;
+        CASTLE_MASK[7] = 15 & ~WHITE_SHORT;
+        CASTLE_MASK[60] = 15 & ~(BLACK_SHORT | BLACK_LONG);
+        CASTLE_MASK[56] = 15 & ~BLACK_LONG;
+        CASTLE_MASK[63] = 15 & ~BLACK_SHORT;
+    }
+
+    private final long[] pieces = new long[16]; // indexed by piece code
+    private final long[] occupancy = new long[2];
+    private final byte[] squares = new byte[64];
+    private int side;
+    private int castling;
+    private int epSquare = -1;
+    private long key;
+
+    private int[] undoMove = new int[256];
+    private byte[] undoCaptured = new byte[256];
+    private int[] undoCastling = new int[256];
+    private int[] undoEp = new int[256];
+    private int ply;
+
+    private final int[] pseudo = new int[MAX_MOVES];
+
+    // the bit of a square, 0 if it is off the board
+    private static long bit(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8 ? 1L << (row * 8 + col) : 0;
+    }
+
+    @Override
+    public String getName() {
+        return "bitboard";
+    }
+
+    @Override
+    public void load(Board board, String sideToMove) {
+        Arrays.fill(pieces, 0);
+        Arrays.fill(occupancy, 0);
+        Arrays.fill(squares, (byte) 0);
+        key = 0;
+        ply = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int code = board.getPieceCode(sq / 8, sq % 8);
+            if (code != 0) {
+                put(sq, code);
+            }
+        }
+        side = sideToMove.equals("White") ? WHITE : BLACK;
+
+        castling = 0;
+        if (unmoved(board, 0, 4, King.class)) {
+            castling |= unmoved(board, 0, 7, Rook.class) ? WHITE_SHORT : 0;
+            castling |= unmoved(board, 0, 0, Rook.class) ? WHITE_LONG : 0;
+        }
+        if (unmoved(board, 7, 4, King.class)) {
+            castling |= unmoved(board, 7, 7, Rook.class) ? BLACK_SHORT : 0;
+            castling |= unmoved(board, 7, 0, Rook.class) ? BLACK_LONG : 0;
+        }
+
+        epSquare = -1;
+        Move last = board.getLastMove();
+        if (last != null && last.getMovedPiece().getType() == PieceType.PAWN
+                && Math.abs(last.getFrom().getRow() - last.getTo().getRow()) == 2) {
+            int row = (last.getFrom().getRow() + last.getTo().getRow()) / 2;
+            epSquare = row * 8 + last.getTo().getCol();
+        }
+    }
+
+    private static boolean unmoved(Board board, int row, int col, Class<? extends Piece> type) {
+        Piece piece = board.getPieceAt(row, col);
+        return type.isInstance(piece) && !piece.hasMoved() && piece.isWhite() == (row == 0);
+    }
+
+    private void put(int sq, int code) {
+        squares[sq] = (byte) code;
+        pieces[code] |= 1L << sq;
+        occupancy[code >> 3] |= 1L << sq;
+        key ^= Zobrist.pieceKey(code, sq);
+    }
+
+    private int remove(int sq) {
+        int code = squares[sq];
+        squares[sq] = 0;
+        pieces[code] &= ~(1L << sq);
+        occupancy[code >> 3] &= ~(1L << sq);
+        key ^= Zobrist.pieceKey(code, sq);
+        return code;
+    }
+
+    // the squares a slider sees along one ray, up to and including the first piece
+    private static long ray(int direction, int sq, long occupied) {
+        long ray = RAYS[direction][sq];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            int first = direction < SOUTH ? Long.numberOfTrailingZeros(blockers)
+                    : 63 - Long.numberOfLeadingZeros(blockers);
+            ray ^= RAYS[direction][first];
+        }
+        return ray;
+    }
+
+    private static long rookAttacks(int sq, long occupied) {
+        return ray(NORTH, sq, occupied) | ray(EAST, sq, occupied) | ray(SOUTH, sq, occupied)
+                | ray(WEST, sq, occupied);
+    }
+
+    private static long bishopAttacks(int sq, long occupied) {
+        return ray(NORTH_EAST, sq, occupied) | ray(NORTH_WEST, sq, occupied) | ray(SOUTH_EAST, sq, occupied)
+                | ray(SOUTH_WEST, sq, occupied);
+    }
+
+    private boolean isAttacked(int sq, int by) {
+        int flag = by == WHITE ? 0 : PieceType.BLACK_FLAG;
+        // pawns attack diagonally forwards, so look backwards from the square
+        if ((PAWN_ATTACKS[by ^ 1][sq] & pieces[PAWN | flag]) != 0 || (KNIGHT_ATTACKS[sq] & pieces[KNIGHT | flag]) != 0
+                || (KING_ATTACKS[sq] & pieces[KING | flag]) != 0) {
+            return true;
+        }
+        long occupied = occupancy[WHITE] | occupancy[BLACK];
+        long queens = pieces[QUEEN | flag];
+        return (bishopAttacks(sq, occupied) & (pieces[BISHOP | flag] | queens)) != 0
+                || (rookAttacks(sq, occupied) & (pieces[ROOK | flag] | queens)) != 0;
+    }
+
+    private boolean inCheck(int who) {
+        long king = pieces[KING | (who == WHITE ? 0 : PieceType.BLACK_FLAG)];
+        return king != 0 && isAttacked(Long.numberOfTrailingZeros(king), who ^ 1);
+    }
+
+    // moves that may leave the own king in check
+    private int generatePseudoMoves(int[] moves) {
+        int own = side == WHITE ? 0 : PieceType.BLACK_FLAG;
+        long mine = occupancy[side];
+        long occupied = mine | occupancy[side ^ 1];
+        int n = pawnMoves(pieces[PAWN | own], occupied, moves, 0);
+        for (long knights = pieces[KNIGHT | own]; knights != 0; knights &= knights - 1) {
+            int from = Long.numberOfTrailingZeros(knights);
+            n = addMoves(from, KNIGHT_ATTACKS[from] & ~mine, moves, n);
+        }
+        for (long sliders = pieces[BISHOP | own] | pieces[QUEEN | own]; sliders != 0; sliders &= sliders - 1) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            n = addMoves(from, bishopAttacks(from, occupied) & ~mine, moves, n);
+        }
+        for (long sliders = pieces[ROOK | own] | pieces[QUEEN | own]; sliders != 0; sliders &= sliders - 1) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            n = addMoves(from, rookAttacks(from, occupied) & ~mine, moves, n);
+        }
+        long king = pieces[KING | own];
+        if (king != 0) {
+            int from = Long.numberOfTrailingZeros(king);
+            n = addMoves(from, KING_ATTACKS[from] & ~mine, moves, n);
+            n = castlingMoves(from, moves, n);
+        }
+        return n;
+    }
+
+    private static int addMoves(int from, long targets, int[] moves, int n) {
+        for (; targets != 0; targets &= targets - 1) {
+            moves[n++] = BoardBackend.move(from, Long.numberOfTrailingZeros(targets), 0);
+        }
+        return n;
+    }
+
+    private int pawnMoves(long pawns, long occupied, int[] moves, int n) {
+        int forward = side == WHITE ? 8 : -8;
+        int startRow = side == WHITE ? 1 : 6;
+        long enemies = occupancy[side ^ 1];
+        long epBit = epSquare >= 0 ? 1L << epSquare : 0;
+        for (; pawns != 0; pawns &= pawns - 1) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            int to = from + forward; // a pawn on the last row has promoted, so this is on the board
+            if ((occupied & 1L << to) == 0) {
+                n = addPawnMove(from, to, moves, n);
+                if (from / 8 == startRow && (occupied & 1L << (to + forward)) == 0) {
+                    moves[n++] = BoardBackend.move(from, to + forward, 0);
+                }
+            }
+            long captures = PAWN_ATTACKS[side][from] & (enemies | epBit);
+            for (; captures != 0; captures &= captures - 1) {
+                n = addPawnMove(from, Long.numberOfTrailingZeros(captures), moves, n);
+            }
+        }
+        return n;
+    }
+
+    private static int addPawnMove(int from, int to, int[] moves, int n) {
+        if (to >= 8 && to < 56) {
+            moves[n++] = BoardBackend.move(from, to, 0);
+            return n;
+        }
+        for (int type = QUEEN; type >= KNIGHT; type--) {
+            moves[n++] = BoardBackend.move(from, to, type);
+        }
+        return n;
+    }
+
+    private int castlingMoves(int from, int[] moves, int n) {
+        int home = side == WHITE ? 4 : 60;
+        if (from != home || castling == 0) {
+            return n;
+        }
+        int shortRight = side == WHITE ? WHITE_SHORT : BLACK_SHORT;
+        int longRight = side == WHITE ? WHITE_LONG : BLACK_LONG;
+        int enemy = side ^ 1;
+        if ((castling & shortRight) != 0 && squares[home + 1] == 0 && squares[home + 2] == 0
+                && !isAttacked(home, enemy) && !isAttacked(home + 1, enemy)) {
+            moves[n++] = BoardBackend.move(home, home + 2, 0);
+        }
+        if ((castling & longRight) != 0 && squares[home - 1] == 0 && squares[home - 2] == 0
+                && squares[home - 3] == 0 && !isAttacked(home, enemy) && !isAttacked(home - 1, enemy)) {
+            moves[n++] = BoardBackend.move(home, home - 2, 0);
+        }
+        return n;
+    }
+
+    @Override
+    public int generateLegalMoves(int[] moves) {
+        int count = generatePseudoMoves(pseudo);
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            play(pseudo[i]);
+            if (!inCheck(side ^ 1)) {
+                moves[n++] = pseudo[i];
+            }
+            unmakeMove();
+        }
+        return n;
+    }
+
+    @Override
+    public void makeMove(int move) {
+        int piece = squares[BoardBackend.from(move)];
+        if (piece == 0 || piece >> 3 != side) {
+            throw new IllegalArgumentException("Illegal move " + BoardBackend.toString(move));
+        }
+        play(move);
+        if (inCheck(side ^ 1)) {
+            unmakeMove();
+            throw new IllegalArgumentException("Illegal move " + BoardBackend.toString(move));
+        }
+    }
+
+    private static boolean isEnPassant(int type, int from, int to, int epSquare) {
+        return type == PAWN && to == epSquare && from % 8 != to % 8;
+    }
+
+    // makes a pseudo-legal move
+    private void play(int move) {
+        if (ply == undoMove.length) {
+            undoMove = Arrays.copyOf(undoMove, ply * 2);
+            undoCaptured = Arrays.copyOf(undoCaptured, ply * 2);
+            undoCastling = Arrays.copyOf(undoCastling, ply * 2);
+            undoEp = Arrays.copyOf(undoEp, ply * 2);
+        }
+        int from = BoardBackend.from(move);
+        int to = BoardBackend.to(move);
+        int promotion = BoardBackend.promotion(move);
+        undoMove[ply] = move;
+        undoCastling[ply] = castling;
+        undoEp[ply] = epSquare;
+
+        int piece = squares[from];
+        int type = piece & 7;
+        int capturedSquare = isEnPassant(type, from, to, epSquare) ? to + (side == WHITE ? -8 : 8) : to;
+        undoCaptured[ply] = (byte) (squares[capturedSquare] != 0 ? remove(capturedSquare) : 0);
+        ply++;
+
+        remove(from);
+        put(to, promotion != 0 ? promotion | (piece & PieceType.BLACK_FLAG) : piece);
+        if (type == KING && Math.abs(to - from) == 2) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            put(to > from ? from + 1 : from - 1, remove(rookFrom));
+        }
+        castling &= CASTLE_MASK[from] & CASTLE_MASK[to];
+        epSquare = type == PAWN && Math.abs(to - from) == 16 ? (from + to) / 2 : -1;
+        side ^= 1;
+    }
+
+    @Override
+    public void unmakeMove() {
+        if (ply == 0) {
+            return;
+        }
+        ply--;
+        side ^= 1;
+        int move = undoMove[ply];
+        int from = BoardBackend.from(move);
+        int to = BoardBackend.to(move);
+
+        int piece = remove(to);
+        if (BoardBackend.promotion(move) != 0) {
+            piece = PAWN | (piece & PieceType.BLACK_FLAG);
+        }
+        put(from, piece);
+        int type = piece & 7;
+        if (type == KING && Math.abs(to - from) == 2) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            put(rookFrom, remove(to > from ? from + 1 : from - 1));
+        }
+        int captured = undoCaptured[ply];
+        if (captured != 0) {
+            put(isEnPassant(type, from, to, undoEp[ply]) ? to + (side == WHITE ? -8 : 8) : to, captured);
+        }
+        castling = undoCastling[ply];
+        epSquare = undoEp[ply];
+    }
+
+    @Override
+    public boolean isWhiteToMove() {
+        return side == WHITE;
+    }
+
+    @Override
+    public boolean isInCheck() {
+        return inCheck(side);
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+}
@@ -0,0 +1,119 @@
+package Chess.backend;
+
+import Chess.engine.Board;
+
+/**
+ * A board representation that can generate, make and unmake moves
+ * <p>
+ * The game itself runs on {@link Board} and its {@code Square[][]}, but the
+ * search code only needs a few operations from a board, and other layouts do
+ * those much faster. Every backend speaks the same move format so they can
+ * be swapped, benchmarked on the same workload and checked against each
+ * other by {@link BackendCrossCheck}.
+ * </p>
+ * <p>
+ * A move is an int: the from square in bits 0-5, the to square in bits 6-11
+ * (squares are {@code row * 8 + col}) and the {@link Chess.engine.PieceType} code of
+ * a promotion in bits 12-14. Castling is the king's two-square move.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public interface BoardBackend {
+
+    /** Enough room for the moves of any position. */
+    int MAX_MOVES = 256;
+
+    /** @return a short name for reports, e.g. "bitboard" */
+    String getName();
+
+    /**
+     * Sets up the backend from a board. Castling rights come from kings and
+     * rooks that have not moved and en passant from the board's last move.
+     *
+     * @param board      the board, not changed
+     * @param sideToMove "White" or "Black"
+     */
+    void load(Board board, String sideToMove);
+
+    /**
+     * Generates the legal moves of the side to move
+     *
+     * @param moves receives the moves, at least {@link #MAX_MOVES} long
+     * @return the number of moves
+     */
+    int generateLegalMoves(int[] moves);
+
+    /**
+     * Plays a move
+     *
+     * @param move a move from {@link #generateLegalMoves(int[])} in this
+     *             position
+     * @throws IllegalArgumentException if the move can't be played
+     */
+    void makeMove(int move);
+
+    /** Takes back the last move made with {@link #makeMove(int)}. */
+    void unmakeMove();
+
+    /** @return {@code true} if White is to move */
+    boolean isWhiteToMove();
+
+    /** @return {@code true} if the side to move is in check */
+    boolean isInCheck();
+
+    /** @return the Zobrist placement key, the same as {@link Board#getPlacementKey()} */
+    long getKey();
+
+    /**
+     * @param square the square, {@code row * 8 + col}
+     * @return the code of the piece on it as {@link Board#getPieceCode(int, int)}
+     */
+    int pieceAt(int square);
+
+    /**
+     * Builds a move
+     *
+     * @param from      the from square
+     * @param to        the to square
+     * @param promotion the {@link Chess.engine.PieceType} code to promote to, 0 for
+     *                  none
+     * @return the move
+     */
+    static int move(int from, int to, int promotion) {
+        return from | to << 6 | promotion << 12;
+    }
+
+    /** @return the from square of a move */
+    static int from(int move) {
+        return move & 63;
+    }
+
+    /** @return the to square of a move */
+    static int to(int move) {
+        return (move >> 6) & 63;
+    }
+
+    /** @return the promotion of a move, 0 if none */
+    static int promotion(int move) {
+        return (move >> 12) & 7;
+    }
+
+    /**
+     * Writes a move in coordinate notation
+     *
+     * @param move the move
+     * @return e.g. "e2e4" or "e7e8q"
+     */
+    static String toString(int move) {
+        StringBuilder text = new StringBuilder();
+        for (int square : new int[] { from(move), to(move) }) {
+            text.append((char) ('a' + square % 8)).append((char) ('1' + square / 8));
+        }
+        if (promotion(move) != 0) {
+            text.append(" pnbrqk".charAt(promotion(move)));
+        }
+        return text.toString();
+    }
+}
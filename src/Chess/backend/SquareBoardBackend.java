@@ -0,0 +1,137 @@
+package Chess.backend;
+
+import Chess.engine.Board;
+import Chess.engine.Coordinate;
+import Chess.engine.Pawn;
+import Chess.engine.Piece;
+import Chess.engine.PieceType;
+import Chess.engine.RuleEngine;
+
+import java.util.List;
+
+/**
+ * {@link BoardBackend} over the game's own {@link Board}
+ * <p>
+ * Moves are made with {@link Board#movePiece} and taken back with
+ * {@link Board#undoLastMove()}, and legality is checked the way
+ * {@link RuleEngine} does it, so this backend behaves exactly like the game.
+ * It is the reference the faster backends are checked against, not a fast
+ * backend itself.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class SquareBoardBackend implements BoardBackend {
+
+    private static final PieceType[] PROMOTIONS = { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP,
+            PieceType.KNIGHT };
+
+    private Board board = new Board(null);
+    private RuleEngine rules = new RuleEngine(board);
+    private String side = "White";
+
+    @Override
+    public String getName() {
+        return "square";
+    }
+
+    @Override
+    public void load(Board source, String sideToMove) {
+        board = source.snapshot().toBoard(); // keeps moved flags and the last double step
+        rules = new RuleEngine(board);
+        side = sideToMove;
+    }
+
+    @Override
+    public int generateLegalMoves(int[] moves) {
+        int n = 0;
+        for (Piece piece : board.getAllPieces(side)) {
+            // the piece object can be swapped out by a promotion and its undo, so go by squares
+            int fromRow = piece.getRow();
+            int fromCol = piece.getCol();
+            boolean pawn = piece.getType() == PieceType.PAWN;
+            List<Coordinate> targets = piece.getLegalMoves(board);
+            for (Coordinate target : targets) {
+                Piece targetPiece = board.getPieceAt(target.getRow(), target.getCol());
+                if (targetPiece != null && piece.isSameColor(targetPiece)) {
+                    continue;
+                }
+                int from = fromRow * 8 + fromCol;
+                int to = target.getRow() * 8 + target.getCol();
+                if (pawn && ((Pawn) piece).promotionRank(target.getRow())) {
+                    for (PieceType promotion : PROMOTIONS) {
+                        n = addIfLegal(BoardBackend.move(from, to, promotion.getCode()), moves, n);
+                    }
+                } else {
+                    n = addIfLegal(BoardBackend.move(from, to, 0), moves, n);
+                }
+            }
+        }
+        return n;
+    }
+
+    private int addIfLegal(int move, int[] moves, int n) {
+        if (!play(move)) {
+            return n;
+        }
+        boolean legal = !rules.isKingInCheck(side);
+        board.undoLastMove();
+        if (legal) {
+            moves[n++] = move;
+        }
+        return n;
+    }
+
+    // plays a move without looking at checks, the side to move stays the same
+    private boolean play(int move) {
+        int from = BoardBackend.from(move);
+        int to = BoardBackend.to(move);
+        return board.movePiece(from / 8, from % 8, to / 8, to % 8, promotionName(BoardBackend.promotion(move)),
+                false);
+    }
+
+    // the names Board.movePiece expects, e.g. "Queen"
+    private static String promotionName(int code) {
+        if (code == 0) {
+            return null;
+        }
+        String name = PieceType.fromCode(code).name();
+        return name.charAt(0) + name.substring(1).toLowerCase();
+    }
+
+    @Override
+    public void makeMove(int move) {
+        if (!play(move)) {
+            throw new IllegalArgumentException("Illegal move " + BoardBackend.toString(move));
+        }
+        side = side.equals("White") ? "Black" : "White";
+    }
+
+    @Override
+    public void unmakeMove() {
+        if (board.undoLastMove()) {
+            side = side.equals("White") ? "Black" : "White";
+        }
+    }
+
+    @Override
+    public boolean isWhiteToMove() {
+        return side.equals("White");
+    }
+
+    @Override
+    public boolean isInCheck() {
+        return rules.isKingInCheck(side);
+    }
+
+    @Override
+    public long getKey() {
+        return board.getPlacementKey();
+    }
+
+    @Override
+    public int pieceAt(int square) {
+        return board.getPieceCode(square / 8, square % 8);
+    }
+}
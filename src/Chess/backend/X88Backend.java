@@ -0,0 +1,96 @@
+package Chess.backend;
+
+import Chess.engine.Board;
+import Chess.engine.Zobrist;
+import Chess.search.X88Position;
+
+/**
+ * {@link BoardBackend} over the {@link X88Position} the mate solver uses
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class X88Backend implements BoardBackend {
+
+    private X88Position position = new X88Position();
+    private final int[] pseudo = new int[X88Position.MAX_MOVES];
+
+    @Override
+    public String getName() {
+        return "0x88";
+    }
+
+    @Override
+    public void load(Board board, String sideToMove) {
+        position = X88Position.fromBoard(board, sideToMove);
+    }
+
+    @Override
+    public int generateLegalMoves(int[] moves) {
+        int count = position.generateMoves(pseudo);
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (position.makeMove(pseudo[i])) {
+                position.unmakeMove();
+                moves[n++] = toBackendMove(pseudo[i]);
+            }
+        }
+        return n;
+    }
+
+    private static int toBackendMove(int move) {
+        return BoardBackend.move(square(X88Position.from(move)), square(X88Position.to(move)),
+                X88Position.promotion(move));
+    }
+
+    // 0x88 square to row * 8 + col
+    private static int square(int x88) {
+        return X88Position.row(x88) * 8 + X88Position.col(x88);
+    }
+
+    @Override
+    public void makeMove(int move) {
+        // the 0x88 move carries flags we don't have, so find it again
+        int count = position.generateMoves(pseudo);
+        for (int i = 0; i < count; i++) {
+            if (toBackendMove(pseudo[i]) == move && position.makeMove(pseudo[i])) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Illegal move " + BoardBackend.toString(move));
+    }
+
+    @Override
+    public void unmakeMove() {
+        if (position.getPly() > 0) {
+            position.unmakeMove();
+        }
+    }
+
+    @Override
+    public boolean isWhiteToMove() {
+        return position.getSide() == X88Position.WHITE;
+    }
+
+    @Override
+    public boolean isInCheck() {
+        return position.inCheck(position.getSide());
+    }
+
+    @Override
+    public long getKey() {
+        long key = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = pieceAt(sq);
+            if (piece != 0) {
+                key ^= Zobrist.pieceKey(piece, sq);
+            }
+        }
+        return key;
+    }
+
+    @Override
+    public int pieceAt(int square) {
+        return position.pieceAt((square / 8) * 16 + square % 8);
+    }
+}
@@ -0,0 +1,505 @@
+package Chess.book;
+
+import Chess.engine.Board;
+import Chess.engine.Move;
+import Chess.engine.PieceType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless tool that builds a Polyglot opening book from a PGN collection
+ * <p>
+ * The PGN file is streamed by one reader thread and handed out in batches of
+ * games to worker threads, one per core by default. Each worker replays its
+ * games through {@link Board} and counts every (position, move) pair of the
+ * first plies in its own {@link MoveCountTable}. A full table is sorted and
+ * spilled to a run file, so the archive can be much larger than memory. At
+ * the end all runs are merged in one pass and written as a sorted book.
+ * </p>
+ * <p>
+ * The weight of a move is 2 per win plus 1 per draw of the side that played
+ * it (scaled per position to fit 16 bits) and the learn field holds the number
+ * of games. Games without a result, or that can't be replayed, are skipped.
+ * If a worker fails, e.g. on a run file it can't write, the reader stops and
+ * the build fails with that error.
+ * </p>
+ *
+ * <pre>
+ * java Chess.book.BookBuilder games.pgn book.bin [--plies 24] [--min-games 1]
+ *         [--threads N] [--entries 1048576] [--tmp dir]
+ * </pre>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class BookBuilder {
+
+    private static final int BATCH_SIZE = 256;
+    private static final List<String> END_OF_INPUT = Collections.emptyList();
+    // how often a reader waiting on a full queue checks for a failed worker
+    private static final long HAND_OFF_POLL_MS = 100;
+
+    private final int maxPlies;
+    private final int minGames;
+    private final int threads;
+    private final int tableEntries;
+    private final File tempDir;
+
+    private final List<File> runs = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger runCounter = new AtomicInteger();
+    private final AtomicLong gamesUsed = new AtomicLong();
+    private final AtomicLong gamesSkipped = new AtomicLong();
+    private final AtomicLong positions = new AtomicLong();
+    private final List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Creates a builder
+     *
+     * @param maxPlies     number of plies of each game that go into the book
+     * @param minGames     moves played in fewer games are left out
+     * @param threads      number of replay threads
+     * @param tableEntries entries each thread counts in memory before spilling
+     * @param tempDir      directory for the run files
+     */
+    public BookBuilder(int maxPlies, int minGames, int threads, int tableEntries, File tempDir) {
+        this.maxPlies = maxPlies;
+        this.minGames = minGames;
+        this.threads = threads;
+        this.tableEntries = tableEntries;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * Builds a book from a PGN file
+     *
+     * @param pgnFile  the PGN collection to read
+     * @param bookFile the {@code .bin} file to write
+     * @return the number of entries written
+     * @throws IOException          if a file cannot be read or written
+     * @throws InterruptedException if the build is interrupted
+     */
+    public long build(File pgnFile, File bookFile) throws IOException, InterruptedException {
+        BlockingQueue<List<String>> queue = new ArrayBlockingQueue<>(threads * 4);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    replayGames(queue);
+                } catch (IOException | RuntimeException e) {
+                    failures.add(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "book-builder-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        try {
+            readGames(pgnFile, queue);
+        } finally {
+            for (int i = 0; i < threads; i++) {
+                if (!handOff(queue, END_OF_INPUT)) {
+                    // the queue may never drain; stop the workers that are left
+                    for (Thread worker : workers) {
+                        worker.interrupt();
+                    }
+                    break;
+                }
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        if (!failures.isEmpty()) {
+            Exception failure = failures.get(0);
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            throw new IOException("Book worker failed: " + failure, failure);
+        }
+
+        try {
+            return mergeRuns(bookFile);
+        } finally {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    /**
+     * Splits the PGN stream into games and queues them in batches. A game ends
+     * where a tag section starts after movetext.
+     */
+    private void readGames(File pgnFile, BlockingQueue<List<String>> queue)
+            throws IOException, InterruptedException {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        StringBuilder game = new StringBuilder();
+        boolean inMoves = false;
+
+        try (BufferedReader reader = Files.newBufferedReader(pgnFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                boolean isTag = line.startsWith("[");
+                if (isTag && inMoves) {
+                    batch.add(game.toString());
+                    game.setLength(0);
+                    inMoves = false;
+                    if (batch.size() == BATCH_SIZE) {
+                        if (!handOff(queue, batch)) {
+                            return; // a worker failed, build() reports it
+                        }
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!isTag && !line.trim().isEmpty()) {
+                    inMoves = true;
+                }
+                game.append(line).append('\n');
+            }
+        }
+        if (inMoves) {
+            batch.add(game.toString());
+        }
+        if (!batch.isEmpty()) {
+            handOff(queue, batch);
+        }
+    }
+
+    /**
+     * Queues a batch for the workers. Gives up once a worker has failed, as
+     * the ones left may never take it.
+     *
+     * @return {@code false} if a worker has failed
+     */
+    private boolean handOff(BlockingQueue<List<String>> queue, List<String> batch) throws InterruptedException {
+        while (failures.isEmpty()) {
+            if (queue.offer(batch, HAND_OFF_POLL_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Worker loop: replays queued games until the end marker arrives. */
+    private void replayGames(BlockingQueue<List<String>> queue) throws IOException, InterruptedException {
+        MoveCountTable table = new MoveCountTable(tableEntries);
+        while (true) {
+            List<String> batch = queue.take();
+            if (batch == END_OF_INPUT) {
+                break;
+            }
+            for (String text : batch) {
+                try {
+                    replay(PgnGame.parse(text), table);
+                } catch (RuntimeException e) {
+                    // a malformed game; the moves counted before it went wrong stay
+                    gamesSkipped.incrementAndGet();
+                }
+            }
+        }
+        if (table.size() > 0) {
+            spill(table);
+        }
+    }
+
+    /** Counts the opening moves of one game. */
+    private void replay(PgnGame game, MoveCountTable table) throws IOException {
+        int result = game.getResult();
+        if (result == PgnGame.UNKNOWN) {
+            gamesSkipped.incrementAndGet();
+            return;
+        }
+
+        Board board = new Board(null);
+        String color = "White";
+        List<String> moves = game.getMoves();
+        int plies = Math.min(maxPlies, moves.size());
+        for (int ply = 0; ply < plies; ply++) {
+            Move move = PgnGame.resolve(board, moves.get(ply), color);
+            if (move == null) {
+                break; // keep what we have, the rest of the game is unreadable
+            }
+            int score = color.equals("White") ? result : 2 - result;
+            table.add(PolyglotKey.compute(board, color), encode(move), score);
+            positions.incrementAndGet();
+            if (table.isFull()) {
+                spill(table);
+            }
+
+            if (!board.movePiece(move.getFrom().getRow(), move.getFrom().getCol(),
+                    move.getTo().getRow(), move.getTo().getCol(), move.getPromotionPiece(), false)) {
+                break;
+            }
+            color = color.equals("White") ? "Black" : "White";
+        }
+        gamesUsed.incrementAndGet();
+    }
+
+    private void spill(MoveCountTable table) throws IOException {
+        File run = new File(tempDir, "book-run-" + runCounter.getAndIncrement() + ".tmp");
+        run.deleteOnExit();
+        table.spill(run);
+        runs.add(run);
+    }
+
+    /**
+     * Packs a move in Polyglot form, with castling as the king taking its rook
+     *
+     * @param move the move to pack
+     * @return the packed move
+     */
+    static int encode(Move move) {
+        int fromRow = move.getFrom().getRow();
+        int fromCol = move.getFrom().getCol();
+        int toRow = move.getTo().getRow();
+        int toCol = move.getTo().getCol();
+        if (move.getMovedPiece().getType() == PieceType.KING && Math.abs(toCol - fromCol) == 2) {
+            toCol = toCol > fromCol ? 7 : 0;
+        }
+
+        int promotion = 0;
+        String piece = move.getPromotionPiece();
+        if (piece != null) {
+            switch (piece) {
+                case "Knight":
+                    promotion = 1;
+                    break;
+                case "Bishop":
+                    promotion = 2;
+                    break;
+                case "Rook":
+                    promotion = 3;
+                    break;
+                default:
+                    promotion = 4;
+                    break;
+            }
+        }
+        return BookEntry.encodeMove(fromRow, fromCol, toRow, toCol, promotion);
+    }
+
+    /**
+     * K-way merge of the sorted runs. Equal (key, move) records are summed and
+     * each position's moves are written together, best first.
+     */
+    private long mergeRuns(File bookFile) throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(
+                (a, b) -> MoveCountTable.compare(a.key, a.move, b.key, b.move));
+        List<RunReader> readers = new ArrayList<>();
+        long written = 0;
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(bookFile), 1 << 16))) {
+            for (File run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next()) {
+                    heap.add(reader);
+                }
+            }
+
+            PositionGroup group = new PositionGroup();
+            while (!heap.isEmpty()) {
+                RunReader top = heap.poll();
+                long key = top.key;
+                int move = top.move;
+                long points = top.points;
+                long games = top.games;
+                if (top.next()) {
+                    heap.add(top);
+                }
+                while (!heap.isEmpty() && heap.peek().key == key && heap.peek().move == move) {
+                    RunReader same = heap.poll();
+                    points += same.points;
+                    games += same.games;
+                    if (same.next()) {
+                        heap.add(same);
+                    }
+                }
+
+                if (group.size > 0 && group.key != key) {
+                    written += group.write(out, minGames);
+                }
+                group.add(key, move, points, games);
+            }
+            written += group.write(out, minGames);
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        return written;
+    }
+
+    /** Sequential reader over one run file. */
+    private static class RunReader {
+        private final DataInputStream in;
+        long key;
+        int move;
+        int points;
+        int games;
+
+        RunReader(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        }
+
+        boolean next() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            move = in.readUnsignedShort();
+            points = in.readInt();
+            games = in.readInt();
+            return true;
+        }
+
+        void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /** The merged moves of one position, waiting to be written. */
+    private static class PositionGroup {
+        long key;
+        int size;
+        int[] moves = new int[64];
+        long[] points = new long[64];
+        long[] games = new long[64];
+
+        void add(long key, int move, long movePoints, long moveGames) {
+            this.key = key;
+            if (size == moves.length) {
+                moves = Arrays.copyOf(moves, size * 2);
+                points = Arrays.copyOf(points, size * 2);
+                games = Arrays.copyOf(games, size * 2);
+            }
+            moves[size] = move;
+            points[size] = movePoints;
+            games[size] = moveGames;
+            size++;
+        }
+
+        /** Writes the kept moves ordered by weight and empties the group. */
+        int write(DataOutputStream out, int minGames) throws IOException {
+            long maxPoints = 0;
+            for (int i = 0; i < size; i++) {
+                if (games[i] >= minGames) {
+                    maxPoints = Math.max(maxPoints, points[i]);
+                }
+            }
+
+            int count = 0;
+            while (true) {
+                // selection of the next best move, positions rarely have many
+                int best = -1;
+                for (int i = 0; i < size; i++) {
+                    if (games[i] >= minGames && points[i] > 0 && (best < 0 || points[i] > points[best])) {
+                        best = i;
+                    }
+                }
+                if (best < 0) {
+                    break;
+                }
+                long weight = maxPoints > 0xFFFF ? Math.max(1, points[best] * 0xFFFF / maxPoints) : points[best];
+                out.writeLong(key);
+                out.writeShort(moves[best]);
+                out.writeShort((int) weight);
+                out.writeInt((int) Math.min(Integer.MAX_VALUE, games[best]));
+                points[best] = 0; // written
+                count++;
+            }
+            size = 0;
+            return count;
+        }
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args input PGN, output book and options, see the class comment
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BookBuilder <games.pgn> <book.bin> [--plies N] [--min-games N]"
+                    + " [--threads N] [--entries N] [--tmp dir]");
+            System.exit(1);
+        }
+
+        int plies = 24;
+        int minGames = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int entries = 1 << 20;
+        File tempDir = null;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--plies":
+                    plies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--min-games":
+                    minGames = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--entries":
+                    entries = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--tmp":
+                    tempDir = new File(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        try {
+            if (tempDir == null) {
+                Path dir = Files.createTempDirectory("book-builder");
+                tempDir = dir.toFile();
+                tempDir.deleteOnExit();
+            }
+            BookBuilder builder = new BookBuilder(plies, minGames, threads, entries, tempDir);
+            long start = System.currentTimeMillis();
+            long written = builder.build(new File(args[0]), new File(args[1]));
+            long millis = System.currentTimeMillis() - start;
+            System.out.println("Games used: " + builder.gamesUsed + ", skipped: " + builder.gamesSkipped
+                    + ", positions: " + builder.positions + ", runs: " + builder.runs.size());
+            System.out.println("Wrote " + written + " entries to " + args[1] + " in " + millis + " ms");
+        } catch (IOException e) {
+            System.err.println("Book build failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Book build interrupted");
+            System.exit(1);
+        }
+    }
+}
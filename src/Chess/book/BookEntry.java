@@ -0,0 +1,114 @@
+package Chess.book;
+
+/**
+ * A single 16-byte record of a Polyglot opening book
+ * <p>
+ * Each record holds the position key, the move, a weight used to choose
+ * between moves of the same position, and a "learn" value some tools use for
+ * statistics. The move packs the to-file, to-row, from-file, from-row and
+ * promotion piece into 3 bits each. Castling is stored as the king capturing
+ * its own rook (e1h1, e1a1, e8h8, e8a8).
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class BookEntry {
+
+    /** Size of one record in the book file. */
+    public static final int SIZE = 16;
+
+    private final long key;
+    private final int move;
+    private final int weight;
+    private final int learn;
+
+    /**
+     * Creates a book record
+     *
+     * @param key    the Polyglot key of the position
+     * @param move   the packed 16-bit move
+     * @param weight the unsigned 16-bit weight
+     * @param learn  the 32-bit learn value
+     */
+    public BookEntry(long key, int move, int weight, int learn) {
+        this.key = key;
+        this.move = move;
+        this.weight = weight;
+        this.learn = learn;
+    }
+
+    /**
+     * Packs a move the way Polyglot stores it
+     *
+     * @param fromRow   the starting row (0 = rank 1)
+     * @param fromCol   the starting column (0 = file a)
+     * @param toRow     the destination row
+     * @param toCol     the destination column
+     * @param promotion 0 for none, 1 knight, 2 bishop, 3 rook, 4 queen
+     * @return the packed move
+     */
+    public static int encodeMove(int fromRow, int fromCol, int toRow, int toCol, int promotion) {
+        return toCol | (toRow << 3) | (fromCol << 6) | (fromRow << 9) | (promotion << 12);
+    }
+
+    /** @return the Polyglot key of the position */
+    public long getKey() {
+        return key;
+    }
+
+    /** @return the packed 16-bit move */
+    public int getMove() {
+        return move;
+    }
+
+    /** @return the weight of the move */
+    public int getWeight() {
+        return weight;
+    }
+
+    /** @return the learn value of the move */
+    public int getLearn() {
+        return learn;
+    }
+
+    /** @return the starting row of the move */
+    public int getFromRow() {
+        return (move >> 9) & 7;
+    }
+
+    /** @return the starting column of the move */
+    public int getFromCol() {
+        return (move >> 6) & 7;
+    }
+
+    /** @return the destination row of the move */
+    public int getToRow() {
+        return (move >> 3) & 7;
+    }
+
+    /** @return the destination column of the move, as stored in the book */
+    public int getToCol() {
+        return move & 7;
+    }
+
+    /** @return the promotion piece: 0 none, 1 knight, 2 bishop, 3 rook, 4 queen */
+    public int getPromotion() {
+        return (move >> 12) & 7;
+    }
+
+    /**
+     * Returns the move in coordinate notation, e.g. "e2e4" or "e7e8q"
+     *
+     * @return the move as text
+     */
+    @Override
+    public String toString() {
+        String text = "" + (char) ('a' + getFromCol()) + (char) ('1' + getFromRow())
+                + (char) ('a' + getToCol()) + (char) ('1' + getToRow());
+        if (getPromotion() != 0) {
+            text = text + " nbrq".charAt(getPromotion());
+        }
+        return text + " (" + weight + ")";
+    }
+}
@@ -0,0 +1,193 @@
+package Chess.book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table of (position key, move) to game statistics
+ * <p>
+ * Everything is kept in parallel primitive arrays, so counting millions of
+ * positions creates no objects. When the table holds its limit of entries the
+ * caller {@link #spill(File) spills} it: the entries are sorted by key and
+ * move and written to a run file, and the table starts over empty. The run
+ * files are merged afterwards by {@link BookBuilder}.
+ * </p>
+ * <p>
+ * A run record is 18 bytes: key (8), move (2), points (4), games (4).
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class MoveCountTable {
+
+    /** Size of one record in a run file. */
+    public static final int RUN_RECORD_SIZE = 18;
+
+    private final long[] keys;
+    private final int[] moves;
+    private final int[] points;
+    private final int[] games; // 0 marks an empty slot
+    private final int mask;
+    private final int limit;
+    private int size;
+
+    /**
+     * Creates a table that holds up to {@code limit} entries before it has to
+     * be spilled
+     *
+     * @param limit the number of entries kept in memory, must be positive
+     */
+    public MoveCountTable(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Table limit must be positive: " + limit);
+        }
+        // keep the load factor at or below one half
+        int capacity = Integer.highestOneBit(limit) << 2;
+        this.keys = new long[capacity];
+        this.moves = new int[capacity];
+        this.points = new int[capacity];
+        this.games = new int[capacity];
+        this.mask = capacity - 1;
+        this.limit = limit;
+    }
+
+    /**
+     * Counts one occurrence of a move in a position
+     *
+     * @param key   the Polyglot key of the position
+     * @param move  the packed Polyglot move
+     * @param score 2 if the side that played the move won, 1 for a draw, 0
+     *              for a loss
+     */
+    public void add(long key, int move, int score) {
+        int slot = hash(key, move) & mask;
+        while (games[slot] != 0) {
+            if (keys[slot] == key && moves[slot] == move) {
+                points[slot] += score;
+                games[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        moves[slot] = move;
+        points[slot] = score;
+        games[slot] = 1;
+        size++;
+    }
+
+    /** @return {@code true} once the table holds its limit of entries */
+    public boolean isFull() {
+        return size >= limit;
+    }
+
+    /** @return the number of distinct (position, move) pairs */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes all entries, sorted by key then move, to a run file and empties
+     * the table
+     *
+     * @param file the run file to create
+     * @throws IOException if the file cannot be written
+     */
+    public void spill(File file) throws IOException {
+        // pack the used slots to the front, then sort them in place
+        int count = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (games[i] != 0) {
+                keys[count] = keys[i];
+                moves[count] = moves[i];
+                points[count] = points[i];
+                games[count] = games[i];
+                count++;
+            }
+        }
+        sort(0, count - 1);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            for (int i = 0; i < count; i++) {
+                out.writeLong(keys[i]);
+                out.writeShort(moves[i]);
+                out.writeInt(points[i]);
+                out.writeInt(games[i]);
+            }
+        }
+        Arrays.fill(games, 0);
+        size = 0;
+    }
+
+    /**
+     * Orders two entries the way the book file is ordered: unsigned key, then
+     * move
+     */
+    static int compare(long keyA, int moveA, long keyB, int moveB) {
+        int order = Long.compareUnsigned(keyA, keyB);
+        return order != 0 ? order : Integer.compare(moveA, moveB);
+    }
+
+    private static int hash(long key, int move) {
+        long h = (key ^ (move * 0x9E3779B97F4A7C15L)) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // quicksort on the parallel arrays, insertion sort for short ranges
+    private void sort(int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            long pivotKey = keys[mid];
+            int pivotMove = moves[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], moves[i], pivotKey, pivotMove) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], moves[j], pivotKey, pivotMove) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller half to keep the stack shallow
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(keys[j - 1], moves[j - 1], keys[j], moves[j]) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int move = moves[a];
+        moves[a] = moves[b];
+        moves[b] = move;
+        int point = points[a];
+        points[a] = points[b];
+        points[b] = point;
+        int game = games[a];
+        games[a] = games[b];
+        games[b] = game;
+    }
+}
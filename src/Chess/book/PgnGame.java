@@ -0,0 +1,307 @@
+package Chess.book;
+
+import Chess.engine.Bishop;
+import Chess.engine.Board;
+import Chess.engine.Coordinate;
+import Chess.engine.Knight;
+import Chess.engine.Move;
+import Chess.engine.Piece;
+import Chess.engine.PieceType;
+import Chess.engine.Queen;
+import Chess.engine.Rook;
+import Chess.engine.RuleEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One game of a PGN collection: its result and its main line in SAN
+ * <p>
+ * Comments, variations, NAGs and move numbers are stripped from the movetext.
+ * {@link #resolve(Board, String, String)} turns a SAN token into a
+ * {@link Move} on a {@link Board}, using file/rank disambiguation and, only
+ * when that is not enough, a legality check for pinned pieces.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class PgnGame {
+
+    /** Result of the game from White's side. */
+    public static final int WHITE_WIN = 2;
+    public static final int DRAW = 1;
+    public static final int BLACK_WIN = 0;
+    public static final int UNKNOWN = -1;
+
+    private final int result;
+    private final List<String> moves;
+
+    private PgnGame(int result, List<String> moves) {
+        this.result = result;
+        this.moves = moves;
+    }
+
+    /**
+     * Parses the text of a single game (tag section and movetext)
+     *
+     * @param text the game as it appears in the PGN file
+     * @return the parsed game
+     */
+    public static PgnGame parse(String text) {
+        int result = UNKNOWN;
+        List<String> moves = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        int variationDepth = 0;
+
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char ch = text.charAt(i);
+            if (ch == '[' && token.length() == 0 && variationDepth == 0 && isLineStart(text, i)) {
+                // tag pair, only the result is needed
+                int end = text.indexOf('\n', i);
+                if (end < 0) {
+                    end = length;
+                }
+                String tag = text.substring(i, end);
+                if (tag.startsWith("[Result ")) {
+                    result = parseResult(tag.substring(tag.indexOf('"') + 1, tag.lastIndexOf('"')));
+                }
+                i = end;
+                continue;
+            }
+            if (ch == '{') {
+                int end = text.indexOf('}', i);
+                i = end < 0 ? length : end + 1;
+                continue;
+            }
+            if (ch == ';') {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? length : end;
+                continue;
+            }
+            if (ch == '(') {
+                variationDepth++;
+                i++;
+                continue;
+            }
+            if (ch == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+                i++;
+                continue;
+            }
+            if (Character.isWhitespace(ch) || ch == '.') {
+                if (variationDepth == 0) {
+                    addToken(token, moves);
+                }
+                token.setLength(0);
+                i++;
+                continue;
+            }
+            if (variationDepth == 0) {
+                token.append(ch);
+            }
+            i++;
+        }
+        addToken(token, moves);
+
+        // the movetext ends with the result if the tag was missing
+        if (!moves.isEmpty()) {
+            int last = parseResult(moves.get(moves.size() - 1));
+            if (last != UNKNOWN || moves.get(moves.size() - 1).equals("*")) {
+                moves.remove(moves.size() - 1);
+                if (result == UNKNOWN) {
+                    result = last;
+                }
+            }
+        }
+        return new PgnGame(result, moves);
+    }
+
+    private static boolean isLineStart(String text, int index) {
+        return index == 0 || text.charAt(index - 1) == '\n' || text.charAt(index - 1) == '\r';
+    }
+
+    private static void addToken(StringBuilder token, List<String> moves) {
+        if (token.length() == 0) {
+            return;
+        }
+        String text = token.toString();
+        // move numbers and NAGs
+        if (Character.isDigit(text.charAt(0)) && !text.startsWith("0-0") && parseResult(text) == UNKNOWN) {
+            return;
+        }
+        if (text.charAt(0) == '$') {
+            return;
+        }
+        moves.add(text);
+    }
+
+    private static int parseResult(String text) {
+        switch (text) {
+            case "1-0":
+                return WHITE_WIN;
+            case "0-1":
+                return BLACK_WIN;
+            case "1/2-1/2":
+                return DRAW;
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    /** @return {@link #WHITE_WIN}, {@link #DRAW}, {@link #BLACK_WIN} or {@link #UNKNOWN} */
+    public int getResult() {
+        return result;
+    }
+
+    /** @return the main line moves in SAN */
+    public List<String> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Resolves a SAN move for the side to move
+     *
+     * @param board the current position
+     * @param san   the move, e.g. "Nbd7", "exd5", "e8=Q+", "O-O"
+     * @param color the color to move ("White" or "Black")
+     * @return the move with its promotion piece set, or {@code null} if no
+     *         piece of {@code color} can play it
+     */
+    public static Move resolve(Board board, String san, String color) {
+        String text = san;
+        while (!text.isEmpty() && "+#!?".indexOf(text.charAt(text.length() - 1)) >= 0) {
+            text = text.substring(0, text.length() - 1);
+        }
+        int homeRow = color.equals("White") ? 0 : 7;
+
+        if (text.equals("O-O") || text.equals("0-0")) {
+            return castle(board, homeRow, 6);
+        }
+        if (text.equals("O-O-O") || text.equals("0-0-0")) {
+            return castle(board, homeRow, 2);
+        }
+
+        String promotion = null;
+        int eq = text.indexOf('=');
+        if (eq >= 0 && eq + 1 < text.length()) {
+            promotion = promotionName(text.charAt(eq + 1));
+            text = text.substring(0, eq);
+        } else if (text.length() > 2 && "NBRQ".indexOf(text.charAt(text.length() - 1)) >= 0
+                && Character.isDigit(text.charAt(text.length() - 2))) {
+            promotion = promotionName(text.charAt(text.length() - 1));
+            text = text.substring(0, text.length() - 1);
+        }
+        if (text.length() < 2) {
+            return null;
+        }
+
+        int toCol = text.charAt(text.length() - 2) - 'a';
+        int toRow = text.charAt(text.length() - 1) - '1';
+        if (toCol < 0 || toCol > 7 || toRow < 0 || toRow > 7) {
+            return null;
+        }
+
+        char symbol = 'P';
+        int start = 0;
+        if ("NBRQK".indexOf(text.charAt(0)) >= 0) {
+            symbol = text.charAt(0);
+            start = 1;
+        }
+
+        // whatever is left between the piece letter and the square narrows the source
+        int fromCol = -1;
+        int fromRow = -1;
+        for (int i = start; i < text.length() - 2; i++) {
+            char ch = text.charAt(i);
+            if (ch >= 'a' && ch <= 'h') {
+                fromCol = ch - 'a';
+            } else if (ch >= '1' && ch <= '8') {
+                fromRow = ch - '1';
+            }
+        }
+        if (symbol == 'P' && fromCol < 0) {
+            fromCol = toCol;
+        }
+
+        Coordinate to = new Coordinate(toRow, toCol);
+        List<Piece> candidates = new ArrayList<>();
+        for (Piece piece : board.getAllPieces(color)) {
+            if (!matches(piece, symbol)) {
+                continue;
+            }
+            if ((fromCol >= 0 && piece.getCol() != fromCol) || (fromRow >= 0 && piece.getRow() != fromRow)) {
+                continue;
+            }
+            if (piece.getLegalMoves(board).contains(to)) {
+                candidates.add(piece);
+            }
+        }
+
+        if (candidates.size() > 1) {
+            // SAN leaves out the source when the other piece is pinned
+            List<Piece> legal = new ArrayList<>();
+            for (Piece piece : candidates) {
+                if (leavesKingSafe(board, piece, to, color)) {
+                    legal.add(piece);
+                }
+            }
+            candidates = legal;
+        }
+        if (candidates.size() != 1) {
+            return null;
+        }
+
+        Piece piece = candidates.get(0);
+        Coordinate from = new Coordinate(piece.getRow(), piece.getCol());
+        return new Move(from, to, piece, board.getPieceAt(toRow, toCol), null, promotion);
+    }
+
+    private static Move castle(Board board, int row, int toCol) {
+        Piece king = board.getPieceAt(row, 4);
+        if (PieceType.of(king) != PieceType.KING) {
+            return null;
+        }
+        return new Move(new Coordinate(row, 4), new Coordinate(row, toCol), king, null);
+    }
+
+    private static boolean leavesKingSafe(Board board, Piece piece, Coordinate to, String color) {
+        Board testBoard = board.copy();
+        testBoard.setPieceAt(to.getRow(), to.getCol(), testBoard.getPieceAt(piece.getRow(), piece.getCol()));
+        testBoard.setPieceAt(piece.getRow(), piece.getCol(), null);
+        testBoard.getPieceAt(to.getRow(), to.getCol()).setPosition(to);
+        return !new RuleEngine(testBoard).isKingInCheck(color);
+    }
+
+    private static boolean matches(Piece piece, char symbol) {
+        switch (symbol) {
+            case 'N':
+                return piece.getType() == PieceType.KNIGHT;
+            case 'B':
+                return piece.getType() == PieceType.BISHOP;
+            case 'R':
+                return piece.getType() == PieceType.ROOK;
+            case 'Q':
+                return piece.getType() == PieceType.QUEEN;
+            case 'K':
+                return piece.getType() == PieceType.KING;
+            default:
+                return piece.getType() == PieceType.PAWN;
+        }
+    }
+
+    private static String promotionName(char symbol) {
+        switch (symbol) {
+            case 'N':
+                return "Knight";
+            case 'B':
+                return "Bishop";
+            case 'R':
+                return "Rook";
+            default:
+                return "Queen";
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package Chess.book;
+
+import Chess.engine.Board;
+import Chess.engine.Move;
+import Chess.engine.Piece;
+import Chess.engine.PieceType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Read-only opening book in the Polyglot {@code .bin} format
+ * <p>
+ * The file is a sorted array of 16-byte big-endian records (see
+ * {@link BookEntry}). Instead of reading it into memory the file is memory
+ * mapped and searched in place with a binary search on the key, so opening
+ * even a large book is instant and costs next to no heap. The operating
+ * system pages in only the parts that are actually probed.
+ * </p>
+ * <p>
+ * The book used by the AI is read from the {@code chess.book} system property,
+ * or {@value #DEFAULT_PATH} in the working directory.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class PolyglotBook {
+
+    /** Book file used when {@code chess.book} is not set. */
+    public static final String DEFAULT_PATH = "book.bin";
+
+    private static PolyglotBook shared;
+    private static boolean sharedLoaded = false;
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+    private final String path;
+
+    private PolyglotBook(MappedByteBuffer buffer, int entryCount, String path) {
+        this.buffer = buffer;
+        this.entryCount = entryCount;
+        this.path = path;
+    }
+
+    /**
+     * Memory maps a book file
+     *
+     * @param path the path of the {@code .bin} file
+     * @return the opened book
+     * @throws IOException if the file cannot be read or is too large to map
+     */
+    public static PolyglotBook open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Book is too large to map: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            // the mapping stays valid after the channel is closed
+            return new PolyglotBook(buffer, (int) (size / BookEntry.SIZE), path);
+        }
+    }
+
+    /**
+     * Returns the book shared by the AI players, opening it on first use
+     *
+     * @return the shared book, or {@code null} if there is no book file
+     */
+    public static synchronized PolyglotBook shared() {
+        if (!sharedLoaded) {
+            sharedLoaded = true;
+            String path = System.getProperty("chess.book", DEFAULT_PATH);
+            if (new File(path).isFile()) {
+                try {
+                    shared = open(path);
+                    System.out.println("Opening book loaded: " + shared);
+                } catch (IOException e) {
+                    System.err.println("Could not open opening book " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Finds every book move stored for a position
+     *
+     * @param key the Polyglot key of the position
+     * @return the matching entries in file order, empty if the position is not
+     *         in the book
+     */
+    public List<BookEntry> getEntries(long key) {
+        List<BookEntry> entries = new ArrayList<>();
+        // lower bound: first record whose key is not below the one we want
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < entryCount && keyAt(i) == key; i++) {
+            entries.add(entryAt(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Picks a book move for the side to move, weighted by the book weights
+     *
+     * @param board      the current position
+     * @param color      the color to move ("White" or "Black")
+     * @param validMoves the legal moves, book moves not in this list are ignored
+     * @param random     the random source for the weighted choice
+     * @return one of {@code validMoves}, or {@code null} if the position is not
+     *         in the book
+     */
+    public Move chooseMove(Board board, String color, List<Move> validMoves, Random random) {
+        List<BookEntry> entries = getEntries(PolyglotKey.compute(board, color));
+        if (entries.isEmpty()) {
+            return null;
+        }
+
+        List<Move> candidates = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int totalWeight = 0;
+        for (BookEntry entry : entries) {
+            Move move = findMove(board, entry, validMoves);
+            if (move != null) {
+                candidates.add(move);
+                weights.add(entry.getWeight());
+                totalWeight += entry.getWeight();
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (totalWeight == 0) {
+            return candidates.get(random.nextInt(candidates.size()));
+        }
+
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < candidates.size(); i++) {
+            pick -= weights.get(i);
+            if (pick < 0) {
+                return candidates.get(i);
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    /**
+     * Matches a book entry against the legal moves, turning the Polyglot
+     * king-takes-rook castling into the two square king move the board uses
+     */
+    private Move findMove(Board board, BookEntry entry, List<Move> validMoves) {
+        int fromRow = entry.getFromRow();
+        int fromCol = entry.getFromCol();
+        int toRow = entry.getToRow();
+        int toCol = entry.getToCol();
+
+        Piece piece = board.getPieceAt(fromRow, fromCol);
+        if (PieceType.of(piece) == PieceType.KING && fromCol == 4 && fromRow == toRow) {
+            if (toCol == 7) {
+                toCol = 6;
+            } else if (toCol == 0) {
+                toCol = 2;
+            }
+        }
+        // the AI always promotes to a queen
+        if (entry.getPromotion() != 0 && entry.getPromotion() != 4) {
+            return null;
+        }
+
+        for (Move move : validMoves) {
+            if (move.getFrom().getRow() == fromRow && move.getFrom().getCol() == fromCol
+                    && move.getTo().getRow() == toRow && move.getTo().getCol() == toCol) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(index * BookEntry.SIZE);
+    }
+
+    private BookEntry entryAt(int index) {
+        int offset = index * BookEntry.SIZE;
+        return new BookEntry(buffer.getLong(offset),
+                buffer.getShort(offset + 8) & 0xFFFF,
+                buffer.getShort(offset + 10) & 0xFFFF,
+                buffer.getInt(offset + 12));
+    }
+
+    /** @return the number of records in the book */
+    public int size() {
+        return entryCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PolyglotBook[" + path + ", entries=" + entryCount + "]";
+    }
+}
@@ -1,8 +1,16 @@
-package Chess;
+package Chess.engine;
+
+import Chess.book.PolyglotBook;
+import Chess.search.MateSolver;
+import Chess.search.X88Position;
+import Chess.tablebase.KpkBitbase;
+import Chess.tablebase.Tablebase;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -18,8 +26,45 @@ import java.util.stream.Collectors;
  *
  */
 public class AIPlayer extends Player {
+    /** Lowest level that plays from the opening book (the look-ahead levels). */
+    public static final int BOOK_MIN_LEVEL = 7;
+
+    /** Lowest level that plays endgames from the tablebases. */
+    public static final int TABLEBASE_MIN_LEVEL = 7;
+
+    /** Lowest level that looks for forced mates before searching. */
+    public static final int MATE_SEARCH_MIN_LEVEL = 7;
+
+    /** Longest mate the pre-pass looks for, in moves. */
+    private static final int MATE_SEARCH_MOVES = 3;
+
+    /** Node limit of the pre-pass, keeps it well under a second. */
+    private static final int MATE_SEARCH_NODES = 20_000;
+
+    /** Longest mate looked for when the other king is well guarded. */
+    private static final int QUICK_MATE_SEARCH_MOVES = 2;
+
+    /** Node limit for that, around a millisecond. */
+    private static final int QUICK_MATE_SEARCH_NODES = 2_000;
+
+    /** Score of a repeated position or a fifty-move draw. */
+    private static final int DRAW_SCORE = 0;
+
+    /** Evaluations of drawish endings are divided by this. */
+    private static final int DRAWISH_DIVISOR = 8;
+
+    /** Score below which a root move is never played. */
+    private static final int NO_SCORE = -10000;
+
+    /** Score of a root move that leaves the king in check. */
+    private static final int ILLEGAL = Integer.MIN_VALUE;
+
     private int difficultyLevel; // need to implement the levels as well
     private Random random;
+    private Evaluator evaluator;
+    private int threads = 1;
+    private volatile SearchListener searchListener;
+    private final List<AIPlayer> helpers = new ArrayList<>();
 
     /**
      * Creates a new AIPlayer with name, color, and difficulty level
@@ -33,6 +78,7 @@ public class AIPlayer extends Player {
         super(name, color);
         this.difficultyLevel = difficultyLevel;
         this.random = new Random();
+        this.evaluator = new Evaluator();
     }
 
     /**
@@ -43,18 +89,54 @@ public class AIPlayer extends Player {
      */
     @Override
     public Move makeMove(Board board) {
+        // with few pieces left the tablebase knows the exact result of every move
+        if (difficultyLevel >= TABLEBASE_MIN_LEVEL) {
+            Move tablebaseMove = chooseTablebaseMove(board);
+            if (tablebaseMove != null) {
+                return tablebaseMove;
+            }
+        }
+
+        // try to prove a mate first: a short look at every move, since a king behind its pawns can be
+        // mated on the back rank, and a longer one when the other king is out in the open
+        if (difficultyLevel >= MATE_SEARCH_MIN_LEVEL) {
+            Move mateMove = isKingExposed(board, switchColor(this.getColor()))
+                    ? chooseMateMove(board, MATE_SEARCH_NODES, MATE_SEARCH_MOVES)
+                    : chooseMateMove(board, QUICK_MATE_SEARCH_NODES, QUICK_MATE_SEARCH_MOVES);
+            if (mateMove != null) {
+                return mateMove;
+            }
+        }
+
         if (checkKingCheck(board, this.getColor())) {
             Move kingMove = getValidKingMoveInCheck(board);
             if (kingMove != null) {
                 return kingMove;
             }
-            return null;
+            // no escape the helpers know of, the legal moves below are all that is left (none when mated)
         }
         List<Move> allValidMoves = generateValidMoves(board);
 
         if (allValidMoves.isEmpty()) {
             return null;
         }
+
+        // nobody can win any more, searching would only burn time
+        if (board.isDeadDraw()) {
+            return allValidMoves.get(random.nextInt(allValidMoves.size()));
+        }
+
+        // opening book first, the search only starts once we are out of book
+        if (difficultyLevel >= BOOK_MIN_LEVEL) {
+            PolyglotBook book = PolyglotBook.shared();
+            if (book != null) {
+                Move bookMove = book.chooseMove(board, this.getColor(), allValidMoves, random);
+                if (bookMove != null) {
+                    return bookMove;
+                }
+            }
+        }
+
         switch (difficultyLevel) {
             case 1:
                 return veryBeginnerPlay(board, allValidMoves);
@@ -81,6 +163,153 @@ public class AIPlayer extends Player {
         }
     }
 
+    /**
+     * Picks the move the tablebase rates best: the quickest mate when winning,
+     * a draw when there is one, otherwise the longest resistance
+     *
+     * @param board the current state of the chessboard
+     * @return the move, or {@code null} if there is no tablebase or the
+     *         position is not covered by it
+     */
+    private Move chooseTablebaseMove(Board board) {
+        Tablebase tablebase = Tablebase.shared();
+        if (tablebase == null || tablebase.probe(board, this.getColor()) == Tablebase.UNKNOWN) {
+            return null;
+        }
+        String opponentColor = switchColor(this.getColor());
+        Move bestMove = null;
+        int bestScore = Integer.MAX_VALUE; // from the opponent's side, so lower is better for us
+        int bestReply = Tablebase.UNKNOWN;
+        for (Move move : generateValidMoves(board)) {
+            Board testBoard = board.copy();
+            testBoard.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                    move.getTo().getCol(), promotionFor(move), false);
+            int reply = tablebase.probe(testBoard, opponentColor);
+            if (reply == Tablebase.UNKNOWN) {
+                return null;
+            }
+            int score = Tablebase.score(reply);
+            if (score < bestScore) {
+                bestScore = score;
+                bestMove = move;
+                bestReply = reply;
+            }
+        }
+        if (bestMove != null) {
+            reportScore(bestMove, Tablebase.moverScore(bestReply));
+        }
+        return bestMove;
+    }
+
+    /**
+     * Tells whether a king has fewer than three of its own pieces around it
+     *
+     * @param board the current state of the chessboard
+     * @param color the color of the king
+     * @return {@code true} if the king is exposed
+     */
+    private boolean isKingExposed(Board board, String color) {
+        Coordinate king = board.findKing(color);
+        if (king == null) {
+            return false;
+        }
+        int own = PieceColor.of(color) == PieceColor.BLACK ? PieceType.BLACK_FLAG : 0;
+        int guards = 0;
+        int row = king.getRow();
+        int col = king.getCol();
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (r < 0 || r >= Board.ROWS || c < 0 || c >= Board.COLUMNS || (r == row && c == col)) {
+                    continue;
+                }
+                int code = board.getPieceCode(r, c);
+                if (code != 0 && (code & PieceType.BLACK_FLAG) == own) {
+                    guards++;
+                }
+            }
+        }
+        return guards < 3;
+    }
+
+    /**
+     * Runs the {@link MateSolver} for a short forced mate
+     *
+     * @param board    the current state of the chessboard
+     * @param nodes    the node limit of the solver
+     * @param maxMoves the longest mate to look for, in moves
+     * @return the first move of the mate, or {@code null} if none was proven
+     */
+    private Move chooseMateMove(Board board, int nodes, int maxMoves) {
+        MateSolver.Mate mate = new MateSolver(nodes).solve(board, this.getColor(), maxMoves);
+        if (mate == null) {
+            return null;
+        }
+        int move = mate.getMove();
+        int promotion = X88Position.promotion(move);
+        if (promotion != 0 && promotion != X88Position.QUEEN) {
+            return null; // we can only promote to a queen
+        }
+        int from = X88Position.from(move);
+        int to = X88Position.to(move);
+        for (Move candidate : generateValidMoves(board)) {
+            if (candidate.getFrom().getRow() == X88Position.row(from)
+                    && candidate.getFrom().getCol() == X88Position.col(from)
+                    && candidate.getTo().getRow() == X88Position.row(to)
+                    && candidate.getTo().getCol() == X88Position.col(to)) {
+                reportScore(candidate, mateScore(mate.getMoves()));
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param moves the moves of a forced mate, the mating one included
+     * @return the search score of the move that starts it
+     */
+    public static int mateScore(int moves) {
+        return Tablebase.MATE_SCORE - 2 * (moves - 1);
+    }
+
+    // a move played without the look-ahead still gets its score to the listener
+    private void reportScore(Move move, int score) {
+        SearchListener listener = searchListener;
+        if (listener != null) {
+            listener.rootMoveSearched(move, score, 1, 1);
+        }
+    }
+
+    /**
+     * Loads the opening book, the tablebases and the KPK bitbase the higher
+     * levels consult, which otherwise happens in the first move that needs
+     * them and comes off its think time
+     */
+    public static void loadTables() {
+        PolyglotBook.shared();
+        Tablebase.shared();
+        KpkBitbase.shared();
+    }
+
+    /**
+     * @param move a move of this player
+     * @return "Queen" if the move promotes a pawn, otherwise {@code null}
+     */
+    public static String promotionFor(Move move) {
+        return promotionFor(move.getMovedPiece(), move.getTo());
+    }
+
+    /**
+     * @param piece the piece being moved
+     * @param to    where it moves to
+     * @return "Queen" if this promotes a pawn, otherwise {@code null}
+     */
+    private static String promotionFor(Piece piece, Coordinate to) {
+        if (piece != null && piece.getType() == PieceType.PAWN && (to.getRow() == 0 || to.getRow() == Board.ROWS - 1)) {
+            return "Queen"; // the AI always promotes to a queen
+        }
+        return null;
+    }
+
     /**
      * @param board the current state of the chessboard
      * @return a list of all valid {@link Move} objects available to this player;
@@ -130,11 +359,11 @@ public class AIPlayer extends Player {
      *         escape is possible (checkmate)
      */
     private Move getValidKingMoveInCheck(Board board) {
-        Piece king = board.getAllPieces(this.getColor()).stream().filter(p -> p instanceof King).findFirst()
-                .orElse(null);
-        if (king == null) {
+        Coordinate kingSquare = board.findKing(this.getColor());
+        if (kingSquare == null) {
             return null;
         }
+        Piece king = board.getPieceAt(kingSquare.getRow(), kingSquare.getCol());
 
         //Our priority order is;
         //first eat with any available piece
@@ -222,7 +451,8 @@ public class AIPlayer extends Player {
     }
 
     private Move tryBlockingTheCheck(Board board, Piece attacker, Coordinate attackerPosition, Coordinate curKingPosition){
-        if ((attacker instanceof Rook) || (attacker instanceof Bishop) || (attacker instanceof Queen)) {
+        PieceType attackerType = attacker.getType();
+        if (attackerType == PieceType.ROOK || attackerType == PieceType.BISHOP || attackerType == PieceType.QUEEN) {
             List<Coordinate> betweenKingAndAttacker = new ArrayList<>();
             int r1 = attackerPosition.getRow();
             int c1 = attackerPosition.getCol();
@@ -235,7 +465,7 @@ public class AIPlayer extends Player {
                 List<Piece> myPieces = board.getAllPieces(this.getColor());
                 for (int j = 0; j < myPieces.size(); j++) {
                     Piece curPiece = myPieces.get(j);
-                    if (curPiece instanceof King) {
+                    if (curPiece.getType() == PieceType.KING) {
                         continue;
                     }
                     List<Coordinate> pieceMoves = curPiece.getLegalMoves(board);
@@ -279,7 +509,7 @@ public class AIPlayer extends Player {
         List<Piece> myPieces = board.getAllPieces(this.getColor());
         for(int j=0; j<myPieces.size(); j++){
             Piece myPiece = myPieces.get(j);
-            if(myPiece instanceof King){
+            if(myPiece.getType() == PieceType.KING){
                 continue;
             }
 
@@ -321,44 +551,25 @@ public class AIPlayer extends Player {
             Piece targetPiece = board.getPieceAt(newRow, newCol);
             
             // Skip if square has friendly piece
-            if (targetPiece != null) {
+            if (targetPiece != null && king.isSameColor(targetPiece)) {
                 continue;
             }
 
-            Coordinate newKingPosition = new Coordinate(newRow, newCol);
-            if(isSquareDanger(board, newKingPosition, this.getColor())){
+            // play it out, a square can look safe only because the king itself blocks the checking line,
+            // and a pawn doesn't list the empty squares it attacks as moves
+            Board testBoard = board.copy();
+            testBoard.movePiece(curKingPosition.getRow(), curKingPosition.getCol(), newRow, newCol, null, false);
+            if(checkKingCheck(testBoard, this.getColor())){
                 continue;
             }
             Coordinate safeMove = new Coordinate(newRow, newCol);
-            Move possibleMove = new Move(curKingPosition, safeMove, king, null, new ArrayList<>(), null);
+            Move possibleMove = new Move(curKingPosition, safeMove, king, targetPiece, new ArrayList<>(), null);
             return possibleMove;
             
         }
-        System.out.println("=== NO SAFE MOVES FOUND ===");
         return null;
     }
 
-    private boolean isSquareDanger(Board board, Coordinate square, String color){
-        String opponentColor = switchColor(color);
-        List<Piece> opponentPieces = board.getAllPieces(opponentColor);
-
-        for(int i=0; i<opponentPieces.size(); i++){
-            Piece curPiece = opponentPieces.get(i);
-            if(curPiece.getPosition() == null){
-                continue;
-            }
-
-            List<Coordinate> opponentMoves = curPiece.getLegalMoves(board);
-            for(int j=0; j<opponentMoves.size(); j++){
-                Coordinate curMove = opponentMoves.get(j);
-                if(curMove.equals(square)){
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
     /*
      * Move generating methods based on the ai difficulty levels
      */
@@ -625,24 +836,22 @@ public class AIPlayer extends Player {
             //EXTRA TEST
             Board testBoard = board.copy();
             testBoard.movePiece(curMove.getFrom().getRow(), curMove.getFrom().getCol(), curMove.getTo().getRow(),
-                    curMove.getTo().getCol(), null, false);
+                    curMove.getTo().getCol(), promotionFor(curMove), false);
 
             if(checkKingCheck(testBoard, this.getColor())){
                 continue;   //directly skipping move if illegal
             }
 
-            Board analysisBoard = board.copy();
-            analysisBoard.movePiece(curMove.getFrom().getRow(), curMove.getFrom().getCol(), curMove.getTo().getRow(),
-                    curMove.getTo().getCol(), null, false);
-            int curScore = analyzeBoard(analysisBoard, this.getColor());
-
-            curScore = curScore + centerMoveBonus(curMove.getTo()) * 2; // considering moves that goes to center with a
-                                                                        // bit more priority
+            int bonus = centerMoveBonus(curMove.getTo()) * 2; // considering moves that goes to center with a
+                                                              // bit more priority
 
             if (!isPieceLost(board, curMove)) { // if the move doesnot loose ai piece, than more priority should be gven
-                curScore = curScore + 3;
+                bonus = bonus + 3;
             }
 
+            // the test board already has the move played, only scores that can still beat the best need refining
+            int curScore = analyzeBoard(testBoard, this.getColor(), bestScore - bonus, Evaluator.MAX_SCORE) + bonus;
+
             if (curScore > bestScore) {
                 bestScore = curScore;
                 bestMove = curMove;
@@ -672,7 +881,7 @@ public class AIPlayer extends Player {
             Move curMove = moves.get(i);
             Board analysisBoard = board.copy();
             analysisBoard.movePiece(curMove.getFrom().getRow(), curMove.getFrom().getCol(), curMove.getTo().getRow(),
-                    curMove.getTo().getCol(), null, false);
+                    curMove.getTo().getCol(), promotionFor(curMove), false);
 
             //additional check before moving forward:
             if (checkKingCheck(analysisBoard, this.getColor())) {
@@ -693,14 +902,14 @@ public class AIPlayer extends Player {
                 }
             }
 
-            int aiScore = analyzeBoard(analysisBoard, this.getColor());
-            int curScore = aiScore - oppBestScore * 10;
-
-            curScore = curScore + centerMoveBonus(curMove.getTo()) * 2;
+            int adjustment = centerMoveBonus(curMove.getTo()) * 2 - oppBestScore * 10;
             if (!isPieceLost(board, curMove)) {
-                curScore = curScore + 3;
+                adjustment = adjustment + 3;
             }
 
+            int aiScore = analyzeBoard(analysisBoard, this.getColor(), bestScore - adjustment, Evaluator.MAX_SCORE);
+            int curScore = aiScore + adjustment;
+
             if (curScore > bestScore) {
                 bestScore = curScore;
                 bestMove = curMove;
@@ -760,80 +969,182 @@ public class AIPlayer extends Player {
         // about next step/what will happen to those pieces.
         // this logic is already implemented but still it generates such moves
         // sometimes...
-        Move bestMovePossible = null;
-        int bestScore = -10000;  //decreasing from -1 to -1000
-        String opponentColor = switchColor(this.getColor());
+        RootMoves root = new RootMoves(board, moves, searchListener);
+
+        // the other threads take moves from the same list, each with an AI of its own
+        List<Thread> helperThreads = new ArrayList<>();
+        for (int h = 0; h < Math.min(threads, moves.size()) - 1; h++) {
+            AIPlayer helper = helper(h);
+            Thread thread = new Thread(() -> helper.searchRootMoves(root), getName() + " helper " + (h + 1));
+            thread.setDaemon(true);
+            thread.start();
+            helperThreads.add(thread);
+        }
+        searchRootMoves(root);
+        for (Thread thread : helperThreads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
 
+        // the first of the best moves, the same one searching them in order would pick
+        Move bestMovePossible = null;
+        int bestScore = NO_SCORE;
         for (int i = 0; i < moves.size(); i++) {
-            Board testBoard = board.copy();
-            Move curMove = moves.get(i);
-            testBoard.movePiece(
-                    curMove.getFrom().getRow(),
-                    curMove.getFrom().getCol(),
-                    curMove.getTo().getRow(),
-                    curMove.getTo().getCol(), null, false);
+            if (root.scores[i] > bestScore) {
+                bestScore = root.scores[i];
+                bestMovePossible = moves.get(i);
+            }
+        }
+        if (bestMovePossible == null) {
+            return checkGivingMoves(board, moves);
+        }
 
-            //additional check for keeping our kign safe!
-            if (checkKingCheck(testBoard, this.getColor())) {
-                continue; // Skip illegal that leaves king in check
+        return bestMovePossible;
+    }
+
+    /**
+     * Searches root moves until there are none left or the search listener
+     * stops the search
+     *
+     * @param root the moves of the search and their scores
+     */
+    private void searchRootMoves(RootMoves root) {
+        int i;
+        while ((i = root.next.getAndIncrement()) < root.moves.size()) {
+            // the first move is always searched, so there is something to play
+            if (i > 0 && root.listener != null && root.listener.isStopped()) {
+                return;
+            }
+            Move move = root.moves.get(i);
+            int score = worstReplyScore(root.board, move, root.bestScore.get());
+            root.scores[i] = score;
+            int searched = root.searched.incrementAndGet();
+            if (score == ILLEGAL) {
+                continue;
+            }
+            root.bestScore.accumulateAndGet(score, Math::max);
+            if (root.listener != null) {
+                root.listener.rootMoveSearched(move, score, searched, root.moves.size());
             }
+        }
+    }
 
-            int worstScore = 10000;
-            // for each opponen piece we need to see which moves capture our/ai pieces
-            List<Piece> opponentPieces = testBoard.getAllPieces(opponentColor);
-            // finding our the worst result of any move for ai player when opponent plays
-            // their next move
-
-            // if opponent/has no moves(this condition will not be true most of the time),
-            // getting the score directly
-            if (opponentPieces.isEmpty()) {
-                worstScore = boardScore(testBoard, this.getColor());
-            } else {
-                // recopying our copied testboard that has the state after the ai moved in it,
-                // checking for opponent move again
-                for (int k = 0; k < opponentPieces.size(); k++) {
-                    Piece curPiece = opponentPieces.get(k);
-                    List<Coordinate> curPieceMoves = curPiece.getLegalMoves(testBoard);
-                    for (int j = 0; j < curPieceMoves.size(); j++) {
-                        Piece capturedPiece = testBoard.getPieceAt(curPieceMoves.get(j).getRow(),
-                                curPieceMoves.get(j).getCol());
-
-                        if (capturedPiece == null || !capturedPiece.isSameColor(curPiece)) {
-                            Board boardAfterOpponentMove = testBoard.copy();
-                            Piece curNewPiece = boardAfterOpponentMove.getPieceAt(curPiece.getPosition().getRow(),
-                                    curPiece.getPosition().getCol());
-                            if (curNewPiece != null) {
-                                boardAfterOpponentMove.movePiece(
-                                        curNewPiece.getPosition().getRow(),
-                                        curNewPiece.getPosition().getCol(),
-                                        curPieceMoves.get(j).getRow(),
-                                        curPieceMoves.get(j).getCol(),
-                                        null, false);
-
-                                int score = boardScore(boardAfterOpponentMove, this.getColor());
-                                score = score + centerMoveBonus(curPieceMoves.get(j));
-                                if (isPieceLost(testBoard, curMove)) {
-                                    score = score - 5; // reducing score if piece is lost after move
-                                }
-                                if (score < worstScore) {
-                                    worstScore = score;
-                                }
-                            }
+    /**
+     * Scores a move by the worst thing the opponent can reply
+     *
+     * @param board     the board before the move
+     * @param curMove   the move
+     * @param bestScore the score of the best move so far; once a reply keeps
+     *                  this move at or below it, the other replies are skipped
+     * @return the score after the opponent's best reply, at most
+     *         {@code bestScore} if the move can't beat it, or {@link #ILLEGAL}
+     *         if the move leaves the king in check
+     */
+    private int worstReplyScore(Board board, Move curMove, int bestScore) {
+        String opponentColor = switchColor(this.getColor());
+        Board testBoard = board.copy();
+        testBoard.movePiece(
+                curMove.getFrom().getRow(),
+                curMove.getFrom().getCol(),
+                curMove.getTo().getRow(),
+                curMove.getTo().getCol(), promotionFor(curMove), false);
+
+        //additional check for keeping our kign safe!
+        if (checkKingCheck(testBoard, this.getColor())) {
+            return ILLEGAL; // Skip illegal that leaves king in check
+        }
+
+        int worstScore = 10000;
+        // for each opponen piece we need to see which moves capture our/ai pieces
+        List<Piece> opponentPieces = testBoard.getAllPieces(opponentColor);
+        // finding our the worst result of any move for ai player when opponent plays
+        // their next move
+
+        // if opponent/has no moves(this condition will not be true most of the time),
+        // getting the score directly
+        if (opponentPieces.isEmpty()) {
+            return boardScore(testBoard, this.getColor());
+        }
+        // the same for every reply, so only work it out once
+        boolean pieceLost = isPieceLost(testBoard, curMove);
+
+        // recopying our copied testboard that has the state after the ai moved in it,
+        // checking for opponent move again
+        for (int k = 0; k < opponentPieces.size(); k++) {
+            Piece curPiece = opponentPieces.get(k);
+            List<Coordinate> curPieceMoves = curPiece.getLegalMoves(testBoard);
+            for (int j = 0; j < curPieceMoves.size(); j++) {
+                Piece capturedPiece = testBoard.getPieceAt(curPieceMoves.get(j).getRow(),
+                        curPieceMoves.get(j).getCol());
+
+                if (capturedPiece == null || !capturedPiece.isSameColor(curPiece)) {
+                    Board boardAfterOpponentMove = testBoard.copy();
+                    Piece curNewPiece = boardAfterOpponentMove.getPieceAt(curPiece.getPosition().getRow(),
+                            curPiece.getPosition().getCol());
+                    if (curNewPiece != null) {
+                        boardAfterOpponentMove.movePiece(
+                                curNewPiece.getPosition().getRow(),
+                                curNewPiece.getPosition().getCol(),
+                                curPieceMoves.get(j).getRow(),
+                                curPieceMoves.get(j).getCol(),
+                                promotionFor(curNewPiece, curPieceMoves.get(j)), false);
+
+                        int adjustment = centerMoveBonus(curPieceMoves.get(j));
+                        if (pieceLost) {
+                            adjustment = adjustment - 5; // reducing score if piece is lost after move
+                        }
+
+                        // window is (best move so far, worst reply so far), anything outside it
+                        // only needs the cheap estimate
+                        int score = boardScore(boardAfterOpponentMove, this.getColor(),
+                                bestScore - adjustment, worstScore - adjustment) + adjustment;
+                        if (score < worstScore) {
+                            worstScore = score;
+                        }
+
+                        // this move can no longer beat the best one, skip the other replies;
+                        // below the best so it can't tie with it when searched on another thread
+                        if (worstScore <= bestScore) {
+                            return Math.min(worstScore, bestScore - 1);
                         }
                     }
                 }
             }
-            // after each move changing the score after opponent move
-            if (worstScore > bestScore) {
-                bestScore = worstScore;
-                bestMovePossible = curMove;
-            }
         }
-        if (bestMovePossible == null) {
-            return checkGivingMoves(board, moves);
+        return worstScore;
+    }
+
+    // the AI that searches alongside this one on helper thread h, made when first needed
+    private synchronized AIPlayer helper(int h) {
+        while (helpers.size() <= h) {
+            helpers.add(new AIPlayer(getName(), getColor(), difficultyLevel));
         }
+        return helpers.get(h);
+    }
 
-        return bestMovePossible;
+    /**
+     * The root moves of one search, handed out one at a time to the threads
+     * searching them
+     */
+    private static final class RootMoves {
+        final Board board;
+        final List<Move> moves;
+        final SearchListener listener;
+        final int[] scores;
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger searched = new AtomicInteger();
+        final AtomicInteger bestScore = new AtomicInteger(NO_SCORE);
+
+        RootMoves(Board board, List<Move> moves, SearchListener listener) {
+            this.board = board;
+            this.moves = moves;
+            this.listener = listener;
+            this.scores = new int[moves.size()];
+            Arrays.fill(scores, ILLEGAL); // moves a stopped search never got to
+        }
     }
 
     // setting values to out pieces, for deciding which one to take when multiple
@@ -843,28 +1154,7 @@ public class AIPlayer extends Player {
      * @return the numerical value of the piece, or 0 if piece is null
      */
     private int getpieceValue(Piece piece) {
-        if (piece == null) {
-            return 0;
-        }
-        if (piece instanceof King) {
-            return 100;
-        }
-        if (piece instanceof Queen) {
-            return 50;
-        }
-        if (piece instanceof Rook) {
-            return 30;
-        }
-        if (piece instanceof Bishop) {
-            return 25;
-        }
-        if (piece instanceof Knight) {
-            return 25;
-        }
-        if (piece instanceof Pawn) {
-            return 1;
-        }
-        return 0;
+        return Evaluator.pieceValue(piece);
     }
 
     /**
@@ -874,18 +1164,31 @@ public class AIPlayer extends Player {
      *         opponent
      */
     private int boardScore(Board board, String color) {
-        int score = 0;
-        List<Piece> allPieces = board.getAllPieces(color);
-        for (int i = 0; i < allPieces.size(); i++) {
-            score = score + getpieceValue(allPieces.get(i));
-        }
+        return boardScore(board, color, Evaluator.MIN_SCORE, Evaluator.MAX_SCORE);
+    }
 
-        List<Piece> opponentPiece = board.getAllPieces(switchColor(this.getColor()));
-        for (int i = 0; i < opponentPiece.size(); i++) {
-            score = score - getpieceValue(opponentPiece.get(i));
+    /**
+     * Lazy version of {@link #boardScore(Board, String)} for a search window
+     *
+     * @param board the board state to evaluate
+     * @param color the color to evaluate from ("White" or "Black")
+     * @param alpha the score the caller already has guaranteed
+     * @param beta  the score above which the caller will not care
+     * @return the evaluation, or the cheap bound when it falls outside the window
+     */
+    private int boardScore(Board board, String color, int alpha, int beta) {
+        // here it is the AI's turn again
+        if (isDrawn(board)) {
+            return DRAW_SCORE;
         }
-
-        return score; // considering more values as advantage and more score in current baord
+        int tablebaseScore = tablebaseScore(board, color, color);
+        if (tablebaseScore != Tablebase.UNKNOWN) {
+            return tablebaseScore;
+        }
+        if (board.isDrawishMaterial()) {
+            return drawishScore(board, color);
+        }
+        return evaluator.evaluate(board, color, alpha, beta); // considering more values as advantage and more score in current baord
     }
 
     // function which checks if the move, looses piece after it's done
@@ -962,24 +1265,77 @@ public class AIPlayer extends Player {
     /**
      * @param board the board state to analyze
      * @param color the color to analyze from ("White" or "Black")
-     * @return the material balance score; positive indicates advantage for
-     *         specified color
+     * @param alpha the score the caller already has guaranteed
+     * @param beta  the score above which the caller will not care
+     * @return the material and position score, or the cheap bound when it falls
+     *         outside the window; positive indicates advantage for specified color
      */
-    private int analyzeBoard(Board board, String color) {
-        int sum = 0;
-        List<Piece> piece = board.getAllPieces(color);
-        for (int i = 0; i < piece.size(); i++) {
-            sum = sum + getpieceValue(piece.get(i));
+    private int analyzeBoard(Board board, String color, int alpha, int beta) {
+        // the AI has just moved, so the opponent is to move on this board
+        if (isDrawn(board)) {
+            return DRAW_SCORE;
         }
-
-        piece = board.getAllPieces(switchColor(color));
-        for (int i = 0; i < piece.size(); i++) {
-            sum = sum - getpieceValue(piece.get(i));
+        int tablebaseScore = tablebaseScore(board, color, switchColor(color));
+        if (tablebaseScore != Tablebase.UNKNOWN) {
+            return tablebaseScore;
+        }
+        if (board.isDrawishMaterial()) {
+            return drawishScore(board, color);
         }
-        // AI piece value - opponent piece value = finding the best move that results in
+        // AI piece value - opponent piece value (plus position) = finding the best move that results in
         // higher value
+        return evaluator.evaluate(board, color, alpha, beta);
+    }
 
-        return sum;
+    /**
+     * A position in the search that repeats an earlier one is scored as a
+     * draw: if it was good, the other side can repeat it again. This is what
+     * stops the AI from shuffling pieces back and forth when it is ahead.
+     *
+     * @param board the board state to check
+     * @return {@code true} for a repetition or a fifty-move draw
+     */
+    private boolean isDrawn(Board board) {
+        return board.getRepetitionCount() > 0 || board.isFiftyMoveRule() || board.isDeadDraw();
+    }
+
+    /**
+     * Scores an ending that is usually drawn close to a draw, so the AI does
+     * not trade down into one when it is ahead. The full window is used since
+     * a lazy bound would not survive the scaling.
+     *
+     * @param board the board state to evaluate
+     * @param color the color to evaluate from ("White" or "Black")
+     * @return the damped evaluation
+     */
+    private int drawishScore(Board board, String color) {
+        return evaluator.evaluate(board, color, Evaluator.MIN_SCORE, Evaluator.MAX_SCORE) / DRAWISH_DIVISOR;
+    }
+
+    /**
+     * Exact score of an endgame position from the tablebase, or from the
+     * KPK bitbase when there is no table for it
+     *
+     * @param board      the board state to look up
+     * @param color      the color to score for ("White" or "Black")
+     * @param sideToMove the color whose turn it is on the board
+     * @return a mate score for {@code color} (0 for a draw), or
+     *         {@link Tablebase#UNKNOWN} if the position is not in the tablebase
+     */
+    private int tablebaseScore(Board board, String color, String sideToMove) {
+        if (difficultyLevel < TABLEBASE_MIN_LEVEL) {
+            return Tablebase.UNKNOWN;
+        }
+        Tablebase tablebase = Tablebase.shared();
+        if (tablebase != null) {
+            int value = tablebase.probe(board, sideToMove);
+            if (value != Tablebase.UNKNOWN) {
+                int score = Tablebase.score(value);
+                return sideToMove.equals(color) ? score : -score;
+            }
+        }
+        // without the table files king and pawn endings are still known exactly
+        return KpkBitbase.shared().evaluate(board, color, sideToMove);
     }
 
     /**
@@ -988,13 +1344,11 @@ public class AIPlayer extends Player {
      * @return {@code true} if the king is in check, {@code false} otherwise
      */
     private boolean checkKingCheck(Board board, String color) {
-        Piece king = board.getAllPieces(color).stream().filter(p -> p instanceof King).findFirst().orElse(null);
-
-        if (king == null) {
+        Coordinate kingPosition = board.findKing(color);
+        if (kingPosition == null) {
             return false;
         }
 
-        Coordinate kingPosition = king.getPosition();
         String opponentColor = switchColor(color);
 
         List<Piece> opponentPieces = board.getAllPieces(opponentColor);
@@ -1007,9 +1361,6 @@ public class AIPlayer extends Player {
             List<Coordinate> curMove = curPiece.getLegalMoves(board);
             for (int j = 0; j < curMove.size(); j++) {
                 if (curMove.get(j).equals(kingPosition)) {
-                    System.out.println("    King at " + kingPosition + " is attacked by " + 
-                                   curPiece.getClass().getSimpleName() + " at " + curPiece.getPosition());
-                
                     return true;
                 }
             }
@@ -1113,4 +1464,56 @@ public class AIPlayer extends Player {
         return difficultyLevel;
     }
 
+    /**
+     * Gets the evaluator used by the look-ahead levels, mainly to read its
+     * tier counters.
+     *
+     * @return the {@link Evaluator} of this AI player
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Counts the positions evaluated so far, by this AI and the helpers
+     * searching with it. It can be read while a search is running.
+     *
+     * @return the number of evaluations
+     */
+    public synchronized long getNodes() {
+        long nodes = evaluator.getEvaluations();
+        for (AIPlayer helper : helpers) {
+            nodes += helper.evaluator.getEvaluations();
+        }
+        return nodes;
+    }
+
+    /**
+     * Sets how many threads the look-ahead of level 10 searches with. They
+     * split the moves of the position between them; the other levels are
+     * quick and always use one.
+     *
+     * @param threads the number of threads, at least 1
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /** @return the number of threads the look-ahead searches with */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets who follows the look-ahead of level 10 and can stop it early
+     *
+     * @param searchListener the listener, or {@code null} for none
+     */
+    public void setSearchListener(SearchListener searchListener) {
+        this.searchListener = searchListener;
+    }
+
 }
\ No newline at end of file
@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.*;
 
 /**
@@ -69,6 +69,16 @@ public class Bishop extends Piece {
         return moves;
     }
 
+    /**
+     * Returns the type of this piece
+     *
+     * @return {@link PieceType#BISHOP}
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
+    }
+
     /**
      * Returns the symbol representing the Bishop piece ("B")
      *
@@ -97,7 +107,7 @@ public class Bishop extends Piece {
      */
     @Override
     public Piece copy() {
-        Bishop copy = new Bishop(this.color, new Coordinate(position.getRow(), position.getCol()));
+        Bishop copy = new Bishop(getColor(), new Coordinate(position.getRow(), position.getCol()));
         copy.setHasMoved(this.hasMoved);
         return copy;
     }
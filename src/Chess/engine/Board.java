@@ -1,5 +1,6 @@
-package Chess;
+package Chess.engine;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Stack;
 
@@ -24,12 +25,44 @@ public class Board {
     /** Two-dimensional grid of squares. */
     private Square[][] squares;
 
+    /**
+     * The same board as one piece code per square (row * 8 + col, see
+     * {@link PieceType}), kept in step by setPieceAt. Searching for pieces by
+     * color or type reads this instead of asking every piece object.
+     */
+    private final byte[] mailbox = new byte[ROWS * COLUMNS];
+
     // Undo Functionalities
     private Stack<Move> undoStack = new Stack<>();
     // Redo Functionalities
     private Stack<Move> redoStack = new Stack<>();
 
-    private GameScreen gameScreen;
+    /** Half moves without a capture or pawn move that end the game in a draw. */
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    // Position history for repetitions: position key and halfmove clock after
+    // every move, entry 0 is the position before the first move. Every move
+    // (real or simulated) pushes an entry and undoMove pops one. The key is
+    // the placement key with the castling and en passant rights and the side
+    // to move folded in, see positionKey.
+    private long[] keyHistory = new long[64];
+    private int[] clockHistory = new int[64];
+    private int historySize = 0;
+
+    // counts of every piece kind, kept up to date by setPieceAt (see MaterialSignature)
+    private long materialSignature = 0;
+
+    // Zobrist hash of the pieces, XOR-ed in and out by setPieceAt
+    private long placementKey = 0;
+
+    // moves made before the history stack starts, for boards built from a Position
+    private int historyBase = 0;
+
+    // the last snapshot handed out, dropped as soon as anything changes
+    private Position snapshot;
+
+    // told about captures on real moves; null when nobody is watching (AI copies, tools)
+    private BoardListener listener;
 
     private int moveCounter = 0;
     private int whiteCounter = -1;
@@ -39,9 +72,11 @@ public class Board {
     /**
      * Constructs a new, empty chessboard and populates it with
      * standard starting pieces.
+     *
+     * @param listener told about captures on real moves, or {@code null}
      */
-    public Board(GameScreen gameScreen) {
-        this.gameScreen = gameScreen;
+    public Board(BoardListener listener) {
+        this.listener = listener;
         squares = new Square[ROWS][COLUMNS];
         initializeBoard();
     }
@@ -50,6 +85,9 @@ public class Board {
      * Initializes each square and sets up pieces in standard chess layout.
      */
     public void initializeBoard() {
+        materialSignature = 0;
+        placementKey = 0;
+        Arrays.fill(mailbox, (byte) 0);
         for (int r = 0; r < ROWS; r++) {
             for (int c = 0; c < COLUMNS; c++) {
                 squares[r][c] = new Square(r, c);
@@ -72,7 +110,7 @@ public class Board {
      */
     private void placePawns(String color, int row) {
         for (int c = 0; c < COLUMNS; c++) {
-            squares[row][c].setPiece(new Pawn(color, new Coordinate(row, c)));
+            setPieceAt(row, c, new Pawn(color, new Coordinate(row, c)));
         }
     }
 
@@ -83,14 +121,14 @@ public class Board {
      * @param row   the row where the pieces should be placed
      */
     private void placeMajorPieces(String color, int row) {
-        squares[row][0].setPiece(new Rook(color, new Coordinate(row, 0)));
-        squares[row][1].setPiece(new Knight(color, new Coordinate(row, 1)));
-        squares[row][2].setPiece(new Bishop(color, new Coordinate(row, 2)));
-        squares[row][3].setPiece(new Queen(color, new Coordinate(row, 3)));
-        squares[row][4].setPiece(new King(color, new Coordinate(row, 4)));
-        squares[row][5].setPiece(new Bishop(color, new Coordinate(row, 5)));
-        squares[row][6].setPiece(new Knight(color, new Coordinate(row, 6)));
-        squares[row][7].setPiece(new Rook(color, new Coordinate(row, 7)));
+        setPieceAt(row, 0, new Rook(color, new Coordinate(row, 0)));
+        setPieceAt(row, 1, new Knight(color, new Coordinate(row, 1)));
+        setPieceAt(row, 2, new Bishop(color, new Coordinate(row, 2)));
+        setPieceAt(row, 3, new Queen(color, new Coordinate(row, 3)));
+        setPieceAt(row, 4, new King(color, new Coordinate(row, 4)));
+        setPieceAt(row, 5, new Bishop(color, new Coordinate(row, 5)));
+        setPieceAt(row, 6, new Knight(color, new Coordinate(row, 6)));
+        setPieceAt(row, 7, new Rook(color, new Coordinate(row, 7)));
     }
 
     /**
@@ -116,10 +154,34 @@ public class Board {
      */
     public void setPieceAt(int row, int col, Piece piece) {
         if (isValidPosition(row, col)) {
+            snapshot = null;
+            Piece old = squares[row][col].getPiece();
+            int sq = row * COLUMNS + col;
+            if (old != null) {
+                materialSignature = MaterialSignature.remove(materialSignature, old, row, col);
+                placementKey ^= Zobrist.pieceKey(mailbox[sq], sq);
+            }
+            if (piece != null) {
+                materialSignature = MaterialSignature.add(materialSignature, piece, row, col);
+                placementKey ^= Zobrist.pieceKey(piece.getCode(), sq);
+            }
+            mailbox[sq] = (byte) (piece == null ? 0 : piece.getCode());
             squares[row][col].setPiece(piece);
         }
     }
 
+    /**
+     * Returns the code of the piece on a square without touching the piece
+     *
+     * @param row board row index (0–7)
+     * @param col board column index (0–7)
+     * @return 0 for an empty square, otherwise the {@link PieceType} code plus
+     *         {@link PieceType#BLACK_FLAG} for black pieces
+     */
+    public int getPieceCode(int row, int col) {
+        return mailbox[row * COLUMNS + col];
+    }
+
     /**
      * Retrieves a square using chess notation (file, rank).
      * File 0 = 'a', File 7 = 'h'
@@ -215,7 +277,7 @@ public class Board {
         // Check for promotion
         String promotion = null;
         // String choosePromotionPiece = null;
-        if (piece instanceof Pawn && choosePromotionPiece != null) {
+        if (piece.getType() == PieceType.PAWN && choosePromotionPiece != null) {
             Pawn pawn = (Pawn) piece;
             if (pawn.promotionRank(toRow)) {
                 // promotion = "Queen"; // hardcore Queen, QUIboard will have choices
@@ -230,9 +292,10 @@ public class Board {
         if (!piece.isMoveValid(this, move)) {
             return false;
         }
+        startHistory();
 
         // En Passant checks
-        if (piece instanceof Pawn && targetPiece == null && fromCol != toCol) {
+        if (piece.getType() == PieceType.PAWN && targetPiece == null && fromCol != toCol) {
             // Pawn moved Diagonally
             if (fromCol != toCol) {
                 int direction = piece.isWhite() ? 1 : -1; // Determine direction
@@ -240,7 +303,7 @@ public class Board {
 
                 Piece en_passantPawn = getPieceAt(capturedPawnRow, toCol); // get the captured pawn
 
-                if (en_passantPawn instanceof Pawn && !en_passantPawn.isSameColor(piece)) {
+                if (PieceType.of(en_passantPawn) == PieceType.PAWN && !en_passantPawn.isSameColor(piece)) {
                     // Remove captured Pawn
                     setPieceAt(capturedPawnRow, toCol, null);
 
@@ -254,11 +317,12 @@ public class Board {
         setPieceAt(toRow, toCol, piece);
         setPieceAt(fromRow, fromCol, null);
 
-        // Update piece position
+        // Update piece position, undo has to know if this was its first move
+        move.setFirstMove(!piece.hasMoved());
         piece.moveTo(new Coordinate(toRow, toCol));
 
         //handling proper castling
-        if(piece instanceof King){
+        if(piece.getType() == PieceType.KING){
             int colDiff = toCol-fromCol;
             if(colDiff ==2){
                 Coordinate rookFrom = new Coordinate(fromRow, 7);
@@ -300,21 +364,18 @@ public class Board {
             //for updating the captured piece panel
             Piece captured = move.getCapturedPiece();
             if(captured != null){
-                boolean isWhiteCaptured = captured.isWhite();
-
-                String color;
-                if(isWhiteCaptured){
+                if(captured.isWhite()){
                     if(whiteCounter != moveCounter){
-                        color = "W";
-                        String type = captured.getClass().getSimpleName().toLowerCase();
-                        gameScreen.addCapturedPiece(type+"_"+color, true);
+                        if(listener != null){
+                            listener.pieceCaptured(captured);
+                        }
                         whiteCounter = moveCounter;
                     }
                 }else {
                     if(blackCounter != moveCounter){
-                        color = "B";
-                        String type = captured.getClass().getSimpleName().toLowerCase();
-                        gameScreen.addCapturedPiece(type+"_"+color, false);
+                        if(listener != null){
+                            listener.pieceCaptured(captured);
+                        }
                         blackCounter = moveCounter;
                     }
                 }
@@ -322,6 +383,7 @@ public class Board {
         }
         
 
+        pushHistory(move);
         undoStack.push(move); // Record move for undo
         redoStack.clear(); // Clear redo stack when new moves are made
         return true;
@@ -333,23 +395,17 @@ public class Board {
      * @return {@code true} if the king is in check, {@code false} otherwise
      */
     private boolean checkKingCheck(Board board, String color) {
-        Piece king = board.getAllPieces(color).stream().filter(p -> p instanceof King).findFirst().orElse(null);
+        Coordinate kingPosition = board.findKing(color);
 
-        if (king == null) {
+        if (kingPosition == null) {
             return false;
         }
 
-        Coordinate kingPosition = king.getPosition();
-        String opponentColor;
-        if(color == "White"){
-            opponentColor = "Black";
-        }else {
-            opponentColor = "White";
-        }
-
+        PieceColor opponentColor = PieceColor.of(color).opposite();
 
-        for (int i = 0; i < board.getAllPieces(opponentColor).size(); i++) {
-            Piece curPiece = board.getAllPieces(opponentColor).get(i);
+        List<Piece> opponentPieces = board.getAllPieces(opponentColor);
+        for (int i = 0; i < opponentPieces.size(); i++) {
+            Piece curPiece = opponentPieces.get(i);
             List<Coordinate> curMove = curPiece.getLegalMoves(board);
             for (int j = 0; j < curMove.size(); j++) {
                 if (curMove.get(j).equals(kingPosition)) {
@@ -366,7 +422,9 @@ public class Board {
      * @return a new Board with the same piece positions
      */
     public Board copy() {
-        Board newBoard = new Board(gameScreen);
+        // copies are for searching, nothing should hear about their captures
+        Board newBoard = new Board(null);
+        newBoard.clear(); // the constructor sets up the starting position
         for (int r = 0; r < ROWS; r++) {
             for (int c = 0; c < COLUMNS; c++) {
                 Piece piece = this.getPieceAt(r, c);
@@ -376,9 +434,85 @@ public class Board {
                 }
             }
         }
+        // the copy needs the history too, or the search could never see a repetition
+        newBoard.keyHistory = Arrays.copyOf(keyHistory, keyHistory.length);
+        newBoard.clockHistory = Arrays.copyOf(clockHistory, clockHistory.length);
+        newBoard.historySize = historySize;
+        newBoard.historyBase = historyBase;
         return newBoard;
     }
 
+    /**
+     * Hashes the piece placement (ignores side to move and castling state).
+     * Used to key the {@link EvalCache}. It is kept up to date as pieces
+     * are put down and taken away, so this costs nothing.
+     *
+     * @return the Zobrist hash of all pieces on the board
+     */
+    public long getPlacementKey() {
+        return placementKey;
+    }
+
+    /**
+     * Hashes the position as the repetition rule sees it: the placement, the
+     * castling rights, the en passant right and the side to move
+     *
+     * @param ply  the moves made, odd when black is to move
+     * @param last the move that led here, for the en passant right, or
+     *             {@code null}
+     * @return the key
+     */
+    private long positionKey(int ply, Move last) {
+        long key = placementKey;
+        if (canStillCastle(0, 7)) {
+            key ^= Zobrist.castlingKey(0);
+        }
+        if (canStillCastle(0, 0)) {
+            key ^= Zobrist.castlingKey(1);
+        }
+        if (canStillCastle(7, 7)) {
+            key ^= Zobrist.castlingKey(2);
+        }
+        if (canStillCastle(7, 0)) {
+            key ^= Zobrist.castlingKey(3);
+        }
+        // a double step only gives a right to take en passant if a pawn stands beside it
+        if (last != null && last.getMovedPiece().getType() == PieceType.PAWN
+                && Math.abs(last.getFrom().getRow() - last.getTo().getRow()) == 2) {
+            int row = last.getTo().getRow();
+            int col = last.getTo().getCol();
+            int enemyPawn = (mailbox[row * COLUMNS + col] & PieceType.BLACK_FLAG) == 0
+                    ? PieceType.PAWN.getCode() | PieceType.BLACK_FLAG : PieceType.PAWN.getCode();
+            if ((col > 0 && mailbox[row * COLUMNS + col - 1] == enemyPawn)
+                    || (col < COLUMNS - 1 && mailbox[row * COLUMNS + col + 1] == enemyPawn)) {
+                key ^= Zobrist.enPassantKey(col);
+            }
+        }
+        if ((ply & 1) != 0) {
+            key ^= Zobrist.blackToMoveKey();
+        }
+        return key;
+    }
+
+    /**
+     * The repetition key of the board as it stands, for boards set up from a
+     * FEN or a packed position
+     *
+     * @param ply the moves made, odd when black is to move
+     * @return the key, see {@link #positionKey(int, Move)}
+     */
+    long positionKey(int ply) {
+        return positionKey(ply, getLastMove());
+    }
+
+    // the king and the rook on its home squares and neither has moved
+    private boolean canStillCastle(int row, int rookCol) {
+        int black = row == 0 ? 0 : PieceType.BLACK_FLAG;
+        return mailbox[row * COLUMNS + 4] == (PieceType.KING.getCode() | black)
+                && mailbox[row * COLUMNS + rookCol] == (PieceType.ROOK.getCode() | black)
+                && !squares[row][4].getPiece().hasMoved() && !squares[row][rookCol].getPiece().hasMoved();
+    }
+
     /**
      * Clears all pieces from the board.
      */
@@ -388,6 +522,198 @@ public class Board {
                 squares[r][c].setPiece(null);
             }
         }
+        materialSignature = 0;
+        placementKey = 0;
+        Arrays.fill(mailbox, (byte) 0);
+        historySize = 0;
+        historyBase = 0;
+        snapshot = null;
+    }
+
+    /**
+     * @return the {@link MaterialSignature} of the pieces on the board
+     */
+    public long getMaterialSignature() {
+        return materialSignature;
+    }
+
+    /**
+     * @return {@code true} if neither side has enough material left to ever
+     *         give mate
+     */
+    public boolean isDeadDraw() {
+        return MaterialSignature.lookup(materialSignature) == MaterialSignature.DEAD_DRAW;
+    }
+
+    /**
+     * @return {@code true} if the material left is a known draw with normal
+     *         play, or a dead draw
+     */
+    public boolean isDrawishMaterial() {
+        return MaterialSignature.lookup(materialSignature) != MaterialSignature.PLAYABLE;
+    }
+
+    // === Repetition and fifty-move rule ===
+
+    /**
+     * Records the current position as the start of the history if nothing
+     * has been recorded yet. Called before a move changes the board, so
+     * positions set up with {@link #setPieceAt} are picked up too.
+     */
+    private void startHistory() {
+        if (historySize == 0) {
+            keyHistory[0] = positionKey(historyBase, getLastMove());
+            clockHistory[0] = 0;
+            historySize = 1;
+        }
+    }
+
+    /**
+     * Records the position after a move
+     *
+     * @param move the move that was just made
+     */
+    private void pushHistory(Move move) {
+        if (historySize == keyHistory.length) {
+            keyHistory = Arrays.copyOf(keyHistory, historySize * 2);
+            clockHistory = Arrays.copyOf(clockHistory, historySize * 2);
+        }
+        // captures and pawn moves can't be undone, so they reset the clock
+        boolean irreversible = move.getCapturedPiece() != null || move.getMovedPiece().getType() == PieceType.PAWN
+                || move.getPromotionPiece() != null;
+        keyHistory[historySize] = positionKey(historyBase + historySize, move);
+        clockHistory[historySize] = irreversible ? 0 : clockHistory[historySize - 1] + 1;
+        historySize++;
+        snapshot = null;
+    }
+
+    /**
+     * Takes an immutable snapshot of the board that another thread can work
+     * on while this board keeps changing. The same snapshot is returned until
+     * a piece is moved.
+     *
+     * @return the current {@link Position}
+     */
+    public Position snapshot() {
+        if (snapshot != null) {
+            return snapshot;
+        }
+        byte[] codes = mailbox.clone();
+        long moved = 0;
+        for (int sq = 0; sq < codes.length; sq++) {
+            if (codes[sq] != 0 && getPieceAt(sq / COLUMNS, sq % COLUMNS).hasMoved()) {
+                moved |= 1L << sq;
+            }
+        }
+
+        int doubleStepFrom = -1;
+        int doubleStepTo = -1;
+        Move last = getLastMove();
+        if (last != null && last.getMovedPiece().getType() == PieceType.PAWN
+                && Math.abs(last.getFrom().getRow() - last.getTo().getRow()) == 2) {
+            doubleStepFrom = last.getFrom().getRow() * 8 + last.getFrom().getCol();
+            doubleStepTo = last.getTo().getRow() * 8 + last.getTo().getCol();
+        }
+
+        // only the keys back to the last capture or pawn move can repeat
+        long[] keys;
+        if (historySize == 0) {
+            keys = new long[] { positionKey(getPly(), getLastMove()) };
+        } else {
+            int top = historySize - 1;
+            keys = Arrays.copyOfRange(keyHistory, top - clockHistory[top], historySize);
+        }
+        snapshot = new Position(codes, moved, doubleStepFrom, doubleStepTo, keys, getPly(), materialSignature);
+        return snapshot;
+    }
+
+    /**
+     * Replaces everything on this board with a snapshot. The move history
+     * before the snapshot can't be undone.
+     *
+     * @param position the position to set up
+     */
+    public void setPosition(Position position) {
+        clear();
+        clearHistory();
+        position.applyTo(this);
+        snapshot = position;
+    }
+
+    // used by Position.applyTo so en passant still sees the last double step
+    void restoreLastMove(Move move) {
+        undoStack.push(move);
+    }
+
+    // used by Position.applyTo: keys since the last irreversible move, oldest first
+    void restoreHistory(long[] keys, int ply) {
+        if (keys.length > keyHistory.length) {
+            keyHistory = new long[keys.length * 2];
+            clockHistory = new int[keys.length * 2];
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keyHistory[i] = keys[i];
+            clockHistory[i] = i;
+        }
+        historySize = keys.length;
+        historyBase = ply - (keys.length - 1);
+    }
+
+    /**
+     * Returns the number of moves made since the history started
+     *
+     * @return the number of half moves on the history stack
+     */
+    public int getPly() {
+        return historyBase + Math.max(0, historySize - 1);
+    }
+
+    /**
+     * Returns the number of half moves since the last capture or pawn move
+     *
+     * @return the halfmove clock
+     */
+    public int getHalfmoveClock() {
+        return historySize == 0 ? 0 : clockHistory[historySize - 1];
+    }
+
+    /**
+     * Counts how often the current position has been on the board before,
+     * with the same side to move. Only goes back to the last capture or pawn
+     * move since no earlier position can come back after one.
+     *
+     * @return the number of earlier occurrences
+     */
+    public int getRepetitionCount() {
+        if (historySize == 0) {
+            return 0;
+        }
+        int top = historySize - 1;
+        long key = keyHistory[top];
+        int oldest = Math.max(0, top - clockHistory[top]);
+        int count = 0;
+        for (int i = top - 4; i >= oldest; i -= 2) { // same side to move, and it takes 4 plies to get back
+            if (keyHistory[i] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return {@code true} if the current position has now occurred three
+     *         times
+     */
+    public boolean isThreefoldRepetition() {
+        return getRepetitionCount() >= 2;
+    }
+
+    /**
+     * @return {@code true} if fifty moves were made by each side without a
+     *         capture or pawn move
+     */
+    public boolean isFiftyMoveRule() {
+        return getHalfmoveClock() >= FIFTY_MOVE_PLIES;
     }
 
     // === Helper for RuleEngine ===
@@ -399,12 +725,13 @@ public class Board {
      */
     // Finds King's Position and Color
     public Coordinate findKing(String color) {
-        for (int r = 0; r < ROWS; r++) {
-            for (int c = 0; c < COLUMNS; c++) {
-                Piece piece = getPieceAt(r, c);
-                if (piece instanceof King && piece.getColor().equals(color)) {
-                    return new Coordinate(r, c);
-                }
+        int king = PieceType.KING.getCode();
+        if (PieceColor.of(color) == PieceColor.BLACK) {
+            king += PieceType.BLACK_FLAG;
+        }
+        for (int sq = 0; sq < mailbox.length; sq++) {
+            if (mailbox[sq] == king) {
+                return new Coordinate(sq / COLUMNS, sq % COLUMNS);
             }
         }
         return null; // King not found
@@ -418,13 +745,22 @@ public class Board {
      */
     // Retrieves a list of all pieces belonging to the specified color
     public List<Piece> getAllPieces(String color) {
-        List<Piece> pieces = new ArrayList<>();
-        for (int r = 0; r < ROWS; r++) {
-            for (int c = 0; c < COLUMNS; c++) {
-                Piece piece = getPieceAt(r, c);
-                if (piece != null && piece.getColor().equals(color)) {
-                    pieces.add(piece);
-                }
+        return getAllPieces(PieceColor.of(color));
+    }
+
+    /**
+     * Returns a list of all pieces belonging to the specific color
+     *
+     * @param color The color of the pieces to find
+     * @return A list of {@link Piece} objects for that color
+     */
+    public List<Piece> getAllPieces(PieceColor color) {
+        int blackFlag = color == PieceColor.BLACK ? PieceType.BLACK_FLAG : 0;
+        List<Piece> pieces = new ArrayList<>(16);
+        for (int sq = 0; sq < mailbox.length; sq++) {
+            int code = mailbox[sq];
+            if (code != 0 && (code & PieceType.BLACK_FLAG) == blackFlag) {
+                pieces.add(squares[sq / COLUMNS][sq % COLUMNS].getPiece());
             }
         }
         return pieces;
@@ -437,6 +773,7 @@ public class Board {
      */
     // Test the move and is reversable (undoMove)
     public void simulateMove(Move move) {
+        startHistory();
         Coordinate from = move.getFrom();
         Coordinate to = move.getTo();
         Piece movedPiece = move.getMovedPiece();
@@ -449,6 +786,7 @@ public class Board {
 
         // 3. Update the piece's internal position (crucial for getLegalMoves)
         movedPiece.setPosition(to);
+        pushHistory(move);
     }
 
     /**
@@ -478,15 +816,20 @@ public class Board {
             return false;
         }
         Move move = redoStack.pop();
+        startHistory();
 
         Coordinate from = move.getFrom();
         Coordinate to = move.getTo();
         Piece movedPiece = move.getMovedPiece();
 
         // === Normal ===
+        if (isEnPassant(move)) {
+            Piece captured = move.getCapturedPiece();
+            setPieceAt(captured.getRow(), captured.getCol(), null);
+        }
         setPieceAt(from.getRow(), from.getCol(), null);
         setPieceAt(to.getRow(), to.getCol(), movedPiece);
-        movedPiece.setPosition(to);
+        movedPiece.moveTo(to);
 
         // === Promotion ===
         if (move.getPromotionPiece() != null) {
@@ -495,7 +838,7 @@ public class Board {
         }
 
         // === Castling ====
-        if (movedPiece instanceof King && move.getRookFrom() != null) {
+        if (movedPiece.getType() == PieceType.KING && move.getRookFrom() != null) {
             Coordinate rook_from = move.getRookFrom();
             Coordinate rook_to = move.getRookTo();
 
@@ -508,6 +851,7 @@ public class Board {
                 rook.moveTo(rook_to);
             }
         }
+        pushHistory(move);
         // Puck back to undo stack
         undoStack.push(move);
         return true;
@@ -529,6 +873,9 @@ public class Board {
     public void clearHistory() {
         undoStack.clear();
         redoStack.clear();
+        historySize = 0;
+        historyBase = 0;
+        snapshot = null;
     }
 
     /**
@@ -618,17 +965,25 @@ public class Board {
 
             // 2. Reset the piece's internal position
             movedPiece.setPosition(from);
+            if (move.isFirstMove()) {
+                movedPiece.setHasMoved(false);
+            }
 
             // 3. Put the captured piece back (if one existed)
-            if (capturedPiece != null) {
-                capturedPiece.setPosition(to);
+            if (isEnPassant(move)) {
+                // the pawn was taken beside the target square, not on it
+                setPieceAt(to.getRow(), to.getCol(), null);
+                setPieceAt(capturedPiece.getRow(), capturedPiece.getCol(), capturedPiece);
+            } else {
+                if (capturedPiece != null) {
+                    capturedPiece.setPosition(to);
+                }
+                setPieceAt(to.getRow(), to.getCol(), capturedPiece);
             }
-            setPieceAt(to.getRow(), to.getCol(), capturedPiece);
-
         }
 
         // ========= Castling undo ==========
-        if (move.getMovedPiece() instanceof King && move.getRookFrom() != null) {
+        if (move.getMovedPiece().getType() == PieceType.KING && move.getRookFrom() != null) {
             Coordinate rook_from = move.getRookFrom();
             Coordinate rook_to = move.getRookTo();
 
@@ -638,10 +993,21 @@ public class Board {
                 setPieceAt(rook_to.getRow(), rook_to.getCol(), null);
 
                 rook.moveTo(rook_from);
+                rook.setHasMoved(false); // castling needs a rook that never moved
             }
         }
 
-        // Note: If you needed to track hasMoved in simulate, you'd reset it here.
+        if (historySize > 1) {
+            historySize--;
+            snapshot = null;
+        }
+    }
+
+    // a pawn that captured diagonally onto an empty square took the pawn beside it
+    private static boolean isEnPassant(Move move) {
+        Piece captured = move.getCapturedPiece();
+        return move.getMovedPiece().getType() == PieceType.PAWN && PieceType.of(captured) == PieceType.PAWN
+                && captured.getRow() != move.getTo().getRow();
     }
 
     // === Debug and Utility ===
@@ -663,7 +1029,7 @@ public class Board {
                 if (p == null) {
                     sb.append(". ");
                 } else {
-                    String color = p.getColor().equals("White") ? "W" : "B";
+                    String color = p.isWhite() ? "W" : "B";
                     String type = p.getClass().getSimpleName().substring(0, 1);
                     sb.append(type).append(color.charAt(0)).append(" ");
                 }
@@ -684,8 +1050,13 @@ public class Board {
         return squares;
     }
 
-    public void setGameScreen(GameScreen gameScreen) {
-        this.gameScreen = gameScreen;
+    /**
+     * Sets who is told about captures on real moves
+     *
+     * @param listener the listener, or {@code null} for nobody
+     */
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
     }
 
     public void setTutorialMode(boolean enable){
@@ -0,0 +1,22 @@
+package Chess.engine;
+
+/**
+ * Gets told what happens on a {@link Board}
+ * <p>
+ * The board knows nothing about windows; whoever shows it registers one of
+ * these instead. Only real moves are reported, never the ones the AI tries
+ * out or the moves made on copies.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public interface BoardListener {
+
+    /**
+     * Called after a real move captured a piece
+     *
+     * @param piece the captured piece
+     */
+    void pieceCaptured(Piece piece);
+}
@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,6 +35,9 @@ public class ChessGame {
 
     private int currPlayerIndex = 0; // 0 for white by default
 
+    /** Status of the current position, recomputed after every move. */
+    private PositionStatus status;
+
     /**
      * Constructs a new {@code ChessGame} with the given players and initializes the
      * board
@@ -70,6 +73,7 @@ public class ChessGame {
     public void setBoard(Board newBoard) {
         this.board = newBoard;
         this.ruleEngine = new RuleEngine(newBoard);
+        this.status = null;
     }
 
     /**
@@ -106,12 +110,26 @@ public class ChessGame {
     /**
      * Checks whether the game has reached a terminal state
      * 
-     * @return {@code true} if checkmate or stalemate has occurred; {@code false}
-     *         otherwise
+     * @return {@code true} if checkmate, stalemate, threefold repetition or the
+     *         fifty-move rule has ended the game; {@code false} otherwise
      */
     public boolean checkGameOver() {
-        return ruleEngine.isCheckmate(getCurrentPlayer()) ||
-                ruleEngine.isStalemate(getCurrentPlayer());
+        return getStatus().isGameOver();
+    }
+
+    /**
+     * Returns the status of the current position for the player to move. It
+     * is computed the first time it is asked for after a move and shared by
+     * everything that asks until the next move.
+     *
+     * @return the current {@link PositionStatus}
+     */
+    public PositionStatus getStatus() {
+        String color = getCurrentPlayer().getColor();
+        if (status == null || !status.isFor(board, color)) {
+            status = ruleEngine.computeStatus(color);
+        }
+        return status;
     }
 
     /**
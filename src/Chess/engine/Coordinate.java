@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 
 /**
  * Represents a row–column coordinate on the chessboard.
@@ -0,0 +1,202 @@
+package Chess.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small fixed-size, direct-mapped cache of static evaluations
+ * <p>
+ * Maps a position hash to its evaluation so the AI levels and {@link GetHint}
+ * do not re-score the same resulting position again and again, within a turn
+ * and across turns. Each slot is a single {@code long}: the upper 32 bits of
+ * the key (the lower bits choose the slot) and the 32-bit score. A newer
+ * position simply overwrites an older one that maps to the same slot.
+ * </p>
+ * <p>
+ * The key is the piece placement only, without the side to move, castling
+ * or en passant rights. That is on purpose: the static evaluation reads
+ * nothing but where the pieces stand, and scores are stored from White's
+ * side, so positions differing only in those rights share one score.
+ * </p>
+ * <p>
+ * The cache is used from many threads at once without locking (the AI's
+ * helper threads, the analysis engines, the game server). Slots are read and
+ * written with opaque access, so a slot is never seen half written, and the
+ * key half of the slot tells whether it holds the position asked for; two
+ * threads storing to one slot just leave one of their scores. The counters
+ * are {@link LongAdder}s, exact once the threads are done and close enough
+ * while they run.
+ * </p>
+ * <p>
+ * The shared instance is sized from the {@code chess.evalcache.entries} system
+ * property, or with {@link #configureShared(int)} before first use. Setting
+ * {@code chess.evalcache.offheap.mb} instead keeps the slots outside the Java
+ * heap in an {@link OffHeapEvalCache}, for caches of several gigabytes.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class EvalCache {
+
+    /** Number of slots used when nothing is configured. */
+    public static final int DEFAULT_ENTRIES = 1 << 16;
+
+    /** Returned by {@link #probe(long)} when the position is not cached. */
+    public static final int MISS = Integer.MIN_VALUE;
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static EvalCache shared;
+
+    private final long[] slots;
+    private final int mask;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates a cache with at least the given number of slots (rounded up to
+     * a power of two).
+     *
+     * @param entries the requested number of slots, must be positive
+     */
+    public EvalCache(int entries) {
+        if (entries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + entries);
+        }
+        int size = Integer.highestOneBit(entries);
+        if (size < entries) {
+            size = size << 1;
+        }
+        this.slots = new long[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * For subclasses that keep their slots somewhere else; they override
+     * {@link #probe(long)}, {@link #store(long, int)}, {@link #clear()} and
+     * {@link #size()}.
+     */
+    protected EvalCache() {
+        this.slots = null;
+        this.mask = 0;
+    }
+
+    /**
+     * Returns the cache shared by every AI player and hint generator
+     *
+     * @return the shared {@link EvalCache}
+     */
+    public static synchronized EvalCache shared() {
+        if (shared == null) {
+            Long offHeapMb = Long.getLong("chess.evalcache.offheap.mb");
+            if (offHeapMb != null) {
+                shared = new OffHeapEvalCache(offHeapMb << 20, Boolean.getBoolean("chess.evalcache.hugepages"));
+            } else {
+                shared = new EvalCache(Integer.getInteger("chess.evalcache.entries", DEFAULT_ENTRIES));
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Replaces the shared cache with an empty one of the given size
+     *
+     * @param entries the requested number of slots
+     */
+    public static synchronized void configureShared(int entries) {
+        shared = new EvalCache(entries);
+    }
+
+    /**
+     * Replaces the shared cache with an empty off-heap one
+     *
+     * @param bytes     the memory to use, see {@link OffHeapEvalCache}
+     * @param hugePages whether to align the memory for huge pages
+     */
+    public static synchronized void configureSharedOffHeap(long bytes, boolean hugePages) {
+        shared = new OffHeapEvalCache(bytes, hugePages);
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key the position hash
+     * @return the cached score, or {@link #MISS}
+     */
+    public int probe(long key) {
+        long slot = (long) SLOT.getOpaque(slots, (int) key & mask);
+        boolean hit = slot != 0 && (slot & 0xFFFFFFFF00000000L) == (key & 0xFFFFFFFF00000000L);
+        countProbe(hit);
+        return hit ? (int) slot : MISS;
+    }
+
+    /**
+     * Stores the score of a position, replacing whatever used the slot before
+     *
+     * @param key   the position hash
+     * @param score the score to remember
+     */
+    public void store(long key, int score) {
+        SLOT.setOpaque(slots, (int) key & mask, (key & 0xFFFFFFFF00000000L) | (score & 0xFFFFFFFFL));
+    }
+
+    /** Empties the cache and resets its counters. */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        resetCounters();
+    }
+
+    /**
+     * Counts a lookup for {@link #getHitRate()}
+     *
+     * @param hit whether the position was found
+     */
+    protected void countProbe(boolean hit) {
+        probes.increment();
+        if (hit) {
+            hits.increment();
+        }
+    }
+
+    /** Sets the lookup counters back to zero. */
+    protected void resetCounters() {
+        probes.reset();
+        hits.reset();
+    }
+
+    /** @return the number of slots */
+    public int size() {
+        return slots.length;
+    }
+
+    /** @return the number of lookups so far */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /** @return the number of lookups that found the position */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return hits divided by lookups, or 0 before the first lookup */
+    public double getHitRate() {
+        long probeCount = probes.sum();
+        return probeCount == 0 ? 0.0 : (double) hits.sum() / probeCount;
+    }
+
+    /**
+     * Returns a one line summary of the cache counters
+     *
+     * @return the counters formatted for logging
+     */
+    @Override
+    public String toString() {
+        return String.format("EvalCache[entries=%d, probes=%d, hits=%d, hitRate=%.1f%%]",
+                size(), getProbes(), getHits(), getHitRate() * 100);
+    }
+}
@@ -0,0 +1,373 @@
+package Chess.engine;
+
+import java.util.List;
+
+/**
+ * Tiered static evaluation used by the AI difficulty levels
+ * <p>
+ * Tier 1 is a cheap material-plus-piece-square estimate. Tier 2 adds the
+ * expensive positional terms (mobility, king safety and pawn structure). The
+ * positional terms are clamped to {@link #LAZY_MARGIN}, so when the tier 1
+ * estimate is already that far outside the alpha-beta window the refinement
+ * cannot change the result and is skipped.
+ * </p>
+ * <p>
+ * All scores use the same units as the AI piece values (pawn = 1, queen = 50)
+ * and are from the point of view of the requested color. Full evaluations are
+ * remembered in an {@link EvalCache} (from White's side), so a position that
+ * was fully scored once is answered without either tier.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class Evaluator {
+
+    /** Largest amount the tier 2 terms can move the tier 1 estimate. */
+    public static final int LAZY_MARGIN = 12;
+
+    /** Window bounds meaning "no bound". */
+    public static final int MIN_SCORE = -100000;
+    public static final int MAX_SCORE = 100000;
+
+    // piece-square tables from White's side, index = row * 8 + col (row 0 = rank 1)
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, -1, -1, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 1, 2, 2, 1, 0, 0,
+            1, 1, 1, 2, 2, 1, 1, 1,
+            2, 2, 2, 2, 2, 2, 2, 2,
+            3, 3, 3, 3, 3, 3, 3, 3,
+            0, 0, 0, 0, 0, 0, 0, 0 };
+
+    private static final int[] KNIGHT_TABLE = {
+            -3, -2, -1, -1, -1, -1, -2, -3,
+            -2, 0, 0, 1, 1, 0, 0, -2,
+            -1, 0, 2, 2, 2, 2, 0, -1,
+            -1, 1, 2, 3, 3, 2, 1, -1,
+            -1, 1, 2, 3, 3, 2, 1, -1,
+            -1, 0, 2, 2, 2, 2, 0, -1,
+            -2, 0, 0, 0, 0, 0, 0, -2,
+            -3, -2, -1, -1, -1, -1, -2, -3 };
+
+    private static final int[] BISHOP_TABLE = {
+            -1, -1, -1, -1, -1, -1, -1, -1,
+            -1, 1, 0, 0, 0, 0, 1, -1,
+            -1, 1, 1, 1, 1, 1, 1, -1,
+            -1, 0, 1, 2, 2, 1, 0, -1,
+            -1, 0, 1, 2, 2, 1, 0, -1,
+            -1, 0, 1, 1, 1, 1, 0, -1,
+            -1, 0, 0, 0, 0, 0, 0, -1,
+            -1, -1, -1, -1, -1, -1, -1, -1 };
+
+    private static final int[] KING_TABLE = {
+            1, 2, 1, 0, 0, 1, 2, 1,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            -1, -1, -1, -1, -1, -1, -1, -1,
+            -2, -2, -2, -2, -2, -2, -2, -2,
+            -2, -2, -2, -2, -2, -2, -2, -2,
+            -2, -2, -2, -2, -2, -2, -2, -2,
+            -2, -2, -2, -2, -2, -2, -2, -2,
+            -2, -2, -2, -2, -2, -2, -2, -2 };
+
+    private final EvalCache cache;
+
+    // counters for how often each tier is reached
+    private long evaluations;
+    private long cheapExits;
+    private long fullEvaluations;
+
+    /**
+     * Creates an evaluator backed by the shared {@link EvalCache}
+     */
+    public Evaluator() {
+        this(EvalCache.shared());
+    }
+
+    /**
+     * Creates an evaluator backed by the given cache
+     *
+     * @param cache the cache for full evaluations, must not be null
+     */
+    public Evaluator(EvalCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the value the AI assigns to a piece
+     *
+     * @param piece the chess piece to evaluate
+     * @return the numerical value of the piece, or 0 if piece is null
+     */
+    public static int pieceValue(Piece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        return piece.getType().getValue();
+    }
+
+    /**
+     * Tier 1: material plus piece-square bonuses
+     *
+     * @param board the board state to evaluate
+     * @param color the color to evaluate from ("White" or "Black")
+     * @return the cheap estimate; positive favors {@code color}
+     */
+    public int cheapScore(Board board, String color) {
+        // straight off the mailbox, the Piece objects aren't needed for this
+        int own = PieceColor.of(color) == PieceColor.BLACK ? PieceType.BLACK_FLAG : 0;
+        int score = 0;
+        for (int r = 0; r < Board.ROWS; r++) {
+            for (int c = 0; c < Board.COLUMNS; c++) {
+                int code = board.getPieceCode(r, c);
+                if (code == 0) {
+                    continue;
+                }
+                int value = PieceType.fromCode(code).getValue() + squareBonus(code, r, c);
+                if ((code & PieceType.BLACK_FLAG) == own) {
+                    score = score + value;
+                } else {
+                    score = score - value;
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Evaluates the board lazily against an alpha-beta window
+     * <p>
+     * A cached full evaluation is returned straight away. If the cheap
+     * estimate is at least {@link #LAZY_MARGIN} below {@code alpha} or above
+     * {@code beta}, it is returned as is, since the
+     * positional terms cannot bring it back inside the window. Otherwise the
+     * full evaluation is computed.
+     * </p>
+     *
+     * @param board the board state to evaluate
+     * @param color the color to evaluate from ("White" or "Black")
+     * @param alpha the score the caller already has guaranteed
+     * @param beta  the score above which the caller will not care
+     * @return the evaluation, or a bound outside the window
+     */
+    public int evaluate(Board board, String color, int alpha, int beta) {
+        evaluations++;
+        boolean white = color.equals("White");
+        long key = board.getPlacementKey();
+        int cached = cache.probe(key);
+        if (cached != EvalCache.MISS) {
+            return white ? cached : -cached;
+        }
+
+        int cheap = cheapScore(board, color);
+        if (cheap + LAZY_MARGIN <= alpha || cheap - LAZY_MARGIN >= beta) {
+            cheapExits++;
+            return cheap; // only a bound, so it is not cached
+        }
+        fullEvaluations++;
+        int score = cheap + positionalScore(board, color);
+        cache.store(key, white ? score : -score);
+        return score;
+    }
+
+    /**
+     * Full evaluation without any window
+     *
+     * @param board the board state to evaluate
+     * @param color the color to evaluate from ("White" or "Black")
+     * @return the full evaluation; positive favors {@code color}
+     */
+    public int evaluate(Board board, String color) {
+        return evaluate(board, color, MIN_SCORE, MAX_SCORE);
+    }
+
+    /**
+     * Tier 2: mobility, king safety and pawn structure, clamped to
+     * {@link #LAZY_MARGIN}
+     *
+     * @param board the board state to evaluate
+     * @param color the color to evaluate from ("White" or "Black")
+     * @return the positional adjustment; positive favors {@code color}
+     */
+    public int positionalScore(Board board, String color) {
+        String opponentColor = color.equals("White") ? "Black" : "White";
+        List<Piece> myPieces = board.getAllPieces(color);
+        List<Piece> opponentPieces = board.getAllPieces(opponentColor);
+
+        int score = (mobility(board, myPieces) - mobility(board, opponentPieces)) / 4;
+        score = score + kingSafety(board, myPieces, opponentPieces) - kingSafety(board, opponentPieces, myPieces);
+        score = score + pawnStructure(myPieces, opponentPieces) - pawnStructure(opponentPieces, myPieces);
+
+        if (score > LAZY_MARGIN) {
+            return LAZY_MARGIN;
+        }
+        if (score < -LAZY_MARGIN) {
+            return -LAZY_MARGIN;
+        }
+        return score;
+    }
+
+    /**
+     * @param code the code of the piece on the square, see {@link PieceType}
+     * @param row  the row of the square
+     * @param col  the column of the square
+     * @return the piece-square bonus for that piece
+     */
+    private int squareBonus(int code, int row, int col) {
+        // tables are written for White, flip the rows for Black
+        int index = ((code & PieceType.BLACK_FLAG) == 0 ? row : 7 - row) * 8 + col;
+        switch (PieceType.fromCode(code)) {
+            case PAWN:
+                return PAWN_TABLE[index];
+            case KNIGHT:
+                return KNIGHT_TABLE[index];
+            case BISHOP:
+                return BISHOP_TABLE[index];
+            case KING:
+                return KING_TABLE[index];
+            default:
+                return 0;
+        }
+    }
+
+    // kings are skipped, their move generation scans every opponent piece
+    private int mobility(Board board, List<Piece> pieces) {
+        int moves = 0;
+        for (int i = 0; i < pieces.size(); i++) {
+            Piece piece = pieces.get(i);
+            if (piece.getType() != PieceType.KING) {
+                moves = moves + piece.getLegalMoves(board).size();
+            }
+        }
+        return moves;
+    }
+
+    // pawns in front of the king are good, enemy pieces close to it are bad
+    private int kingSafety(Board board, List<Piece> pieces, List<Piece> enemies) {
+        Piece king = null;
+        for (int i = 0; i < pieces.size(); i++) {
+            if (pieces.get(i).getType() == PieceType.KING) {
+                king = pieces.get(i);
+                break;
+            }
+        }
+        if (king == null) {
+            return 0;
+        }
+
+        int score = 0;
+        int shieldRow = king.getRow() + (king.isWhite() ? 1 : -1);
+        int ownPawn = PieceType.PAWN.getCode() | (king.isWhite() ? 0 : PieceType.BLACK_FLAG);
+        if (shieldRow >= 0 && shieldRow < Board.ROWS) {
+            for (int c = Math.max(0, king.getCol() - 1); c <= Math.min(Board.COLUMNS - 1, king.getCol() + 1); c++) {
+                if (board.getPieceCode(shieldRow, c) == ownPawn) {
+                    score++;
+                }
+            }
+        }
+
+        for (int i = 0; i < enemies.size(); i++) {
+            Piece enemy = enemies.get(i);
+            PieceType type = enemy.getType();
+            if (type == PieceType.PAWN || type == PieceType.KING) {
+                continue;
+            }
+            int distance = Math.max(Math.abs(enemy.getRow() - king.getRow()),
+                    Math.abs(enemy.getCol() - king.getCol()));
+            if (distance <= 2) {
+                score--;
+            }
+        }
+        return score;
+    }
+
+    // doubled and isolated pawns cost a point, passed pawns earn one
+    private int pawnStructure(List<Piece> pieces, List<Piece> enemies) {
+        int[] fileCounts = new int[Board.COLUMNS];
+        for (int i = 0; i < pieces.size(); i++) {
+            if (pieces.get(i).getType() == PieceType.PAWN) {
+                fileCounts[pieces.get(i).getCol()]++;
+            }
+        }
+
+        int score = 0;
+        for (int c = 0; c < Board.COLUMNS; c++) {
+            if (fileCounts[c] > 1) {
+                score = score - (fileCounts[c] - 1);
+            }
+            boolean leftEmpty = c == 0 || fileCounts[c - 1] == 0;
+            boolean rightEmpty = c == 7 || fileCounts[c + 1] == 0;
+            if (fileCounts[c] > 0 && leftEmpty && rightEmpty) {
+                score = score - fileCounts[c];
+            }
+        }
+
+        for (int i = 0; i < pieces.size(); i++) {
+            Piece pawn = pieces.get(i);
+            if (pawn.getType() == PieceType.PAWN && isPassed(pawn, enemies)) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    private boolean isPassed(Piece pawn, List<Piece> enemies) {
+        for (int i = 0; i < enemies.size(); i++) {
+            Piece enemy = enemies.get(i);
+            if (enemy.getType() != PieceType.PAWN || Math.abs(enemy.getCol() - pawn.getCol()) > 1) {
+                continue;
+            }
+            boolean ahead = pawn.isWhite() ? enemy.getRow() > pawn.getRow() : enemy.getRow() < pawn.getRow();
+            if (ahead) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ========== Tier counters ==========
+
+    /** @return number of evaluations requested */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /** @return number of evaluations answered by the cheap tier alone */
+    public long getCheapExits() {
+        return cheapExits;
+    }
+
+    /** @return number of evaluations answered by the cache */
+    public long getCacheHits() {
+        return evaluations - cheapExits - fullEvaluations;
+    }
+
+    /** @return the cache behind this evaluator */
+    public EvalCache getCache() {
+        return cache;
+    }
+
+    /** @return number of evaluations that reached the full tier */
+    public long getFullEvaluations() {
+        return fullEvaluations;
+    }
+
+    /** Resets the tier counters. */
+    public void resetCounters() {
+        evaluations = 0;
+        cheapExits = 0;
+        fullEvaluations = 0;
+    }
+
+    /**
+     * Returns a one line summary of the tier counters
+     *
+     * @return the counters formatted for logging
+     */
+    @Override
+    public String toString() {
+        return "Evaluator[evaluations=" + evaluations + ", cached=" + getCacheHits() + ", cheap=" + cheapExits
+                + ", full=" + fullEvaluations + "]";
+    }
+}
@@ -0,0 +1,263 @@
+package Chess.engine;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation
+ * <p>
+ * FEN is how other chess programs pass positions around, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}: the
+ * pieces from rank 8 down, the side to move, the castling rights, the en
+ * passant square and the two move counters. The board has no castling rights
+ * of its own, it looks at whether the king and rook have moved, so a missing
+ * right is read as "that king or rook has moved". Pawns off their starting
+ * row have moved too, so they don't get a double step.
+ * </p>
+ * <p>
+ * The positions before a FEN are not known, so a board made from one only
+ * sees repetitions of positions played after it. Its halfmove clock still
+ * starts at the one in the FEN (at most 100, which already ends the game), so
+ * the fifty-move rule works.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class Fen {
+
+    /** The starting position. */
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String LETTERS = " pnbrqk";
+
+    private final Position position;
+    private final String sideToMove;
+
+    private Fen(Position position, String sideToMove) {
+        this.position = position;
+        this.sideToMove = sideToMove;
+    }
+
+    /** @return the position */
+    public Position getPosition() {
+        return position;
+    }
+
+    /** @return "White" or "Black" */
+    public String getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Reads a FEN. The move counters may be left out.
+     *
+     * @param fen the text
+     * @return the position and the side to move
+     * @throws IllegalArgumentException if the text isn't a FEN of a position
+     *                                  with one king each
+     */
+    public static Fen parse(String fen) {
+        Board board = new Board(null);
+        String sideToMove = setUp(board, fen);
+        return new Fen(board.snapshot(), sideToMove);
+    }
+
+    /**
+     * Reads a FEN onto a board, replacing everything on it; for working
+     * through many positions on one board
+     *
+     * @param board the board
+     * @param fen   the text
+     * @return the side to move, "White" or "Black"
+     * @throws IllegalArgumentException if the text isn't a FEN of a position
+     *                                  with one king each; the board is left
+     *                                  half set up
+     */
+    public static String setUp(Board board, String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Not a FEN: " + fen);
+        }
+        board.clear();
+        board.clearHistory();
+
+        String[] ranks = fields[0].split("/");
+        if (ranks.length != Board.ROWS) {
+            throw new IllegalArgumentException("A FEN needs 8 ranks: " + fen);
+        }
+        int[] kings = new int[2];
+        for (int i = 0; i < ranks.length; i++) {
+            int row = Board.ROWS - 1 - i;
+            int col = 0;
+            for (char ch : ranks[i].toCharArray()) {
+                if (ch >= '1' && ch <= '8') {
+                    col += ch - '0';
+                    continue;
+                }
+                int type = LETTERS.indexOf(Character.toLowerCase(ch));
+                if (type <= 0 || col >= Board.COLUMNS) {
+                    throw new IllegalArgumentException("Bad rank '" + ranks[i] + "' in FEN: " + fen);
+                }
+                boolean white = Character.isUpperCase(ch);
+                int code = white ? type : type | PieceType.BLACK_FLAG;
+                board.setPieceAt(row, col, createPiece(code, row, col));
+                if (type == Position.KING) {
+                    kings[white ? 0 : 1]++;
+                }
+                col++;
+            }
+            if (col != Board.COLUMNS) {
+                throw new IllegalArgumentException("Bad rank '" + ranks[i] + "' in FEN: " + fen);
+            }
+        }
+        if (kings[0] != 1 || kings[1] != 1) {
+            throw new IllegalArgumentException("A FEN needs one king on each side: " + fen);
+        }
+
+        String sideToMove;
+        if (fields[1].equals("w")) {
+            sideToMove = "White";
+        } else if (fields[1].equals("b")) {
+            sideToMove = "Black";
+        } else {
+            throw new IllegalArgumentException("Bad side to move in FEN: " + fen);
+        }
+
+        markMoved(board, fields[2]);
+
+        if (!fields[3].equals("-")) {
+            boolean whiteMoved = sideToMove.equals("Black");
+            if (fields[3].length() != 2 || fields[3].charAt(1) != (whiteMoved ? '3' : '6')
+                    || !setDoubleStep(board, fields[3].charAt(0) - 'a', whiteMoved)) {
+                throw new IllegalArgumentException("Bad en passant square in FEN: " + fen);
+            }
+        }
+
+        int halfmoves = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+        int fullmoves = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        if (halfmoves < 0 || fullmoves < 1) {
+            throw new IllegalArgumentException("Bad move counters in FEN: " + fen);
+        }
+        // the positions since the last capture or pawn move are unknown; zeros never match a real key
+        long[] keys = new long[Math.min(halfmoves, Board.FIFTY_MOVE_PLIES) + 1];
+        int ply = (fullmoves - 1) * 2 + (sideToMove.equals("Black") ? 1 : 0);
+        while (ply < keys.length - 1) {
+            ply += 2; // the counters don't add up; keep the side to move
+        }
+        keys[keys.length - 1] = board.positionKey(ply);
+        board.restoreHistory(keys, ply);
+        return sideToMove;
+    }
+
+    /**
+     * Writes a position as FEN
+     *
+     * @param position   the position
+     * @param sideToMove "White" or "Black"
+     * @return the FEN
+     */
+    public static String toFen(Position position, String sideToMove) {
+        StringBuilder fen = new StringBuilder();
+        for (int row = Board.ROWS - 1; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < Board.COLUMNS; col++) {
+                int code = position.pieceAt(row, col);
+                if (code == Position.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char letter = LETTERS.charAt(code & 7);
+                fen.append((code & Position.BLACK) == 0 ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(sideToMove.equals("White") ? " w " : " b ");
+
+        String castling = (canCastle(position, 0, 7) ? "K" : "") + (canCastle(position, 0, 0) ? "Q" : "")
+                + (canCastle(position, 7, 7) ? "k" : "") + (canCastle(position, 7, 0) ? "q" : "");
+        fen.append(castling.isEmpty() ? "-" : castling).append(' ');
+        fen.append(enPassantSquare(position)).append(' ');
+        fen.append(position.getHalfmoveClock()).append(' ').append(position.getPly() / 2 + 1);
+        return fen.toString();
+    }
+
+    // en passant only needs to see the double step as the last move; false if there is no such pawn
+    static boolean setDoubleStep(Board board, int col, boolean whiteMoved) {
+        int fromRow = whiteMoved ? 1 : 6;
+        int toRow = whiteMoved ? 3 : 4;
+        Piece pawn = col >= 0 && col < Board.COLUMNS ? board.getPieceAt(toRow, col) : null;
+        if (PieceType.of(pawn) != PieceType.PAWN || pawn.isWhite() != whiteMoved) {
+            return false;
+        }
+        board.restoreLastMove(new Move(new Coordinate(fromRow, col), new Coordinate(toRow, col), pawn, null));
+        return true;
+    }
+
+    // a missing castling right means the king or rook has moved
+    static void markMoved(Board board, String castling) {
+        if (!castling.matches("-|K?Q?k?q?")) {
+            throw new IllegalArgumentException("Bad castling rights in FEN: " + castling);
+        }
+        for (int row : new int[] { 0, 7 }) {
+            boolean white = row == 0;
+            boolean kingSide = castling.indexOf(white ? 'K' : 'k') >= 0;
+            boolean queenSide = castling.indexOf(white ? 'Q' : 'q') >= 0;
+            setMoved(board, row, 4, !kingSide && !queenSide);
+            setMoved(board, row, 7, !kingSide);
+            setMoved(board, row, 0, !queenSide);
+        }
+    }
+
+    private static void setMoved(Board board, int row, int col, boolean moved) {
+        Piece piece = board.getPieceAt(row, col);
+        if (PieceType.of(piece) == PieceType.KING || PieceType.of(piece) == PieceType.ROOK) {
+            piece.setHasMoved(moved);
+        }
+    }
+
+    static boolean canCastle(Position position, int row, int rookCol) {
+        int color = row == 0 ? 0 : Position.BLACK;
+        return position.pieceAt(row, 4) == (Position.KING | color) && !position.hasMoved(row, 4)
+                && position.pieceAt(row, rookCol) == (Position.ROOK | color) && !position.hasMoved(row, rookCol);
+    }
+
+    // the square a pawn that just made a double step skipped, if there is one
+    private static String enPassantSquare(Position position) {
+        int to = position.getDoubleStepTo();
+        if (to < 0) {
+            return "-";
+        }
+        int row = to / 8 == 3 ? 2 : 5;
+        return "" + (char) ('a' + to % 8) + (row + 1);
+    }
+
+    static Piece createPiece(int code, int row, int col) {
+        String color = (code & PieceType.BLACK_FLAG) != 0 ? "Black" : "White";
+        Coordinate at = new Coordinate(row, col);
+        Piece piece;
+        switch (PieceType.fromCode(code)) {
+            case PAWN:
+                piece = new Pawn(color, at);
+                // only a pawn on its starting row may still step twice
+                piece.setHasMoved(row != (color.equals("White") ? 1 : 6));
+                return piece;
+            case KNIGHT:
+                return new Knight(color, at);
+            case BISHOP:
+                return new Bishop(color, at);
+            case ROOK:
+                return new Rook(color, at);
+            case QUEEN:
+                return new Queen(color, at);
+            default:
+                return new King(color, at);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package Chess.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Plays a game without any user interface
+ * <p>
+ * Everything needed to play a game lives in this package: the board, the
+ * rules and the AI. This class puts them together, checks every move it is
+ * given against the rules and reports what happened to its
+ * {@link GameListener}s, so a game can run in a test, on a server or from the
+ * command line as well as in the window. Unlike a click on the board, a move
+ * that leaves the own king in check is refused even when the king isn't in
+ * check yet.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class GameEngine implements BoardListener {
+
+    private final ChessGame game;
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts a game from the starting position
+     *
+     * @param white the player with the white pieces
+     * @param black the player with the black pieces
+     */
+    public GameEngine(Player white, Player black) {
+        List<Player> players = new ArrayList<>();
+        players.add(white);
+        players.add(black);
+        this.game = new ChessGame(players);
+        game.getBoard().setListener(this);
+    }
+
+    /**
+     * Starts a game from any position, e.g. one read with {@link Fen}
+     *
+     * @param white      the player with the white pieces
+     * @param black      the player with the black pieces
+     * @param position   the position to start from
+     * @param sideToMove "White" or "Black"
+     */
+    public GameEngine(Player white, Player black, Position position, String sideToMove) {
+        this(white, black);
+        game.setBoard(position.toBoard());
+        game.getBoard().setListener(this);
+        if (sideToMove.equals("Black")) {
+            game.changeTurn();
+        }
+    }
+
+    /** @param listener gets told about every move from now on */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /** @param listener no longer gets told about moves */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** @return the game being played */
+    public ChessGame getGame() {
+        return game;
+    }
+
+    /** @return the board of the game */
+    public Board getBoard() {
+        return game.getBoard();
+    }
+
+    /** @return the status of the position for the player to move */
+    public PositionStatus getStatus() {
+        return game.getStatus();
+    }
+
+    /** @return the legal moves of the player to move; a promotion is listed once */
+    public List<Move> getLegalMoves() {
+        return game.getRuleEngine().getLegalMoves(game.getCurrentPlayer().getColor());
+    }
+
+    /**
+     * Plays a move for the player whose turn it is
+     *
+     * @param fromRow   the row of the piece, 0 being White's back rank
+     * @param fromCol   the column of the piece, 0 being the a-file
+     * @param toRow     the row it moves to
+     * @param toCol     the column it moves to
+     * @param promotion "Queen", "Rook", "Bishop" or "Knight" for a pawn reaching
+     *                  the last rank; {@code null} promotes to a queen
+     * @return the move as played, or {@code null} if it isn't legal or the game
+     *         is over
+     */
+    public Move play(int fromRow, int fromCol, int toRow, int toCol, String promotion) {
+        if (game.checkGameOver()) {
+            return null;
+        }
+        Move legal = findLegalMove(fromRow, fromCol, toRow, toCol);
+        if (legal == null) {
+            return null;
+        }
+        Piece piece = legal.getMovedPiece();
+        if (piece.getType() == PieceType.PAWN && ((Pawn) piece).promotionRank(toRow)) {
+            promotion = promotion == null ? "Queen" : promotion;
+            if (!isPromotionPiece(promotion)) {
+                return null;
+            }
+        } else {
+            promotion = null;
+        }
+
+        Board board = game.getBoard();
+        if (!board.movePiece(fromRow, fromCol, toRow, toCol, promotion, true)) {
+            return null;
+        }
+        Move move = board.getLastMove();
+        game.addMove(move);
+        game.changeTurn();
+
+        PositionStatus status = game.getStatus();
+        for (GameListener listener : listeners) {
+            listener.moveMade(move, status);
+        }
+        if (status.isGameOver()) {
+            for (GameListener listener : listeners) {
+                listener.gameOver(status);
+            }
+        }
+        return move;
+    }
+
+    /**
+     * Plays a move given as coordinates with the pieces of any board, e.g. one
+     * the AI searched on
+     *
+     * @param move the move
+     * @return the move as played on this game's board, or {@code null} if it
+     *         isn't legal
+     */
+    public Move play(Move move) {
+        return play(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(), move.getTo().getCol(),
+                move.getPromotionPiece());
+    }
+
+    /**
+     * Lets the AI whose turn it is think and plays its move. The AI searches
+     * a snapshot, so listeners see nothing until the move is played. Any
+     * player that isn't a {@link HumanPlayer} counts as an AI, e.g. an
+     * outside engine.
+     *
+     * @return the move played, or {@code null} if the game is over or the
+     *         AI found no move
+     * @throws IllegalStateException if it is a human's turn
+     */
+    public Move playAIMove() {
+        Player player = game.getCurrentPlayer();
+        if (player instanceof HumanPlayer) {
+            throw new IllegalStateException("It is a human's turn: " + player.getName());
+        }
+        if (game.checkGameOver()) {
+            return null;
+        }
+        Move move = player.makeMove(game.getBoard().snapshot().toBoard());
+        if (move == null) {
+            return null;
+        }
+        Move played = play(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                move.getTo().getCol(),
+                move.getPromotionPiece() != null ? move.getPromotionPiece() : AIPlayer.promotionFor(move));
+        if (played == null) {
+            throw new IllegalStateException("The AI chose an illegal move: " + move);
+        }
+        return played;
+    }
+
+    /**
+     * Lets the AIs play until the game is over or a number of moves is reached
+     *
+     * @param maxPlies the most half moves to play
+     * @return the status after the last move
+     * @throws IllegalStateException if a player is human
+     */
+    public PositionStatus playOut(int maxPlies) {
+        int ply = 0;
+        while (ply < maxPlies && playAIMove() != null) {
+            ply++;
+        }
+        return game.getStatus();
+    }
+
+    /** Passes the board's captures on to the listeners. */
+    @Override
+    public void pieceCaptured(Piece piece) {
+        for (GameListener listener : listeners) {
+            listener.pieceCaptured(piece);
+        }
+    }
+
+    // the legal move from one square to another for the player to move, if there is one
+    private Move findLegalMove(int fromRow, int fromCol, int toRow, int toCol) {
+        Piece piece = game.getBoard().getPieceAt(fromRow, fromCol);
+        if (piece == null || piece.getPieceColor() != PieceColor.of(game.getCurrentPlayer().getColor())) {
+            return null;
+        }
+        for (Move move : getLegalMoves()) {
+            if (move.getFrom().getRow() == fromRow && move.getFrom().getCol() == fromCol
+                    && move.getTo().getRow() == toRow && move.getTo().getCol() == toCol) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isPromotionPiece(String name) {
+        return "Queen".equals(name) || "Rook".equals(name) || "Bishop".equals(name) || "Knight".equals(name);
+    }
+}
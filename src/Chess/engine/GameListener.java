@@ -0,0 +1,36 @@
+package Chess.engine;
+
+/**
+ * Gets told what happens in a game played by a {@link GameEngine}
+ * <p>
+ * The callbacks run on whichever thread made the move, so a window has to
+ * hand them over to its own thread before touching anything on screen. All
+ * of them do nothing unless overridden.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public interface GameListener extends BoardListener {
+
+    /**
+     * Called after a move was played and the turn has passed on
+     *
+     * @param move   the move as it was played on the board
+     * @param status the status of the new position, for the player to move
+     */
+    default void moveMade(Move move, PositionStatus status) {
+    }
+
+    /**
+     * Called once when a move ends the game, right after {@link #moveMade}
+     *
+     * @param status the final status, with the result and the reason
+     */
+    default void gameOver(PositionStatus status) {
+    }
+
+    @Override
+    default void pieceCaptured(Piece piece) {
+    }
+}
@@ -0,0 +1,65 @@
+package Chess.engine;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for running many games or connections at once
+ * <p>
+ * A game or a client connection mostly waits, for a search or for the other
+ * side, so each gets a thread of its own. On Java 21 and later those are
+ * virtual threads, which cost next to nothing while they wait, so thousands
+ * are fine. The build still targets Java 17, so they are looked up by name
+ * and a fixed pool of ordinary threads is used where they don't exist.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class GameThreads {
+
+    private GameThreads() {
+    }
+
+    /**
+     * Makes an executor that runs every task on a thread of its own
+     *
+     * @param fallbackThreads the threads to use when the JVM has no virtual
+     *                        threads
+     * @param prefix          the name of those threads, followed by a number
+     * @return a virtual thread per task on Java 21 and later, otherwise a
+     *         fixed pool
+     */
+    public static ExecutorService newPerTaskExecutor(int fallbackThreads, String prefix) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads, daemonThreads(prefix));
+        }
+    }
+
+    /** @return true if {@link #newPerTaskExecutor(int, String)} makes virtual threads */
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param prefix the name of the threads, followed by a number
+     * @return a factory for daemon threads, which don't keep the JVM running
+     */
+    public static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
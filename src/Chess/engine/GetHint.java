@@ -1,4 +1,8 @@
-package Chess;
+package Chess.engine;
+import Chess.search.MateSolver;
+import Chess.search.X88Position;
+import Chess.tablebase.KpkBitbase;
+
 import java.util.List;
 
 /**
@@ -18,9 +22,31 @@ public class GetHint {
     /** The rule engine for validating moves and checking game state */
     private RuleEngine ruleEngine;
 
+    /** Static evaluation, shares its cache with the AI */
+    private Evaluator evaluator;
+
+    /** Longest forced mate the hint looks for, in moves */
+    private static final int HINT_MATE_MOVES = 3;
+
+    /** Status of the position computed by the game, or {@code null} */
+    private PositionStatus status;
+
     public GetHint(Board board) {
         this.board = board;
         this.ruleEngine = new RuleEngine(board);
+        this.evaluator = new Evaluator();
+    }
+
+    /**
+     * Creates a hint generator that reuses the status the game has already
+     * computed for this position instead of working it out again
+     *
+     * @param board  the board to analyze
+     * @param status the current {@link PositionStatus} of the game
+     */
+    public GetHint(Board board, PositionStatus status) {
+        this(board);
+        this.status = status;
     }
 
     /**
@@ -30,30 +56,51 @@ public class GetHint {
      * @return a string containing a specific, actionable hint for the player
      */
     public String generateHint(String playerColor) {
-        // Priority 1: Check if in check if so then do first
-        if (ruleEngine.isKingInCheck(playerColor)) {
+        PositionStatus current = status != null && status.isFor(board, playerColor) ? status
+                : ruleEngine.computeStatus(playerColor);
+        if (current.isCheckmate()) {
+            return "Checkmate, the game is over.";
+        }
+        if (current.isDraw()) {
+            return "The game is drawn (" + current.getDrawReason().toLowerCase() + ").";
+        }
+
+        // Priority 0: king and pawn endings are known exactly
+        String endgameHint = getKpkHint(playerColor);
+        if (endgameHint != null) {
+            return endgameHint;
+        }
+
+        // Priority 1: a forced mate beats everything else
+        String mateHint = getMateHint(playerColor);
+        if (mateHint != null) {
+            return mateHint;
+        }
+
+        // Priority 2: Check if in check if so then do first
+        if (current.isInCheck()) {
             return getCheckEscapeHint(playerColor);
         }
 
-        // Priority 2: Check for captures available
+        // Priority 3: Check for captures available
         Move captureMove = findBestCapture(playerColor);
         if (captureMove != null) {
             return formatCaptureHint(captureMove);
         }
 
-        // Priority 3: Check for threats to our pieces
+        // Priority 4: Check for threats to our pieces
         Move defensiveMove = findThreatenedPiece(playerColor);
         if (defensiveMove != null) {
             return formatDefensiveHint(defensiveMove);
         }
 
-        // Priority 4: Check if we can give check
+        // Priority 5: Check if we can give check
         Move checkMove = findCheckMove(playerColor);
         if (checkMove != null) {
             return formatCheckHint(checkMove);
         }
 
-        // Priority 5: Strategic development hints
+        // Priority 6: Strategic development hints
         return getStrategicHint(playerColor);
     }
 
@@ -90,7 +137,7 @@ public class GetHint {
         List<Piece> myPieces = board.getAllPieces(playerColor);
 
         for (Piece piece : myPieces) {
-            if (piece instanceof King)
+            if (piece.getType() == PieceType.KING)
                 continue;
 
             List<Coordinate> moves = piece.getLegalMoves(board);
@@ -112,17 +159,109 @@ public class GetHint {
         return "Your king is in check! Find a way to escape.";
     }
 
+    /**
+     * Looks for a forced mate with the {@link MateSolver}, so the number of
+     * moves in the hint is exact
+     *
+     * @param playerColor the color of the player to move
+     * @return the first move of the shortest mate, or {@code null} if there is
+     *         no mate in {@value #HINT_MATE_MOVES} moves
+     */
+    private String getMateHint(String playerColor) {
+        MateSolver.Mate mate = new MateSolver().solve(board, playerColor, HINT_MATE_MOVES);
+        if (mate == null) {
+            return null;
+        }
+
+        int move = mate.getMove();
+        int fromSquare = X88Position.from(move);
+        int toSquare = X88Position.to(move);
+        Coordinate from = new Coordinate(X88Position.row(fromSquare), X88Position.col(fromSquare));
+        Coordinate to = new Coordinate(X88Position.row(toSquare), X88Position.col(toSquare));
+        String pieceName = board.getPieceAt(from.getRow(), from.getCol()).getClass().getSimpleName();
+        String hint = "Move your " + pieceName + " from " + coordinateToNotation(from) + " to "
+                + coordinateToNotation(to);
+        if (X88Position.promotion(move) != 0 && X88Position.promotion(move) != X88Position.QUEEN) {
+            hint += " and promote to a " + (X88Position.promotion(move) == X88Position.KNIGHT ? "Knight"
+                    : X88Position.promotion(move) == X88Position.BISHOP ? "Bishop" : "Rook");
+        }
+        if (mate.getMoves() == 1) {
+            return "Checkmate! " + hint + ".";
+        }
+        return "Mate in " + mate.getMoves() + " available! " + hint + " to start it.";
+    }
+
+    /**
+     * Gives the exact advice for king and pawn against king: the move that
+     * keeps the win, or the one that holds the draw
+     *
+     * @param playerColor the color of the player to move
+     * @return the hint, or {@code null} if this is not a king and pawn ending
+     *         or it is lost anyway
+     */
+    private String getKpkHint(String playerColor) {
+        KpkBitbase bitbase = KpkBitbase.shared();
+        int result = bitbase.probe(board, playerColor);
+        if (result == KpkBitbase.UNKNOWN || result == KpkBitbase.LOSS) {
+            return null;
+        }
+        if (board.getAllPieces("White").size() + board.getAllPieces("Black").size() != 3) {
+            return null; // bare kings
+        }
+
+        String opponentColor = playerColor.equals("White") ? "Black" : "White";
+        Move keepingMove = null;
+        for (Piece piece : board.getAllPieces(playerColor)) {
+            for (Coordinate to : piece.getLegalMoves(board)) {
+                Piece target = board.getPieceAt(to.getRow(), to.getCol());
+                if (target != null && piece.isSameColor(target)) {
+                    continue;
+                }
+                Move move = new Move(piece.getPosition(), to, piece, target);
+                board.simulateMove(move);
+                boolean safe = !ruleEngine.isKingInCheck(playerColor);
+                int reply = safe ? bitbase.probe(board, opponentColor) : KpkBitbase.UNKNOWN;
+                board.undoMove(move);
+
+                if (reply != KpkBitbase.UNKNOWN && reply == -result) {
+                    keepingMove = move;
+                    if (piece.getType() == PieceType.PAWN) {
+                        break; // pushing the pawn is progress, take it
+                    }
+                }
+            }
+            if (keepingMove != null && keepingMove.getMovedPiece().getType() == PieceType.PAWN) {
+                break;
+            }
+        }
+        if (keepingMove == null) {
+            return null;
+        }
+
+        String pieceName = keepingMove.getMovedPiece().getClass().getSimpleName();
+        String from = coordinateToNotation(keepingMove.getFrom());
+        String to = coordinateToNotation(keepingMove.getTo());
+        if (result == KpkBitbase.WIN) {
+            return "This king and pawn ending is a win! Move your " + pieceName + " from " + from
+                    + " to " + to + " to keep it.";
+        }
+        return "This ending is a draw if you defend well. Move your " + pieceName + " from " + from
+                + " to " + to + " to hold it.";
+    }
+
     /**
      * Finds the best safe capture move available for the player
      *
      * @param playerColor the color of the player to find captures for
      * @return the highest-value safe capture move, or {@code null} if no safe
-     *         captures are available
+     *         captures are available. Equal captures are split by the
+     *         evaluation of the resulting position
      */
     private Move findBestCapture(String playerColor) {
         List<Piece> myPieces = board.getAllPieces(playerColor);
         Move bestCapture = null;
         int bestValue = 0;
+        int bestEval = Evaluator.MIN_SCORE;
 
         for (Piece piece : myPieces) {
             List<Coordinate> moves = piece.getLegalMoves(board);
@@ -139,6 +278,13 @@ public class GetHint {
                         if (captureValue > bestValue) {
                             bestValue = captureValue;
                             bestCapture = captureMove;
+                            bestEval = scoreAfter(captureMove, playerColor);
+                        } else if (captureValue == bestValue) {
+                            int eval = scoreAfter(captureMove, playerColor);
+                            if (eval > bestEval) {
+                                bestEval = eval;
+                                bestCapture = captureMove;
+                            }
                         }
                     }
                 }
@@ -160,7 +306,7 @@ public class GetHint {
         List<Piece> myPieces = board.getAllPieces(playerColor);
 
         for (Piece piece : myPieces) {
-            if (piece instanceof King)
+            if (piece.getType() == PieceType.KING)
                 continue; // King threats handled separately
 
             Coordinate pos = piece.getPosition();
@@ -229,7 +375,7 @@ public class GetHint {
         List<Piece> myPieces = board.getAllPieces(playerColor);
 
         for (Piece piece : myPieces) {
-            if ((piece instanceof Knight || piece instanceof Bishop) && !piece.hasMoved()) {
+            if ((piece.getType() == PieceType.KNIGHT || piece.getType() == PieceType.BISHOP) && !piece.hasMoved()) {
                 List<Coordinate> moves = piece.getLegalMoves(board);
                 if (!moves.isEmpty()) {
                     // Find a central move
@@ -248,7 +394,7 @@ public class GetHint {
             }
         }
         for (Piece piece : myPieces) {
-            if (piece instanceof Pawn && !piece.hasMoved()) {
+            if (piece.getType() == PieceType.PAWN && !piece.hasMoved()) {
                 Coordinate pos = piece.getPosition();
                 if (pos.getCol() == 3 || pos.getCol() == 4) { // d or e pawns
                     List<Coordinate> moves = piece.getLegalMoves(board);
@@ -285,6 +431,20 @@ public class GetHint {
         return isSafe;
     }
 
+    /**
+     * Evaluates the position after a move, then takes the move back
+     *
+     * @param move        the move to try
+     * @param playerColor the color of the player making the move
+     * @return the static evaluation for {@code playerColor} after the move
+     */
+    private int scoreAfter(Move move, String playerColor) {
+        board.simulateMove(move);
+        int score = evaluator.evaluate(board, playerColor);
+        board.undoMove(move);
+        return score;
+    }
+
     /**
      * Checks if a piece would be threatened by an opponent at a given position.
      *
@@ -314,7 +474,7 @@ public class GetHint {
      */
     private Piece findKing(String color) {
         return board.getAllPieces(color).stream()
-                .filter(p -> p instanceof King)
+                .filter(p -> p.getType() == PieceType.KING)
                 .findFirst()
                 .orElse(null);
     }
@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 
 /**
  * Human-controlled player; moves come from user input in the GUI
@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -63,24 +63,17 @@ public class King extends Piece {
                     for (int i = 0; i < opponentPieces.size(); i++) {
                         Piece opponentPiece = opponentPieces.get(i);
 
-                        if (opponentPiece instanceof King) {
+                        if (opponentPiece.getType() == PieceType.KING) {
                             int adjR = Math.abs(r - opponentPiece.getRow());
                             int adjC = Math.abs(c - opponentPiece.getCol());
                             if (adjR <= 1 && adjC <= 1) {
                                 isAttacked = true;
                                 break;
                             }
-                        } else {
-                            List<Coordinate> opponentMoves = opponentPieces.get(i).getLegalMoves(board);
-                            for (int j = 0; j < opponentMoves.size(); j++) {
-                                if (opponentMoves.get(j).equals(target)) {
-                                    isAttacked = true;
-                                    break;
-                                }
-                            }
-                            if (isAttacked) {
-                                break;
-                            }
+                        } else if (opponentPiece.isAttacking(board, target)) {
+                            // not getLegalMoves: a pawn's forward move doesn't attack anything
+                            isAttacked = true;
+                            break;
                         }
                     }
                     if (!isAttacked) {
@@ -115,6 +108,16 @@ public class King extends Piece {
         return moves;
     }
 
+    /**
+     * Returns the type of this piece
+     *
+     * @return {@link PieceType#KING}
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.KING;
+    }
+
     /**
      * Returns the symbol representing the King
      * 
@@ -142,7 +145,7 @@ public class King extends Piece {
      */
     @Override
     public Piece copy() {
-        King copy = new King(this.color, new Coordinate(position.getRow(), position.getCol()));
+        King copy = new King(getColor(), new Coordinate(position.getRow(), position.getCol()));
         copy.setHasMoved(this.hasMoved);
         return copy;
     }
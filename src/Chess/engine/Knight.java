@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,6 +67,16 @@ public class Knight extends Piece {
         return moves;
     }
 
+    /**
+     * Returns the type of this piece
+     *
+     * @return {@link PieceType#KNIGHT}
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
+    }
+
     /**
      * Returns the symbol representing the Knight
      * <p>
@@ -101,7 +111,7 @@ public class Knight extends Piece {
      */
     @Override
     public Piece copy() {
-        Knight copy = new Knight(this.color, new Coordinate(position.getRow(), position.getCol()));
+        Knight copy = new Knight(getColor(), new Coordinate(position.getRow(), position.getCol()));
         copy.setHasMoved(this.hasMoved);
         return copy;
     }
@@ -0,0 +1,225 @@
+package Chess.engine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Material signatures: what is on the board, without where it stands
+ * <p>
+ * A signature packs a 4-bit count for every piece type and color into one
+ * {@code long}. Bishops are counted separately by the color of their square,
+ * because two bishops on the same color can't force anything that one
+ * can't. Kings are not counted. {@link Board} keeps its signature up to date
+ * as pieces are put down and picked up, so checking it costs nothing.
+ * </p>
+ * <p>
+ * The endings that matter are worked out once into a table: dead draws where
+ * no sequence of moves can mate (K v K, KB v K, KN v K, bishops all on one
+ * color) and endings that are known to be drawish in practice (KNN v K,
+ * minor piece v minor piece, rook v minor piece, rook v rook, queen v
+ * queen).
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class MaterialSignature {
+
+    /** Classification of an ending that can still be won. */
+    public static final int PLAYABLE = 0;
+
+    /** Classification of an ending that is a draw with normal play. */
+    public static final int DRAWISH = 1;
+
+    /** Classification of an ending where neither side can ever mate. */
+    public static final int DEAD_DRAW = 2;
+
+    // slots of the 4-bit counts, the black ones come SLOTS later
+    static final int PAWN = 0;
+    static final int KNIGHT = 1;
+    static final int LIGHT_BISHOP = 2;
+    static final int DARK_BISHOP = 3;
+    static final int ROOK = 4;
+    static final int QUEEN = 5;
+    private static final int SLOTS = 6;
+
+    private static final Map<Long, Integer> TABLE = new HashMap<>();
+
+    static {
+        // every pawnless material with up to two of each minor and one of
+        // each major piece per side
+        int[] limits = { 0, 2, 2, 2, 1, 1 };
+        int combinations = 3 * 3 * 3 * 2 * 2;
+        for (int w = 0; w < combinations; w++) {
+            for (int b = 0; b < combinations; b++) {
+                long signature = side(w, limits, 0) | side(b, limits, SLOTS);
+                int verdict = classify(signature);
+                if (verdict != PLAYABLE) {
+                    TABLE.put(signature, verdict);
+                }
+            }
+        }
+    }
+
+    private MaterialSignature() {
+    }
+
+    // unpacks a mixed-radix combination number into the counts of one side
+    private static long side(int combination, int[] limits, int offset) {
+        long signature = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            int count = combination % (limits[slot] + 1);
+            combination /= limits[slot] + 1;
+            signature |= (long) count << (4 * (slot + offset));
+        }
+        return signature;
+    }
+
+    /**
+     * Adds a piece to a signature
+     *
+     * @param signature the signature
+     * @param piece     the piece
+     * @param row       the row it stands on
+     * @param col       the column it stands on
+     * @return the new signature
+     */
+    public static long add(long signature, Piece piece, int row, int col) {
+        int shift = shift(piece, row, col);
+        return shift < 0 ? signature : signature + (1L << shift);
+    }
+
+    /**
+     * Removes a piece from a signature
+     *
+     * @param signature the signature
+     * @param piece     the piece
+     * @param row       the row it stood on
+     * @param col       the column it stood on
+     * @return the new signature
+     */
+    public static long remove(long signature, Piece piece, int row, int col) {
+        int shift = shift(piece, row, col);
+        return shift < 0 ? signature : signature - (1L << shift);
+    }
+
+    private static int shift(Piece piece, int row, int col) {
+        int slot;
+        switch (piece.getType()) {
+            case PAWN:
+                slot = PAWN;
+                break;
+            case KNIGHT:
+                slot = KNIGHT;
+                break;
+            case BISHOP:
+                slot = (row + col) % 2 == 0 ? DARK_BISHOP : LIGHT_BISHOP; // a1 is dark
+                break;
+            case ROOK:
+                slot = ROOK;
+                break;
+            case QUEEN:
+                slot = QUEEN;
+                break;
+            default:
+                return -1; // kings are always there
+        }
+        return 4 * (piece.isWhite() ? slot : slot + SLOTS);
+    }
+
+    /**
+     * Computes the signature of a board from scratch
+     *
+     * @param board the board
+     * @return its signature
+     */
+    public static long of(Board board) {
+        long signature = 0;
+        for (int r = 0; r < Board.ROWS; r++) {
+            for (int c = 0; c < Board.COLUMNS; c++) {
+                Piece piece = board.getPieceAt(r, c);
+                if (piece != null) {
+                    signature = add(signature, piece, r, c);
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Returns how many pieces of a kind a signature holds
+     *
+     * @param signature the signature
+     * @param white     the color of the pieces
+     * @param slot      the kind, e.g. {@link #KNIGHT}
+     * @return the count
+     */
+    static int count(long signature, boolean white, int slot) {
+        return (int) (signature >>> (4 * (white ? slot : slot + SLOTS))) & 15;
+    }
+
+    /**
+     * Looks up whether the material on the board still allows a win
+     *
+     * @param signature the signature of the board
+     * @return {@link #PLAYABLE}, {@link #DRAWISH} or {@link #DEAD_DRAW}
+     */
+    public static int lookup(long signature) {
+        Integer verdict = TABLE.get(signature);
+        return verdict == null ? PLAYABLE : verdict;
+    }
+
+    // the rules the table is built from
+    private static int classify(long signature) {
+        int[] knights = new int[2];
+        int[] light = new int[2];
+        int[] dark = new int[2];
+        int[] rooks = new int[2];
+        int[] queens = new int[2];
+        for (int s = 0; s < 2; s++) {
+            boolean white = s == 0;
+            if (count(signature, white, PAWN) > 0) {
+                return PLAYABLE;
+            }
+            knights[s] = count(signature, white, KNIGHT);
+            light[s] = count(signature, white, LIGHT_BISHOP);
+            dark[s] = count(signature, white, DARK_BISHOP);
+            rooks[s] = count(signature, white, ROOK);
+            queens[s] = count(signature, white, QUEEN);
+        }
+        int allKnights = knights[0] + knights[1];
+        int allLight = light[0] + light[1];
+        int allDark = dark[0] + dark[1];
+        int[] minors = { knights[0] + light[0] + dark[0], knights[1] + light[1] + dark[1] };
+
+        if (rooks[0] + rooks[1] + queens[0] + queens[1] == 0) {
+            // bishops that all stand on one color can never attack the other color
+            if (allKnights == 0 && (allLight == 0 || allDark == 0)) {
+                return DEAD_DRAW;
+            }
+            if (allKnights == 1 && allLight + allDark == 0) {
+                return DEAD_DRAW;
+            }
+            if (minors[0] <= 1 && minors[1] <= 1) {
+                return DRAWISH; // minor piece against minor piece
+            }
+            if (knights[0] == 2 && minors[0] == 2 && minors[1] == 0
+                    || knights[1] == 2 && minors[1] == 2 && minors[0] == 0) {
+                return DRAWISH; // two knights can't force mate
+            }
+            return PLAYABLE;
+        }
+
+        if (queens[0] + queens[1] == 0 && rooks[0] <= 1 && rooks[1] <= 1) {
+            // rook against rook, or rook against one minor piece
+            int[] pieces = { rooks[0] + minors[0], rooks[1] + minors[1] };
+            if (pieces[0] <= 1 && pieces[1] <= 1 && pieces[0] + pieces[1] == 2) {
+                return DRAWISH;
+            }
+        }
+        if (queens[0] == 1 && queens[1] == 1 && rooks[0] + rooks[1] + minors[0] + minors[1] == 0) {
+            return DRAWISH;
+        }
+        return PLAYABLE;
+    }
+}
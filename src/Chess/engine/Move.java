@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,6 +25,8 @@ public class Move {
     private long timestamp; // When the move was made
 
     private String promotionPieces; // Which piece pawn promotes to
+
+    private boolean firstMove; // The moved piece had not moved before
     
     /**
      * Creates a move record.
@@ -195,6 +197,21 @@ public class Move {
         return promotionPieces;
     }
 
+    /**
+     * @return {@code true} if the moved piece had never moved before this move,
+     *         so undoing it has to clear its moved flag again
+     */
+    public boolean isFirstMove() {
+        return firstMove;
+    }
+
+    /**
+     * @param firstMove whether the moved piece had never moved before
+     */
+    public void setFirstMove(boolean firstMove) {
+        this.firstMove = firstMove;
+    }
+
     /**
      * Generates a detailed log of this move with all legal move information
      * 
@@ -0,0 +1,130 @@
+package Chess.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * {@link EvalCache} whose slots live outside the Java heap
+ * <p>
+ * A cache of several gigabytes on the heap is one huge {@code long[]} the
+ * garbage collector has to keep track of and copy, and pauses grow with it.
+ * This cache is allocated once as direct memory the collector never looks
+ * at. Direct buffers are limited to 2 GB each, so the memory is split into
+ * slabs of at most 1 GB. The JVM only hands out as much direct memory as
+ * {@code -XX:MaxDirectMemorySize} allows, so big caches need that flag too.
+ * </p>
+ * <p>
+ * Every bucket is 16 bytes, aligned to 16 bytes so it never straddles a
+ * cache line: the score with a "used" bit, and the full 64-bit key XOR-ed
+ * with it. The AI and the hint thread share the cache without locking. If
+ * one of them reads a bucket while the other is halfway through writing it,
+ * the two halves don't match up and the read is simply a miss.
+ * </p>
+ * <p>
+ * With huge pages asked for, every slab starts on a 2 MB boundary so the
+ * operating system can back it with huge pages where it does that by itself
+ * (transparent huge pages on Linux); Java has no way to ask for them
+ * directly. {@link #clear()} zeroes the slabs on all cores.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class OffHeapEvalCache extends EvalCache {
+
+    /** Size of one bucket in bytes. */
+    public static final int BUCKET_BYTES = 16;
+
+    // 2^26 buckets of 16 bytes make a 1 GB slab
+    private static final int MAX_SLAB_BUCKETS = 1 << 26;
+    private static final int HUGE_PAGE_BYTES = 2 * 1024 * 1024;
+    private static final long USED = 1L << 32;
+
+    // zeroed by clear(), one chunk at a time
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private final ByteBuffer[] slabs;
+    private final int buckets;
+    private final int mask;
+    private final int slabShift;
+    private final int slabMask;
+    private final boolean hugePages;
+
+    /**
+     * Allocates the cache
+     *
+     * @param bytes     the memory to use; rounded down to a power of two
+     *                  number of buckets, at most 16 GB
+     * @param hugePages whether to align the slabs for huge pages
+     */
+    public OffHeapEvalCache(long bytes, boolean hugePages) {
+        long count = Long.highestOneBit(bytes / BUCKET_BYTES);
+        if (count <= 0 || count > 1 << 30) {
+            throw new IllegalArgumentException("Cache size must be between 16 bytes and 16 GB: " + bytes);
+        }
+        this.buckets = (int) count;
+        this.mask = buckets - 1;
+        this.hugePages = hugePages;
+
+        int slabBuckets = Math.min(buckets, MAX_SLAB_BUCKETS);
+        this.slabShift = Integer.numberOfTrailingZeros(slabBuckets);
+        this.slabMask = slabBuckets - 1;
+        this.slabs = new ByteBuffer[buckets / slabBuckets];
+        int alignment = hugePages ? HUGE_PAGE_BYTES : BUCKET_BYTES;
+        for (int i = 0; i < slabs.length; i++) {
+            // direct memory comes zeroed, so a new cache is empty
+            slabs[i] = ByteBuffer.allocateDirect(slabBuckets * BUCKET_BYTES + alignment).alignedSlice(alignment)
+                    .order(ByteOrder.nativeOrder());
+        }
+    }
+
+    @Override
+    public int probe(long key) {
+        int index = (int) key & mask;
+        ByteBuffer slab = slabs[index >>> slabShift];
+        int offset = (index & slabMask) * BUCKET_BYTES;
+        long data = slab.getLong(offset + 8);
+        boolean hit = data != 0 && (slab.getLong(offset) ^ data) == key;
+        countProbe(hit);
+        return hit ? (int) data : MISS;
+    }
+
+    @Override
+    public void store(long key, int score) {
+        int index = (int) key & mask;
+        ByteBuffer slab = slabs[index >>> slabShift];
+        int offset = (index & slabMask) * BUCKET_BYTES;
+        long data = USED | (score & 0xFFFFFFFFL);
+        slab.putLong(offset, key ^ data);
+        slab.putLong(offset + 8, data);
+    }
+
+    /** Empties the cache on all cores and resets its counters. */
+    @Override
+    public void clear() {
+        int chunk = Math.min(ZEROS.length, slabs[0].capacity());
+        int chunksPerSlab = slabs[0].capacity() / chunk;
+        IntStream.range(0, slabs.length * chunksPerSlab).parallel()
+                .forEach(i -> slabs[i / chunksPerSlab].put((i % chunksPerSlab) * chunk, ZEROS, 0, chunk));
+        resetCounters();
+    }
+
+    @Override
+    public int size() {
+        return buckets;
+    }
+
+    /** @return the off-heap memory the buckets take, in bytes */
+    public long getBytes() {
+        return (long) buckets * BUCKET_BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "OffHeapEvalCache[buckets=%d, bytes=%d, slabs=%d, hugePages=%b, probes=%d, hits=%d, hitRate=%.1f%%]",
+                buckets, getBytes(), slabs.length, hugePages, getProbes(), getHits(), getHitRate() * 100);
+    }
+}
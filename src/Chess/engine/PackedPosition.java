@@ -0,0 +1,112 @@
+package Chess.engine;
+
+/**
+ * A position in {@value #BYTES} bytes, for storing millions of them
+ * <p>
+ * The squares take four bits each, a {@link Position} piece code, two to a
+ * byte from a1 on. Then one byte has the side to move in its lowest bit and
+ * the castling rights KQkq in the four above, and the last one the en
+ * passant file plus one, or 0. That is what a FEN holds without the move
+ * counters, in a fixed size, so a file of them can be read straight into one
+ * array and set up on a board without any text to parse.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class PackedPosition {
+
+    /** The size of a packed position. */
+    public static final int BYTES = 34;
+
+    private static final int SIDE_AND_CASTLING = 32;
+    private static final int EN_PASSANT = 33;
+
+    private PackedPosition() {
+    }
+
+    /**
+     * Packs a position
+     *
+     * @param position   the position
+     * @param sideToMove "White" or "Black"
+     * @param out        where to write
+     * @param offset     where in {@code out} to start
+     */
+    public static void pack(Position position, String sideToMove, byte[] out, int offset) {
+        for (int sq = 0; sq < 64; sq += 2) {
+            out[offset + sq / 2] = (byte) (position.pieceAt(sq / 8, sq % 8)
+                    | position.pieceAt(sq / 8, sq % 8 + 1) << 4);
+        }
+        int flags = sideToMove.equals("White") ? 0 : 1;
+        flags |= Fen.canCastle(position, 0, 7) ? 2 : 0;
+        flags |= Fen.canCastle(position, 0, 0) ? 4 : 0;
+        flags |= Fen.canCastle(position, 7, 7) ? 8 : 0;
+        flags |= Fen.canCastle(position, 7, 0) ? 16 : 0;
+        out[offset + SIDE_AND_CASTLING] = (byte) flags;
+        int to = position.getDoubleStepTo();
+        out[offset + EN_PASSANT] = (byte) (to < 0 ? 0 : to % 8 + 1);
+    }
+
+    /**
+     * Packs the position of a FEN
+     *
+     * @param fen the FEN
+     * @return the packed position
+     * @throws IllegalArgumentException if it isn't a FEN
+     */
+    public static byte[] pack(String fen) {
+        Fen parsed = Fen.parse(fen);
+        byte[] packed = new byte[BYTES];
+        pack(parsed.getPosition(), parsed.getSideToMove(), packed, 0);
+        return packed;
+    }
+
+    /**
+     * Sets up a packed position on a board, replacing everything on it
+     *
+     * @param board  the board
+     * @param in     the packed positions
+     * @param offset where in {@code in} the position starts
+     * @return the side to move, "White" or "Black"
+     * @throws IllegalArgumentException if the bytes aren't a position with
+     *                                  one king each
+     */
+    public static String setUp(Board board, byte[] in, int offset) {
+        board.clear();
+        board.clearHistory();
+        int whiteKings = 0;
+        int blackKings = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int code = in[offset + sq / 2] >> (sq % 2 * 4) & 15;
+            if (code == Position.EMPTY) {
+                continue;
+            }
+            int type = code & 7;
+            if (type < Position.PAWN || type > Position.KING) {
+                throw new IllegalArgumentException("Bad piece code " + code + " in packed position at " + offset);
+            }
+            if (type == Position.KING && (code & Position.BLACK) == 0) {
+                whiteKings++;
+            } else if (type == Position.KING) {
+                blackKings++;
+            }
+            board.setPieceAt(sq / 8, sq % 8, Fen.createPiece(code, sq / 8, sq % 8));
+        }
+        if (whiteKings != 1 || blackKings != 1) {
+            throw new IllegalArgumentException("A packed position needs one king on each side, at " + offset);
+        }
+
+        int flags = in[offset + SIDE_AND_CASTLING];
+        String sideToMove = (flags & 1) == 0 ? "White" : "Black";
+        Fen.markMoved(board, ((flags & 2) != 0 ? "K" : "") + ((flags & 4) != 0 ? "Q" : "")
+                + ((flags & 8) != 0 ? "k" : "") + ((flags & 16) != 0 ? "q" : ""));
+        int file = in[offset + EN_PASSANT];
+        if (file != 0 && !Fen.setDoubleStep(board, file - 1, sideToMove.equals("Black"))) {
+            throw new IllegalArgumentException("Bad en passant file in packed position at " + offset);
+        }
+        int ply = sideToMove.equals("White") ? 0 : 1;
+        board.restoreHistory(new long[] { board.positionKey(ply) }, ply);
+        return sideToMove;
+    }
+}
@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -82,7 +82,7 @@ public class Pawn extends Piece {
         Move lastMove = board.getLastMove();
 
         // Check for en passant: oppenents last move was a double step pawn advance
-        if(lastMove != null && lastMove.getMovedPiece() instanceof Pawn)
+        if(lastMove != null && lastMove.getMovedPiece().getType() == PieceType.PAWN)
         {
             // Find the pawn the oppenent just move
             Piece lastPieceMoved = lastMove.getMovedPiece();
@@ -95,13 +95,13 @@ public class Pawn extends Piece {
             // Black/White pawn move 2 squares last turn
             if(Math.abs(toRow - fromRow) == 2)
             {
-                // Is Pawn adjacent to opponents Pawn
-                if(toCol == c - 1 || toCol == c + 1)
+                // Is Pawn adjacent to opponents Pawn (the one that just moved, not any pawn on that file)
+                if(toRow == r && (toCol == c - 1 || toCol == c + 1))
                 {
                     Piece adjacent = board.getPieceAt(r, toCol); 
 
                     // Check if this piece is the opponent's pawn
-                    if(adjacent instanceof Pawn && !adjacent.isSameColor(this))
+                    if(PieceType.of(adjacent) == PieceType.PAWN && !adjacent.isSameColor(this))
                     {
                         // En passant on the square
                         moves.add(new Coordinate(captureRow, toCol));
@@ -112,6 +112,16 @@ public class Pawn extends Piece {
         return moves;
     }
 
+    /**
+     * Returns the type of this piece
+     *
+     * @return {@link PieceType#PAWN}
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
     /**
      * Returns the symbol representing the Pawn.
      *
@@ -139,7 +149,7 @@ public class Pawn extends Piece {
      */
     @Override
     public Piece copy() {
-        Pawn copy = new Pawn(this.color, new Coordinate(position.getRow(), position.getCol()));
+        Pawn copy = new Pawn(getColor(), new Coordinate(position.getRow(), position.getCol()));
         copy.setHasMoved(this.hasMoved);
         return copy;
     }
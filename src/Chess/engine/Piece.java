@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 
 import java.util.List;
 
@@ -9,8 +9,8 @@ import java.util.List;
  * @version 1.0
  */
 public abstract class Piece {
-    /** Piece color ("White" or "Black"). */
-    protected String color;
+    /** Piece color, an enum so color tests don't compare strings. */
+    protected final PieceColor pieceColor;
 
     /** Current position on the board. */
     protected Coordinate position;
@@ -25,7 +25,7 @@ public abstract class Piece {
      * @param position starting coordinate
      */
     public Piece(String color, Coordinate position) {
-        this.color = color;
+        this.pieceColor = PieceColor.of(color);
         this.position = position;
         this.hasMoved = false;
     }
@@ -79,7 +79,7 @@ public abstract class Piece {
      * @return true if capture is allowed (opposite colors)
      */
     public boolean canCapture(Piece target) {
-        return target != null && !target.getColor().equals(this.color);
+        return target != null && target.pieceColor != this.pieceColor;
     }
 
     /**
@@ -89,7 +89,7 @@ public abstract class Piece {
      * @return true if both pieces are the same color
      */
     public boolean isSameColor(Piece other) {
-        return other != null && other.getColor().equals(this.color);
+        return other != null && other.pieceColor == this.pieceColor;
     }
 
     /**
@@ -98,7 +98,7 @@ public abstract class Piece {
      * @return true if the piece is white
      */
     public boolean isWhite() {
-        return "White".equalsIgnoreCase(color);
+        return pieceColor == PieceColor.WHITE;
     }
 
     /**
@@ -107,7 +107,7 @@ public abstract class Piece {
      * @return true if the piece is black
      */
     public boolean isBlack() {
-        return "Black".equalsIgnoreCase(color);
+        return pieceColor == PieceColor.BLACK;
     }
 
     /**
@@ -120,6 +120,24 @@ public abstract class Piece {
         return 0; // Override in subclasses
     }
 
+    /**
+     * Tells what kind of piece this is, instead of testing it with
+     * {@code instanceof}
+     *
+     * @return the {@link PieceType}
+     */
+    public abstract PieceType getType();
+
+    /**
+     * Returns the code of this piece on the board's mailbox, see
+     * {@link PieceType}
+     *
+     * @return the type code, plus {@link PieceType#BLACK_FLAG} for black
+     */
+    public int getCode() {
+        return isWhite() ? getType().getCode() : getType().getCode() + PieceType.BLACK_FLAG;
+    }
+
     /**
      * Gets the algebraic notation symbol for this piece.
      * 
@@ -140,9 +158,14 @@ public abstract class Piece {
 
     // ========== Getters and Setters ==========
 
-    /** @return this piece's color */
-    public String getColor() { 
-        return color; 
+    /** @return this piece's color, "White" or "Black" */
+    public String getColor() {
+        return pieceColor.getName();
+    }
+
+    /** @return this piece's color as an enum */
+    public PieceColor getPieceColor() {
+        return pieceColor;
     }
 
     /** @return current coordinate */
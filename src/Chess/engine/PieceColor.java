@@ -0,0 +1,55 @@
+package Chess.engine;
+
+/**
+ * The two sides of the game
+ * <p>
+ * The rest of the code still passes colors around as the strings "White" and
+ * "Black"; every {@link Piece} turns its string into one of these once, so
+ * color tests on pieces are a reference comparison instead of
+ * {@code String.equals}.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public enum PieceColor {
+    WHITE("White"),
+    BLACK("Black");
+
+    private final String name;
+
+    PieceColor(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Looks up a color by its name
+     *
+     * @param name "White" or "Black" (case is ignored)
+     * @return the color
+     * @throws IllegalArgumentException for any other name
+     */
+    public static PieceColor of(String name) {
+        if ("White".equalsIgnoreCase(name)) {
+            return WHITE;
+        } else if ("Black".equalsIgnoreCase(name)) {
+            return BLACK;
+        }
+        throw new IllegalArgumentException("Invalid color: " + name);
+    }
+
+    /** @return the name used by the rest of the game, "White" or "Black" */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the other color */
+    public PieceColor opposite() {
+        return this == WHITE ? BLACK : WHITE;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
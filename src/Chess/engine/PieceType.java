@@ -0,0 +1,77 @@
+package Chess.engine;
+
+/**
+ * The kinds of chess piece, with what the game needs to know about each
+ * <p>
+ * The codes match the piece codes of {@link Position} and the board's
+ * mailbox: 1 to 6 from pawn to king, with {@link #BLACK_FLAG} added for black
+ * pieces. Asking a piece for its type replaces the {@code instanceof} chains
+ * that used to decide its value, symbol and image.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public enum PieceType {
+    PAWN(1, "", 1),
+    KNIGHT(2, "N", 25),
+    BISHOP(3, "B", 25),
+    ROOK(4, "R", 30),
+    QUEEN(5, "Q", 50),
+    KING(6, "K", 100);
+
+    /** Added to the code of a black piece. */
+    public static final int BLACK_FLAG = 8;
+
+    private static final PieceType[] BY_CODE = { null, PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING };
+
+    private final int code;
+    private final String symbol;
+    private final int value;
+
+    PieceType(int code, String symbol, int value) {
+        this.code = code;
+        this.symbol = symbol;
+        this.value = value;
+    }
+
+    /**
+     * Looks up the type of a piece code
+     *
+     * @param code a piece code, with or without {@link #BLACK_FLAG}
+     * @return the type, or {@code null} for an empty square
+     */
+    public static PieceType fromCode(int code) {
+        return BY_CODE[code & 7];
+    }
+
+    /**
+     * The type of a piece that may be missing, like the one on a square
+     *
+     * @param piece a piece, or {@code null}
+     * @return its type, or {@code null} for no piece
+     */
+    public static PieceType of(Piece piece) {
+        return piece == null ? null : piece.getType();
+    }
+
+    /** @return the code of a white piece of this type, 1-6 */
+    public int getCode() {
+        return code;
+    }
+
+    /** @return the letter used in algebraic notation, empty for pawns */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /** @return the material value used by the {@link Evaluator} */
+    public int getValue() {
+        return value;
+    }
+
+    /** @return the lower case name, e.g. "knight", as used for the piece images */
+    public String getImageName() {
+        return name().toLowerCase();
+    }
+}
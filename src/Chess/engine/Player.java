@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 
 /**
  * Abstract base class for a chess player
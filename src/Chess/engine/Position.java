@@ -0,0 +1,175 @@
+package Chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a {@link Board}
+ * <p>
+ * The live board is changed by the GUI while the AI or a hint is still
+ * thinking, so background work gets a {@code Position} instead: a packed copy
+ * of the squares, which pieces have moved, the pawn double step that allows
+ * en passant, and the position keys since the last capture or pawn move so
+ * repetitions are still seen. Nothing in it can change after it is made, so
+ * it can be handed to any thread.
+ * </p>
+ * <p>
+ * {@link Board#snapshot()} makes one (and keeps returning the same one until
+ * the board changes) and {@link #toBoard()} turns it back into a private
+ * board to search on.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class Position {
+
+    /**
+     * Piece codes in {@link #pieceAt(int, int)}, the same as
+     * {@link PieceType#getCode()}; add {@link #BLACK} for black pieces.
+     */
+    public static final int EMPTY = 0;
+    public static final int PAWN = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+    public static final int BLACK = 8;
+
+    private final byte[] squares; // row * 8 + col
+    private final long moved; // bit per square: the piece there has moved
+    private final int doubleStepFrom; // last move if it was a pawn double step, else -1
+    private final int doubleStepTo;
+    private final long[] keys; // placement keys since the last capture or pawn move, oldest first
+    private final int ply;
+    private final long materialSignature;
+
+    Position(byte[] squares, long moved, int doubleStepFrom, int doubleStepTo, long[] keys, int ply,
+            long materialSignature) {
+        this.squares = squares;
+        this.moved = moved;
+        this.doubleStepFrom = doubleStepFrom;
+        this.doubleStepTo = doubleStepTo;
+        this.keys = keys;
+        this.ply = ply;
+        this.materialSignature = materialSignature;
+    }
+
+    /**
+     * Returns the code of the piece on a square
+     *
+     * @param row the row (0-7)
+     * @param col the column (0-7)
+     * @return {@link #EMPTY}, or a type like {@link #KNIGHT} plus
+     *         {@link #BLACK} for black pieces
+     */
+    public int pieceAt(int row, int col) {
+        return squares[row * 8 + col];
+    }
+
+    /**
+     * @param row the row (0-7)
+     * @param col the column (0-7)
+     * @return {@code true} if the piece on the square has moved before
+     */
+    public boolean hasMoved(int row, int col) {
+        return (moved >>> (row * 8 + col) & 1) != 0;
+    }
+
+    // the square of a pawn that just made a double step, or -1; used by Fen
+    int getDoubleStepTo() {
+        return doubleStepTo;
+    }
+
+    /**
+     * @return the repetition key: the Zobrist placement key with the
+     *         castling and en passant rights and the side to move folded in
+     */
+    public long getKey() {
+        return keys[keys.length - 1];
+    }
+
+    /** @return the {@link MaterialSignature} of the position */
+    public long getMaterialSignature() {
+        return materialSignature;
+    }
+
+    /** @return the number of moves made on the board before the snapshot */
+    public int getPly() {
+        return ply;
+    }
+
+    /** @return the half moves since the last capture or pawn move */
+    public int getHalfmoveClock() {
+        return keys.length - 1;
+    }
+
+    /**
+     * Builds a new board holding this position. The board is not connected
+     * to any screen, so it is only for analysis.
+     *
+     * @return the board
+     */
+    public Board toBoard() {
+        Board board = new Board(null);
+        board.setPosition(this);
+        return board;
+    }
+
+    // puts the pieces, history and last move on a board, used by Board.setPosition
+    void applyTo(Board board) {
+        for (int sq = 0; sq < 64; sq++) {
+            int code = squares[sq];
+            if (code != EMPTY) {
+                Piece piece = createPiece(code, new Coordinate(sq / 8, sq % 8));
+                piece.setHasMoved((moved >>> sq & 1) != 0);
+                board.setPieceAt(sq / 8, sq % 8, piece);
+            }
+        }
+        if (doubleStepFrom >= 0) {
+            // en passant only needs to see the last move
+            Piece pawn = board.getPieceAt(doubleStepTo / 8, doubleStepTo % 8);
+            board.restoreLastMove(new Move(new Coordinate(doubleStepFrom / 8, doubleStepFrom % 8),
+                    new Coordinate(doubleStepTo / 8, doubleStepTo % 8), pawn, null));
+        }
+        board.restoreHistory(keys, ply);
+    }
+
+    private static Piece createPiece(int code, Coordinate at) {
+        String color = (code & BLACK) != 0 ? "Black" : "White";
+        switch (code & 7) {
+            case PAWN:
+                return new Pawn(color, at);
+            case KNIGHT:
+                return new Knight(color, at);
+            case BISHOP:
+                return new Bishop(color, at);
+            case ROOK:
+                return new Rook(color, at);
+            case QUEEN:
+                return new Queen(color, at);
+            default:
+                return new King(color, at);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Position)) {
+            return false;
+        }
+        Position that = (Position) other;
+        return moved == that.moved && doubleStepFrom == that.doubleStepFrom && doubleStepTo == that.doubleStepTo
+                && ply == that.ply && Arrays.equals(squares, that.squares) && Arrays.equals(keys, that.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getKey()) * 31 + ply;
+    }
+
+    @Override
+    public String toString() {
+        return toBoard().toString();
+    }
+}
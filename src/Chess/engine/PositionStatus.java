@@ -0,0 +1,161 @@
+package Chess.engine;
+
+/**
+ * The state of the game for the player to move, worked out once per ply
+ * <p>
+ * Checkmate and stalemate both need to know whether the king is in check and
+ * whether there is any legal move, and finding that out can mean trying every
+ * move. {@link RuleEngine#computeStatus(String)} does it in one pass and
+ * {@link ChessGame#getStatus()} keeps the result until the next move, so the
+ * game-over check, the move list, the hints and the save code all share it.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class PositionStatus {
+
+    private final String sideToMove;
+    private final long placementKey;
+    private final int ply;
+    private final boolean inCheck;
+    private final boolean hasLegalMoves;
+    private final boolean threefoldRepetition;
+    private final boolean fiftyMoveRule;
+    private final boolean insufficientMaterial;
+
+    /**
+     * @param board                the board the status was computed for
+     * @param sideToMove           the color to move ("White" or "Black")
+     * @param inCheck              whether that side's king is in check
+     * @param hasLegalMoves        whether that side has a legal move
+     * @param threefoldRepetition  whether the position occurred three times
+     * @param fiftyMoveRule        whether fifty moves passed without a capture
+     *                             or pawn move
+     * @param insufficientMaterial whether neither side can ever mate
+     */
+    public PositionStatus(Board board, String sideToMove, boolean inCheck, boolean hasLegalMoves,
+            boolean threefoldRepetition, boolean fiftyMoveRule, boolean insufficientMaterial) {
+        this.sideToMove = sideToMove;
+        this.placementKey = board.getPlacementKey();
+        this.ply = board.getPly();
+        this.inCheck = inCheck;
+        this.hasLegalMoves = hasLegalMoves;
+        this.threefoldRepetition = threefoldRepetition;
+        this.fiftyMoveRule = fiftyMoveRule;
+        this.insufficientMaterial = insufficientMaterial;
+    }
+
+    /**
+     * Tells whether this status still describes a board, i.e. no move was
+     * made or undone since it was computed
+     *
+     * @param board      the board
+     * @param sideToMove the color to move now
+     * @return {@code true} if the status is still valid
+     */
+    public boolean isFor(Board board, String sideToMove) {
+        return this.sideToMove.equals(sideToMove) && ply == board.getPly()
+                && placementKey == board.getPlacementKey();
+    }
+
+    /** @return the color to move */
+    public String getSideToMove() {
+        return sideToMove;
+    }
+
+    /** @return {@code true} if the side to move is in check */
+    public boolean isInCheck() {
+        return inCheck;
+    }
+
+    /** @return {@code true} if the side to move has a legal move */
+    public boolean hasLegalMoves() {
+        return hasLegalMoves;
+    }
+
+    /** @return {@code true} if the side to move is checkmated */
+    public boolean isCheckmate() {
+        return inCheck && !hasLegalMoves;
+    }
+
+    /** @return {@code true} if the side to move is stalemated */
+    public boolean isStalemate() {
+        return !inCheck && !hasLegalMoves;
+    }
+
+    /** @return {@code true} if the position occurred three times */
+    public boolean isThreefoldRepetition() {
+        return threefoldRepetition;
+    }
+
+    /** @return {@code true} if the fifty-move rule applies */
+    public boolean isFiftyMoveRule() {
+        return fiftyMoveRule;
+    }
+
+    /** @return {@code true} if neither side has the material to mate */
+    public boolean isInsufficientMaterial() {
+        return insufficientMaterial;
+    }
+
+    /** @return {@code true} if the game is drawn for any reason */
+    public boolean isDraw() {
+        return !isCheckmate() && (!hasLegalMoves || threefoldRepetition || fiftyMoveRule
+                || insufficientMaterial);
+    }
+
+    /** @return {@code true} if the game has ended */
+    public boolean isGameOver() {
+        return isCheckmate() || isDraw();
+    }
+
+    /**
+     * @return why the game is drawn, e.g. "Stalemate", or {@code null} if it
+     *         is not
+     */
+    public String getDrawReason() {
+        if (isCheckmate()) {
+            return null;
+        } else if (isStalemate()) {
+            return "Stalemate";
+        } else if (threefoldRepetition) {
+            return "Threefold repetition";
+        } else if (fiftyMoveRule) {
+            return "Fifty-move rule";
+        } else if (insufficientMaterial) {
+            return "Insufficient material";
+        }
+        return null;
+    }
+
+    /**
+     * @return the PGN result: "1-0", "0-1", "1/2-1/2", or "*" while the game
+     *         goes on
+     */
+    public String getResult() {
+        if (isCheckmate()) {
+            return sideToMove.equals("White") ? "0-1" : "1-0";
+        } else if (isDraw()) {
+            return "1/2-1/2";
+        }
+        return "*";
+    }
+
+    /**
+     * @return the suffix for the move that led here in algebraic notation: "#"
+     *         for mate, "+" for check, otherwise empty
+     */
+    public String getNotationSuffix() {
+        if (isCheckmate()) {
+            return "#";
+        }
+        return inCheck ? "+" : "";
+    }
+
+    @Override
+    public String toString() {
+        return "PositionStatus[" + sideToMove + " to move, check=" + inCheck + ", hasMoves=" + hasLegalMoves
+                + ", result=" + getResult() + "]";
+    }
+}
@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -82,6 +82,16 @@ public class Queen extends Piece {
         return moves;
     }
 
+    /**
+     * Returns the type of this piece
+     *
+     * @return {@link PieceType#QUEEN}
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
     /**
      * Returns the symbol used to represent this piece on the board
      *
@@ -110,7 +120,7 @@ public class Queen extends Piece {
      */
     @Override
     public Piece copy() {
-        Queen copy = new Queen(this.color, new Coordinate(position.getRow(), position.getCol()));
+        Queen copy = new Queen(getColor(), new Coordinate(position.getRow(), position.getCol()));
         copy.setHasMoved(this.hasMoved);
         return copy;
     }
@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 import java.util.*;
 
 /**
@@ -68,6 +68,16 @@ public class Rook extends Piece {
         return moves;
     }
 
+    /**
+     * Returns the type of this piece
+     *
+     * @return {@link PieceType#ROOK}
+     */
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
+    }
+
     /**
      * Returns the symbol representing this piece on the board
      *
@@ -96,7 +106,7 @@ public class Rook extends Piece {
      */
     @Override
     public Piece copy() {
-        Rook copy = new Rook(this.color, new Coordinate(position.getRow(), position.getCol()));
+        Rook copy = new Rook(getColor(), new Coordinate(position.getRow(), position.getCol()));
         copy.setHasMoved(this.hasMoved);
         return copy;
     }
@@ -1,4 +1,5 @@
-package Chess;
+package Chess.engine;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -44,37 +45,85 @@ public class RuleEngine {
     }
 
     /**
-     * Checks whether the player of the given color has any legal moves available
-     * 
+     * Lists the legal moves of a player. A pawn move to the last rank is
+     * listed once, without the piece it promotes to.
+     *
      * @param playerColor The color of the player ("White" or "Black")
-     * @return {@code true} if the player has at least one legal move, otherwise
-     *         {@code false}
+     * @return the legal moves
      */
-    // Check if player has any legal moves
-    private boolean hasAnyLegalMoves(String playerColor) {
+    public List<Move> getLegalMoves(String playerColor) {
+        List<Move> moves = new ArrayList<>();
+        collectLegalMoves(playerColor, isKingInCheck(playerColor), Integer.MAX_VALUE, moves);
+        return moves;
+    }
+
+    // tries every move of the player, adding the legal ones to moves if it isn't null
+    private int collectLegalMoves(String playerColor, boolean inCheck, int limit, List<Move> moves) {
+        int count = 0;
+        Coordinate king = board.findKing(playerColor);
         // Iterate over all pieces of the current player
         for (Piece piece : board.getAllPieces(playerColor)) {
             List<Coordinate> pseudoMoves = piece.getLegalMoves(board);
+            // out of check, a piece off the king's lines can't uncover an attack on it
+            boolean mayExposeKing = inCheck || king == null || piece.getType() == PieceType.KING
+                    || onLine(king, piece.getPosition());
 
             // Test each pseudo-legal move
             for (Coordinate target : pseudoMoves) {
                 // Determine the captured piece for the Move object
                 Piece targetPiece = board.getPieceAt(target.getRow(), target.getCol());
+                if (targetPiece != null && piece.isSameColor(targetPiece)) {
+                    continue; // not a move, would throw off the count
+                }
                 Move testMove = new Move(piece.getPosition(), target, piece, targetPiece);
+                // an en passant capture takes a pawn that may stand on the king's line
+                boolean enPassant = piece.getType() == PieceType.PAWN && targetPiece == null
+                        && target.getCol() != piece.getCol();
 
-                // Simulate the move on a temporary state/board (or use undo)
-                board.simulateMove(testMove);
-                boolean strillInCheck = isKingInCheck(playerColor);
-                board.undoMove(testMove);
+                if (mayExposeKing || enPassant) {
+                    // Simulate the move on a temporary state/board (or use undo)
+                    board.simulateMove(testMove);
+                    boolean strillInCheck = isKingInCheck(playerColor);
+                    board.undoMove(testMove);
 
-                // If the King is NOT in check after the move, it's a legal move.
-                if (!strillInCheck) {
-                    return true; // Found at least one legal move
+                    // If the King is NOT in check after the move, it's a legal move.
+                    if (strillInCheck) {
+                        continue;
+                    }
+                }
+                if (moves != null) {
+                    moves.add(testMove);
+                }
+                if (++count >= limit) {
+                    return count;
                 }
 
             }
         }
-        return false; // No legal moves found for any piece
+        return count;
+    }
+
+    // same row, column or diagonal
+    private static boolean onLine(Coordinate a, Coordinate b) {
+        int rows = a.getRow() - b.getRow();
+        int cols = a.getCol() - b.getCol();
+        return rows == 0 || cols == 0 || Math.abs(rows) == Math.abs(cols);
+    }
+
+    /**
+     * Works out everything the game needs to know about the position in one
+     * pass over the moves; {@link ChessGame#getStatus()} caches the result.
+     * Check is found once and the moves are only tried until the first
+     * legal one, which is all mate and stalemate need.
+     *
+     * @param playerColor the color to move ("White" or "Black")
+     * @return the status of the position
+     */
+    public PositionStatus computeStatus(String playerColor) {
+        boolean inCheck = isKingInCheck(playerColor);
+        boolean hasLegalMoves = collectLegalMoves(playerColor, inCheck, 1, null) > 0;
+        return new PositionStatus(board, playerColor, inCheck, hasLegalMoves, board.isThreefoldRepetition(),
+                board.isFiftyMoveRule(), board.isDeadDraw());
     }
 
     /**
@@ -98,7 +147,7 @@ public class RuleEngine {
         Piece rook = board.getPieceAt(row, rook_col); // rook is inline with king
 
         // Rook must exist, be the same color and be unmoved
-        if (!(rook instanceof Rook) || rook.getColor() != king.getColor() || rook.hasMoved()) {
+        if (PieceType.of(rook) != PieceType.ROOK || !rook.isSameColor(king) || rook.hasMoved()) {
             return false;
         }
 
@@ -164,17 +213,42 @@ public class RuleEngine {
      * @param player the player in checkmate
      */
     public boolean isCheckmate(Player player) {
-        String playerColor = player.getColor();
-        // Checkmate, in check and NO legal moves
-        return isKingInCheck(playerColor) && !hasAnyLegalMoves(playerColor);
+        return computeStatus(player.getColor()).isCheckmate();
     }
 
     /** @return true if stalemate condition exists (stub implementation). */
     public boolean isStalemate(Player player) {
-        String playerColor = player.getColor();
-        // Stalemate, NOT in check and NO legal MOVES
-        return !isKingInCheck(playerColor) && !hasAnyLegalMoves(playerColor);
-        // return false;
+        return computeStatus(player.getColor()).isStalemate();
+    }
+
+    /**
+     * Checks whether the current position has occurred three times, with the
+     * same player to move each time
+     *
+     * @return {@code true} if the game is drawn by repetition
+     */
+    public boolean isThreefoldRepetition() {
+        return board.isThreefoldRepetition();
+    }
+
+    /**
+     * Checks whether fifty moves have been played by each side without a
+     * capture or a pawn move
+     *
+     * @return {@code true} if the game is drawn by the fifty-move rule
+     */
+    public boolean isFiftyMoveRule() {
+        return board.isFiftyMoveRule();
+    }
+
+    /**
+     * Checks whether neither side has enough material left to give mate,
+     * e.g. king and bishop against king
+     *
+     * @return {@code true} if the game is a dead draw
+     */
+    public boolean isInsufficientMaterial() {
+        return board.isDeadDraw();
     }
 
     /**
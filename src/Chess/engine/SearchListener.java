@@ -0,0 +1,41 @@
+package Chess.engine;
+
+/**
+ * Follows the look-ahead of an {@link AIPlayer} and can stop it
+ * <p>
+ * The look-ahead scores the moves of the position one after another, by
+ * the worst reply the opponent has to each. Between two moves it asks
+ * {@link #isStopped()}, so a time or node limit can cut it short; the AI
+ * then plays the best move it has scored so far. With more than one thread
+ * the methods are called from all of them at once.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public interface SearchListener {
+
+    /**
+     * Asked before every move but the first, which is always searched
+     *
+     * @return {@code true} to stop searching and play the best move so far
+     */
+    default boolean isStopped() {
+        return false;
+    }
+
+    /**
+     * Called after a legal move has been scored; a move the AI takes from the
+     * tablebase or the mate search without a look-ahead comes as the one move
+     * searched, with its mate or draw score
+     *
+     * @param move     the move
+     * @param score    its score for the AI, in {@link Evaluator} units; a move
+     *                 that can't beat the best one so far only gets a score
+     *                 below it
+     * @param searched how many moves have been searched, this one included
+     * @param total    how many moves there are
+     */
+    default void rootMoveSearched(Move move, int score, int searched, int total) {
+    }
+}
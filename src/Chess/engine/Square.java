@@ -1,4 +1,4 @@
-package Chess;
+package Chess.engine;
 
 /**
  * Represents a single square on the chessboard.
@@ -0,0 +1,114 @@
+package Chess.engine;
+
+import java.util.Random;
+
+/**
+ * Random keys used to hash chess positions (Zobrist hashing)
+ * <p>
+ * Every piece type, color and square gets a fixed 64-bit random number and a
+ * position is hashed by XOR-ing the numbers of all its pieces. The castling
+ * rights, the en passant file and the side to move have keys of their own,
+ * so positions that only differ in those hash differently. The seed is fixed
+ * so keys are the same on every run.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class Zobrist {
+
+    /** Keys indexed by [piece index][row * 8 + col]. */
+    private static final long[][] PIECE_KEYS = new long[12][64];
+
+    /** Keys for the castling rights K, Q, k and q. */
+    private static final long[] CASTLING_KEYS = new long[4];
+
+    /** Keys for an en passant capture on files a-h. */
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+
+    /** Key for black to move. */
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        Random random = new Random(0x5EED_C4E55L);
+        for (int p = 0; p < PIECE_KEYS.length; p++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_KEYS[p][sq] = random.nextLong();
+            }
+        }
+        // drawn after the piece keys, so those stay what they were
+        for (int i = 0; i < CASTLING_KEYS.length; i++) {
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key for a piece standing on a square
+     *
+     * @param piece the piece, must not be null
+     * @param row   the row of the square (0-7)
+     * @param col   the column of the square (0-7)
+     * @return the random key for that piece on that square
+     */
+    public static long pieceKey(Piece piece, int row, int col) {
+        return PIECE_KEYS[pieceIndex(piece)][row * 8 + col];
+    }
+
+    /**
+     * Returns the key for a piece given by its code, for boards that don't
+     * keep {@link Piece} objects
+     *
+     * @param code   the {@link PieceType} code plus {@link PieceType#BLACK_FLAG}
+     *               for black pieces, must not be 0
+     * @param square the square, {@code row * 8 + col}
+     * @return the same key as {@link #pieceKey(Piece, int, int)}
+     */
+    public static long pieceKey(int code, int square) {
+        int index = (code & 7) - 1;
+        return PIECE_KEYS[(code & PieceType.BLACK_FLAG) == 0 ? index : index + 6][square];
+    }
+
+    /**
+     * Returns the key for a castling right
+     *
+     * @param right 0-3 for K, Q, k and q
+     * @return the random key for that right
+     */
+    public static long castlingKey(int right) {
+        return CASTLING_KEYS[right];
+    }
+
+    /**
+     * Returns the key for an en passant capture being possible
+     *
+     * @param col the file of the pawn that can be taken (0-7)
+     * @return the random key for that file
+     */
+    public static long enPassantKey(int col) {
+        return EN_PASSANT_KEYS[col];
+    }
+
+    /** @return the key XOR-ed in when black is to move */
+    public static long blackToMoveKey() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * Maps a piece to its index in the key table: white pawn..king are 0-5,
+     * black pawn..king are 6-11.
+     *
+     * @param piece the piece, must not be null
+     * @return the table index of the piece
+     */
+    private static int pieceIndex(Piece piece) {
+        int index = piece.getType().ordinal();
+        return piece.isWhite() ? index : index + 6;
+    }
+}
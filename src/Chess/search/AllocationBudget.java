@@ -0,0 +1,272 @@
+package Chess.search;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Board;
+import Chess.engine.Move;
+import Chess.backend.BackendCrossCheck;
+import Chess.backend.BoardBackend;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Measures how much memory the AI allocates and fails when it is over budget
+ * <p>
+ * Garbage from the search is what makes the AI pause at random, so it is
+ * measured in bytes instead of guessed at. The JVM counts the bytes every
+ * thread allocates ({@code com.sun.management.ThreadMXBean}); reading the
+ * count before and after a search on the same thread gives exactly what that
+ * search allocated.
+ * </p>
+ * <p>
+ * Two workloads are measured. The AI plays a game against itself and every
+ * move after the warm-up moves is checked against {@code --budget}, in bytes
+ * per move. The AI still copies boards and builds move lists at every node,
+ * so there is no budget unless one is given and the run only reports. The
+ * fast {@link BoardBackend}s run a perft that has to allocate nothing at all
+ * once the JIT has warmed up, so any allocation that creeps back into move
+ * generation or make/unmake fails the run.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class AllocationBudget {
+
+    /** Perft runs a backend gets to stop allocating before it fails. */
+    private static final int MAX_BACKEND_RUNS = 20;
+
+    /** Allocation-free runs in a row that count as warmed up. */
+    private static final int CLEAN_RUNS = 2;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final long overhead;
+
+    /**
+     * Creates a meter for the current thread
+     *
+     * @throws UnsupportedOperationException if the JVM can't count allocated
+     *                                       bytes
+     */
+    public AllocationBudget() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            throw new UnsupportedOperationException("This JVM does not count allocated bytes");
+        }
+        threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("This JVM does not count allocated bytes");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // reading the counter can allocate a little itself, take that off every measurement
+        long least = Long.MAX_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long before = allocatedBytes();
+            least = Math.min(least, allocatedBytes() - before);
+        }
+        overhead = least;
+    }
+
+    /** @return the bytes the current thread has allocated so far */
+    public long allocatedBytes() {
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @param before what {@link #allocatedBytes()} returned before the work
+     * @return the bytes allocated since then, without the meter's own
+     */
+    public long allocatedSince(long before) {
+        return Math.max(0, allocatedBytes() - before - overhead);
+    }
+
+    /**
+     * Lets the AI play itself and checks the bytes every move allocates
+     *
+     * @param level  the AI level
+     * @param moves  the moves to measure
+     * @param warmup the moves to play first without measuring
+     * @param budget the most a move may allocate, or a negative number for
+     *               no limit
+     * @return the number of moves over the budget
+     */
+    public int checkAIMoves(int level, int moves, int warmup, long budget) {
+        AIPlayer white = new AIPlayer("White AI", "White", level);
+        AIPlayer black = new AIPlayer("Black AI", "Black", level);
+        Board board = new Board(null);
+        boolean whiteToMove = true;
+        long total = 0;
+        long worst = 0;
+        int failures = 0;
+
+        for (int ply = 0; ply < warmup + moves; ply++) {
+            AIPlayer ai = whiteToMove ? white : black;
+            long evaluations = ai.getEvaluator().getEvaluations();
+            long before = allocatedBytes();
+            Move move = ai.makeMove(board);
+            long bytes = allocatedSince(before);
+            evaluations = ai.getEvaluator().getEvaluations() - evaluations;
+
+            if (move == null) {
+                // game over, the next game is more warm-up
+                board = new Board(null);
+                whiteToMove = true;
+                continue;
+            }
+            board.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                    move.getTo().getCol(), AIPlayer.promotionFor(move), false);
+            whiteToMove = !whiteToMove;
+            if (ply < warmup) {
+                continue;
+            }
+
+            total += bytes;
+            worst = Math.max(worst, bytes);
+            boolean over = budget >= 0 && bytes > budget;
+            if (over) {
+                failures++;
+            }
+            System.out.println(String.format(Locale.ROOT, "  %-6s %-5s %10s  %7d evaluations  %10s/evaluation%s",
+                    ai.getColor(), notation(move), format(bytes), evaluations,
+                    format(bytes / Math.max(1, evaluations)), over ? "  OVER BUDGET" : ""));
+        }
+        System.out.println(String.format(Locale.ROOT, "AI level %d: %s per move on average, %s at most, budget %s",
+                level, format(total / Math.max(1, moves)), format(worst), budget < 0 ? "none" : format(budget)));
+        return failures;
+    }
+
+    /**
+     * Runs a perft on a backend until it has allocated nothing twice in a
+     * row, and fails it if that doesn't happen within a fixed number of runs
+     * <p>
+     * The JIT compiles the move generator in the background, and until the
+     * compiled code is in place a run can still allocate a little (for the
+     * interpreter's boxing or the compiler's own bookkeeping), so one warm-up
+     * run isn't always enough.
+     * </p>
+     *
+     * @param backend the backend
+     * @param depth   the perft depth
+     * @return 0 if the backend warmed up to allocation-free runs, otherwise
+     *         the bytes the last run allocated
+     */
+    public long checkBackend(BoardBackend backend, int depth) {
+        int[][] buffers = new int[depth][BoardBackend.MAX_MOVES];
+        backend.load(new Board(null), "White");
+
+        long nodes = 0;
+        long bytes = 0;
+        int clean = 0;
+        int runs = 0;
+        while (clean < CLEAN_RUNS && runs < MAX_BACKEND_RUNS) {
+            long before = allocatedBytes();
+            nodes = BackendCrossCheck.perft(backend, buffers, depth);
+            bytes = allocatedSince(before);
+            clean = bytes == 0 ? clean + 1 : 0;
+            runs++;
+        }
+        boolean failed = clean < CLEAN_RUNS;
+        System.out.println(String.format(Locale.ROOT, "%-9s perft(%d) = %d: %s allocated after %d runs%s",
+                backend.getName(), depth, nodes, format(bytes), runs, failed ? "  NOT ALLOCATION-FREE" : ""));
+        return failed ? Math.max(1, bytes) : 0;
+    }
+
+    private static String notation(Move move) {
+        return BoardBackend.toString(BoardBackend.move(move.getFrom().getRow() * 8 + move.getFrom().getCol(),
+                move.getTo().getRow() * 8 + move.getTo().getCol(), 0));
+    }
+
+    /**
+     * Writes a byte count for people
+     *
+     * @param bytes the count
+     * @return e.g. "512 B", "3.4 KB" or "12.0 MB"
+     */
+    public static String format(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Reads a byte count like "64k", "2m" or "1500"
+     *
+     * @param text the text
+     * @return the bytes
+     */
+    public static long parseBytes(String text) {
+        String lower = text.trim().toLowerCase(Locale.ROOT);
+        long unit = 1;
+        if (lower.endsWith("k")) {
+            unit = 1024;
+        } else if (lower.endsWith("m")) {
+            unit = 1024 * 1024;
+        } else if (lower.endsWith("g")) {
+            unit = 1024L * 1024 * 1024;
+        }
+        if (unit > 1) {
+            lower = lower.substring(0, lower.length() - 1);
+        }
+        return Long.parseLong(lower) * unit;
+    }
+
+    /**
+     * Command line entry point; exits with status 1 when anything is over
+     * budget
+     *
+     * @param args {@code [--level N] [--moves N] [--warmup N] [--budget BYTES]
+     *             [--backends a,b,...] [--perft N]}
+     */
+    public static void main(String[] args) {
+        int level = 10;
+        int moves = 20;
+        int warmup = 6;
+        long budget = -1;
+        String backends = "0x88,bitboard";
+        int depth = 4;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--level":
+                    level = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--moves":
+                    moves = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--budget":
+                    budget = parseBytes(args[i + 1]);
+                    break;
+                case "--backends":
+                    backends = args[i + 1];
+                    break;
+                case "--perft":
+                    depth = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        AllocationBudget meter = new AllocationBudget();
+        boolean failed = false;
+        if (!backends.isEmpty()) {
+            for (String name : backends.split(",")) {
+                failed |= meter.checkBackend(BackendCrossCheck.create(name.trim()), depth) > 0;
+            }
+        }
+        if (moves > 0) {
+            failed |= meter.checkAIMoves(level, moves, warmup, budget) > 0;
+        }
+        if (failed) {
+            System.out.println("Allocation budget exceeded");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package Chess.search;
+
+import Chess.engine.Board;
+
+/**
+ * Finds forced mates with proof-number search
+ * <p>
+ * The search builds a tree in memory where every node has a proof number
+ * (how many leaves still have to be shown to be mates to prove it) and a
+ * disproof number (how many to refute it). It always expands the "most
+ * proving" leaf, found by walking down from the root: at the attacker's turn
+ * the child with the smallest proof number, at the defender's turn the child
+ * with the smallest disproof number. Checks leave the defender few replies
+ * and so get small proof numbers, which makes the search go after forcing
+ * lines first without any chess knowledge beyond that.
+ * </p>
+ * <p>
+ * Mate in {@code n} is tried for {@code n = 1, 2, ...} so the first mate
+ * found is the shortest. The attacker's last move must give check, so only
+ * checks are tried there. The whole search stops after a node limit.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class MateSolver {
+
+    /** Nodes a search may create when no limit is given. */
+    public static final int DEFAULT_NODE_LIMIT = 100_000;
+
+    private static final int INFINITY = 100_000_000;
+
+    // guess for a quiet attacker move: the defender will have lots of replies
+    private static final int QUIET_PROOF = 24;
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final int nodeLimit;
+    private final int[][] moveBuffers = new int[X88Position.MAX_PLY][];
+    private final int[] countBuffer = new int[X88Position.MAX_MOVES];
+    private int nodes;
+
+    /** A mate that was found. */
+    public static final class Mate {
+        private final int move;
+        private final int moves;
+        private final int nodes;
+
+        Mate(int move, int moves, int nodes) {
+            this.move = move;
+            this.moves = moves;
+            this.nodes = nodes;
+        }
+
+        /** @return the first move of the mate, see {@link X88Position} */
+        public int getMove() {
+            return move;
+        }
+
+        /** @return the number of moves until mate, 1 for mate in one */
+        public int getMoves() {
+            return moves;
+        }
+
+        /** @return the number of nodes the search created */
+        public int getNodes() {
+            return nodes;
+        }
+
+        @Override
+        public String toString() {
+            return "mate in " + moves + " starting " + X88Position.toString(move);
+        }
+    }
+
+    private static final class Node {
+        final int move;
+        final boolean attacker; // attacker to move: an OR node
+        Node[] children;
+        int proof = 1;
+        int disproof = 1;
+
+        Node(int move, boolean attacker) {
+            this.move = move;
+            this.attacker = attacker;
+        }
+    }
+
+    /** Creates a solver with the {@link #DEFAULT_NODE_LIMIT}. */
+    public MateSolver() {
+        this(DEFAULT_NODE_LIMIT);
+    }
+
+    /**
+     * Creates a solver
+     *
+     * @param nodeLimit the number of nodes one search may create
+     */
+    public MateSolver(int nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Looks for a mate for the side to move on a board
+     *
+     * @param board    the board
+     * @param color    the side to move, which is the attacker
+     * @param maxMoves the longest mate to look for, in moves of the attacker
+     * @return the shortest mate found, or {@code null}
+     */
+    public Mate solve(Board board, String color, int maxMoves) {
+        return solve(X88Position.fromBoard(board, color), maxMoves);
+    }
+
+    /**
+     * Looks for a mate for the side to move
+     *
+     * @param position the position, unchanged when this returns
+     * @param maxMoves the longest mate to look for, in moves of the attacker
+     * @return the shortest mate found, or {@code null} if there is none or the
+     *         node limit ran out first
+     */
+    public Mate solve(X88Position position, int maxMoves) {
+        nodes = 0;
+        for (int moves = 1; moves <= maxMoves && nodes < nodeLimit; moves++) {
+            Node root = new Node(0, true);
+            search(position, root, 2 * moves - 1);
+            if (root.proof == 0) {
+                for (Node child : root.children) {
+                    if (child.proof == 0) {
+                        return new Mate(child.move, moves, nodes);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // the best-first loop for one mate length
+    private void search(X88Position position, Node root, int lastPly) {
+        Node[] path = new Node[lastPly + 1];
+        int base = position.getPly();
+        expand(position, root, 0, lastPly);
+        while (root.proof != 0 && root.disproof != 0 && nodes < nodeLimit) {
+            // walk down to the most proving node
+            Node node = root;
+            int depth = 0;
+            path[0] = root;
+            while (node.children != null) {
+                node = select(node);
+                position.makeMove(node.move);
+                path[++depth] = node;
+            }
+            expand(position, node, depth, lastPly);
+
+            // back up the new numbers and return to the root
+            for (int d = depth; d > 0; d--) {
+                position.unmakeMove();
+                Node parent = path[d - 1];
+                update(parent);
+                if (path[d].proof == 0 || path[d].disproof == 0) {
+                    path[d].children = NO_CHILDREN; // solved, the subtree is not needed any more
+                }
+            }
+        }
+        while (position.getPly() > base) {
+            position.unmakeMove();
+        }
+    }
+
+    private static Node select(Node node) {
+        Node best = null;
+        for (Node child : node.children) {
+            if (node.attacker ? child.proof == node.proof : child.disproof == node.disproof) {
+                return child;
+            }
+            if (best == null) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private static void update(Node node) {
+        int proof;
+        int disproof;
+        if (node.attacker) {
+            proof = INFINITY;
+            disproof = 0;
+            for (Node child : node.children) {
+                proof = Math.min(proof, child.proof);
+                disproof = Math.min(INFINITY, disproof + child.disproof);
+            }
+        } else {
+            proof = 0;
+            disproof = INFINITY;
+            for (Node child : node.children) {
+                proof = Math.min(INFINITY, proof + child.proof);
+                disproof = Math.min(disproof, child.disproof);
+            }
+        }
+        node.proof = proof;
+        node.disproof = disproof;
+    }
+
+    // creates the children of a leaf and gives each its first numbers
+    private void expand(X88Position position, Node node, int ply, int lastPly) {
+        int[] moves = moveBuffers[ply];
+        if (moves == null) {
+            moves = new int[X88Position.MAX_MOVES];
+            moveBuffers[ply] = moves;
+        }
+        int moveCount = position.generateMoves(moves);
+        Node[] children = new Node[moveCount];
+        int count = 0;
+        int defender = position.getSide() ^ 1;
+
+        for (int i = 0; i < moveCount; i++) {
+            if (!position.makeMove(moves[i])) {
+                continue;
+            }
+            Node child = new Node(moves[i], !node.attacker);
+            nodes++;
+            if (node.attacker) {
+                boolean check = position.inCheck(defender);
+                if (ply + 1 == lastPly && !check) {
+                    position.unmakeMove();
+                    continue; // the last move has to mate, so it has to check
+                }
+                int replies = position.countLegalMoves(check ? X88Position.MAX_MOVES : 1, countBuffer);
+                if (replies == 0) {
+                    setSolved(child, check); // mate, or stalemate
+                } else if (ply + 1 == lastPly) {
+                    setSolved(child, false);
+                } else {
+                    child.proof = check ? replies : QUIET_PROOF;
+                }
+            }
+            position.unmakeMove();
+            children[count++] = child;
+        }
+
+        if (count < moveCount) {
+            Node[] legal = new Node[count];
+            System.arraycopy(children, 0, legal, 0, count);
+            children = legal;
+        }
+        node.children = children;
+        if (count == 0) {
+            // only the attacker can run out of moves here: defender leaves are solved on creation
+            node.proof = INFINITY;
+            node.disproof = 0;
+            return;
+        }
+        update(node);
+    }
+
+    private static void setSolved(Node node, boolean proven) {
+        node.proof = proven ? 0 : INFINITY;
+        node.disproof = proven ? INFINITY : 0;
+        node.children = NO_CHILDREN;
+    }
+}
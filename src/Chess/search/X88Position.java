@@ -0,0 +1,507 @@
+package Chess.search;
+
+import Chess.engine.Board;
+import Chess.engine.King;
+import Chess.engine.Move;
+import Chess.engine.Piece;
+import Chess.engine.PieceType;
+import Chess.engine.Rook;
+
+/**
+ * Compact mutable chess position for fast searches
+ * <p>
+ * The board is a 128-byte 0x88 array: square {@code row * 16 + col}, and any
+ * square with {@code (square & 0x88) != 0} is off the board, so sliding and
+ * stepping need no bounds checks. A piece is a byte: its type
+ * ({@link #PAWN} to {@link #KING}) plus {@link #BLACK_FLAG} for Black.
+ * </p>
+ * <p>
+ * Moves are ints (see {@link #from(int)}, {@link #to(int)} and
+ * {@link #promotion(int)}). {@link #makeMove(int)} and {@link #unmakeMove()}
+ * work in place with a small undo stack, so a search on this class does
+ * not create any objects. Unlike {@link Board} it knows every rule that
+ * matters for a search: castling rights, en passant and all promotions.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class X88Position {
+
+    /** Sides. */
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    /** Piece types. */
+    public static final int PAWN = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+
+    /** Added to the type of a black piece. */
+    public static final int BLACK_FLAG = 8;
+
+    /** Enough room for the moves of any position. */
+    public static final int MAX_MOVES = 256;
+
+    /** Deepest line that can be made before it has to be unmade again. */
+    public static final int MAX_PLY = 512;
+
+    // move layout: from 0-6, to 7-13, promotion 14-16, flags above
+    private static final int FLAG_EN_PASSANT = 1 << 17;
+    private static final int FLAG_CASTLE = 1 << 18;
+    private static final int FLAG_DOUBLE_PUSH = 1 << 19;
+
+    private static final int WHITE_SHORT = 1;
+    private static final int WHITE_LONG = 2;
+    private static final int BLACK_SHORT = 4;
+    private static final int BLACK_LONG = 8;
+
+    private static final int[] KNIGHT_STEPS = { 33, 31, 18, 14, -14, -18, -31, -33 };
+    private static final int[] KING_STEPS = { 1, -1, 16, -16, 15, 17, -15, -17 };
+    private static final int[] ROOK_DIRS = { 1, -1, 16, -16 };
+    private static final int[] BISHOP_DIRS = { 15, 17, -15, -17 };
+
+    // castling rights that survive a move touching the square
+    private static final int[] CASTLE_MASK = new int[128];
+
+    static {
+        for (int sq = 0; sq < 128; sq++) {
+            CASTLE_MASK[sq] = 15;
+        }
+        CASTLE_MASK[0x04] = 15 & ~(WHITE_SHORT | WHITE_LONG);
+        CASTLE_MASK[0x00] = 15 & ~WHITE_LONG;
+        CASTLE_MASK[0x07] = 15 & ~WHITE_SHORT;
+        CASTLE_MASK[0x74] = 15 & ~(BLACK_SHORT | BLACK_LONG);
+        CASTLE_MASK[0x70] = 15 & ~BLACK_LONG;
+        CASTLE_MASK[0x77] = 15 & ~BLACK_SHORT;
+    }
+
+    private final byte[] squares = new byte[128];
+    private final int[] kings = new int[2];
+    private int side;
+    private int castling;
+    private int epSquare = -1;
+
+    private final int[] undoMove = new int[MAX_PLY];
+    private final byte[] undoCaptured = new byte[MAX_PLY];
+    private final int[] undoCastling = new int[MAX_PLY];
+    private final int[] undoEp = new int[MAX_PLY];
+    private int ply;
+
+    /** Creates an empty position with White to move. */
+    public X88Position() {
+        kings[WHITE] = -1;
+        kings[BLACK] = -1;
+    }
+
+    /**
+     * Copies a board. Castling rights come from kings and rooks that have not
+     * moved yet, and the en passant square from the last move on the board.
+     *
+     * @param board      the board
+     * @param sideToMove "White" or "Black"
+     * @return the position
+     */
+    public static X88Position fromBoard(Board board, String sideToMove) {
+        X88Position position = new X88Position();
+        for (int r = 0; r < Board.ROWS; r++) {
+            for (int c = 0; c < Board.COLUMNS; c++) {
+                Piece piece = board.getPieceAt(r, c);
+                if (piece != null) {
+                    position.put(r * 16 + c, typeOf(piece) | (piece.isWhite() ? 0 : BLACK_FLAG));
+                }
+            }
+        }
+        position.side = sideToMove.equals("White") ? WHITE : BLACK;
+
+        if (unmoved(board, 0, 4, King.class)) {
+            position.castling |= unmoved(board, 0, 7, Rook.class) ? WHITE_SHORT : 0;
+            position.castling |= unmoved(board, 0, 0, Rook.class) ? WHITE_LONG : 0;
+        }
+        if (unmoved(board, 7, 4, King.class)) {
+            position.castling |= unmoved(board, 7, 7, Rook.class) ? BLACK_SHORT : 0;
+            position.castling |= unmoved(board, 7, 0, Rook.class) ? BLACK_LONG : 0;
+        }
+
+        Move last = board.getLastMove();
+        if (last != null && last.getMovedPiece().getType() == PieceType.PAWN
+                && Math.abs(last.getFrom().getRow() - last.getTo().getRow()) == 2) {
+            int row = (last.getFrom().getRow() + last.getTo().getRow()) / 2;
+            position.epSquare = row * 16 + last.getTo().getCol();
+        }
+        return position;
+    }
+
+    private static boolean unmoved(Board board, int row, int col, Class<? extends Piece> type) {
+        Piece piece = board.getPieceAt(row, col);
+        return type.isInstance(piece) && !piece.hasMoved() && piece.isWhite() == (row == 0);
+    }
+
+    private static int typeOf(Piece piece) {
+        return piece.getType().getCode(); // same codes as PieceType
+    }
+
+    /**
+     * Puts a piece on an empty square
+     *
+     * @param square the 0x88 square
+     * @param piece  the piece code
+     */
+    public void put(int square, int piece) {
+        squares[square] = (byte) piece;
+        if ((piece & 7) == KING) {
+            kings[piece >> 3] = square;
+        }
+    }
+
+    /** @return the side to move, {@link #WHITE} or {@link #BLACK} */
+    public int getSide() {
+        return side;
+    }
+
+    /** @param side the side to move */
+    public void setSide(int side) {
+        this.side = side;
+    }
+
+    /** @return the piece code on a square, 0 if empty */
+    public int pieceAt(int square) {
+        return squares[square];
+    }
+
+    /** @return the number of moves made and not yet unmade */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Checks whether the king of a side is attacked
+     *
+     * @param who the side
+     * @return {@code true} if that side is in check
+     */
+    public boolean inCheck(int who) {
+        return kings[who] >= 0 && isAttacked(kings[who], who ^ 1);
+    }
+
+    /**
+     * Checks whether a side attacks a square
+     *
+     * @param square the 0x88 square
+     * @param by     the attacking side
+     * @return {@code true} if a piece of {@code by} attacks the square
+     */
+    public boolean isAttacked(int square, int by) {
+        int colorFlag = by == WHITE ? 0 : BLACK_FLAG;
+
+        // pawns attack diagonally forwards, so look backwards from the square
+        int pawnRow = by == WHITE ? -16 : 16;
+        for (int d = -1; d <= 1; d += 2) {
+            int from = square + pawnRow + d;
+            if ((from & 0x88) == 0 && squares[from] == (PAWN | colorFlag)) {
+                return true;
+            }
+        }
+        for (int step : KNIGHT_STEPS) {
+            int from = square + step;
+            if ((from & 0x88) == 0 && squares[from] == (KNIGHT | colorFlag)) {
+                return true;
+            }
+        }
+        for (int step : KING_STEPS) {
+            int from = square + step;
+            if ((from & 0x88) == 0 && squares[from] == (KING | colorFlag)) {
+                return true;
+            }
+        }
+        return slidingAttack(square, ROOK_DIRS, ROOK | colorFlag, QUEEN | colorFlag)
+                || slidingAttack(square, BISHOP_DIRS, BISHOP | colorFlag, QUEEN | colorFlag);
+    }
+
+    private boolean slidingAttack(int square, int[] dirs, int slider, int queen) {
+        for (int dir : dirs) {
+            int from = square + dir;
+            while ((from & 0x88) == 0) {
+                int piece = squares[from];
+                if (piece != 0) {
+                    if (piece == slider || piece == queen) {
+                        return true;
+                    }
+                    break;
+                }
+                from += dir;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generates the pseudo-legal moves of the side to move; the ones leaving
+     * the own king in check are rejected by {@link #makeMove(int)}
+     *
+     * @param moves receives the moves, at least {@link #MAX_MOVES} long
+     * @return the number of moves
+     */
+    public int generateMoves(int[] moves) {
+        int n = 0;
+        int own = side == WHITE ? 0 : BLACK_FLAG;
+        for (int from = 0; from < 128; from++) {
+            if ((from & 0x88) != 0) {
+                from += 7;
+                continue;
+            }
+            int piece = squares[from];
+            if (piece == 0 || (piece & BLACK_FLAG) != own) {
+                continue;
+            }
+            switch (piece & 7) {
+                case PAWN:
+                    n = pawnMoves(from, moves, n);
+                    break;
+                case KNIGHT:
+                    n = stepMoves(from, KNIGHT_STEPS, moves, n);
+                    break;
+                case BISHOP:
+                    n = slideMoves(from, BISHOP_DIRS, moves, n);
+                    break;
+                case ROOK:
+                    n = slideMoves(from, ROOK_DIRS, moves, n);
+                    break;
+                case QUEEN:
+                    n = slideMoves(from, ROOK_DIRS, moves, n);
+                    n = slideMoves(from, BISHOP_DIRS, moves, n);
+                    break;
+                default:
+                    n = stepMoves(from, KING_STEPS, moves, n);
+                    n = castlingMoves(from, moves, n);
+                    break;
+            }
+        }
+        return n;
+    }
+
+    private boolean isEnemy(int square) {
+        int piece = squares[square];
+        return piece != 0 && (piece >> 3) != side;
+    }
+
+    private int stepMoves(int from, int[] steps, int[] moves, int n) {
+        for (int step : steps) {
+            int to = from + step;
+            if ((to & 0x88) == 0 && (squares[to] == 0 || isEnemy(to))) {
+                moves[n++] = from | to << 7;
+            }
+        }
+        return n;
+    }
+
+    private int slideMoves(int from, int[] dirs, int[] moves, int n) {
+        for (int dir : dirs) {
+            int to = from + dir;
+            while ((to & 0x88) == 0) {
+                if (squares[to] != 0) {
+                    if (isEnemy(to)) {
+                        moves[n++] = from | to << 7;
+                    }
+                    break;
+                }
+                moves[n++] = from | to << 7;
+                to += dir;
+            }
+        }
+        return n;
+    }
+
+    private int pawnMoves(int from, int[] moves, int n) {
+        int forward = side == WHITE ? 16 : -16;
+        int row = from >> 4;
+        int startRow = side == WHITE ? 1 : 6;
+        int lastRow = side == WHITE ? 7 : 0;
+        int to = from + forward;
+        if ((to & 0x88) == 0 && squares[to] == 0) {
+            n = addPawnMove(from, to, lastRow, 0, moves, n);
+            int twoAhead = to + forward;
+            if (row == startRow && squares[twoAhead] == 0) {
+                moves[n++] = from | twoAhead << 7 | FLAG_DOUBLE_PUSH;
+            }
+        }
+        for (int d = -1; d <= 1; d += 2) {
+            int target = from + forward + d;
+            if ((target & 0x88) != 0) {
+                continue;
+            }
+            if (isEnemy(target)) {
+                n = addPawnMove(from, target, lastRow, 0, moves, n);
+            } else if (target == epSquare) {
+                moves[n++] = from | target << 7 | FLAG_EN_PASSANT;
+            }
+        }
+        return n;
+    }
+
+    private int addPawnMove(int from, int to, int lastRow, int flags, int[] moves, int n) {
+        if ((to >> 4) != lastRow) {
+            moves[n++] = from | to << 7 | flags;
+            return n;
+        }
+        for (int type = QUEEN; type >= KNIGHT; type--) {
+            moves[n++] = from | to << 7 | type << 14 | flags;
+        }
+        return n;
+    }
+
+    private int castlingMoves(int from, int[] moves, int n) {
+        int home = side == WHITE ? 0x04 : 0x74;
+        if (from != home || castling == 0) {
+            return n;
+        }
+        int shortRight = side == WHITE ? WHITE_SHORT : BLACK_SHORT;
+        int longRight = side == WHITE ? WHITE_LONG : BLACK_LONG;
+        int enemy = side ^ 1;
+        if ((castling & shortRight) != 0 && squares[home + 1] == 0 && squares[home + 2] == 0
+                && !isAttacked(home, enemy) && !isAttacked(home + 1, enemy)) {
+            moves[n++] = home | (home + 2) << 7 | FLAG_CASTLE;
+        }
+        if ((castling & longRight) != 0 && squares[home - 1] == 0 && squares[home - 2] == 0
+                && squares[home - 3] == 0 && !isAttacked(home, enemy) && !isAttacked(home - 1, enemy)) {
+            moves[n++] = home | (home - 2) << 7 | FLAG_CASTLE;
+        }
+        return n;
+    }
+
+    /**
+     * Plays a move. If it leaves the mover's king in check it is taken back
+     * straight away.
+     *
+     * @param move a move from {@link #generateMoves(int[])}
+     * @return {@code true} if the move was legal and has been made
+     */
+    public boolean makeMove(int move) {
+        int from = from(move);
+        int to = to(move);
+        int piece = squares[from];
+
+        undoMove[ply] = move;
+        undoCastling[ply] = castling;
+        undoEp[ply] = epSquare;
+
+        int capturedSquare = (move & FLAG_EN_PASSANT) != 0 ? to + (side == WHITE ? -16 : 16) : to;
+        undoCaptured[ply] = squares[capturedSquare];
+        squares[capturedSquare] = 0;
+        ply++;
+
+        int promotion = promotion(move);
+        squares[to] = (byte) (promotion != 0 ? promotion | (piece & BLACK_FLAG) : piece);
+        squares[from] = 0;
+        if ((piece & 7) == KING) {
+            kings[side] = to;
+            if ((move & FLAG_CASTLE) != 0) {
+                int rookFrom = to > from ? from + 3 : from - 4;
+                int rookTo = to > from ? from + 1 : from - 1;
+                squares[rookTo] = squares[rookFrom];
+                squares[rookFrom] = 0;
+            }
+        }
+        castling &= CASTLE_MASK[from] & CASTLE_MASK[to];
+        epSquare = (move & FLAG_DOUBLE_PUSH) != 0 ? (from + to) / 2 : -1;
+        side ^= 1;
+
+        if (inCheck(side ^ 1)) {
+            unmakeMove();
+            return false;
+        }
+        return true;
+    }
+
+    /** Takes back the last move made. */
+    public void unmakeMove() {
+        ply--;
+        side ^= 1;
+        int move = undoMove[ply];
+        int from = from(move);
+        int to = to(move);
+        int piece = squares[to];
+        if (promotion(move) != 0) {
+            piece = PAWN | (piece & BLACK_FLAG);
+        }
+        squares[from] = (byte) piece;
+        squares[to] = 0;
+        int capturedSquare = (move & FLAG_EN_PASSANT) != 0 ? to + (side == WHITE ? -16 : 16) : to;
+        squares[capturedSquare] = undoCaptured[ply];
+        if ((piece & 7) == KING) {
+            kings[side] = from;
+            if ((move & FLAG_CASTLE) != 0) {
+                int rookFrom = to > from ? from + 3 : from - 4;
+                int rookTo = to > from ? from + 1 : from - 1;
+                squares[rookFrom] = squares[rookTo];
+                squares[rookTo] = 0;
+            }
+        }
+        castling = undoCastling[ply];
+        epSquare = undoEp[ply];
+    }
+
+    /**
+     * Counts the legal moves of the side to move, stopping early
+     *
+     * @param limit stop counting once this many are found
+     * @param moves scratch space, at least {@link #MAX_MOVES} long
+     * @return the number of legal moves, at most {@code limit}
+     */
+    public int countLegalMoves(int limit, int[] moves) {
+        int count = 0;
+        int n = generateMoves(moves);
+        for (int i = 0; i < n && count < limit; i++) {
+            if (makeMove(moves[i])) {
+                unmakeMove();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** @return the from square of a move */
+    public static int from(int move) {
+        return move & 0x7F;
+    }
+
+    /** @return the to square of a move */
+    public static int to(int move) {
+        return (move >> 7) & 0x7F;
+    }
+
+    /** @return the piece type a move promotes to, 0 if none */
+    public static int promotion(int move) {
+        return (move >> 14) & 7;
+    }
+
+    /** @return the board row of a 0x88 square */
+    public static int row(int square) {
+        return square >> 4;
+    }
+
+    /** @return the board column of a 0x88 square */
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    /**
+     * Writes a move in coordinate notation
+     *
+     * @param move the move
+     * @return e.g. "e2e4" or "e7e8q"
+     */
+    public static String toString(int move) {
+        StringBuilder text = new StringBuilder();
+        for (int square : new int[] { from(move), to(move) }) {
+            text.append((char) ('a' + col(square))).append((char) ('1' + row(square)));
+        }
+        if (promotion(move) != 0) {
+            text.append(" pnbrqk".charAt(promotion(move)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,254 @@
+package Chess.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One client of the game server, read on a thread of its own
+ * <p>
+ * The client sends one command per line and gets exactly one answer line
+ * for it, starting with {@code ok} or {@code error}; {@code list} adds a
+ * line per game after its answer. Moves and game ends arrive in between as
+ * events, see {@link GameServer}. Everything goes out through the client's
+ * {@link Outbox}. A client that disconnects resigns the games it is playing.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class ClientConnection implements Runnable {
+
+    private final GameServer server;
+    private final Socket socket;
+    private final Outbox outbox;
+    private final Set<Long> games = ConcurrentHashMap.newKeySet();
+    private final Set<Long> watching = ConcurrentHashMap.newKeySet();
+    private volatile String name;
+
+    /**
+     * @param server the server
+     * @param socket the client's socket
+     * @param number a number to name the client by until it names itself
+     * @throws IOException if the socket is closed already
+     */
+    public ClientConnection(GameServer server, Socket socket, long number) throws IOException {
+        this.server = server;
+        this.socket = socket;
+        this.outbox = new Outbox(socket, server.getOutboxCapacity());
+        this.name = "client" + number;
+    }
+
+    /** Reads and answers commands until the client quits or disconnects. */
+    @Override
+    public void run() {
+        // not closed here, that would close the socket before the outbox has written the last answers
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            send("hello " + name + " send 'help' for the commands");
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.equals("quit")) {
+                    send("ok bye");
+                    break;
+                }
+                send(handle(line.split("\\s+")));
+            }
+        } catch (IOException e) {
+            // the client went away
+        } finally {
+            for (long id : games) {
+                ServerGame game = server.getRegistry().get(id);
+                if (game != null) {
+                    game.resign(this, "disconnected");
+                }
+            }
+            for (long id : watching) {
+                ServerGame game = server.getRegistry().get(id);
+                if (game != null) {
+                    game.unwatch(this);
+                }
+            }
+            try {
+                outbox.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            server.connectionClosed(this);
+        }
+    }
+
+    // one command; the answer line
+    private String handle(String[] words) {
+        try {
+            switch (words[0]) {
+                case "help":
+                    return "ok commands: name NAME | new LEVEL [white|black] | open [white|black] | join ID"
+                            + " | move ID UCI | go ID | resign ID | show ID | watch ID | unwatch ID | list | stats"
+                            + " | quit";
+                case "name":
+                    if (words.length < 2 || !words[1].matches("[A-Za-z0-9_.-]{1,32}")) {
+                        return "error a name is 1 to 32 letters, digits or _.-";
+                    }
+                    name = words[1];
+                    return "ok " + name;
+                case "new":
+                    return newAIGame(words);
+                case "open":
+                    return openGame(words);
+                case "join":
+                    return join(gameOf(words));
+                case "move":
+                    if (words.length < 3) {
+                        return "error usage: move ID UCI";
+                    }
+                    return answer(gameOf(words).move(this, words[2]));
+                case "go":
+                    return answer(gameOf(words).startAI());
+                case "resign":
+                    return answer(gameOf(words).resign(this, "resigned"));
+                case "show":
+                    ServerGame game = gameOf(words);
+                    return "ok " + game.describe() + " " + game.fen();
+                case "watch":
+                    return watch(gameOf(words));
+                case "unwatch":
+                    ServerGame watched = gameOf(words);
+                    watching.remove(watched.getId());
+                    return answer(watched.unwatch(this) ? null : "you are not watching game " + watched.getId());
+                case "list":
+                    return list();
+                case "stats":
+                    return "ok " + server.stats();
+                default:
+                    return "error unknown command '" + words[0] + "', send 'help'";
+            }
+        } catch (IllegalArgumentException e) {
+            return "error " + e.getMessage();
+        }
+    }
+
+    private String newAIGame(String[] words) {
+        if (words.length < 2 || !words[1].matches("10|[1-9]")) {
+            return "error usage: new LEVEL [white|black], LEVEL from 1 to 10";
+        }
+        boolean white = words.length < 3 || !words[2].equalsIgnoreCase("black");
+        ServerGame game = server.createGame(this, white, Integer.parseInt(words[1]));
+        if (game == null) {
+            return "error the server is full";
+        }
+        games.add(game.getId());
+        String answer = "ok " + game.getId() + " " + (white ? "White" : "Black") + " " + game.fen();
+        if (!white) {
+            // the answer goes out before the AI's first move can
+            send(answer);
+            String error = game.startAI();
+            return error == null ? null : "error " + error;
+        }
+        return answer;
+    }
+
+    private String openGame(String[] words) {
+        boolean white = words.length < 2 || !words[1].equalsIgnoreCase("black");
+        ServerGame game = server.createGame(this, white);
+        if (game == null) {
+            return "error the server is full";
+        }
+        games.add(game.getId());
+        return "ok " + game.getId() + " " + (white ? "White" : "Black") + " waiting for an opponent";
+    }
+
+    private String join(ServerGame game) {
+        String color = game.join(this);
+        if (color == null) {
+            return "error game " + game.getId() + " has no open side";
+        }
+        games.add(game.getId());
+        return "ok " + game.getId() + " " + color + " " + game.fen();
+    }
+
+    private String watch(ServerGame game) {
+        if (!watching.add(game.getId())) {
+            return "error you are watching game " + game.getId() + " already";
+        }
+        // the game queues the answer itself, so no event can get in before it
+        String error = game.watch(this);
+        if (error != null) {
+            watching.remove(game.getId());
+            return "error " + error;
+        }
+        return null;
+    }
+
+    private String list() {
+        List<ServerGame> all = server.getRegistry().games();
+        StringBuilder answer = new StringBuilder("ok ").append(all.size());
+        for (ServerGame game : all) {
+            answer.append('\n').append("game ").append(game.describe());
+        }
+        return answer.toString();
+    }
+
+    // the game an ID argument names
+    private ServerGame gameOf(String[] words) {
+        if (words.length < 2 || !words[1].matches("\\d{1,18}")) {
+            throw new IllegalArgumentException("usage: " + words[0] + " ID");
+        }
+        ServerGame game = server.getRegistry().get(Long.parseLong(words[1]));
+        if (game == null) {
+            throw new IllegalArgumentException("no game " + words[1]);
+        }
+        return game;
+    }
+
+    private static String answer(String error) {
+        return error == null ? "ok" : "error " + error;
+    }
+
+    /**
+     * Queues an answer for the client, waiting if the outbox is full; games
+     * go through {@link #getOutbox()} instead, which never waits
+     *
+     * @param line the line, or {@code null} to send nothing
+     */
+    public void send(String line) {
+        if (line == null) {
+            return;
+        }
+        try {
+            outbox.put(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Forgets a game that has ended, so a disconnect doesn't resign it
+     *
+     * @param id the game's id
+     */
+    void gameOver(long id) {
+        games.remove(id);
+        watching.remove(id);
+    }
+
+    /** @return the lines waiting to go out to the client */
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    /** @return the name the client goes by */
+    public String getName() {
+        return name;
+    }
+}
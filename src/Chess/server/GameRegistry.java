@@ -0,0 +1,122 @@
+package Chess.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The games a server hosts, by id
+ * <p>
+ * Hundreds of connections look up games all the time, so the games are
+ * spread over a number of stripes, each a plain map with a read-write lock of
+ * its own. A lookup only locks the stripe its id falls in, and only
+ * creating and removing games lock for writing, so connections playing
+ * different games hardly ever wait for each other.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class GameRegistry {
+
+    private final List<Map<Long, ServerGame>> stripes;
+    private final ReentrantReadWriteLock[] locks;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * @param stripes the number of stripes, rounded up to a power of two
+     */
+    public GameRegistry(int stripes) {
+        int count = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ArrayList<>(count);
+        this.locks = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes.add(new HashMap<>());
+            this.locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /** @return a fresh game id */
+    public long newId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Adds a game under its id
+     *
+     * @param game the game
+     */
+    public void add(ServerGame game) {
+        int stripe = stripe(game.getId());
+        locks[stripe].writeLock().lock();
+        try {
+            stripes.get(stripe).put(game.getId(), game);
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id a game id
+     * @return the game, or {@code null} if there is none with that id
+     */
+    public ServerGame get(long id) {
+        int stripe = stripe(id);
+        locks[stripe].readLock().lock();
+        try {
+            return stripes.get(stripe).get(id);
+        } finally {
+            locks[stripe].readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id a game id
+     * @return the game removed, or {@code null} if there was none
+     */
+    public ServerGame remove(long id) {
+        int stripe = stripe(id);
+        locks[stripe].writeLock().lock();
+        try {
+            return stripes.get(stripe).remove(id);
+        } finally {
+            locks[stripe].writeLock().unlock();
+        }
+    }
+
+    /** @return all games; each stripe is read on its own, so not an exact moment */
+    public List<ServerGame> games() {
+        List<ServerGame> games = new ArrayList<>();
+        for (int i = 0; i < stripes.size(); i++) {
+            locks[i].readLock().lock();
+            try {
+                games.addAll(stripes.get(i).values());
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        return games;
+    }
+
+    /** @return the number of games */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < stripes.size(); i++) {
+            locks[i].readLock().lock();
+            try {
+                size += stripes.get(i).size();
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    // ids are handed out in order, so the low bits spread them evenly
+    private int stripe(long id) {
+        return (int) (id & (stripes.size() - 1));
+    }
+}
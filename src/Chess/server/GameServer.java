@@ -0,0 +1,290 @@
+package Chess.server;
+
+import Chess.engine.GameThreads;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A line-protocol server hosting many games at once, so people can play
+ * against the AI, or each other, from another machine
+ * <p>
+ * Connect with anything that sends lines, e.g. {@code nc localhost 7777},
+ * and send {@code help}. Every connection is read on a thread of its own, a
+ * virtual thread on Java 21 and later, up to a limit past which new ones get
+ * an error line and are closed. The games sit in a
+ * {@link GameRegistry}, and the AI thinks on a fixed number of engine
+ * threads with a bounded queue in front, so a busy server answers "busy"
+ * instead of piling up searches. Besides the answers to its commands a
+ * client gets these events:
+ * </p>
+ * <ul>
+ * <li>{@code move ID UCI FEN} - a move was played in one of its games</li>
+ * <li>{@code over ID RESULT REASON} - one of its games ended</li>
+ * <li>{@code joined ID NAME} - someone took the open side of its game</li>
+ * <li>{@code sync ID PLIES RESULT FEN} - the client fell behind and missed
+ * events of the game, this is where it stands now</li>
+ * <li>{@code eval ID PLY SCORE BEST PROGRESS} - only to clients watching a
+ * game: White's score in evaluator units at that ply, with the AI's best
+ * move and how many moves it has searched, or {@code - static}</li>
+ * </ul>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class GameServer {
+
+    private final GameRegistry registry;
+    private final ThreadPoolExecutor engines;
+    private final int maxGames;
+    private final int outboxCapacity;
+    private final AtomicInteger games = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong clientNumber = new AtomicLong();
+    private final AtomicLong gamesPlayed = new AtomicLong();
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * @param engineThreads  the searches running at once
+     * @param engineQueue    the searches that may wait for a thread
+     * @param stripes        the stripes of the game registry
+     * @param maxGames       the most games at once
+     * @param outboxCapacity the most lines waiting for a client before it
+     *                       gets a sync instead
+     */
+    public GameServer(int engineThreads, int engineQueue, int stripes, int maxGames, int outboxCapacity) {
+        this.registry = new GameRegistry(stripes);
+        this.engines = new ThreadPoolExecutor(engineThreads, engineThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(engineQueue), GameThreads.daemonThreads("server-engine-"));
+        this.maxGames = maxGames;
+        this.outboxCapacity = outboxCapacity;
+    }
+
+    /**
+     * Accepts connections until {@link #close()} is called
+     *
+     * @param socket         the socket to accept on
+     * @param maxConnections the most connections at once; more are told the
+     *                       server is full and closed
+     * @throws IOException if accepting fails for another reason than closing
+     */
+    public void serve(ServerSocket socket, int maxConnections) throws IOException {
+        serverSocket = socket;
+        // a reader and a writer for each connection, and no more connections than that
+        ExecutorService threads = GameThreads.newPerTaskExecutor(2 * maxConnections, "server-connection-");
+        try {
+            while (!socket.isClosed()) {
+                Socket client;
+                try {
+                    client = socket.accept();
+                } catch (IOException e) {
+                    if (socket.isClosed()) {
+                        break;
+                    }
+                    throw e;
+                }
+                client.setTcpNoDelay(true);
+                if (!reserve(connections, maxConnections)) {
+                    refuse(client);
+                    continue;
+                }
+                try {
+                    ClientConnection connection = new ClientConnection(this, client, clientNumber.incrementAndGet());
+                    threads.execute(connection.getOutbox());
+                    threads.execute(connection);
+                } catch (IOException e) {
+                    connections.decrementAndGet();
+                    client.close();
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    // one line, which fits in the socket's buffer whether the client reads it or not
+    private static void refuse(Socket client) {
+        try (Socket closing = client) {
+            OutputStream out = closing.getOutputStream();
+            out.write("error the server is full, try again later\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /** Stops accepting connections; the ones open stay until they close. */
+    public void close() {
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException ignored) {
+        }
+        engines.shutdownNow();
+    }
+
+    /**
+     * Creates and registers a game against the AI
+     *
+     * @param client the client playing
+     * @param white  whether the client has White
+     * @param level  the AI level
+     * @return the game, or {@code null} if the server is full
+     */
+    public ServerGame createGame(ClientConnection client, boolean white, int level) {
+        if (!reserve(games, maxGames)) {
+            return null;
+        }
+        ServerGame game = new ServerGame(registry.newId(), client, white, level, this);
+        registry.add(game);
+        return game;
+    }
+
+    /**
+     * Creates and registers a game between two clients, open for the second
+     *
+     * @param client the client opening it
+     * @param white  whether the client has White
+     * @return the game, or {@code null} if the server is full
+     */
+    public ServerGame createGame(ClientConnection client, boolean white) {
+        if (!reserve(games, maxGames)) {
+            return null;
+        }
+        ServerGame game = new ServerGame(registry.newId(), client, white, this);
+        registry.add(game);
+        return game;
+    }
+
+    // counts a game or connection in, unless that goes over the limit
+    private static boolean reserve(AtomicInteger counter, int limit) {
+        int count;
+        do {
+            count = counter.get();
+            if (count >= limit) {
+                return false;
+            }
+        } while (!counter.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * Called by a game when it ends
+     *
+     * @param game the game
+     */
+    void gameOver(ServerGame game) {
+        if (registry.remove(game.getId()) != null) {
+            games.decrementAndGet();
+            gamesPlayed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Called by a connection when it closes
+     *
+     * @param client the connection
+     */
+    void connectionClosed(ClientConnection client) {
+        connections.decrementAndGet();
+    }
+
+    /** @return the numbers of connections, games and searches, in one line */
+    public String stats() {
+        return "connections " + connections.get() + " games " + games.get() + " finished " + gamesPlayed.get()
+                + " searching " + engines.getActiveCount() + " queued " + engines.getQueue().size()
+                + " virtual-threads " + GameThreads.hasVirtualThreads();
+    }
+
+    /** @return the games */
+    public GameRegistry getRegistry() {
+        return registry;
+    }
+
+    /** @return the executor the AI thinks on; it rejects searches when its queue is full */
+    public ExecutorService getEngineExecutor() {
+        return engines;
+    }
+
+    /** @return the most lines waiting for a client */
+    public int getOutboxCapacity() {
+        return outboxCapacity;
+    }
+
+    /** @return the most games at once */
+    public int getMaxGames() {
+        return maxGames;
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args {@code [--port 7777] [--bind 127.0.0.1] [--engine-threads N]
+     *             [--engine-queue 256] [--stripes 64] [--max-games 1000]
+     *             [--max-connections 1024] [--outbox 256]}
+     * @throws IOException if the port can't be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 7777;
+        String bind = "127.0.0.1";
+        int engineThreads = Runtime.getRuntime().availableProcessors();
+        int engineQueue = 256;
+        int stripes = 64;
+        int maxGames = 1000;
+        int maxConnections = 1024;
+        int outboxCapacity = 256;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--bind":
+                    bind = args[i + 1];
+                    break;
+                case "--engine-threads":
+                    engineThreads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--engine-queue":
+                    engineQueue = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--stripes":
+                    stripes = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--max-games":
+                    maxGames = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--max-connections":
+                    maxConnections = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--outbox":
+                    outboxCapacity = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        // the engine announces the book and tablebases it loads, which nobody reads here
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        GameServer server = new GameServer(engineThreads, engineQueue, stripes, maxGames, outboxCapacity);
+        ServerSocket socket = new ServerSocket(port, 128, InetAddress.getByName(bind));
+        out.println("Chess server on " + bind + ":" + socket.getLocalPort() + ", " + engineThreads
+                + " engine threads, at most " + maxGames + " games and " + maxConnections + " connections, "
+                + (GameThreads.hasVirtualThreads() ? "virtual threads" : "platform threads"));
+        server.serve(socket, maxConnections);
+    }
+}
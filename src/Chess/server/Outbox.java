@@ -0,0 +1,342 @@
+package Chess.server;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The lines waiting to go out to one client, written by a thread of its own
+ * <p>
+ * Games hand their events over without ever waiting for a client, so a
+ * slow or stalled client can't hold up the moves of a game or the other
+ * clients watching it. The queue is bounded: once it is full, the events
+ * of a game are dropped and the client gets a single {@code sync} line with
+ * the game as it is by the time that line is written. The game numbers its
+ * events and the sync says the last one it covers, so an event that comes
+ * in while the sync is being made goes out after it, and only if the sync
+ * doesn't cover it already. Evaluation updates
+ * never queue up at all, only the latest one per game waits to be sent, and
+ * a move makes the one waiting for the position before it worthless.
+ * </p>
+ * <p>
+ * The client's answers are the exception: the connection waits for room
+ * for those, as they are the client's own doing.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class Outbox implements Runnable {
+
+    // how long a closed connection gets to write out what's left
+    private static final long DRAIN_MS = 2000;
+
+    private final Socket socket;
+    private final Writer out;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<String> lines = new ArrayDeque<>();
+    private final Map<Long, Supplier<Sync>> syncs = new LinkedHashMap<>();
+    // the games whose sync is being made, and their events that came in meanwhile
+    private final Map<Long, List<Event>> held = new HashMap<>();
+    private final Map<Long, String> evals = new LinkedHashMap<>();
+    private boolean closed;
+    private boolean done;
+    private long syncsSent;
+    private long evalsCoalesced;
+
+    /**
+     * @param socket   the client's socket; closed once the outbox is done
+     * @param capacity the most lines waiting at once
+     * @throws IOException if the socket is closed already
+     */
+    public Outbox(Socket socket, int capacity) throws IOException {
+        this.socket = socket;
+        this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues an answer, waiting for room if the queue is full
+     *
+     * @param line the line; more lines may be joined by line breaks
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(String line) throws InterruptedException {
+        lock.lock();
+        try {
+            while (lines.size() >= capacity && !closed) {
+                changed.await();
+            }
+            if (!closed) {
+                lines.add(line);
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues an answer right away, even if the queue is full, for answers
+     * that have to be queued while a game is locked; the next
+     * {@link #put(String)} waits for room all the same
+     *
+     * @param line the line
+     */
+    public void putNow(String line) {
+        lock.lock();
+        try {
+            if (!closed) {
+                lines.add(line);
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues an event of a game without waiting; if the queue is full, the
+     * game's events give way to one {@code sync} line
+     *
+     * @param game   the game's id
+     * @param number the event's number in the game, counting up
+     * @param line   the event
+     * @param sync   makes the {@code sync} line, called when it is written
+     */
+    public void event(long game, long number, String line, Supplier<Sync> sync) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            // a move makes the evaluation of the position before it stale
+            evals.remove(game);
+            // the sync waiting covers this event too
+            if (syncs.containsKey(game)) {
+                return;
+            }
+            // the sync being made may or may not cover it
+            List<Event> waiting = held.get(game);
+            if (waiting != null) {
+                waiting.add(new Event(number, line));
+                return;
+            }
+            if (lines.size() < capacity) {
+                lines.add(line);
+            } else {
+                syncs.put(game, sync);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands over an evaluation update without waiting; it replaces the one
+     * for the same game that hasn't gone out yet
+     *
+     * @param game the game's id
+     * @param line the update
+     */
+    public void eval(long game, String line) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (evals.put(game, line) != null) {
+                evalsCoalesced++;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Writes lines as they come, until closed and written out or the client is gone. */
+    @Override
+    public void run() {
+        List<String> batch = new ArrayList<>();
+        List<Map.Entry<Long, Supplier<Sync>>> syncBatch = new ArrayList<>();
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    while (lines.isEmpty() && syncs.isEmpty() && evals.isEmpty() && !closed) {
+                        changed.await();
+                    }
+                    if (lines.isEmpty() && syncs.isEmpty() && evals.isEmpty()) {
+                        break;
+                    }
+                    // everything waiting goes out in one write
+                    batch.addAll(lines);
+                    lines.clear();
+                    for (Map.Entry<Long, Supplier<Sync>> sync : syncs.entrySet()) {
+                        syncBatch.add(sync);
+                        held.put(sync.getKey(), new ArrayList<>());
+                        // the sync has the position, its evaluation comes after
+                        evals.remove(sync.getKey());
+                    }
+                    syncs.clear();
+                    syncsSent += syncBatch.size();
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                // the syncs lock their games, so not while holding the outbox
+                for (Map.Entry<Long, Supplier<Sync>> entry : syncBatch) {
+                    Sync sync = entry.getValue().get();
+                    batch.add(sync.line);
+                    release(entry.getKey(), sync.lastEvent);
+                }
+                lock.lock();
+                try {
+                    // evaluations last, any that came in while the syncs were made are as new
+                    batch.addAll(evals.values());
+                    evals.clear();
+                } finally {
+                    lock.unlock();
+                }
+                for (String line : batch) {
+                    out.write(line);
+                    out.write('\n');
+                }
+                out.flush();
+                batch.clear();
+                syncBatch.clear();
+            }
+        } catch (IOException | InterruptedException e) {
+            // the client is gone, the connection's reader finds out too
+        } finally {
+            finish();
+        }
+    }
+
+    // queues the events held back while a game's sync was made, those after the last one it covers
+    private void release(long game, long lastEvent) {
+        lock.lock();
+        try {
+            List<Event> waiting = held.remove(game);
+            if (waiting != null && !closed) {
+                for (Event event : waiting) {
+                    if (event.number > lastEvent) {
+                        lines.add(event.line);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // drops whatever is left and closes the socket, waking up the connection's reader
+    private void finish() {
+        lock.lock();
+        try {
+            closed = true;
+            done = true;
+            lines.clear();
+            syncs.clear();
+            held.clear();
+            evals.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Takes no more lines, and waits a little for the ones queued to be
+     * written before the socket is closed
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+            long nanos = TimeUnit.MILLISECONDS.toNanos(DRAIN_MS);
+            while (!done && nanos > 0) {
+                nanos = changed.awaitNanos(nanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // a client that doesn't read could keep the writer waiting for ever
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * A game's {@code sync} line, and the number of the last event it covers
+     */
+    public static final class Sync {
+
+        private final String line;
+        private final long lastEvent;
+
+        /**
+         * @param line      the line
+         * @param lastEvent the number of the game's last event before it
+         */
+        public Sync(String line, long lastEvent) {
+            this.line = line;
+            this.lastEvent = lastEvent;
+        }
+    }
+
+    // an event held back while its game's sync is made
+    private static final class Event {
+
+        private final long number;
+        private final String line;
+
+        Event(long number, String line) {
+            this.number = number;
+            this.line = line;
+        }
+    }
+
+    /** @return how many times a game's events were replaced by a sync */
+    public long getSyncsSent() {
+        lock.lock();
+        try {
+            return syncsSent;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return how many evaluation updates were replaced before they went out */
+    public long getEvalsCoalesced() {
+        lock.lock();
+        try {
+            return evalsCoalesced;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
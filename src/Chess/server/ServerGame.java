@@ -0,0 +1,417 @@
+package Chess.server;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Evaluator;
+import Chess.engine.Fen;
+import Chess.engine.GameEngine;
+import Chess.engine.HumanPlayer;
+import Chess.engine.Move;
+import Chess.engine.Player;
+import Chess.engine.Position;
+import Chess.engine.PositionStatus;
+import Chess.engine.SearchListener;
+import Chess.uci.UciMoves;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * One game on the server: its board, who sits on which side and whose turn
+ * it is
+ * <p>
+ * A side is a client connection, the AI or still open for someone to join.
+ * Everything that reads or changes the game locks it, so the moves of both
+ * sides and of the AI come in one after the other. The AI thinks on the
+ * server's engine executor on a snapshot of the board, without the lock, and
+ * its move is only played if the position hasn't changed meanwhile. A game
+ * that has ended leaves the server.
+ * </p>
+ * <p>
+ * Any number of clients can watch a game. They get its events like the
+ * players, and evaluation updates on top: the AI's best move so far while it
+ * thinks, and the static evaluation after every move, worked out on a
+ * snapshot once the game is unlocked. Events are handed to each client's
+ * {@link Outbox}, which never waits, so a crowd of slow watchers doesn't slow
+ * the game down.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class ServerGame {
+
+    private static final int WHITE = 0;
+    private static final int BLACK = 1;
+
+    private final long id;
+    private final GameEngine engine;
+    private final GameServer server;
+    private final ClientConnection[] seats = new ClientConnection[2];
+    private final boolean[] open = new boolean[2];
+    private final Set<ClientConnection> watchers = new CopyOnWriteArraySet<>();
+    private final Supplier<Outbox.Sync> sync = this::sync;
+    private final Evaluator evaluator = new Evaluator();
+    // the latest ply the watchers got the static evaluation of, guarded by the evaluator
+    private int staticEvalPly = -1;
+    private final Object searchLock = new Object();
+    private int searchPly;
+    private int searchBest;
+    private Move searchBestMove;
+    private String result;
+    private String reason;
+    // the events sent so far, numbered for the outboxes' syncs
+    private long events;
+    private boolean aiThinking;
+
+    /**
+     * Creates a game against the AI
+     *
+     * @param id         the game's id
+     * @param human      the client playing
+     * @param humanWhite whether the client has White
+     * @param level      the AI level (1-10)
+     * @param server     the server, whose engine executor the AI thinks on
+     */
+    public ServerGame(long id, ClientConnection human, boolean humanWhite, int level, GameServer server) {
+        this.id = id;
+        this.server = server;
+        Player humanPlayer = new HumanPlayer(human.getName(), humanWhite ? "White" : "Black");
+        AIPlayer ai = new AIPlayer("AI level " + level, humanWhite ? "Black" : "White", level);
+        ai.setSearchListener(new SearchListener() {
+            @Override
+            public void rootMoveSearched(Move move, int score, int searched, int total) {
+                searchUpdate(move, score, searched, total);
+            }
+        });
+        this.engine = humanWhite ? new GameEngine(humanPlayer, ai) : new GameEngine(ai, humanPlayer);
+        seats[humanWhite ? WHITE : BLACK] = human;
+    }
+
+    /**
+     * Creates a game between two clients, with one side open for the second
+     * to join
+     *
+     * @param id           the game's id
+     * @param creator      the client that opened it
+     * @param creatorWhite whether that client has White
+     * @param server       the server
+     */
+    public ServerGame(long id, ClientConnection creator, boolean creatorWhite, GameServer server) {
+        this.id = id;
+        this.server = server;
+        this.engine = new GameEngine(new HumanPlayer("White", "White"), new HumanPlayer("Black", "Black"));
+        seats[creatorWhite ? WHITE : BLACK] = creator;
+        open[creatorWhite ? BLACK : WHITE] = true;
+    }
+
+    /** @return the game's id */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Seats a client on the open side
+     *
+     * @param client the client
+     * @return the client's color, or {@code null} if no side is open
+     */
+    public synchronized String join(ClientConnection client) {
+        for (int side = WHITE; side <= BLACK; side++) {
+            if (open[side] && result == null && seats[1 - side] != client) {
+                open[side] = false;
+                seats[side] = client;
+                broadcast("joined " + id + " " + client.getName(), client);
+                return colorOf(side);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plays a client's move
+     *
+     * @param client the client
+     * @param uci    the move, e.g. "e2e4"
+     * @return {@code null} if it was played, otherwise why not
+     */
+    public String move(ClientConnection client, String uci) {
+        Runnable staticEval;
+        synchronized (this) {
+            if (result != null) {
+                return "game " + id + " is over";
+            }
+            int side = sideToMove();
+            if (seats[side] != client) {
+                return "it is not your turn in game " + id;
+            }
+            Move move = UciMoves.find(engine.getLegalMoves(), uci);
+            if (move == null) {
+                return "illegal move " + uci;
+            }
+            Move played = engine.play(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                    move.getTo().getCol(), UciMoves.promotion(uci));
+            if (played == null) {
+                return "illegal move " + uci;
+            }
+            staticEval = moved(uci);
+        }
+        staticEval.run();
+        return null;
+    }
+
+    /**
+     * Lets the AI move if it is its turn and it isn't thinking yet, e.g.
+     * after the engine executor was full
+     *
+     * @return {@code null} if the AI is thinking now, otherwise why not
+     */
+    public synchronized String startAI() {
+        if (result != null) {
+            return "game " + id + " is over";
+        }
+        if (!(engine.getGame().getCurrentPlayer() instanceof AIPlayer)) {
+            return "it is not the AI's turn in game " + id;
+        }
+        if (aiThinking) {
+            return null;
+        }
+        AIPlayer ai = (AIPlayer) engine.getGame().getCurrentPlayer();
+        Position snapshot = engine.getBoard().snapshot();
+        synchronized (searchLock) {
+            searchPly = engine.getGame().getMoveHistory().size();
+            searchBest = Evaluator.MIN_SCORE;
+            searchBestMove = null;
+        }
+        try {
+            server.getEngineExecutor().execute(() -> {
+                Move move = null;
+                try {
+                    move = ai.makeMove(snapshot.toBoard());
+                } catch (RuntimeException e) {
+                    System.err.println("AI failed in game " + id + ": " + e);
+                }
+                playAIMove(snapshot, move);
+            });
+            aiThinking = true;
+            return null;
+        } catch (RejectedExecutionException e) {
+            return "the engines are busy, send 'go " + id + "' to try again";
+        }
+    }
+
+    private void playAIMove(Position snapshot, Move move) {
+        Runnable staticEval;
+        synchronized (this) {
+            aiThinking = false;
+            // a resignation or a lost connection while the AI was thinking makes the move stale
+            if (result != null || !snapshot.equals(engine.getBoard().snapshot())) {
+                return;
+            }
+            if (move == null || engine.play(move.getFrom().getRow(), move.getFrom().getCol(),
+                    move.getTo().getRow(), move.getTo().getCol(), move.getPromotionPiece() != null
+                            ? move.getPromotionPiece() : AIPlayer.promotionFor(move)) == null) {
+                finish(sideToMove() == WHITE ? "0-1" : "1-0", "AI failed to move");
+                return;
+            }
+            staticEval = moved(UciMoves.toUci(move));
+        }
+        staticEval.run();
+    }
+
+    /**
+     * Ends the game with a client's resignation
+     *
+     * @param client the client
+     * @param reason e.g. "resigned" or "disconnected"
+     * @return {@code null} if the game ended, otherwise why not
+     */
+    public synchronized String resign(ClientConnection client, String reason) {
+        if (result != null) {
+            return "game " + id + " is over";
+        }
+        for (int side = WHITE; side <= BLACK; side++) {
+            if (seats[side] == client) {
+                finish(side == WHITE ? "0-1" : "1-0", colorOf(side) + " " + reason);
+                return null;
+            }
+        }
+        return "you are not playing game " + id;
+    }
+
+    /**
+     * Lets a client watch the game, and queues the answer for it: the game
+     * and its position
+     *
+     * @param client the client
+     * @return {@code null} if the client watches it now, otherwise why not
+     */
+    public synchronized String watch(ClientConnection client) {
+        if (result != null) {
+            return "game " + id + " is over";
+        }
+        if (seats[WHITE] == client || seats[BLACK] == client) {
+            return "you are playing game " + id;
+        }
+        watchers.add(client);
+        client.getOutbox().putNow("ok " + describe() + " " + fen());
+        return null;
+    }
+
+    /**
+     * @param client a client watching the game
+     * @return whether it was watching
+     */
+    public boolean unwatch(ClientConnection client) {
+        return watchers.remove(client);
+    }
+
+    /** @return the clients watching */
+    public int getWatchers() {
+        return watchers.size();
+    }
+
+    // called by the search threads, without the game's lock; only a better move or the end of the search is news
+    private void searchUpdate(Move move, int score, int searched, int total) {
+        if (watchers.isEmpty()) {
+            return;
+        }
+        String line;
+        synchronized (searchLock) {
+            if (score > searchBest) {
+                searchBest = score;
+                searchBestMove = move;
+            } else if (searched < total) {
+                return;
+            }
+            // the AI scores for itself, watchers get White's view
+            int white = searchPly % 2 == 0 ? searchBest : -searchBest;
+            String best = searchBestMove == null ? "-" : UciMoves.toUci(searchBestMove);
+            line = "eval " + id + " " + searchPly + " " + white + " " + best + " " + searched + "/" + total;
+        }
+        for (ClientConnection watcher : watchers) {
+            watcher.getOutbox().eval(id, line);
+        }
+    }
+
+    /** @return whether the game has ended */
+    public synchronized boolean isOver() {
+        return result != null;
+    }
+
+    /** @return why the game ended, or {@code null} while it goes on */
+    public synchronized String getReason() {
+        return reason;
+    }
+
+    /** @return the position as FEN */
+    public synchronized String fen() {
+        return Fen.toFen(engine.getBoard().snapshot(), colorOf(sideToMove()));
+    }
+
+    /** @return the id, the plies played, the result and the position, for a client that fell behind */
+    public synchronized String syncLine() {
+        return "sync " + id + " " + engine.getGame().getMoveHistory().size() + " " + (result == null ? "*" : result)
+                + " " + fen();
+    }
+
+    // the sync line and the last event it covers, taken together under the lock
+    private synchronized Outbox.Sync sync() {
+        return new Outbox.Sync(syncLine(), events);
+    }
+
+    /** @return the id, both sides, the plies played and the result, in one line */
+    public synchronized String describe() {
+        return id + " " + seatName(WHITE) + " " + seatName(BLACK) + " "
+                + engine.getGame().getMoveHistory().size() + " " + (result == null ? "*" : result);
+    }
+
+    // tells both sides about the move, then ends the game or lets the AI answer; returns the watchers'
+    // static evaluation of the position, for the caller to run once the game is unlocked
+    private Runnable moved(String uci) {
+        broadcast("move " + id + " " + uci + " " + fen(), null);
+        Runnable staticEval = () -> { };
+        if (!watchers.isEmpty()) {
+            // taken before the game can end, which sends the watchers away
+            int ply = engine.getGame().getMoveHistory().size();
+            Position position = engine.getBoard().snapshot();
+            List<ClientConnection> to = List.copyOf(watchers);
+            staticEval = () -> sendStaticEval(ply, position, to);
+        }
+        PositionStatus status = engine.getStatus();
+        if (status.isCheckmate()) {
+            finish(status.getResult(), "checkmate");
+        } else if (status.isDraw()) {
+            finish(status.getResult(), status.getDrawReason().toLowerCase());
+        } else if (engine.getGame().getCurrentPlayer() instanceof AIPlayer) {
+            String error = startAI();
+            if (error != null) {
+                broadcast("error " + error, null);
+            }
+        }
+        return staticEval;
+    }
+
+    private void sendStaticEval(int ply, Position position, List<ClientConnection> to) {
+        // the client's thread and the AI's can both get here; an older position must not replace a newer one
+        synchronized (evaluator) {
+            if (ply <= staticEvalPly) {
+                return;
+            }
+            staticEvalPly = ply;
+            String line = "eval " + id + " " + ply + " " + evaluator.evaluate(position.toBoard(), "White")
+                    + " - static";
+            for (ClientConnection watcher : to) {
+                watcher.getOutbox().eval(id, line);
+            }
+        }
+    }
+
+    private void finish(String result, String reason) {
+        this.result = result;
+        this.reason = reason;
+        broadcast("over " + id + " " + result + " " + reason, null);
+        for (ClientConnection seat : seats) {
+            if (seat != null) {
+                seat.gameOver(id);
+            }
+        }
+        for (ClientConnection watcher : watchers) {
+            watcher.gameOver(id);
+        }
+        watchers.clear();
+        server.gameOver(this);
+    }
+
+    // hands an event to the players and the watchers, except one client; none of them can make it wait
+    private void broadcast(String line, ClientConnection except) {
+        long number = ++events;
+        for (ClientConnection seat : seats) {
+            if (seat != null && seat != except) {
+                seat.getOutbox().event(id, number, line, sync);
+            }
+        }
+        for (ClientConnection watcher : watchers) {
+            if (watcher != except) {
+                watcher.getOutbox().event(id, number, line, sync);
+            }
+        }
+    }
+
+    private int sideToMove() {
+        return engine.getGame().getCurrentPlayer().getColor().equals("White") ? WHITE : BLACK;
+    }
+
+    private String seatName(int side) {
+        if (seats[side] != null) {
+            return seats[side].getName();
+        }
+        return open[side] ? "open" : engine.getGame().getPlayers().get(side).getName().replace(' ', '-');
+    }
+
+    private static String colorOf(int side) {
+        return side == WHITE ? "White" : "Black";
+    }
+}
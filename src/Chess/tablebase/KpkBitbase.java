@@ -0,0 +1,399 @@
+package Chess.tablebase;
+
+import Chess.engine.Board;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Win/draw bitbase for king and pawn against king
+ * <p>
+ * One bit per position tells whether the side with the pawn wins. Positions
+ * are stored with the pawn as White on files a-d (the others are mirrored),
+ * so there are 2 sides to move x 64 x 64 king squares x 24 pawn squares =
+ * 196608 bits, 24 KB. The bits are generated at build time ({@code ant kpk})
+ * into the {@value #RESOURCE} resource next to this class, and read into a
+ * {@code long[]} on first use. If the resource is missing (running from the
+ * sources) the bitbase is generated in memory instead, which takes about a
+ * second.
+ * </p>
+ * <p>
+ * Unlike {@link Tablebase} this only knows win or draw, not how far the mate
+ * is, but it needs no files and a probe is a single array lookup.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class KpkBitbase {
+
+    /** Name of the resource holding the bits. */
+    public static final String RESOURCE = "kpk.bin";
+
+    /** Returned when the position is not king and pawn against king. */
+    public static final int UNKNOWN = Tablebase.UNKNOWN;
+
+    /** Probe results for the side to move. */
+    public static final int WIN = 1;
+    public static final int DRAW = 0;
+    public static final int LOSS = -1;
+
+    /**
+     * Evaluation of a won position: a lot more than the pawn is worth, but
+     * with the progress bonus still less than the queen it turns into, so
+     * the AI still wants to promote
+     */
+    public static final int WIN_SCORE = 20;
+
+    private static final int SIZE = 2 * 64 * 64 * 24;
+
+    private static KpkBitbase shared;
+
+    private final long[] bits;
+
+    private KpkBitbase(long[] bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Returns the bitbase, reading it from the classpath or generating it on
+     * first use
+     *
+     * @return the shared bitbase
+     */
+    public static synchronized KpkBitbase shared() {
+        if (shared == null) {
+            long[] bits = null;
+            try (InputStream in = KpkBitbase.class.getResourceAsStream(RESOURCE)) {
+                if (in != null) {
+                    bits = read(in);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read the KPK bitbase: " + e.getMessage());
+            }
+            if (bits == null) {
+                System.out.println("KPK bitbase not on the classpath, generating it");
+                bits = generate();
+            }
+            shared = new KpkBitbase(bits);
+        }
+        return shared;
+    }
+
+    private static long[] read(InputStream in) throws IOException {
+        long[] bits = new long[SIZE / 64];
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = data.readLong();
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Looks up a board position
+     *
+     * @param board      the board
+     * @param sideToMove "White" or "Black"
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the side to
+     *         move, or {@link #UNKNOWN}
+     */
+    public int probe(Board board, String sideToMove) {
+        TbPosition position = TbPosition.fromBoard(board);
+        if (position == null) {
+            return UNKNOWN;
+        }
+        return probe(position, sideToMove.equals("White"));
+    }
+
+    /**
+     * Looks up a position. A pawn standing on its last rank counts as just
+     * promoted (to a queen, or a rook if that is better).
+     *
+     * @param position    the position
+     * @param whiteToMove whether White is to move
+     * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the side to
+     *         move, or {@link #UNKNOWN} if the position is not king and pawn
+     *         against king or is illegal
+     */
+    public int probe(TbPosition position, boolean whiteToMove) {
+        int whiteKing = position.kingIndex(true);
+        int blackKing = position.kingIndex(false);
+        if (whiteKing < 0 || blackKing < 0 || position.inCheck(!whiteToMove)) {
+            return UNKNOWN;
+        }
+        if (position.count == 2) {
+            return DRAW;
+        }
+        if (position.count != 3) {
+            return UNKNOWN;
+        }
+        int pawn = 3 - whiteKing - blackKing;
+        if (position.types[pawn] != TbPosition.PAWN) {
+            return UNKNOWN;
+        }
+
+        // normalize: pawn is White and on files a-d
+        boolean pawnWhite = position.whites[pawn];
+        int strongKing = pawnWhite ? position.squares[whiteKing] : position.squares[blackKing] ^ 56;
+        int weakKing = pawnWhite ? position.squares[blackKing] : position.squares[whiteKing] ^ 56;
+        int pawnSquare = pawnWhite ? position.squares[pawn] : position.squares[pawn] ^ 56;
+        if ((pawnSquare & 7) > 3) {
+            strongKing ^= 7;
+            weakKing ^= 7;
+            pawnSquare ^= 7;
+        }
+        boolean strongToMove = whiteToMove == pawnWhite;
+        int row = pawnSquare >> 3;
+
+        boolean win;
+        if (row == 7) {
+            if (strongToMove) {
+                return UNKNOWN;
+            }
+            win = promotionWins(strongKing, weakKing, pawnSquare);
+        } else if (row == 0) {
+            return UNKNOWN;
+        } else {
+            int index = index(strongToMove, strongKing, weakKing, pawnSquare);
+            win = (bits[index >> 6] & (1L << (index & 63))) != 0;
+        }
+        if (!win) {
+            return DRAW;
+        }
+        return strongToMove ? WIN : LOSS;
+    }
+
+    /**
+     * Scores a board for the AI: {@link #WIN_SCORE} plus the pawn's progress
+     * and how close its king is to the queening square for a win, 0 for a
+     * draw
+     *
+     * @param board      the board
+     * @param color      the color to score for
+     * @param sideToMove the color whose turn it is
+     * @return the score for {@code color}, or {@link #UNKNOWN}
+     */
+    public int evaluate(Board board, String color, String sideToMove) {
+        TbPosition position = TbPosition.fromBoard(board);
+        if (position == null) {
+            return UNKNOWN;
+        }
+        int result = probe(position, sideToMove.equals("White"));
+        if (result == UNKNOWN || result == DRAW) {
+            return result;
+        }
+        // a win only counts once it gets closer, or the AI just shuffles its king
+        int pawn = 3 - position.kingIndex(true) - position.kingIndex(false);
+        boolean pawnWhite = position.whites[pawn];
+        int row = position.squares[pawn] >> 3;
+        int progress = pawnWhite ? row : 7 - row;
+        int promotionSquare = (pawnWhite ? 56 : 0) + (position.squares[pawn] & 7);
+        int king = position.squares[position.kingIndex(pawnWhite)];
+        int kingDistance = Math.max(Math.abs((king >> 3) - (promotionSquare >> 3)),
+                Math.abs((king & 7) - (promotionSquare & 7)));
+        int score = WIN_SCORE + 2 * progress + 7 - kingDistance;
+        return (result == WIN) == sideToMove.equals(color) ? score : -score;
+    }
+
+    // bit index, the pawn already normalized to files a-d and ranks 2-7
+    private static int index(boolean strongToMove, int strongKing, int weakKing, int pawn) {
+        int pawnIndex = ((pawn >> 3) - 1) * 4 + (pawn & 7);
+        return (((strongToMove ? 0 : 1) * 64 + strongKing) * 64 + weakKing) * 24 + pawnIndex;
+    }
+
+    /**
+     * Generates the bitbase: every position starts unknown, and it repeats
+     * until nothing changes: White wins if one move reaches a win, Black is
+     * lost if every move does. Whatever is left is a draw.
+     *
+     * @return the bits
+     */
+    static long[] generate() {
+        final byte unknown = 0;
+        final byte win = 1;
+        final byte draw = 2;
+        final byte invalid = 3;
+        byte[] results = new byte[SIZE];
+        TbPosition position = new TbPosition();
+        TbPosition next = new TbPosition();
+        int[] moves = new int[128];
+
+        // positions decided without looking further: illegal, mates, stalemates,
+        // promotions and the pawn getting taken
+        for (int index = 0; index < SIZE; index++) {
+            if (!load(position, index)) {
+                results[index] = invalid;
+                continue;
+            }
+            boolean whiteToMove = index < SIZE / 2;
+            if (position.inCheck(!whiteToMove)) {
+                results[index] = invalid;
+                continue;
+            }
+            int moveCount = position.generateMoves(whiteToMove, moves);
+            boolean anyLegal = false;
+            for (int m = 0; m < moveCount; m++) {
+                int piece = moves[m] & 3;
+                int to = (moves[m] >> 2) & 63;
+                next.copyFrom(position);
+                next.squares[piece] = to;
+                int captured = position.pieceAt(to);
+                if (captured >= 0) {
+                    next.remove(captured);
+                }
+                if (next.inCheck(whiteToMove)) {
+                    continue;
+                }
+                anyLegal = true;
+                if (whiteToMove && (moves[m] >> 8) == TbPosition.QUEEN
+                        && promotionWins(next.squares[0], next.squares[2], to)) {
+                    results[index] = win;
+                }
+                if (!whiteToMove && captured >= 0) {
+                    results[index] = draw;
+                }
+            }
+            if (!anyLegal) {
+                results[index] = position.inCheck(whiteToMove) && !whiteToMove ? win : draw;
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int index = 0; index < SIZE; index++) {
+                if (results[index] != unknown) {
+                    continue;
+                }
+                load(position, index);
+                boolean whiteToMove = index < SIZE / 2;
+                int moveCount = position.generateMoves(whiteToMove, moves);
+                boolean allWin = true;
+                boolean anyWin = false;
+                for (int m = 0; m < moveCount; m++) {
+                    if ((moves[m] >> 8) != 0) {
+                        continue; // promotions were settled above
+                    }
+                    int piece = moves[m] & 3;
+                    int from = position.squares[piece];
+                    position.squares[piece] = (moves[m] >> 2) & 63;
+                    if (!position.inCheck(whiteToMove)) {
+                        byte result = results[index(!whiteToMove, position.squares[0], position.squares[2],
+                                position.squares[1])];
+                        anyWin |= result == win;
+                        allWin &= result == win;
+                    }
+                    position.squares[piece] = from;
+                }
+                if (whiteToMove ? anyWin : allWin) {
+                    results[index] = win;
+                    changed = true;
+                }
+            }
+        }
+
+        long[] bits = new long[SIZE / 64];
+        for (int index = 0; index < SIZE; index++) {
+            if (results[index] == win) {
+                bits[index >> 6] |= 1L << (index & 63);
+            }
+        }
+        return bits;
+    }
+
+    // sets up White king, White pawn, Black king; false if pieces overlap
+    private static boolean load(TbPosition position, int index) {
+        int pawnIndex = index % 24;
+        int rest = index / 24;
+        int weakKing = rest % 64;
+        int strongKing = (rest / 64) % 64;
+        int pawn = (pawnIndex / 4 + 1) * 8 + pawnIndex % 4;
+        if (strongKing == weakKing || pawn == strongKing || pawn == weakKing) {
+            return false;
+        }
+        position.count = 0;
+        position.add(TbPosition.KING, true, strongKing);
+        position.add(TbPosition.PAWN, true, pawn);
+        position.add(TbPosition.KING, false, weakKing);
+        return true;
+    }
+
+    /**
+     * Checks a pawn that has just reached the last rank, Black to move. King
+     * and queen (or rook) against king is always won unless Black can take
+     * the new piece or is stalemated, so either promotion is tried.
+     */
+    private static boolean promotionWins(int strongKing, int weakKing, int square) {
+        TbPosition position = new TbPosition();
+        TbPosition next = new TbPosition();
+        int[] moves = new int[128];
+        for (int type = TbPosition.QUEEN; type >= TbPosition.ROOK; type--) {
+            position.count = 0;
+            position.add(TbPosition.KING, true, strongKing);
+            position.add(type, true, square);
+            position.add(TbPosition.KING, false, weakKing);
+            if (position.inCheck(true)) {
+                return false; // illegal, the pawn move left our king in check
+            }
+            boolean anyLegal = false;
+            boolean canTake = false;
+            int moveCount = position.generateMoves(false, moves);
+            for (int m = 0; m < moveCount; m++) {
+                int to = (moves[m] >> 2) & 63;
+                next.copyFrom(position);
+                next.squares[2] = to;
+                if (to == square) {
+                    next.remove(1);
+                }
+                if (!next.inCheck(false)) {
+                    anyLegal = true;
+                    canTake |= to == square;
+                }
+            }
+            if (!canTake && (anyLegal || position.inCheck(false))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the bitbase resource, used by the {@code kpk} Ant target
+     *
+     * @param args the file to write
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: KpkBitbase <kpk.bin>");
+            System.exit(1);
+        }
+        long start = System.currentTimeMillis();
+        long[] bits = generate();
+        File file = new File(args[0]);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write " + file + ": " + e.getMessage());
+            System.exit(1);
+        }
+        int wins = 0;
+        for (long word : bits) {
+            wins += Long.bitCount(word);
+        }
+        System.out.println("Wrote KPK bitbase (" + wins + " wins) to " + file + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,404 @@
+package Chess.tablebase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The piece set of one tablebase, such as "KQvK" or "KRvKP", and its index
+ * layout
+ * <p>
+ * A table is always stored with the stronger side as White. Pieces are kept
+ * in a fixed order: white king, black king, the other white pieces strongest
+ * first, then the other black pieces. The index is a mixed-radix number over
+ * the piece squares. The white king only uses 10 squares (the a1-d1-d4
+ * triangle) in pawnless tables and 32 (files a-d) with pawns, and pawns only
+ * use ranks 2-7.
+ * </p>
+ * <p>
+ * Every position has exactly one index: of all board symmetries that are
+ * allowed, the one giving the smallest index wins, and equal pieces are
+ * sorted by square. Indexes no position maps to are simply unused.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class Material {
+
+    private static final String LETTERS = " PNBRQK";
+
+    // square -> white king index, -1 outside the allowed area
+    private static final int[] TRIANGLE_INDEX = new int[64];
+    private static final int[] HALF_INDEX = new int[64];
+    private static final int[] TRIANGLE_SQUARES = new int[10];
+    private static final int[] HALF_SQUARES = new int[32];
+
+    // square -> the symmetries that bring a white king there into the area
+    private static final int[][] TRIANGLE_TRANSFORMS = new int[64][];
+    private static final int[][] HALF_TRANSFORMS = new int[64][];
+
+    static {
+        int t = 0;
+        int h = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq >> 3;
+            int c = sq & 7;
+            TRIANGLE_INDEX[sq] = -1;
+            HALF_INDEX[sq] = -1;
+            if (c <= 3 && r <= c) {
+                TRIANGLE_SQUARES[t] = sq;
+                TRIANGLE_INDEX[sq] = t++;
+            }
+            if (c <= 3) {
+                HALF_SQUARES[h] = sq;
+                HALF_INDEX[sq] = h++;
+            }
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            TRIANGLE_TRANSFORMS[sq] = transformsInto(sq, TRIANGLE_INDEX, 8);
+            HALF_TRANSFORMS[sq] = transformsInto(sq, HALF_INDEX, 2);
+        }
+    }
+
+    private static int[] transformsInto(int square, int[] area, int transforms) {
+        int[] found = new int[transforms];
+        int n = 0;
+        for (int t = 0; t < transforms; t++) {
+            if (area[transform(square, t)] >= 0) {
+                found[n++] = t;
+            }
+        }
+        return Arrays.copyOf(found, n);
+    }
+
+    private final String name;
+    private final int[] types;
+    private final boolean[] whites;
+    private final boolean hasPawns;
+    private final int pawnCount;
+    private final int[] radix;
+    private final int size;
+    private final long key;
+
+    private Material(int[] whiteTypes, int[] blackTypes) {
+        int n = 2 + whiteTypes.length + blackTypes.length;
+        types = new int[n];
+        whites = new boolean[n];
+        types[0] = TbPosition.KING;
+        whites[0] = true;
+        types[1] = TbPosition.KING;
+        whites[1] = false;
+        int k = 2;
+        int pawns = 0;
+        StringBuilder text = new StringBuilder("K");
+        for (int type : whiteTypes) {
+            types[k] = type;
+            whites[k++] = true;
+            text.append(LETTERS.charAt(type));
+            pawns += type == TbPosition.PAWN ? 1 : 0;
+        }
+        text.append("vK");
+        for (int type : blackTypes) {
+            types[k] = type;
+            whites[k++] = false;
+            text.append(LETTERS.charAt(type));
+            pawns += type == TbPosition.PAWN ? 1 : 0;
+        }
+        name = text.toString();
+        pawnCount = pawns;
+        hasPawns = pawns > 0;
+
+        radix = new int[n];
+        radix[0] = hasPawns ? 32 : 10;
+        long total = radix[0];
+        for (int i = 1; i < n; i++) {
+            radix[i] = types[i] == TbPosition.PAWN ? 48 : 64;
+            total *= radix[i];
+        }
+        size = (int) total;
+        key = key(whiteTypes, blackTypes);
+    }
+
+    /**
+     * Packs two sorted piece lists into a number, so a probe can find its
+     * table without building a name
+     */
+    static long key(int[] strong, int[] weak) {
+        long key = 0;
+        for (int type : strong) {
+            key = key * 8 + type;
+        }
+        key = key * 8 + 7;
+        for (int type : weak) {
+            key = key * 8 + type;
+        }
+        return key;
+    }
+
+    /**
+     * Returns the material of the pieces other than the kings, oriented so
+     * the stronger side is White
+     *
+     * @param whiteTypes the non-king piece types of White
+     * @param blackTypes the non-king piece types of Black
+     * @return the material; check {@link #isFlipped(int[], int[])} to see if
+     *         the colors had to be swapped
+     */
+    public static Material of(int[] whiteTypes, int[] blackTypes) {
+        int[] white = sortedDescending(whiteTypes);
+        int[] black = sortedDescending(blackTypes);
+        if (compareSides(white, black) < 0) {
+            return new Material(black, white);
+        }
+        return new Material(white, black);
+    }
+
+    /**
+     * Tells whether a position with these pieces has to be color flipped
+     * to match its table
+     *
+     * @param whiteTypes the non-king piece types of White
+     * @param blackTypes the non-king piece types of Black
+     * @return {@code true} if Black is the stronger side
+     */
+    public static boolean isFlipped(int[] whiteTypes, int[] blackTypes) {
+        return compareSides(sortedDescending(whiteTypes), sortedDescending(blackTypes)) < 0;
+    }
+
+    /**
+     * Parses a name such as "KBNvK"
+     *
+     * @param name the material name
+     * @return the material, oriented with the stronger side first
+     */
+    public static Material parse(String name) {
+        String upper = name.toUpperCase();
+        int v = upper.indexOf('V');
+        if (v < 1 || upper.charAt(0) != 'K' || v + 1 >= upper.length() || upper.charAt(v + 1) != 'K') {
+            throw new IllegalArgumentException("Bad material name: " + name);
+        }
+        return of(parseTypes(upper.substring(1, v)), parseTypes(upper.substring(v + 2)));
+    }
+
+    private static int[] parseTypes(String letters) {
+        int[] result = new int[letters.length()];
+        for (int i = 0; i < letters.length(); i++) {
+            int type = LETTERS.indexOf(letters.charAt(i));
+            if (type < TbPosition.PAWN || type >= TbPosition.KING) {
+                throw new IllegalArgumentException("Bad piece letter: " + letters.charAt(i));
+            }
+            result[i] = type;
+        }
+        return result;
+    }
+
+    /**
+     * Lists every material with at most {@code maxPieces} pieces (kings
+     * included), in an order where each table only depends on earlier ones
+     *
+     * @param maxPieces the largest piece count, 3 or 4
+     * @return the materials to generate
+     */
+    public static List<Material> all(int maxPieces) {
+        List<Material> result = new ArrayList<>();
+        for (int n = 3; n <= maxPieces; n++) {
+            List<Material> ofSize = new ArrayList<>();
+            int extra = n - 2;
+            // every multiset split between the two sides, stronger side first
+            for (int whiteCount = extra; whiteCount * 2 >= extra; whiteCount--) {
+                for (int[] white : combinations(whiteCount)) {
+                    for (int[] black : combinations(extra - whiteCount)) {
+                        if (compareSides(white, black) >= 0) {
+                            ofSize.add(new Material(white, black));
+                        }
+                    }
+                }
+            }
+            // fewer pawns first: promotions only lead to tables with fewer pawns
+            ofSize.sort((a, b) -> Integer.compare(a.pawnCount, b.pawnCount));
+            result.addAll(ofSize);
+        }
+        return result;
+    }
+
+    // non-increasing type sequences of the given length
+    private static List<int[]> combinations(int length) {
+        List<int[]> result = new ArrayList<>();
+        addCombinations(new int[length], 0, TbPosition.QUEEN, result);
+        return result;
+    }
+
+    private static void addCombinations(int[] current, int index, int maxType, List<int[]> result) {
+        if (index == current.length) {
+            result.add(current.clone());
+            return;
+        }
+        for (int type = maxType; type >= TbPosition.PAWN; type--) {
+            current[index] = type;
+            addCombinations(current, index + 1, type, result);
+        }
+    }
+
+    static int[] sortedDescending(int[] types) {
+        int[] sorted = types.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length / 2; i++) {
+            int tmp = sorted[i];
+            sorted[i] = sorted[sorted.length - 1 - i];
+            sorted[sorted.length - 1 - i] = tmp;
+        }
+        return sorted;
+    }
+
+    // more pieces is stronger, then the stronger pieces decide
+    static int compareSides(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return Integer.compare(a.length, b.length);
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    /** @return the name, e.g. "KRvKP" */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the number of pieces, kings included */
+    public int getPieceCount() {
+        return types.length;
+    }
+
+    /** @return the number of pawns */
+    public int getPawnCount() {
+        return pawnCount;
+    }
+
+    /** @return the key used to look the table up */
+    long getKey() {
+        return key;
+    }
+
+    /** @return the number of indexes for one side to move */
+    public int size() {
+        return size;
+    }
+
+    /** @return the piece type at a table slot */
+    int typeAt(int slot) {
+        return types[slot];
+    }
+
+    /** @return the color of the piece at a table slot */
+    boolean isWhiteAt(int slot) {
+        return whites[slot];
+    }
+
+    /**
+     * Computes the index of a position whose squares are given in table
+     * order
+     *
+     * @param squares the piece squares in table order, not modified
+     * @param scratch a work array at least as long as {@code squares}
+     * @return the index, or -1 if the position cannot be in this table (two
+     *         pieces on one square or a pawn on the first or last rank)
+     */
+    int index(int[] squares, int[] scratch) {
+        int n = types.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (squares[i] == squares[j]) {
+                    return -1;
+                }
+            }
+        }
+
+        int best = -1;
+        int[] transforms = hasPawns ? HALF_TRANSFORMS[squares[0]] : TRIANGLE_TRANSFORMS[squares[0]];
+        for (int t : transforms) {
+            for (int i = 0; i < n; i++) {
+                scratch[i] = transform(squares[i], t);
+            }
+            int index = rawIndex(scratch);
+            if (index >= 0 && (best < 0 || index < best)) {
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Applies one of the board symmetries: bit 2 transposes, bit 1 flips the
+     * ranks, bit 0 flips the files
+     */
+    private static int transform(int square, int t) {
+        int r = square >> 3;
+        int c = square & 7;
+        if ((t & 4) != 0) {
+            int tmp = r;
+            r = c;
+            c = tmp;
+        }
+        if ((t & 2) != 0) {
+            r = 7 - r;
+        }
+        if ((t & 1) != 0) {
+            c = 7 - c;
+        }
+        return r * 8 + c;
+    }
+
+    // index of already transformed squares, equal pieces get sorted first
+    private int rawIndex(int[] sq) {
+        int n = types.length;
+        for (int i = 2; i < n; i++) {
+            for (int j = i; j > 2 && types[j - 1] == types[j] && whites[j - 1] == whites[j] && sq[j - 1] > sq[j]; j--) {
+                int tmp = sq[j];
+                sq[j] = sq[j - 1];
+                sq[j - 1] = tmp;
+            }
+        }
+
+        int index = hasPawns ? HALF_INDEX[sq[0]] : TRIANGLE_INDEX[sq[0]];
+        if (index < 0) {
+            return -1;
+        }
+        for (int i = 1; i < n; i++) {
+            int value = sq[i];
+            if (types[i] == TbPosition.PAWN) {
+                int row = value >> 3;
+                if (row == 0 || row == 7) {
+                    return -1;
+                }
+                value -= 8;
+            }
+            index = index * radix[i] + value;
+        }
+        return index;
+    }
+
+    /**
+     * Decodes an index into squares in table order
+     *
+     * @param index   the index
+     * @param squares receives the squares
+     */
+    void decode(int index, int[] squares) {
+        for (int i = types.length - 1; i >= 1; i--) {
+            int value = index % radix[i];
+            index /= radix[i];
+            squares[i] = types[i] == TbPosition.PAWN ? value + 8 : value;
+        }
+        squares[0] = hasPawns ? HALF_SQUARES[index] : TRIANGLE_SQUARES[index];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,314 @@
+package Chess.tablebase;
+
+import Chess.engine.Board;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only access to the endgame tablebases written by
+ * {@link TablebaseGenerator}
+ * <p>
+ * Each table is a {@code <name>.dtm} file, e.g. {@code KRvKP.dtm}, holding one
+ * byte per position: first every position with White to move, then every
+ * position with Black to move, in the index order of {@link Material}. The
+ * files are memory mapped the first time a position needs them, so only the
+ * pages that are actually probed are read from disk.
+ * </p>
+ * <p>
+ * A probe returns the distance to mate in plies from the point of view of the
+ * side to move: an odd positive {@code d} wins in {@code d} plies,
+ * {@code -(d + 1)} loses in {@code d} plies (so {@code -1} is checkmate) and 0
+ * is a draw. Castling and en passant are ignored; with four pieces on the
+ * board they almost never matter.
+ * </p>
+ * <p>
+ * The tables used by the AI are read from the directory in the
+ * {@code chess.tablebase.dir} system property, or {@value #DEFAULT_DIR} in the
+ * working directory.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class Tablebase {
+
+    /** Directory used when {@code chess.tablebase.dir} is not set. */
+    public static final String DEFAULT_DIR = "tablebases";
+
+    /** File name suffix of a table. */
+    public static final String SUFFIX = ".dtm";
+
+    /** Returned when the position is not covered by any table. */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /** Probe result of a drawn position. */
+    public static final int DRAW = 0;
+
+    /** Score of a mate on the board; see {@link #score(int)}. */
+    public static final int MATE_SCORE = 10000;
+
+    private static Tablebase shared;
+    private static boolean sharedLoaded = false;
+
+    // used as the value of a table that has no file, so we only look once
+    private static final Table MISSING = new Table(null, null);
+
+    private final File directory;
+    private final Map<Long, Table> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a tablebase reading its tables from a directory
+     *
+     * @param directory the directory holding the {@code .dtm} files
+     */
+    public Tablebase(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the tablebase shared by the AI players
+     *
+     * @return the shared tablebase, or {@code null} if the table directory
+     *         does not exist
+     */
+    public static synchronized Tablebase shared() {
+        if (!sharedLoaded) {
+            sharedLoaded = true;
+            File dir = new File(System.getProperty("chess.tablebase.dir", DEFAULT_DIR));
+            if (dir.isDirectory()) {
+                shared = new Tablebase(dir);
+                System.out.println("Endgame tablebases found in " + dir);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Looks up a board position
+     *
+     * @param board      the board
+     * @param sideToMove "White" or "Black"
+     * @return the distance to mate as described above, or {@link #UNKNOWN}
+     */
+    public int probe(Board board, String sideToMove) {
+        TbPosition position = TbPosition.fromBoard(board);
+        if (position == null) {
+            return UNKNOWN;
+        }
+        return probe(position, sideToMove.equals("White"));
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param position    the position
+     * @param whiteToMove whether White is to move
+     * @return the distance to mate as described above, or {@link #UNKNOWN}
+     *         if there is no table for it or the position is illegal
+     */
+    public int probe(TbPosition position, boolean whiteToMove) {
+        int n = position.count;
+        if (n > TbPosition.MAX_PIECES || position.kingIndex(true) < 0 || position.kingIndex(false) < 0) {
+            return UNKNOWN;
+        }
+        if (position.inCheck(!whiteToMove)) {
+            return UNKNOWN;
+        }
+        if (n == 2) {
+            return DRAW;
+        }
+
+        // split the pieces other than the kings by color
+        int[] whiteTypes = new int[n - 2];
+        int[] blackTypes = new int[n - 2];
+        int whiteCount = 0;
+        int blackCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (position.types[i] == TbPosition.KING) {
+                continue;
+            }
+            if (position.whites[i]) {
+                whiteTypes[whiteCount++] = position.types[i];
+            } else {
+                blackTypes[blackCount++] = position.types[i];
+            }
+        }
+        int[] white = Material.sortedDescending(Arrays.copyOf(whiteTypes, whiteCount));
+        int[] black = Material.sortedDescending(Arrays.copyOf(blackTypes, blackCount));
+
+        // tables are stored with the stronger side as White
+        boolean flip = Material.compareSides(white, black) < 0;
+        Table table = flip ? table(black, white) : table(white, black);
+        if (table == MISSING) {
+            return UNKNOWN;
+        }
+
+        Material material = table.material;
+        int[] squares = new int[n];
+        boolean[] used = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            boolean pieceWhite = position.whites[i] != flip;
+            int square = flip ? position.squares[i] ^ 56 : position.squares[i];
+            for (int slot = 0; slot < n; slot++) {
+                if (!used[slot] && material.typeAt(slot) == position.types[i]
+                        && material.isWhiteAt(slot) == pieceWhite) {
+                    used[slot] = true;
+                    squares[slot] = square;
+                    break;
+                }
+            }
+        }
+        int index = material.index(squares, new int[n]);
+        if (index < 0) {
+            return UNKNOWN;
+        }
+        boolean tableWhiteToMove = whiteToMove != flip;
+        return table.data.get(tableWhiteToMove ? index : material.size() + index);
+    }
+
+    private Table table(int[] strong, int[] weak) {
+        long key = Material.key(strong, weak);
+        Table table = tables.get(key);
+        if (table == null) {
+            table = load(Material.of(strong, weak));
+            tables.put(key, table);
+        }
+        return table;
+    }
+
+    private Table load(Material material) {
+        File file = new File(directory, material.getName() + SUFFIX);
+        if (!file.isFile()) {
+            return MISSING;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() != 2L * material.size()) {
+                System.err.println("Tablebase " + file + " has the wrong size, ignoring it");
+                return MISSING;
+            }
+            // the mapping stays valid after the channel is closed
+            return new Table(material, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            System.err.println("Could not open tablebase " + file + ": " + e.getMessage());
+            return MISSING;
+        }
+    }
+
+    /**
+     * Makes a table available without a file, used by the generator for the
+     * tables it has just built
+     *
+     * @param material the material of the table
+     * @param data     the table contents in file layout
+     */
+    void register(Material material, ByteBuffer data) {
+        tables.put(material.getKey(), new Table(material, data));
+    }
+
+    /**
+     * Tells whether a table can be probed
+     *
+     * @param material the material
+     * @return {@code true} if the table is registered or its file exists
+     */
+    boolean has(Material material) {
+        Table table = tables.get(material.getKey());
+        if (table == null) {
+            table = load(material);
+            tables.put(material.getKey(), table);
+        }
+        return table != MISSING;
+    }
+
+    /** @return the directory the tables are read from */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Tells whether a probe result is a win for the side to move
+     *
+     * @param value a probe result
+     * @return {@code true} for a win
+     */
+    public static boolean isWin(int value) {
+        return value != UNKNOWN && value > 0;
+    }
+
+    /**
+     * Tells whether a probe result is a loss for the side to move
+     *
+     * @param value a probe result
+     * @return {@code true} for a loss
+     */
+    public static boolean isLoss(int value) {
+        return value != UNKNOWN && value < 0;
+    }
+
+    /**
+     * Returns the number of plies until mate
+     *
+     * @param value a won or lost probe result
+     * @return the plies until mate, 0 if the side to move is mated
+     */
+    public static int plies(int value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    /**
+     * Turns a probe result into a search score for the side to move: close
+     * to {@link #MATE_SCORE} for a win, higher the quicker it is, and 0 for
+     * a draw
+     *
+     * @param value a known probe result
+     * @return the score
+     */
+    public static int score(int value) {
+        if (value > 0) {
+            return MATE_SCORE - value;
+        }
+        if (value < 0) {
+            return -MATE_SCORE + plies(value);
+        }
+        return 0;
+    }
+
+    /**
+     * Turns the probe result of the position after a move into a search
+     * score for the side that played it: {@link #MATE_SCORE} for a move that
+     * mates, two less for every move more the mate takes, the negative of
+     * that when it gets mated, and 0 for a draw
+     *
+     * @param value a known probe result, for the side to move after the move
+     * @return the score of the move
+     */
+    public static int moverScore(int value) {
+        if (value == DRAW) {
+            return 0;
+        }
+        // the move itself is one more ply of the mate, or of the opponent's
+        return isLoss(value) ? MATE_SCORE - plies(value) : -(MATE_SCORE - plies(value) + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "Tablebase[" + directory + "]";
+    }
+
+    private static final class Table {
+        final Material material;
+        final ByteBuffer data;
+
+        Table(Material material, ByteBuffer data) {
+            this.material = material;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package Chess.tablebase;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the distance-to-mate tablebases read by {@link Tablebase} with
+ * retrograde analysis
+ * <p>
+ * For one material the generator first visits every position once: illegal
+ * and duplicate (symmetric) indexes are marked, mates are found, every
+ * capture and promotion is looked up in the already generated smaller
+ * tables, and each position remembers how many different positions of the
+ * same table it can move to. Then it works backwards one ply at a time:
+ * <ul>
+ * <li>odd ply {@code d}: every position that can move into a position lost
+ * in {@code d - 1} plies is won in {@code d}</li>
+ * <li>even ply {@code d}: every position that can move into a position won
+ * in {@code d - 1} plies has one escape less; when none are left it is lost
+ * in {@code d}</li>
+ * </ul>
+ * The "can move into" part is done with un-moves from the resolved
+ * positions, so each ply only touches the positions next to the ones found
+ * in the previous ply. Every ply is split into index ranges that run on a
+ * thread pool. Whatever is still unresolved at the end is a draw.
+ * </p>
+ * <p>
+ * Usage: {@code TablebaseGenerator <dir> [all | KQvK KRvK ...] [--threads N]
+ * [--pieces N]}. With {@code all} every table with up to {@code --pieces}
+ * pieces is generated, smallest first.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class TablebaseGenerator {
+
+    // values while generating; wins and losses use the file encoding
+    private static final byte UNRESOLVED = 0;
+    private static final byte ILLEGAL = Byte.MIN_VALUE;
+
+    // best result of the captures and promotions of a position
+    private static final byte EXIT_NONE = 0;
+    private static final byte EXIT_DRAW = Byte.MAX_VALUE;
+
+    private static final int CHUNK = 1 << 15;
+    private static final int MAX_PLIES = 126;
+
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final Tablebase tablebase;
+    private final ExecutorService executor;
+
+    /** One range of indexes processed by a worker. */
+    private interface ChunkTask {
+        long run(int start, int end);
+    }
+
+    /**
+     * Creates a generator writing into a directory
+     *
+     * @param directory where the tables are written, and where smaller tables
+     *                  are read from
+     * @param threads   the number of worker threads
+     */
+    public TablebaseGenerator(File directory, int threads) {
+        this.tablebase = new Tablebase(directory);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    }
+
+    /**
+     * Generates one table and writes it to {@code <name>.dtm}. Every table
+     * reachable by a capture or promotion must already exist.
+     *
+     * @param material the material to generate
+     * @throws IOException          if the table cannot be written
+     * @throws InterruptedException if the generator is interrupted
+     */
+    public void generate(Material material) throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        Job job = new Job(material);
+
+        for (int side = 0; side < 2; side++) {
+            final int s = side;
+            parallel(material.size(), (start, end) -> job.init(s, start, end));
+        }
+        int maxExit = job.maxExitPlies();
+
+        int lastChanges = -1;
+        int maxPlies = 0;
+        for (int d = 1; d <= MAX_PLIES; d++) {
+            final int ply = d;
+            long changes = 0;
+            for (int side = 0; side < 2; side++) {
+                final int s = side;
+                changes += parallel(material.size(), (start, end) -> job.retract(s, ply, start, end));
+            }
+            for (int side = 0; side < 2; side++) {
+                final int s = side;
+                changes += parallel(material.size(), (start, end) -> job.resolve(s, ply, start, end));
+            }
+            if (changes > 0) {
+                maxPlies = d;
+            }
+            if (changes == 0 && lastChanges == 0 && d > maxExit) {
+                break;
+            }
+            lastChanges = (int) Math.min(changes, Integer.MAX_VALUE);
+        }
+
+        byte[] data = job.finish();
+        File file = new File(tablebase.getDirectory(), material.getName() + Tablebase.SUFFIX);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            out.write(data);
+        }
+        tablebase.register(material, ByteBuffer.wrap(data));
+
+        long millis = System.currentTimeMillis() - startTime;
+        System.out.println(material.getName() + ": " + job.summary() + ", longest mate " + maxPlies
+                + " plies, " + millis + " ms");
+    }
+
+    /** Stops the worker threads. */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // splits [0, size) into chunks, runs them on the pool and sums the results
+    private long parallel(int size, ChunkTask task) throws InterruptedException {
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int start = 0; start < size; start += CHUNK) {
+            final int from = start;
+            final int to = Math.min(size, start + CHUNK);
+            tasks.add(() -> task.run(from, to));
+        }
+        long total = 0;
+        for (Future<Long> future : executor.invokeAll(tasks)) {
+            try {
+                total += future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+        return total;
+    }
+
+    /** The working arrays of the table being generated. Side 0 is White to move. */
+    private final class Job {
+        final Material material;
+        final int pieces;
+        final byte[][] values;
+        final byte[][] counters;
+        final byte[][] exits;
+
+        Job(Material material) {
+            this.material = material;
+            this.pieces = material.getPieceCount();
+            int size = material.size();
+            values = new byte[][] { new byte[size], new byte[size] };
+            counters = new byte[][] { new byte[size], new byte[size] };
+            exits = new byte[][] { new byte[size], new byte[size] };
+        }
+
+        private void load(TbPosition position, int[] squares) {
+            position.count = 0;
+            for (int slot = 0; slot < pieces; slot++) {
+                position.add(material.typeAt(slot), material.isWhiteAt(slot), squares[slot]);
+            }
+        }
+
+        // first pass: legality, mates, exits and the number of successors
+        long init(int side, int start, int end) {
+            boolean white = side == 0;
+            byte[] value = values[side];
+            int[] squares = new int[TbPosition.MAX_PIECES];
+            int[] scratch = new int[TbPosition.MAX_PIECES];
+            int[] moves = new int[128];
+            int[] successors = new int[128];
+            TbPosition position = new TbPosition();
+            TbPosition next = new TbPosition();
+
+            for (int i = start; i < end; i++) {
+                material.decode(i, squares);
+                if (material.index(squares, scratch) != i) {
+                    value[i] = ILLEGAL;
+                    continue;
+                }
+                load(position, squares);
+                if (position.inCheck(!white)) {
+                    value[i] = ILLEGAL;
+                    continue;
+                }
+
+                int moveCount = position.generateMoves(white, moves);
+                int legal = 0;
+                int distinct = 0;
+                int exit = EXIT_NONE;
+                for (int m = 0; m < moveCount; m++) {
+                    int piece = moves[m] & 3;
+                    int to = (moves[m] >> 2) & 63;
+                    int promotion = moves[m] >> 8;
+                    int captured = position.pieceAt(to);
+
+                    if (captured < 0 && promotion == 0) {
+                        // quiet move, stays in this table
+                        int from = position.squares[piece];
+                        position.squares[piece] = to;
+                        if (!position.inCheck(white)) {
+                            legal++;
+                            distinct = addDistinct(successors, distinct, material.index(position.squares, scratch));
+                        }
+                        position.squares[piece] = from;
+                        continue;
+                    }
+
+                    next.copyFrom(position);
+                    next.squares[piece] = to;
+                    if (promotion != 0) {
+                        next.types[piece] = promotion;
+                    }
+                    if (captured >= 0) {
+                        next.remove(captured);
+                    }
+                    if (next.inCheck(white)) {
+                        continue;
+                    }
+                    legal++;
+                    int reply = tablebase.probe(next, !white);
+                    if (reply == Tablebase.UNKNOWN) {
+                        throw new IllegalStateException(material.getName()
+                                + " needs the smaller tables, generate them first");
+                    }
+                    exit = better(exit, fromReply(reply));
+                }
+
+                if (legal == 0) {
+                    if (position.inCheck(white)) {
+                        value[i] = -1; // mated
+                    } else {
+                        exits[side][i] = EXIT_DRAW; // stalemate
+                    }
+                    continue;
+                }
+                counters[side][i] = (byte) distinct;
+                exits[side][i] = (byte) exit;
+            }
+            return 0;
+        }
+
+        // un-moves from the positions resolved at ply - 1 into the other side's array
+        long retract(int side, int ply, int start, int end) {
+            byte target = ply % 2 == 1 ? (byte) -ply : (byte) (ply - 1);
+            boolean moverWhite = side == 1;
+            int other = 1 - side;
+            byte[] value = values[side];
+            byte[] predecessorValues = values[other];
+            byte[] counter = counters[other];
+            int[] squares = new int[TbPosition.MAX_PIECES];
+            int[] scratch = new int[TbPosition.MAX_PIECES];
+            int[] origins = new int[32];
+            int[] predecessors = new int[128];
+            TbPosition position = new TbPosition();
+            long changes = 0;
+
+            for (int i = start; i < end; i++) {
+                if (value[i] != target) {
+                    continue;
+                }
+                material.decode(i, squares);
+                load(position, squares);
+
+                int found = 0;
+                for (int p = 0; p < pieces; p++) {
+                    if (position.whites[p] != moverWhite) {
+                        continue;
+                    }
+                    int from = position.squares[p];
+                    int originCount = position.generateUnmoves(p, origins);
+                    for (int o = 0; o < originCount; o++) {
+                        position.squares[p] = origins[o];
+                        if (!position.inCheck(!moverWhite)) {
+                            found = addDistinct(predecessors, found, material.index(position.squares, scratch));
+                        }
+                    }
+                    position.squares[p] = from;
+                }
+
+                for (int k = 0; k < found; k++) {
+                    int index = predecessors[k];
+                    if (predecessorValues[index] != UNRESOLVED) {
+                        continue;
+                    }
+                    if (ply % 2 == 1) {
+                        predecessorValues[index] = (byte) ply; // can move into a lost position
+                        changes++;
+                    } else {
+                        COUNTERS.getAndAdd(counter, index, (byte) -1);
+                    }
+                }
+            }
+            return changes;
+        }
+
+        // positions whose result at this ply comes from exits or spent counters
+        long resolve(int side, int ply, int start, int end) {
+            byte[] value = values[side];
+            byte[] counter = counters[side];
+            byte[] exit = exits[side];
+            long changes = 0;
+            for (int i = start; i < end; i++) {
+                if (value[i] != UNRESOLVED) {
+                    continue;
+                }
+                if (ply % 2 == 1) {
+                    if (exit[i] == ply) {
+                        value[i] = (byte) ply;
+                        changes++;
+                    }
+                } else if (counter[i] == 0 && exit[i] <= 0) {
+                    // every move loses; the slowest exit decides how long it takes
+                    int exitPlies = exit[i] == EXIT_NONE ? 0 : -exit[i] - 1;
+                    if (exitPlies <= ply) {
+                        value[i] = (byte) (-ply - 1);
+                        changes++;
+                    }
+                }
+            }
+            return changes;
+        }
+
+        int maxExitPlies() {
+            int max = 0;
+            for (byte[] exit : exits) {
+                for (byte e : exit) {
+                    if (e != EXIT_NONE && e != EXIT_DRAW) {
+                        max = Math.max(max, Tablebase.plies(e));
+                    }
+                }
+            }
+            return max;
+        }
+
+        // the file layout: White to move, then Black to move, illegal as 0
+        byte[] finish() {
+            int size = material.size();
+            byte[] data = new byte[2 * size];
+            for (int side = 0; side < 2; side++) {
+                byte[] value = values[side];
+                for (int i = 0; i < size; i++) {
+                    data[side * size + i] = value[i] == ILLEGAL ? 0 : value[i];
+                }
+            }
+            return data;
+        }
+
+        String summary() {
+            long wins = 0;
+            long losses = 0;
+            long draws = 0;
+            for (byte[] value : values) {
+                for (byte v : value) {
+                    if (v == ILLEGAL) {
+                        continue;
+                    }
+                    if (v > 0) {
+                        wins++;
+                    } else if (v < 0) {
+                        losses++;
+                    } else {
+                        draws++;
+                    }
+                }
+            }
+            return (wins + losses + draws) + " positions (" + wins + " won, " + losses + " lost, "
+                    + draws + " drawn)";
+        }
+    }
+
+    // the result of a capture or promotion, from the reply to it
+    private static int fromReply(int reply) {
+        if (reply < 0) {
+            return Tablebase.plies(reply) + 1; // the opponent is lost, we win one ply later
+        }
+        if (reply > 0) {
+            return -(reply + 1) - 1; // the opponent wins, we lose one ply later
+        }
+        return EXIT_DRAW;
+    }
+
+    // quickest win, then a draw, then the slowest loss
+    private static int better(int a, int b) {
+        return rank(a) >= rank(b) ? a : b;
+    }
+
+    private static int rank(int exit) {
+        if (exit == EXIT_NONE) {
+            return Integer.MIN_VALUE;
+        }
+        if (exit == EXIT_DRAW) {
+            return 0;
+        }
+        return exit > 0 ? 1000 - exit : -1000 + Tablebase.plies(exit);
+    }
+
+    private static int addDistinct(int[] list, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == value) {
+                return count;
+            }
+        }
+        list[count] = value;
+        return count + 1;
+    }
+
+    /**
+     * Generates tablebases from the command line
+     *
+     * @param args the output directory, then {@code all} or table names, then
+     *             options
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: TablebaseGenerator <dir> [all | KQvK KRvK ...] [--threads N] [--pieces N]");
+            System.exit(1);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPieces = TbPosition.MAX_PIECES;
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--pieces":
+                    maxPieces = Math.min(TbPosition.MAX_PIECES, Integer.parseInt(args[++i]));
+                    break;
+                default:
+                    names.add(args[i]);
+            }
+        }
+
+        List<Material> materials = new ArrayList<>();
+        if (names.isEmpty() || names.contains("all")) {
+            materials.addAll(Material.all(maxPieces));
+        } else {
+            for (String name : names) {
+                materials.add(Material.parse(name));
+            }
+        }
+
+        File dir = new File(args[0]);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("Cannot create " + dir);
+            System.exit(1);
+        }
+
+        TablebaseGenerator generator = new TablebaseGenerator(dir, threads);
+        long start = System.currentTimeMillis();
+        try {
+            for (Material material : materials) {
+                generator.generate(material);
+            }
+            System.out.println("Generated " + materials.size() + " tables in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (IOException e) {
+            System.err.println("Tablebase generation failed: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Tablebase generation interrupted");
+            System.exit(1);
+        } finally {
+            generator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package Chess.tablebase;
+
+import Chess.engine.Board;
+import Chess.engine.Piece;
+
+/**
+ * Small mutable position with at most {@link #MAX_PIECES} pieces
+ * <p>
+ * The tablebase code works on this instead of {@link Board}: squares are
+ * numbered {@code row * 8 + col} (row 0 = rank 1) and a position is just three
+ * short arrays, so the generator can look at millions of them without
+ * creating objects. En passant and castling are not represented.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class TbPosition {
+
+    /** Largest number of pieces (kings included) a tablebase covers. */
+    public static final int MAX_PIECES = 4;
+
+    /** Piece types. */
+    public static final int PAWN = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ROOK = 4;
+    public static final int QUEEN = 5;
+    public static final int KING = 6;
+
+    private static final int[] KING_STEPS = { -1, -1, -1, 0, -1, 1, 0, -1, 0, 1, 1, -1, 1, 0, 1, 1 };
+    private static final int[] KNIGHT_STEPS = { -2, -1, -2, 1, -1, -2, -1, 2, 1, -2, 1, 2, 2, -1, 2, 1 };
+    private static final int[] ROOK_DIRS = { -1, 0, 1, 0, 0, -1, 0, 1 };
+    private static final int[] BISHOP_DIRS = { -1, -1, -1, 1, 1, -1, 1, 1 };
+
+    int count;
+    final int[] squares = new int[MAX_PIECES];
+    final int[] types = new int[MAX_PIECES];
+    final boolean[] whites = new boolean[MAX_PIECES];
+
+    /**
+     * Copies a board into a tablebase position
+     *
+     * @param board the board to copy
+     * @return the position, or {@code null} if the board has more than
+     *         {@link #MAX_PIECES} pieces
+     */
+    public static TbPosition fromBoard(Board board) {
+        TbPosition position = new TbPosition();
+        for (int r = 0; r < Board.ROWS; r++) {
+            for (int c = 0; c < Board.COLUMNS; c++) {
+                Piece piece = board.getPieceAt(r, c);
+                if (piece == null) {
+                    continue;
+                }
+                if (position.count == MAX_PIECES) {
+                    return null;
+                }
+                position.add(typeOf(piece), piece.isWhite(), r * 8 + c);
+            }
+        }
+        return position;
+    }
+
+    private static int typeOf(Piece piece) {
+        return piece == null ? 0 : piece.getType().getCode(); // same codes as PieceType
+    }
+
+    /**
+     * Adds a piece
+     *
+     * @param type   the piece type, {@link #PAWN} to {@link #KING}
+     * @param white  whether the piece is white
+     * @param square the square, {@code row * 8 + col}
+     */
+    public void add(int type, boolean white, int square) {
+        types[count] = type;
+        whites[count] = white;
+        squares[count] = square;
+        count++;
+    }
+
+    /** Removes the piece at an index, keeping the order of the others. */
+    void remove(int index) {
+        for (int i = index; i < count - 1; i++) {
+            types[i] = types[i + 1];
+            whites[i] = whites[i + 1];
+            squares[i] = squares[i + 1];
+        }
+        count--;
+    }
+
+    /** Makes this position a copy of another one. */
+    void copyFrom(TbPosition other) {
+        count = other.count;
+        for (int i = 0; i < count; i++) {
+            types[i] = other.types[i];
+            whites[i] = other.whites[i];
+            squares[i] = other.squares[i];
+        }
+    }
+
+    /** @return the number of pieces */
+    public int getCount() {
+        return count;
+    }
+
+    /** @return the index of the piece on a square, or -1 */
+    int pieceAt(int square) {
+        for (int i = 0; i < count; i++) {
+            if (squares[i] == square) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** @return the index of the king of a color, or -1 */
+    int kingIndex(boolean white) {
+        for (int i = 0; i < count; i++) {
+            if (types[i] == KING && whites[i] == white) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the king of a color is attacked
+     *
+     * @param white the color of the king
+     * @return {@code true} if that king is in check
+     */
+    boolean inCheck(boolean white) {
+        int king = kingIndex(white);
+        return king >= 0 && isAttacked(squares[king], !white);
+    }
+
+    /** Checks whether any piece of a color attacks a square. */
+    boolean isAttacked(int target, boolean byWhite) {
+        int tr = target >> 3;
+        int tc = target & 7;
+        for (int i = 0; i < count; i++) {
+            if (whites[i] != byWhite || squares[i] == target) {
+                continue;
+            }
+            int r = squares[i] >> 3;
+            int c = squares[i] & 7;
+            int dr = tr - r;
+            int dc = tc - c;
+            switch (types[i]) {
+                case PAWN:
+                    if (dr == (byWhite ? 1 : -1) && Math.abs(dc) == 1) {
+                        return true;
+                    }
+                    break;
+                case KNIGHT:
+                    if ((Math.abs(dr) == 1 && Math.abs(dc) == 2) || (Math.abs(dr) == 2 && Math.abs(dc) == 1)) {
+                        return true;
+                    }
+                    break;
+                case KING:
+                    if (Math.abs(dr) <= 1 && Math.abs(dc) <= 1) {
+                        return true;
+                    }
+                    break;
+                default:
+                    boolean straight = dr == 0 || dc == 0;
+                    boolean diagonal = Math.abs(dr) == Math.abs(dc);
+                    boolean canSlide = (straight && types[i] != BISHOP) || (diagonal && types[i] != ROOK);
+                    if (canSlide && isPathClear(r, c, tr, tc)) {
+                        return true;
+                    }
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private boolean isPathClear(int r, int c, int tr, int tc) {
+        int sr = Integer.signum(tr - r);
+        int sc = Integer.signum(tc - c);
+        r += sr;
+        c += sc;
+        while (r != tr || c != tc) {
+            if (pieceAt(r * 8 + c) >= 0) {
+                return false;
+            }
+            r += sr;
+            c += sc;
+        }
+        return true;
+    }
+
+    /**
+     * Generates the pseudo-legal moves of one side. Each move is packed as
+     * {@code piece | to << 2 | promotion << 8}.
+     *
+     * @param white the side to move
+     * @param moves receives the packed moves, must hold at least 128
+     * @return the number of moves generated
+     */
+    int generateMoves(boolean white, int[] moves) {
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (whites[i] != white) {
+                continue;
+            }
+            int r = squares[i] >> 3;
+            int c = squares[i] & 7;
+            switch (types[i]) {
+                case PAWN:
+                    n = pawnMoves(i, r, c, moves, n);
+                    break;
+                case KNIGHT:
+                    n = stepMoves(i, r, c, KNIGHT_STEPS, moves, n);
+                    break;
+                case KING:
+                    n = stepMoves(i, r, c, KING_STEPS, moves, n);
+                    break;
+                case BISHOP:
+                    n = slideMoves(i, r, c, BISHOP_DIRS, moves, n);
+                    break;
+                case ROOK:
+                    n = slideMoves(i, r, c, ROOK_DIRS, moves, n);
+                    break;
+                default:
+                    n = slideMoves(i, r, c, ROOK_DIRS, moves, n);
+                    n = slideMoves(i, r, c, BISHOP_DIRS, moves, n);
+                    break;
+            }
+        }
+        return n;
+    }
+
+    private int stepMoves(int i, int r, int c, int[] steps, int[] moves, int n) {
+        for (int k = 0; k < steps.length; k += 2) {
+            int nr = r + steps[k];
+            int nc = c + steps[k + 1];
+            if (nr < 0 || nr > 7 || nc < 0 || nc > 7) {
+                continue;
+            }
+            int target = pieceAt(nr * 8 + nc);
+            if (target < 0 || whites[target] != whites[i]) {
+                moves[n++] = i | (nr * 8 + nc) << 2;
+            }
+        }
+        return n;
+    }
+
+    private int slideMoves(int i, int r, int c, int[] dirs, int[] moves, int n) {
+        for (int k = 0; k < dirs.length; k += 2) {
+            int nr = r + dirs[k];
+            int nc = c + dirs[k + 1];
+            while (nr >= 0 && nr <= 7 && nc >= 0 && nc <= 7) {
+                int target = pieceAt(nr * 8 + nc);
+                if (target >= 0) {
+                    if (whites[target] != whites[i]) {
+                        moves[n++] = i | (nr * 8 + nc) << 2;
+                    }
+                    break;
+                }
+                moves[n++] = i | (nr * 8 + nc) << 2;
+                nr += dirs[k];
+                nc += dirs[k + 1];
+            }
+        }
+        return n;
+    }
+
+    private int pawnMoves(int i, int r, int c, int[] moves, int n) {
+        int dir = whites[i] ? 1 : -1;
+        int nr = r + dir;
+        if (nr < 0 || nr > 7) {
+            return n;
+        }
+        boolean promotes = nr == 0 || nr == 7;
+        if (pieceAt(nr * 8 + c) < 0) {
+            n = addPawnMove(i, nr * 8 + c, promotes, moves, n);
+            int startRow = whites[i] ? 1 : 6;
+            if (r == startRow && pieceAt((r + 2 * dir) * 8 + c) < 0) {
+                moves[n++] = i | ((r + 2 * dir) * 8 + c) << 2;
+            }
+        }
+        for (int dc = -1; dc <= 1; dc += 2) {
+            int nc = c + dc;
+            if (nc < 0 || nc > 7) {
+                continue;
+            }
+            int target = pieceAt(nr * 8 + nc);
+            if (target >= 0 && whites[target] != whites[i]) {
+                n = addPawnMove(i, nr * 8 + nc, promotes, moves, n);
+            }
+        }
+        return n;
+    }
+
+    private int addPawnMove(int i, int to, boolean promotes, int[] moves, int n) {
+        if (!promotes) {
+            moves[n++] = i | to << 2;
+            return n;
+        }
+        for (int type = KNIGHT; type <= QUEEN; type++) {
+            moves[n++] = i | to << 2 | type << 8;
+        }
+        return n;
+    }
+
+    /**
+     * Generates the squares a piece could have come from with a quiet move
+     * (no capture, no promotion): the un-moves used by retrograde analysis.
+     *
+     * @param i       the index of the piece
+     * @param origins receives the origin squares, must hold at least 32
+     * @return the number of origins
+     */
+    int generateUnmoves(int i, int[] origins) {
+        int r = squares[i] >> 3;
+        int c = squares[i] & 7;
+        int n = 0;
+        switch (types[i]) {
+            case PAWN: {
+                int dir = whites[i] ? 1 : -1;
+                int pr = r - dir;
+                int startRow = whites[i] ? 1 : 6;
+                if (pr >= 1 && pr <= 6 && pieceAt(pr * 8 + c) < 0) {
+                    origins[n++] = pr * 8 + c;
+                    int pr2 = pr - dir;
+                    if (pr2 == startRow && pieceAt(pr2 * 8 + c) < 0) {
+                        origins[n++] = pr2 * 8 + c;
+                    }
+                }
+                return n;
+            }
+            case KNIGHT:
+                return emptySteps(r, c, KNIGHT_STEPS, origins, n);
+            case KING:
+                return emptySteps(r, c, KING_STEPS, origins, n);
+            case BISHOP:
+                return emptySlides(r, c, BISHOP_DIRS, origins, n);
+            case ROOK:
+                return emptySlides(r, c, ROOK_DIRS, origins, n);
+            default:
+                n = emptySlides(r, c, ROOK_DIRS, origins, n);
+                return emptySlides(r, c, BISHOP_DIRS, origins, n);
+        }
+    }
+
+    private int emptySteps(int r, int c, int[] steps, int[] origins, int n) {
+        for (int k = 0; k < steps.length; k += 2) {
+            int nr = r + steps[k];
+            int nc = c + steps[k + 1];
+            if (nr >= 0 && nr <= 7 && nc >= 0 && nc <= 7 && pieceAt(nr * 8 + nc) < 0) {
+                origins[n++] = nr * 8 + nc;
+            }
+        }
+        return n;
+    }
+
+    private int emptySlides(int r, int c, int[] dirs, int[] origins, int n) {
+        for (int k = 0; k < dirs.length; k += 2) {
+            int nr = r + dirs[k];
+            int nc = c + dirs[k + 1];
+            while (nr >= 0 && nr <= 7 && nc >= 0 && nc <= 7 && pieceAt(nr * 8 + nc) < 0) {
+                origins[n++] = nr * 8 + nc;
+                nr += dirs[k];
+                nc += dirs[k + 1];
+            }
+        }
+        return n;
+    }
+}
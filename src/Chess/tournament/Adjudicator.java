@@ -0,0 +1,182 @@
+package Chess.tournament;
+
+import Chess.engine.Evaluator;
+import Chess.engine.GameEngine;
+import Chess.engine.PositionStatus;
+import Chess.tablebase.Tablebase;
+
+/**
+ * Plays tournament games to the end and ends the hopeless ones early
+ * <p>
+ * Lost positions take the AI a long time to lose and dead draws a long time
+ * to draw, so a game is decided without playing on when:
+ * </p>
+ * <ul>
+ *   <li>the endgame tablebases know the position ("tablebase"),</li>
+ *   <li>one side has been ahead by at least the resign score for the resign
+ *       plies in a row ("material"),</li>
+ *   <li>after the draw ply the score has stayed within the draw score for
+ *       the draw plies in a row ("quiet"), or</li>
+ *   <li>the game reaches the maximum number of plies ("length").</li>
+ * </ul>
+ * <p>
+ * A side that plays an illegal move or whose search fails loses the game
+ * ("Forfeit").
+ * </p>
+ * <p>
+ * Scores are the static evaluation from White's side, in the evaluator's
+ * units (a pawn is 1, a queen 50). One adjudicator can judge any number of
+ * games at once; each game gets its own evaluator.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class Adjudicator {
+
+    private int maxPlies = 400;
+    private int resignScore = 50;
+    private int resignPlies = 8;
+    private int drawPly = 120;
+    private int drawScore = 3;
+    private int drawPlies = 20;
+    private boolean useTablebase = true;
+
+    /**
+     * Plays the game until it ends or is adjudicated
+     *
+     * @param game the game, set up and with an AI to move
+     * @return the result
+     */
+    public GameResult play(GameEngine game) {
+        Evaluator evaluator = new Evaluator();
+        Tablebase tablebase = useTablebase ? Tablebase.shared() : null;
+        int winning = 0; // plies in a row with one side ahead; positive for White
+        int quiet = 0;
+
+        for (int ply = 0;; ply++) {
+            PositionStatus status = game.getStatus();
+            if (status.isCheckmate()) {
+                return new GameResult(status.getResult(), "Checkmate", ply);
+            } else if (status.isDraw()) {
+                return new GameResult(status.getResult(), status.getDrawReason(), ply);
+            } else if (ply >= maxPlies) {
+                return new GameResult("1/2-1/2", "Adjudicated: length", ply);
+            }
+
+            String sideToMove = status.getSideToMove();
+            if (tablebase != null) {
+                int value = tablebase.probe(game.getBoard(), sideToMove);
+                if (value != Tablebase.UNKNOWN) {
+                    boolean whiteWins = Tablebase.isWin(value) == sideToMove.equals("White");
+                    String result = value == Tablebase.DRAW ? "1/2-1/2" : whiteWins ? "1-0" : "0-1";
+                    return new GameResult(result, "Adjudicated: tablebase", ply);
+                }
+            }
+
+            int score = evaluator.evaluate(game.getBoard(), "White");
+            if (score >= resignScore) {
+                winning = Math.max(winning, 0) + 1;
+            } else if (score <= -resignScore) {
+                winning = Math.min(winning, 0) - 1;
+            } else {
+                winning = 0;
+            }
+            if (Math.abs(winning) >= resignPlies) {
+                return new GameResult(winning > 0 ? "1-0" : "0-1", "Adjudicated: material", ply);
+            }
+            quiet = ply >= drawPly && Math.abs(score) <= drawScore ? quiet + 1 : 0;
+            if (drawPlies > 0 && quiet >= drawPlies) {
+                return new GameResult("1/2-1/2", "Adjudicated: quiet", ply);
+            }
+
+            String loss = sideToMove.equals("White") ? "0-1" : "1-0";
+            try {
+                if (game.playAIMove() == null) {
+                    // the AI found no move in a position that isn't over
+                    return new GameResult(loss, "No move", ply);
+                }
+            } catch (IllegalStateException e) {
+                // an illegal move or a failed search loses, as in any tournament; it's worth a look
+                System.err.println(sideToMove + " forfeits: " + e.getMessage());
+                return new GameResult(loss, "Forfeit", ply);
+            }
+        }
+    }
+
+    /**
+     * Applies a command line option of the tournament programs
+     *
+     * @param option e.g. "--max-plies"; also {@code --resign},
+     *               {@code --resign-plies}, {@code --draw-ply},
+     *               {@code --draw-score}, {@code --draw-plies} and
+     *               {@code --tablebase}
+     * @param value  the option's value
+     * @return false if the option isn't one of these
+     */
+    public boolean setOption(String option, String value) {
+        switch (option) {
+            case "--max-plies":
+                setMaxPlies(Integer.parseInt(value));
+                return true;
+            case "--resign":
+                setResign(Integer.parseInt(value), resignPlies);
+                return true;
+            case "--resign-plies":
+                resignPlies = Math.max(1, Integer.parseInt(value));
+                return true;
+            case "--draw-ply":
+                drawPly = Integer.parseInt(value);
+                return true;
+            case "--draw-score":
+                drawScore = Integer.parseInt(value);
+                return true;
+            case "--draw-plies":
+                drawPlies = Integer.parseInt(value);
+                return true;
+            case "--tablebase":
+                setUseTablebase(Boolean.parseBoolean(value));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** @param maxPlies the half moves after which a game is a draw */
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * @param score the lead that wins the game, 0 to never adjudicate a win
+     * @param plies how many plies in a row the lead has to last
+     */
+    public void setResign(int score, int plies) {
+        this.resignScore = score > 0 ? score : Integer.MAX_VALUE;
+        this.resignPlies = Math.max(1, plies);
+    }
+
+    /**
+     * @param fromPly the first ply a game may be adjudicated a draw
+     * @param score   the largest score that counts as level
+     * @param plies   how many plies in a row the score has to stay level, 0
+     *                to never adjudicate a draw
+     */
+    public void setDraw(int fromPly, int score, int plies) {
+        this.drawPly = fromPly;
+        this.drawScore = score;
+        this.drawPlies = plies;
+    }
+
+    /** @param useTablebase whether positions the tablebases know are decided */
+    public void setUseTablebase(boolean useTablebase) {
+        this.useTablebase = useTablebase;
+    }
+
+    @Override
+    public String toString() {
+        return "max " + maxPlies + " plies, resign at " + (resignScore == Integer.MAX_VALUE ? "never" : resignScore)
+                + " for " + resignPlies + " plies, draw within " + drawScore + " for " + drawPlies + " plies after ply "
+                + drawPly + (useTablebase ? ", tablebases" : "");
+    }
+}
@@ -0,0 +1,125 @@
+package Chess.tournament;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Player;
+import Chess.uci.UciEnginePlayer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * One side of an engine match: the AI with some settings or an outside
+ * UCI engine
+ * <p>
+ * Written as {@code level=7} or {@code level=10,threads=2} for our AI in this
+ * JVM, or {@code uci=COMMAND} for an engine started as a separate process,
+ * e.g. {@code uci=java -cp old/Chess.jar Chess.uci.UciMain} to play the
+ * build before a change. An outside engine thinks for the time of
+ * {@code level} (see {@link UciEnginePlayer}), which can be given before the
+ * command: {@code level=2,uci=./stockfish}.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class EngineConfig {
+
+    private final String text;
+    private final int level;
+    private final int threads;
+    private final List<String> command;
+
+    private EngineConfig(String text, int level, int threads, List<String> command) {
+        this.text = text;
+        this.level = level;
+        this.threads = threads;
+        this.command = command;
+    }
+
+    /**
+     * Reads a configuration
+     *
+     * @param text e.g. "level=10,threads=2" or "uci=./stockfish"
+     * @return the configuration
+     * @throws IllegalArgumentException if the text can't be read
+     */
+    public static EngineConfig parse(String text) {
+        int level = 10;
+        int threads = 1;
+        List<String> command = null;
+        String rest = text.trim();
+        while (!rest.isEmpty()) {
+            if (rest.startsWith("uci=")) {
+                // the command is the last setting, commas and all
+                command = UciEnginePlayer.parseCommand(rest.substring("uci=".length()));
+                if (command.isEmpty()) {
+                    throw new IllegalArgumentException("No engine command in: " + text);
+                }
+                break;
+            }
+            int comma = rest.indexOf(',');
+            String setting = comma < 0 ? rest : rest.substring(0, comma);
+            rest = comma < 0 ? "" : rest.substring(comma + 1).trim();
+            String[] pair = setting.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected name=value in: " + text);
+            }
+            switch (pair[0].trim()) {
+                case "level":
+                    level = Integer.parseInt(pair[1].trim());
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(pair[1].trim());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown setting '" + pair[0] + "' in: " + text);
+            }
+        }
+        if (level < 1 || level > 10) {
+            throw new IllegalArgumentException("Levels go from 1 to 10: " + text);
+        }
+        return new EngineConfig(text, level, Math.max(1, threads), command);
+    }
+
+    /**
+     * Creates a player for one game
+     *
+     * @param name  the player's name
+     * @param color "White" or "Black"
+     * @return the player; {@link #release(Player)} it after the game
+     * @throws UncheckedIOException if an outside engine can't be started
+     */
+    public Player create(String name, String color) {
+        if (command != null) {
+            try {
+                return new UciEnginePlayer(color, command, level);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start " + command.get(0), e);
+            }
+        }
+        AIPlayer ai = new AIPlayer(name, color, level);
+        ai.setThreads(threads);
+        return ai;
+    }
+
+    /**
+     * Ends a player made by {@link #create(String, String)}, stopping its
+     * engine process if it has one
+     *
+     * @param player the player
+     */
+    public void release(Player player) {
+        if (player instanceof PooledPlayer) {
+            player = ((PooledPlayer) player).getPlayer();
+        }
+        if (player instanceof UciEnginePlayer) {
+            ((UciEnginePlayer) player).close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,50 @@
+package Chess.tournament;
+
+/**
+ * How a tournament game ended
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class GameResult {
+
+    private final String result;
+    private final String reason;
+    private final int plies;
+
+    /**
+     * @param result "1-0", "0-1" or "1/2-1/2"
+     * @param reason why, e.g. "Checkmate" or "Adjudicated: material"
+     * @param plies  the half moves played after the opening
+     */
+    public GameResult(String result, String reason, int plies) {
+        this.result = result;
+        this.reason = reason;
+        this.plies = plies;
+    }
+
+    /** @return "1-0", "0-1" or "1/2-1/2" */
+    public String getResult() {
+        return result;
+    }
+
+    /** @return why the game ended */
+    public String getReason() {
+        return reason;
+    }
+
+    /** @return the half moves played after the opening */
+    public int getPlies() {
+        return plies;
+    }
+
+    /** @return white's points: 1, 0.5 or 0 */
+    public double whiteScore() {
+        return result.equals("1-0") ? 1 : result.equals("0-1") ? 0 : 0.5;
+    }
+
+    @Override
+    public String toString() {
+        return result + " (" + reason + ", " + plies + " plies)";
+    }
+}
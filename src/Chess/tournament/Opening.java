@@ -0,0 +1,215 @@
+package Chess.tournament;
+
+import Chess.book.PgnGame;
+import Chess.engine.Board;
+import Chess.engine.Fen;
+import Chess.engine.GameEngine;
+import Chess.engine.Move;
+import Chess.engine.Player;
+import Chess.uci.UciMoves;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A start for tournament games: a position and the moves played from it
+ * <p>
+ * The AI plays the same moves in the same position at the higher levels, so
+ * without openings every game of a pairing would be the same game. An opening
+ * suite is a text file with one opening per line, either UCI moves from the
+ * starting position ({@code e2e4 c7c5 g1f3}) or a FEN or EPD position,
+ * optionally followed by {@code moves} and UCI moves. Empty lines and lines
+ * starting with {@code #} are skipped. A file ending in {@code .pgn} is read
+ * as a PGN collection instead, every game giving its first few moves.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class Opening {
+
+    // a few main lines, four moves deep, for when no suite is given
+    private static final String[][] BUILT_IN = {
+            { "Italian", "e2e4 e7e5 g1f3 b8c6" },
+            { "Sicilian", "e2e4 c7c5 g1f3 d7d6" },
+            { "French", "e2e4 e7e6 d2d4 d7d5" },
+            { "Caro-Kann", "e2e4 c7c6 d2d4 d7d5" },
+            { "Queen's Gambit Declined", "d2d4 d7d5 c2c4 e7e6" },
+            { "Slav", "d2d4 d7d5 c2c4 c7c6" },
+            { "Nimzo-Indian", "d2d4 g8f6 c2c4 e7e6" },
+            { "King's Indian", "d2d4 g8f6 c2c4 g7g6" },
+            { "English", "c2c4 e7e5 b1c3 g8f6" },
+            { "Reti", "g1f3 d7d5 g2g3 g8f6" },
+    };
+
+    private final String name;
+    private final String fen;
+    private final List<String> moves;
+
+    /**
+     * @param name  what the reports call it
+     * @param fen   the position it starts from, or {@code null} for the
+     *              starting position
+     * @param moves the moves played from there in UCI notation
+     */
+    public Opening(String name, String fen, List<String> moves) {
+        this.name = name;
+        this.fen = fen;
+        this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+    }
+
+    /** @return what the reports call it */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the moves played from the start position in UCI notation */
+    public List<String> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Sets up a game with the opening played
+     *
+     * @param white the player with the white pieces
+     * @param black the player with the black pieces
+     * @return the game, with the player after the opening to move
+     * @throws IllegalArgumentException if a move of the opening is illegal
+     */
+    public GameEngine start(Player white, Player black) {
+        GameEngine game;
+        if (fen == null) {
+            game = new GameEngine(white, black);
+        } else {
+            Fen start = Fen.parse(fen);
+            game = new GameEngine(white, black, start.getPosition(), start.getSideToMove());
+        }
+        for (String text : moves) {
+            Move move = UciMoves.find(game.getLegalMoves(), text);
+            if (move == null || game.play(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                    move.getTo().getCol(), UciMoves.promotion(text)) == null) {
+                throw new IllegalArgumentException("Illegal move " + text + " in opening " + name);
+            }
+        }
+        return game;
+    }
+
+    /** @return the openings used when no suite is given */
+    public static List<Opening> builtIn() {
+        List<Opening> openings = new ArrayList<>();
+        for (String[] opening : BUILT_IN) {
+            openings.add(new Opening(opening[0], null, Arrays.asList(opening[1].split(" "))));
+        }
+        return openings;
+    }
+
+    /**
+     * Reads an opening suite
+     *
+     * @param file     a text file of move lines and FENs, or a PGN collection
+     * @param pgnPlies how many moves of every PGN game make its opening
+     * @return the openings, in file order
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if a line is neither moves nor a FEN
+     */
+    public static List<Opening> load(File file, int pgnPlies) throws IOException {
+        if (file.getName().toLowerCase().endsWith(".pgn")) {
+            return loadPgn(file, pgnPlies);
+        }
+        List<Opening> openings = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                openings.add(parseLine(file.getName() + ":" + number, line));
+            }
+        }
+        return openings;
+    }
+
+    // "e2e4 e7e5", "<fen>", "<fen> moves e2e4" or an EPD line with its operations
+    private static Opening parseLine(String name, String line) {
+        int movesAt = line.indexOf(" moves ");
+        String position = movesAt < 0 ? line : line.substring(0, movesAt);
+        String moveText = movesAt < 0 ? "" : line.substring(movesAt + " moves ".length()).trim();
+        if (!position.contains("/")) {
+            return new Opening(name, null, Arrays.asList(line.split("\\s+")));
+        }
+
+        // EPD has operations like "bm e4;" where FEN has the move counters
+        String[] fields = position.split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Not a FEN: " + line);
+        }
+        StringBuilder fen = new StringBuilder(String.join(" ", Arrays.copyOf(fields, 4)));
+        if (fields.length >= 6 && fields[4].matches("\\d+") && fields[5].matches("\\d+")) {
+            fen.append(' ').append(fields[4]).append(' ').append(fields[5]);
+        }
+        Fen.parse(fen.toString()); // fails here rather than in the middle of the tournament
+        List<String> moves = moveText.isEmpty() ? new ArrayList<>() : Arrays.asList(moveText.split("\\s+"));
+        return new Opening(name, fen.toString(), moves);
+    }
+
+    // the first plies of every game, games split at their tags as the book builder does
+    private static List<Opening> loadPgn(File file, int plies) throws IOException {
+        List<Opening> openings = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            StringBuilder game = new StringBuilder();
+            boolean inMoves = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                boolean isTag = line.startsWith("[");
+                if (isTag && inMoves) {
+                    addPgnOpening(openings, file.getName() + "#" + (openings.size() + 1), game.toString(), plies);
+                    game.setLength(0);
+                    inMoves = false;
+                }
+                if (!isTag && !line.trim().isEmpty()) {
+                    inMoves = true;
+                }
+                game.append(line).append('\n');
+            }
+            if (inMoves) {
+                addPgnOpening(openings, file.getName() + "#" + (openings.size() + 1), game.toString(), plies);
+            }
+        }
+        return openings;
+    }
+
+    private static void addPgnOpening(List<Opening> openings, String name, String text, int plies) {
+        Board board = new Board(null);
+        String color = "White";
+        List<String> moves = new ArrayList<>();
+        for (String san : PgnGame.parse(text).getMoves()) {
+            if (moves.size() == plies) {
+                break;
+            }
+            Move move = PgnGame.resolve(board, san, color);
+            if (move == null || !board.movePiece(move.getFrom().getRow(), move.getFrom().getCol(),
+                    move.getTo().getRow(), move.getTo().getCol(), move.getPromotionPiece(), false)) {
+                break; // keep what we have, the rest of the game is unreadable
+            }
+            moves.add(UciMoves.toUci(move));
+            color = color.equals("White") ? "Black" : "White";
+        }
+        if (!moves.isEmpty()) {
+            openings.add(new Opening(name, null, moves));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,59 @@
+package Chess.tournament;
+
+import Chess.engine.Board;
+import Chess.engine.Move;
+import Chess.engine.Player;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A player whose searches run on a shared pool of threads
+ * <p>
+ * Games are cheap to keep around but searches need a core each, so the
+ * tournament gives every game a thread of its own and lets all searches
+ * queue for one pool with a thread per core. A game thread only waits while
+ * its player thinks, and no more searches run at once than there are cores.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class PooledPlayer extends Player {
+
+    private final Player player;
+    private final ExecutorService pool;
+
+    /**
+     * @param player the player that does the thinking
+     * @param pool   where it thinks
+     */
+    public PooledPlayer(Player player, ExecutorService pool) {
+        super(player.getName(), player.getColor());
+        this.player = player;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs the player's search on the pool and waits for it
+     *
+     * @param board the board, with this player to move
+     * @return the player's move
+     */
+    @Override
+    public Move makeMove(Board board) {
+        try {
+            return pool.submit(() -> player.makeMove(board)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(player.getName() + " failed to move", e.getCause());
+        }
+    }
+
+    /** @return the player that does the thinking */
+    public Player getPlayer() {
+        return player;
+    }
+}
@@ -0,0 +1,123 @@
+package Chess.tournament;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The results of a tournament between AI levels, level against level
+ * <p>
+ * Every cell holds the wins, draws and losses of the row's level against the
+ * column's level, whichever colors they had. Games can be added from any
+ * thread.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class ResultMatrix {
+
+    private final int[] levels;
+    private final int[][] wins;
+    private final int[][] draws;
+    private final int[][] losses;
+    private final Map<String, Integer> reasons = new TreeMap<>();
+    private long plies;
+    private int games;
+
+    /** @param levels the levels playing, in the order of the rows */
+    public ResultMatrix(int[] levels) {
+        this.levels = levels.clone();
+        wins = new int[levels.length][levels.length];
+        draws = new int[levels.length][levels.length];
+        losses = new int[levels.length][levels.length];
+    }
+
+    /**
+     * Counts a game
+     *
+     * @param whiteLevel the level that had White
+     * @param blackLevel the level that had Black
+     * @param result     how the game ended
+     */
+    public synchronized void add(int whiteLevel, int blackLevel, GameResult result) {
+        int white = indexOf(whiteLevel);
+        int black = indexOf(blackLevel);
+        double score = result.whiteScore();
+        if (score == 1) {
+            wins[white][black]++;
+            losses[black][white]++;
+        } else if (score == 0) {
+            losses[white][black]++;
+            wins[black][white]++;
+        } else {
+            draws[white][black]++;
+            draws[black][white]++;
+        }
+        reasons.merge(result.getReason(), 1, Integer::sum);
+        plies += result.getPlies();
+        games++;
+    }
+
+    /** @return the games counted */
+    public synchronized int getGames() {
+        return games;
+    }
+
+    /**
+     * @param level a level
+     * @return its points over all its games divided by the games, 0 to 1
+     */
+    public synchronized double score(int level) {
+        int row = indexOf(level);
+        double points = 0;
+        int played = 0;
+        for (int col = 0; col < levels.length; col++) {
+            // a level against itself counts its wins and losses twice, which cancels out
+            points += wins[row][col] + draws[row][col] / 2.0;
+            played += wins[row][col] + draws[row][col] + losses[row][col];
+        }
+        return played == 0 ? 0 : points / played;
+    }
+
+    /**
+     * Prints the matrix, the score of every level and why the games ended
+     *
+     * @param out where to print
+     */
+    public synchronized void print(PrintStream out) {
+        StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-9s", ""));
+        for (int level : levels) {
+            header.append(String.format(Locale.ROOT, "%14s", "Level " + level));
+        }
+        out.println(header.append(String.format(Locale.ROOT, "%10s", "Score")));
+
+        for (int row = 0; row < levels.length; row++) {
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-9s", "Level " + levels[row]));
+            for (int col = 0; col < levels.length; col++) {
+                int played = wins[row][col] + draws[row][col] + losses[row][col];
+                line.append(String.format(Locale.ROOT, "%14s", played == 0 ? "-"
+                        : wins[row][col] + "-" + draws[row][col] + "-" + losses[row][col]));
+            }
+            out.println(line.append(String.format(Locale.ROOT, "%9.1f%%", score(levels[row]) * 100)));
+        }
+        out.println("(wins-draws-losses of the row's level against the column's level)");
+
+        out.println(String.format(Locale.ROOT, "%d games, %.1f plies per game", games,
+                games == 0 ? 0.0 : plies / (double) games));
+        for (Map.Entry<String, Integer> reason : reasons.entrySet()) {
+            out.println(String.format(Locale.ROOT, "  %-28s %6d", reason.getKey(), reason.getValue()));
+        }
+    }
+
+    private int indexOf(int level) {
+        for (int i = 0; i < levels.length; i++) {
+            if (levels[i] == level) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Level " + level + " is not in " + Arrays.toString(levels));
+    }
+}
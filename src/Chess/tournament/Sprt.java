@@ -0,0 +1,166 @@
+package Chess.tournament;
+
+import java.util.Locale;
+
+/**
+ * A sequential probability ratio test on the results of an engine match
+ * <p>
+ * The test decides between two hypotheses about how much stronger the new
+ * engine is than the base: H0, it is {@code elo0} Elo stronger, and H1, it
+ * is {@code elo1} Elo stronger. After every game the log-likelihood ratio
+ * (LLR) of the two is compared with bounds set by the error rates
+ * {@code alpha} (accepting H1 when H0 holds) and {@code beta} (accepting H0
+ * when H1 holds). Crossing the upper bound accepts H1, crossing the lower one
+ * accepts H0, and in between more games are needed. A clear change is thus
+ * found in a few hundred games, a small one takes thousands.
+ * </p>
+ * <p>
+ * The LLR uses the usual normal approximation on the win/draw/loss counts
+ * (the "generalized SPRT" of fishtest and cutechess): with a mean score of
+ * {@code s}, its variance {@code var} per game and {@code s0}, {@code s1}
+ * the scores the two hypotheses expect,
+ * {@code LLR = n (s1 - s0) (2s - s0 - s1) / (2 var)}. Half a win and half
+ * a loss are added to the counts first, or a run of nothing but wins would
+ * have no variance and never decide.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class Sprt {
+
+    /** The test needs more games. */
+    public static final int CONTINUE = 0;
+
+    /** H1 accepted: the new engine is at least {@code elo1} stronger. */
+    public static final int H1 = 1;
+
+    /** H0 accepted: the new engine is not {@code elo1} stronger. */
+    public static final int H0 = -1;
+
+    // two-sided 95 % quantile of the normal distribution
+    private static final double Z_95 = 1.959964;
+
+    // the half win and half loss added before the LLR and the error are computed
+    private static final double PRIOR = 0.5;
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+    private int wins;
+    private int draws;
+    private int losses;
+
+    /**
+     * @param elo0  the Elo difference of H0
+     * @param elo1  the Elo difference of H1, above {@code elo0}
+     * @param alpha the chance to accept H1 when H0 is true
+     * @param beta  the chance to accept H0 when H1 is true
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 has to be above elo0: " + elo0 + ", " + elo1);
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Counts a game
+     *
+     * @param newScore the new engine's points: 1, 0.5 or 0
+     */
+    public synchronized void add(double newScore) {
+        if (newScore == 1) {
+            wins++;
+        } else if (newScore == 0) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    /** @return the games counted */
+    public synchronized int getGames() {
+        return wins + draws + losses;
+    }
+
+    /** @return {@link #H1}, {@link #H0} or {@link #CONTINUE} */
+    public synchronized int getStatus() {
+        double llr = llr();
+        return llr >= upperBound ? H1 : llr <= lowerBound ? H0 : CONTINUE;
+    }
+
+    /** @return the log-likelihood ratio of H1 against H0 */
+    public synchronized double llr() {
+        if (getGames() == 0) {
+            return 0;
+        }
+        double games = getGames() + 2 * PRIOR;
+        double score = score(wins + PRIOR, draws, losses + PRIOR);
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return games * (s1 - s0) * (2 * score - s0 - s1) / (2 * variance(wins + PRIOR, draws, losses + PRIOR));
+    }
+
+    /** @return the new engine's Elo advantage measured so far */
+    public synchronized double elo() {
+        return getGames() == 0 ? 0 : elo(score(wins, draws, losses));
+    }
+
+    /** @return half the width of the 95 % confidence interval of {@link #elo()} */
+    public synchronized double eloError() {
+        int games = getGames();
+        if (games == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = score(wins, draws, losses);
+        double margin = Z_95 * Math.sqrt(variance(wins + PRIOR, draws, losses + PRIOR) / games);
+        return (elo(score + margin) - elo(score - margin)) / 2;
+    }
+
+    /** @return the lower bound of the LLR, where H0 is accepted */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /** @return the upper bound of the LLR, where H1 is accepted */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    // the mean points per game of the new engine
+    private static double score(double wins, double draws, double losses) {
+        return (wins + draws / 2) / (wins + draws + losses);
+    }
+
+    // the variance of the points of one game
+    private static double variance(double wins, double draws, double losses) {
+        double s = score(wins, draws, losses);
+        return (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s)
+                / (wins + draws + losses);
+    }
+
+    /**
+     * @param elo an Elo difference
+     * @return the mean score the stronger side gets with it
+     */
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    // the Elo difference a mean score stands for, capped for all wins or all losses
+    private static double elo(double score) {
+        double s = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.ROOT, "W-D-L %d-%d-%d, LLR %.2f (%.2f, %.2f), Elo %.1f +- %.1f", wins, draws,
+                losses, llr(), lowerBound, upperBound, elo(), eloError());
+    }
+}
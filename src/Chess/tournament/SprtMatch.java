@@ -0,0 +1,265 @@
+package Chess.tournament;
+
+import Chess.engine.GameEngine;
+import Chess.engine.GameThreads;
+import Chess.engine.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests whether a change makes the AI stronger, with as few games as needed
+ * <p>
+ * The new and the base {@link EngineConfig} play game pairs, every opening
+ * once with each color, until a {@link Sprt} is decided or the game limit is
+ * reached. Games run many at once as in the {@link Tournament}. When the test
+ * is decided no new games start, and the ones already under way are still
+ * counted.
+ * </p>
+ * <p>
+ * Example, a new build against the last one:
+ * {@code java -cp Chess.jar Chess.tournament.SprtMatch --new level=10
+ * --base "uci=java -cp old/Chess.jar Chess.uci.UciMain" --elo0 0 --elo1 10}.
+ * The exit status is 0 when H1 is accepted (the change gains at least
+ * {@code elo1}), 1 when H0 is accepted, 2 when the limit came first and 3
+ * when games failed.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class SprtMatch {
+
+    private final EngineConfig newEngine;
+    private final EngineConfig baseEngine;
+    private final List<Opening> openings;
+    private final Adjudicator adjudicator;
+    private final Sprt sprt;
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile boolean decided;
+
+    /**
+     * @param newEngine   the engine with the change
+     * @param baseEngine  the engine without it
+     * @param openings    the openings, played in turn
+     * @param adjudicator ends the games
+     * @param sprt        the test
+     */
+    public SprtMatch(EngineConfig newEngine, EngineConfig baseEngine, List<Opening> openings,
+            Adjudicator adjudicator, Sprt sprt) {
+        this.newEngine = newEngine;
+        this.baseEngine = baseEngine;
+        this.openings = openings;
+        this.adjudicator = adjudicator;
+        this.sprt = sprt;
+    }
+
+    /**
+     * Plays until the test is decided or the limit is reached
+     *
+     * @param threads  the searches running at once
+     * @param inFlight the games under way at once
+     * @param maxGames the most games to start
+     * @param every    report after this many games
+     * @param progress where to report, or {@code null}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void run(int threads, int inFlight, int maxGames, int every, PrintStream progress)
+            throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, GameThreads.daemonThreads("sprt-search-"));
+        ExecutorService games = GameThreads.newPerTaskExecutor(inFlight, "sprt-game-");
+        Semaphore slots = new Semaphore(inFlight);
+        long start = System.nanoTime();
+
+        for (int n = 0; n < maxGames; n++) {
+            slots.acquire();
+            if (decided) {
+                slots.release();
+                break;
+            }
+            Opening opening = openings.get(n / 2 % openings.size());
+            boolean newIsWhite = n % 2 == 0;
+            games.execute(() -> {
+                try {
+                    playGame(opening, newIsWhite, pool);
+                } finally {
+                    slots.release();
+                }
+                report(progress, every, start);
+            });
+        }
+        games.shutdown();
+        games.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        pool.shutdown();
+    }
+
+    private void playGame(Opening opening, boolean newIsWhite, ExecutorService pool) {
+        Player newPlayer = null;
+        Player basePlayer = null;
+        try {
+            newPlayer = new PooledPlayer(newEngine.create("New", newIsWhite ? "White" : "Black"), pool);
+            basePlayer = new PooledPlayer(baseEngine.create("Base", newIsWhite ? "Black" : "White"), pool);
+            GameEngine game = newIsWhite ? opening.start(newPlayer, basePlayer) : opening.start(basePlayer, newPlayer);
+            GameResult result = adjudicator.play(game);
+            sprt.add(newIsWhite ? result.whiteScore() : 1 - result.whiteScore());
+            if (sprt.getStatus() != Sprt.CONTINUE) {
+                decided = true;
+            }
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Game from " + opening + " failed: " + e);
+        } finally {
+            if (newPlayer != null) {
+                newEngine.release(newPlayer);
+            }
+            if (basePlayer != null) {
+                baseEngine.release(basePlayer);
+            }
+        }
+    }
+
+    private void report(PrintStream progress, int every, long start) {
+        int games = sprt.getGames();
+        if (progress != null && games > 0 && games % every == 0) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            progress.println(String.format(Locale.ROOT, "%6d games  %s  %.2f games/s", games, sprt,
+                    games / seconds));
+        }
+    }
+
+    /** @return the test with the results so far */
+    public Sprt getSprt() {
+        return sprt;
+    }
+
+    /** @return the games that failed with an error and weren't counted */
+    public int getFailedGames() {
+        return failed.get();
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args {@code --new CONFIG --base CONFIG [--elo0 0] [--elo1 5]
+     *             [--alpha 0.05] [--beta 0.05] [--max-games N]
+     *             [--openings FILE] [--opening-plies N] [--threads N]
+     *             [--in-flight N] [--report N]} and the options of the
+     *             {@link Adjudicator}
+     * @throws IOException          if the opening suite can't be read
+     * @throws InterruptedException if interrupted while waiting for the games
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        EngineConfig newEngine = null;
+        EngineConfig baseEngine = null;
+        double elo0 = 0;
+        double elo1 = 5;
+        double alpha = 0.05;
+        double beta = 0.05;
+        int maxGames = 20000;
+        String openingFile = null;
+        int openingPlies = 8;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int inFlight = -1;
+        int every = 100;
+        Adjudicator adjudicator = new Adjudicator();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--new":
+                    newEngine = EngineConfig.parse(args[i + 1]);
+                    break;
+                case "--base":
+                    baseEngine = EngineConfig.parse(args[i + 1]);
+                    break;
+                case "--elo0":
+                    elo0 = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--elo1":
+                    elo1 = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--alpha":
+                    alpha = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--beta":
+                    beta = Double.parseDouble(args[i + 1]);
+                    break;
+                case "--max-games":
+                    maxGames = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--openings":
+                    openingFile = args[i + 1];
+                    break;
+                case "--opening-plies":
+                    openingPlies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--in-flight":
+                    inFlight = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--report":
+                    every = Math.max(1, Integer.parseInt(args[i + 1]));
+                    break;
+                default:
+                    if (!adjudicator.setOption(args[i], args[i + 1])) {
+                        System.err.println("Unknown option: " + args[i]);
+                        System.exit(1);
+                    }
+            }
+        }
+        if (newEngine == null || baseEngine == null) {
+            System.err.println("Usage: SprtMatch --new CONFIG --base CONFIG [options], CONFIG being e.g. level=10 "
+                    + "or \"uci=java -cp old.jar Chess.uci.UciMain\"");
+            System.exit(1);
+        }
+        List<Opening> openings = openingFile == null ? Opening.builtIn()
+                : Opening.load(new File(openingFile), openingPlies);
+        if (openings.isEmpty()) {
+            System.err.println("No openings in " + openingFile);
+            System.exit(1);
+        }
+        // few games in flight, or many run on after the test is decided
+        if (inFlight < 1) {
+            inFlight = 2 * threads;
+        }
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        SprtMatch match = new SprtMatch(newEngine, baseEngine, openings, adjudicator,
+                new Sprt(elo0, elo1, alpha, beta));
+        out.println(String.format(Locale.ROOT, "SPRT %s vs %s: elo0 %.1f, elo1 %.1f, alpha %.3f, beta %.3f, "
+                + "%d search threads", newEngine, baseEngine, elo0, elo1, alpha, beta, threads));
+        long start = System.nanoTime();
+        match.run(threads, inFlight, maxGames, every, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Sprt sprt = match.getSprt();
+        int status = sprt.getStatus();
+        out.println();
+        out.println(String.format(Locale.ROOT, "%d games  %s", sprt.getGames(), sprt));
+        out.println(String.format(Locale.ROOT, "%.1f s, %.2f games/s", seconds, sprt.getGames() / seconds));
+        if (status == Sprt.H1) {
+            out.println(String.format(Locale.ROOT, "H1 accepted: %s is at least %.1f Elo stronger", newEngine,
+                    elo1));
+        } else if (status == Sprt.H0) {
+            out.println(String.format(Locale.ROOT, "H0 accepted: %s is not %.1f Elo stronger", newEngine, elo1));
+        } else {
+            out.println("Not decided after " + sprt.getGames() + " games");
+        }
+        if (match.getFailedGames() > 0) {
+            out.println(match.getFailedGames() + " games failed");
+            System.exit(3);
+        }
+        System.exit(status == Sprt.H1 ? 0 : status == Sprt.H0 ? 1 : 2);
+    }
+}
@@ -0,0 +1,245 @@
+package Chess.tournament;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.GameEngine;
+import Chess.engine.GameThreads;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays AI levels against each other from the command line, many games at
+ * once
+ * <p>
+ * Every pair of levels plays every opening twice, once with each color, as
+ * often as {@code --rounds} says; a single level plays itself. The "AI vs AI"
+ * mode of the window plays one game at a time with a pause after every move,
+ * this plays as many as the machine can and prints a matrix of who beat
+ * whom, so a change to a level can be checked overnight.
+ * </p>
+ * <p>
+ * Each game runs on a thread of its own from {@link GameThreads}, a virtual
+ * thread when the JVM has them, and its players search on a {@link PooledPlayer} pool with
+ * one thread per core. Up to {@code --in-flight} games are under way at the
+ * same time while they wait for the pool. Games are ended early by an
+ * {@link Adjudicator}.
+ * </p>
+ * <p>
+ * Example: {@code java -cp Chess.jar Chess.tournament.Tournament --levels
+ * 3,6,10 --rounds 5 --openings openings.txt}
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class Tournament {
+
+    private final int[] levels;
+    private final List<Opening> openings;
+    private final int rounds;
+    private final Adjudicator adjudicator;
+    private final ResultMatrix matrix;
+    private final AtomicInteger finished = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * @param levels      the AI levels taking part
+     * @param openings    the openings every pairing plays
+     * @param rounds      how often every pairing plays every opening with
+     *                    each color
+     * @param adjudicator ends the games
+     */
+    public Tournament(int[] levels, List<Opening> openings, int rounds, Adjudicator adjudicator) {
+        this.levels = levels.clone();
+        this.openings = openings;
+        this.rounds = rounds;
+        this.adjudicator = adjudicator;
+        this.matrix = new ResultMatrix(levels);
+    }
+
+    /** @return the number of games the tournament has */
+    public int getGameCount() {
+        int pairings = levels.length == 1 ? 1 : levels.length * (levels.length - 1) / 2;
+        return pairings * openings.size() * 2 * rounds;
+    }
+
+    /** @return the results so far */
+    public ResultMatrix getMatrix() {
+        return matrix;
+    }
+
+    /**
+     * Plays all games and waits for them
+     *
+     * @param threads  the searches running at once
+     * @param inFlight the games under way at once
+     * @param progress where to report every finished tenth, or {@code null}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void run(int threads, int inFlight, PrintStream progress) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, GameThreads.daemonThreads("tournament-search-"));
+        ExecutorService games = GameThreads.newPerTaskExecutor(inFlight, "tournament-game-");
+        Semaphore slots = new Semaphore(inFlight);
+        int total = getGameCount();
+        long start = System.nanoTime();
+
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < levels.length; i++) {
+                for (int j = levels.length == 1 ? i : i + 1; j < levels.length; j++) {
+                    for (Opening opening : openings) {
+                        for (int swap = 0; swap < 2; swap++) {
+                            int white = swap == 0 ? levels[i] : levels[j];
+                            int black = swap == 0 ? levels[j] : levels[i];
+                            slots.acquire();
+                            games.execute(() -> {
+                                try {
+                                    playGame(white, black, opening, pool);
+                                } finally {
+                                    slots.release();
+                                    report(progress, total, start);
+                                }
+                            });
+                        }
+                    }
+                }
+            }
+        }
+        games.shutdown();
+        games.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        pool.shutdown();
+    }
+
+    private void playGame(int whiteLevel, int blackLevel, Opening opening, ExecutorService pool) {
+        try {
+            GameEngine game = opening.start(
+                    new PooledPlayer(new AIPlayer("Level " + whiteLevel, "White", whiteLevel), pool),
+                    new PooledPlayer(new AIPlayer("Level " + blackLevel, "Black", blackLevel), pool));
+            matrix.add(whiteLevel, blackLevel, adjudicator.play(game));
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("Game " + whiteLevel + " vs " + blackLevel + " from " + opening + " failed: " + e);
+        }
+    }
+
+    private void report(PrintStream progress, int total, long start) {
+        int done = finished.incrementAndGet();
+        if (progress != null && (done % Math.max(1, total / 10) == 0 || done == total)) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            progress.println(String.format(Locale.ROOT, "%d/%d games, %.2f games/s", done, total, done / seconds));
+        }
+    }
+
+    /** @return the games that failed with an error and weren't counted */
+    public int getFailedGames() {
+        return failed.get();
+    }
+
+    /**
+     * Reads a list of levels like "1,5,10"
+     *
+     * @param text the text
+     * @return the levels
+     * @throws IllegalArgumentException if a level isn't between 1 and 10 or
+     *                                  comes twice
+     */
+    public static int[] parseLevels(String text) {
+        String[] parts = text.split(",");
+        int[] levels = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            levels[i] = Integer.parseInt(parts[i].trim());
+            if (levels[i] < 1 || levels[i] > 10) {
+                throw new IllegalArgumentException("Levels go from 1 to 10: " + levels[i]);
+            }
+            for (int j = 0; j < i; j++) {
+                if (levels[j] == levels[i]) {
+                    throw new IllegalArgumentException("Level " + levels[i] + " is listed twice");
+                }
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Command line entry point; exits with status 1 when a game failed
+     *
+     * @param args {@code [--levels 1,4,7,10] [--rounds N] [--openings FILE]
+     *             [--opening-plies N] [--threads N] [--in-flight N]
+     *             [--max-plies N] [--resign SCORE] [--resign-plies N]
+     *             [--draw-ply N] [--draw-score SCORE] [--draw-plies N]
+     *             [--tablebase true|false]}
+     * @throws IOException          if the opening suite can't be read
+     * @throws InterruptedException if interrupted while waiting for the games
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] levels = { 1, 4, 7, 10 };
+        int rounds = 1;
+        String openingFile = null;
+        int openingPlies = 8;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int inFlight = 1024;
+        Adjudicator adjudicator = new Adjudicator();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--levels":
+                    levels = parseLevels(args[i + 1]);
+                    break;
+                case "--rounds":
+                    rounds = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--openings":
+                    openingFile = args[i + 1];
+                    break;
+                case "--opening-plies":
+                    openingPlies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--in-flight":
+                    inFlight = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    if (!adjudicator.setOption(args[i], args[i + 1])) {
+                        System.err.println("Unknown option: " + args[i]);
+                        System.exit(1);
+                    }
+            }
+        }
+
+        List<Opening> openings = openingFile == null ? Opening.builtIn()
+                : Opening.load(new File(openingFile), openingPlies);
+        if (openings.isEmpty()) {
+            System.err.println("No openings in " + openingFile);
+            System.exit(1);
+        }
+
+        // the engine announces the book and tablebases it loads; keep the report clean
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        Tournament tournament = new Tournament(levels, openings, rounds, adjudicator);
+        out.println(String.format(Locale.ROOT, "%d games: %d openings, %d rounds, %d search threads, %s",
+                tournament.getGameCount(), openings.size(), rounds, threads, adjudicator));
+        long start = System.nanoTime();
+        tournament.run(threads, inFlight, out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        out.println();
+        tournament.getMatrix().print(out);
+        out.println(String.format(Locale.ROOT, "%.1f s, %.2f games/s", seconds,
+                tournament.getMatrix().getGames() / seconds));
+        if (tournament.getFailedGames() > 0) {
+            out.println(tournament.getFailedGames() + " games failed");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package Chess.uci;
+
+/**
+ * The limits of one search, as given by the UCI {@code go} command
+ * <p>
+ * A GUI either fixes the time ({@code movetime}), the nodes or the depth,
+ * gives both clocks ({@code wtime btime winc binc movestogo}) and leaves it
+ * to the engine how much to use, or says {@code infinite} and sends
+ * {@code stop} later. With {@code ponder} the engine thinks on the opponent's
+ * time and the clock only starts at {@code ponderhit}.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class SearchLimits {
+
+    /** Moves the clock is shared over when the GUI doesn't say. */
+    public static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /** Kept back from every move for the GUI and the pipes, in milliseconds. */
+    public static final long MOVE_OVERHEAD = 30;
+
+    int depth;
+    long nodes;
+    long moveTime;
+    long whiteTime = -1;
+    long blackTime = -1;
+    long whiteIncrement;
+    long blackIncrement;
+    int movesToGo;
+    boolean infinite;
+    boolean ponder;
+
+    /**
+     * Reads the arguments of a {@code go} command; unknown ones are skipped
+     *
+     * @param tokens the command split at spaces, starting with "go"
+     * @return the limits
+     * @throws NumberFormatException if a limit isn't a number
+     */
+    public static SearchLimits parse(String[] tokens) {
+        SearchLimits limits = new SearchLimits();
+        for (int i = 1; i < tokens.length; i++) {
+            String value = i + 1 < tokens.length ? tokens[i + 1] : "0";
+            switch (tokens[i]) {
+                case "depth":
+                    limits.depth = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "nodes":
+                    limits.nodes = Long.parseLong(value);
+                    i++;
+                    break;
+                case "movetime":
+                    limits.moveTime = Long.parseLong(value);
+                    i++;
+                    break;
+                case "wtime":
+                    limits.whiteTime = Long.parseLong(value);
+                    i++;
+                    break;
+                case "btime":
+                    limits.blackTime = Long.parseLong(value);
+                    i++;
+                    break;
+                case "winc":
+                    limits.whiteIncrement = Long.parseLong(value);
+                    i++;
+                    break;
+                case "binc":
+                    limits.blackIncrement = Long.parseLong(value);
+                    i++;
+                    break;
+                case "movestogo":
+                    limits.movesToGo = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "infinite":
+                    limits.infinite = true;
+                    break;
+                case "ponder":
+                    limits.ponder = true;
+                    break;
+                default:
+                    break; // searchmoves, mate: not supported
+            }
+        }
+        return limits;
+    }
+
+    /**
+     * Works out how long to think
+     *
+     * @param white whether White is to move
+     * @return the time in milliseconds, or -1 to think until the search is
+     *         done or stopped
+     */
+    public long timeBudget(boolean white) {
+        if (infinite) {
+            return -1;
+        }
+        if (moveTime > 0) {
+            return Math.max(1, moveTime - MOVE_OVERHEAD);
+        }
+        long time = white ? whiteTime : blackTime;
+        if (time < 0) {
+            return -1;
+        }
+        long increment = white ? whiteIncrement : blackIncrement;
+        long budget = time / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+        // never more than a third of what is left, so one long think can't lose on time
+        return Math.max(1, Math.min(budget, time / 3) - MOVE_OVERHEAD);
+    }
+
+    /** @return the depth asked for, or 0 for none */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** @return the nodes asked for, or 0 for no limit */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** @return whether the search runs until {@code stop} */
+    public boolean isInfinite() {
+        return infinite;
+    }
+
+    /** @return whether the search starts on the opponent's time */
+    public boolean isPonder() {
+        return ponder;
+    }
+}
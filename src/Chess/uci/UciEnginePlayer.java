@@ -0,0 +1,381 @@
+package Chess.uci;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Board;
+import Chess.engine.Fen;
+import Chess.engine.Move;
+import Chess.engine.Player;
+import Chess.engine.RuleEngine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A player whose moves come from a UCI engine running as a separate process
+ * <p>
+ * The engine is started once and kept for the whole game. It runs in a JVM
+ * (or native program) of its own, so its garbage collection and CPU load never
+ * stall the window, and any UCI engine can be played against, e.g. Stockfish,
+ * or our own AI through {@link UciMain} to compare a change with the old
+ * version.
+ * </p>
+ * <p>
+ * Everything the engine prints is read by a reader thread of its own: the
+ * {@code info} lines are kept as they come in and the answers
+ * ({@code uciok}, {@code readyok}, {@code bestmove}) are queued for whoever
+ * waits for them, with a timeout, so a hung or crashed engine only costs
+ * that move. The handshake happens with the first move, off the GUI thread.
+ * </p>
+ * <p>
+ * Every move sends the position since the last capture or pawn move, as
+ * {@code position fen ... moves ...} (or {@code startpos}), so the engine
+ * sees the repetitions it could walk into or claim. The player only gets the
+ * board, so it keeps the moves itself: its own, and the opponent's reply
+ * found by playing each legal one on the board it left. When that doesn't
+ * lead to the board it is given, e.g. after an undo or a loaded game, it
+ * starts over from that board. The AI level sets the time per move and, if
+ * the engine has one, its {@code Skill Level} option.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class UciEnginePlayer extends Player {
+
+    /** Longest wait for {@code uciok} and {@code readyok}. */
+    public static final long HANDSHAKE_TIMEOUT_MS = 10_000;
+
+    /** Thinking time per move for every AI level. */
+    public static final int THINK_MS_PER_LEVEL = 300;
+
+    // how much longer than its time the engine may take before it's told to stop
+    private static final long ANSWER_GRACE_MS = 5_000;
+
+    private static final String[] PROMOTIONS = { "Queen", "Rook", "Bishop", "Knight" };
+
+    // queued when the engine's output ends, a string no engine sends
+    private static final String GONE = "\u0000gone";
+
+    private final int level;
+    private final Process process;
+    private final PrintWriter toEngine;
+    private final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+    private final Map<String, int[]> spinOptions = new ConcurrentHashMap<>();
+    private final Thread shutdownHook;
+
+    private volatile String engineName;
+    private volatile String lastInfo;
+    private boolean ready;
+
+    // the game as the engine is told it: a start position and the moves since, and the board after our last move
+    private String startFen;
+    private final List<String> movesSince = new ArrayList<>();
+    private Board afterOwnMove;
+
+    /**
+     * Starts the engine. It gets {@code uci} right away but the answer is
+     * only waited for with the first move.
+     *
+     * @param color   "White" or "Black"
+     * @param command the program and its arguments, e.g. from
+     *                {@link #parseCommand(String)}
+     * @param level   the AI level (1-10)
+     * @throws IOException if the program can't be started
+     */
+    public UciEnginePlayer(String color, List<String> command, int level) throws IOException {
+        super(new File(command.get(0)).getName(), color);
+        this.level = level;
+
+        process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        toEngine = new PrintWriter(process.getOutputStream(), true, StandardCharsets.UTF_8);
+        BufferedReader fromEngine = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        Thread reader = new Thread(() -> readEngine(fromEngine), "UCI engine " + color);
+        reader.setDaemon(true);
+        reader.start();
+
+        // an engine left running would outlive the window
+        shutdownHook = new Thread(process::destroyForcibly);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        send("uci");
+    }
+
+    /**
+     * Lets the engine think about the board and returns its move
+     *
+     * @param board the board, with this player to move
+     * @return the engine's move with its promotion piece, or {@code null} if
+     *         it has none, didn't answer in time or answered an illegal move
+     */
+    @Override
+    public synchronized Move makeMove(Board board) {
+        if (!ready && !handshake()) {
+            return null;
+        }
+        int thinkTime = level * THINK_MS_PER_LEVEL;
+        if (!followOpponent(board)) {
+            startFen = Fen.toFen(board.snapshot(), color);
+            movesSince.clear();
+        }
+        send((startFen.equals(Fen.START) ? "position startpos" : "position fen " + startFen)
+                + (movesSince.isEmpty() ? "" : " moves " + String.join(" ", movesSince)));
+        afterOwnMove = null;
+        send("go movetime " + thinkTime);
+
+        String answer = await("bestmove", thinkTime + ANSWER_GRACE_MS);
+        if (answer == null && process.isAlive()) {
+            send("stop");
+            answer = await("bestmove", ANSWER_GRACE_MS);
+        }
+        if (answer == null) {
+            System.err.println("ERROR: " + getName() + " did not answer");
+            return null;
+        }
+
+        String[] tokens = answer.split("\\s+");
+        if (tokens.length < 2 || tokens[1].equals(UciMoves.NULL_MOVE)) {
+            return null;
+        }
+        Move move = UciMoves.find(new RuleEngine(board).getLegalMoves(color), tokens[1]);
+        if (move == null) {
+            System.err.println("ERROR: " + getName() + " played an illegal move: " + tokens[1]);
+            return null;
+        }
+        move.setPromotionPieces(UciMoves.promotion(tokens[1]));
+        String promotion = AIPlayer.promotionFor(move) == null ? null
+                : move.getPromotionPiece() != null ? move.getPromotionPiece() : "Queen";
+        afterOwnMove = play(board, move, promotion);
+        movesSince.add(UciMoves.toUci(move));
+        return move;
+    }
+
+    // adds the opponent's move since our last one; false if the board didn't come from there
+    private boolean followOpponent(Board board) {
+        // after a capture or pawn move nothing before can repeat, the board alone says it all
+        if (afterOwnMove == null || board.getHalfmoveClock() == 0) {
+            return false;
+        }
+        String opponent = color.equals("White") ? "Black" : "White";
+        String now = position(board);
+        for (Move reply : new RuleEngine(afterOwnMove).getLegalMoves(opponent)) {
+            boolean promotes = AIPlayer.promotionFor(reply) != null;
+            for (String promotion : promotes ? PROMOTIONS : new String[] { null }) {
+                if (position(play(afterOwnMove, reply, promotion)).equals(now)) {
+                    reply.setPromotionPieces(promotion);
+                    movesSince.add(UciMoves.toUci(reply));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Board play(Board board, Move move, String promotion) {
+        Board after = board.copy();
+        after.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                move.getTo().getCol(), promotion, false);
+        return after;
+    }
+
+    // the FEN without its move counters, with this player to move
+    private String position(Board board) {
+        String[] fields = Fen.toFen(board.snapshot(), color).split(" ");
+        return fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3];
+    }
+
+    /**
+     * @return the name the engine gave in {@code id name}, or its program's
+     *         file name until then
+     */
+    @Override
+    public String getName() {
+        return engineName != null ? engineName : name;
+    }
+
+    /**
+     * @return the last {@code info} line with a score, e.g.
+     *         {@code info depth 12 score cp 31 pv e2e4 e7e5}, or {@code null}
+     *         if there was none yet
+     */
+    public String getLastInfo() {
+        return lastInfo;
+    }
+
+    /** @return true while the engine process runs */
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * Tells the engine to quit and kills it if it doesn't within a second.
+     * A move it is thinking about returns {@code null}.
+     */
+    public void close() {
+        send("quit");
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // already shutting down, the hook runs anyway
+        }
+    }
+
+    // uci, the skill level and a new game; true once the engine is ready
+    private boolean handshake() {
+        if (await("uciok", HANDSHAKE_TIMEOUT_MS) == null) {
+            System.err.println("ERROR: " + getName() + " is not a UCI engine");
+            return false;
+        }
+        int[] skill = spinOptions.get("skill level");
+        if (skill != null) {
+            int value = skill[0] + (skill[1] - skill[0]) * (level - 1) / 9;
+            send("setoption name Skill Level value " + value);
+        }
+        send("ucinewgame");
+        send("isready");
+        ready = await("readyok", HANDSHAKE_TIMEOUT_MS) != null;
+        if (!ready) {
+            System.err.println("ERROR: " + getName() + " is not ready");
+        }
+        return ready;
+    }
+
+    private void send(String command) {
+        toEngine.println(command);
+    }
+
+    // the next answer starting with the prefix; older answers, e.g. a late bestmove, are dropped
+    private String await(String prefix, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        try {
+            while (true) {
+                String line = replies.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    return null;
+                }
+                if (line == GONE) {
+                    replies.add(GONE); // for the next one waiting
+                    return null;
+                }
+                if (line.startsWith(prefix)) {
+                    return line;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // runs on the reader thread until the engine closes its output
+    private void readEngine(BufferedReader in) {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("info ")) {
+                    if (line.contains(" score ")) {
+                        lastInfo = line;
+                    }
+                } else if (line.startsWith("id name ")) {
+                    engineName = line.substring("id name ".length());
+                } else if (line.startsWith("option name ")) {
+                    readOption(line);
+                } else if (line.equals("uciok") || line.equals("readyok") || line.startsWith("bestmove")) {
+                    replies.add(line);
+                }
+            }
+        } catch (IOException e) {
+            // the pipe breaks when the engine is killed
+        }
+        replies.add(GONE);
+    }
+
+    // option name Skill Level type spin default 20 min 0 max 20
+    private void readOption(String line) {
+        int type = line.indexOf(" type ");
+        if (type < 0 || !line.startsWith(" type spin", type)) {
+            return;
+        }
+        String optionName = line.substring("option name ".length(), type).toLowerCase();
+        int[] range = { 0, 0 };
+        String[] tokens = line.substring(type).trim().split("\\s+");
+        for (int i = 0; i + 1 < tokens.length; i++) {
+            try {
+                if (tokens[i].equals("min")) {
+                    range[0] = Integer.parseInt(tokens[i + 1]);
+                } else if (tokens[i].equals("max")) {
+                    range[1] = Integer.parseInt(tokens[i + 1]);
+                }
+            } catch (NumberFormatException e) {
+                return;
+            }
+        }
+        spinOptions.put(optionName, range);
+    }
+
+    /**
+     * Splits a command line into the program and its arguments; double
+     * quotes keep spaces in a path together
+     *
+     * @param commandLine e.g. {@code "C:\Program Files\stockfish.exe"}
+     * @return the words, empty if there are none
+     */
+    public static List<String> parseCommand(String commandLine) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean quoted = false;
+        boolean inWord = false;
+        for (char ch : commandLine.toCharArray()) {
+            if (ch == '"') {
+                quoted = !quoted;
+                inWord = true;
+            } else if (Character.isWhitespace(ch) && !quoted) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else {
+                word.append(ch);
+                inWord = true;
+            }
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * @return the command line that runs our own AI as a UCI engine with the
+     *         Java and classpath of this program
+     */
+    public static String ownEngineCommand() {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        return quote(java) + " -cp " + quote(System.getProperty("java.class.path")) + " " + UciMain.class.getName();
+    }
+
+    private static String quote(String word) {
+        return word.contains(" ") ? "\"" + word + "\"" : word;
+    }
+}
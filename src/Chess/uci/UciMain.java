@@ -0,0 +1,435 @@
+package Chess.uci;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Board;
+import Chess.engine.EvalCache;
+import Chess.engine.Fen;
+import Chess.engine.Move;
+import Chess.engine.Position;
+import Chess.engine.RuleEngine;
+import Chess.engine.SearchListener;
+import Chess.tablebase.Tablebase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the AI as a UCI engine over standard input and output
+ * <p>
+ * UCI is the text protocol chess GUIs and tournament managers use to talk to
+ * engines, so with this the {@link AIPlayer} can play in Arena, Cute Chess,
+ * fast-chess and the like without any window of its own. Commands are read on
+ * the main thread and every search runs on a thread of its own, so
+ * {@code isready} and {@code stop} are answered while it thinks. The command
+ * for a GUI is {@code java -cp Chess.jar Chess.uci.UciMain}.
+ * </p>
+ * <p>
+ * Supported are {@code uci}, {@code isready}, {@code ucinewgame},
+ * {@code setoption} (Hash, Threads, Skill Level, Ponder, Clear Hash),
+ * {@code position startpos|fen ... [moves ...]}, {@code go} with
+ * {@code depth nodes movetime wtime btime winc binc movestogo infinite ponder},
+ * {@code stop}, {@code ponderhit} and {@code quit}, and {@code d} prints the
+ * board. While level 10 searches,
+ * an {@code info} line goes out for every move it scores and a full one with
+ * score and pv whenever the best move changes. The look-ahead is always two
+ * plies deep, so a {@code depth} other than that gets an {@code info string}
+ * saying so; time and node limits are checked between two moves of the
+ * position. {@code isready} loads the book and endgame tables.
+ * </p>
+ * <p>
+ * Scores are in the evaluator's units times ten, which puts the pieces at
+ * about the usual centipawns; tablebase wins and the mate search's mates are
+ * sent as mates, and a book move gets the evaluation after it.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class UciMain implements SearchListener {
+
+    /** The depth of the level 10 look-ahead in plies. */
+    public static final int SEARCH_DEPTH = 2;
+
+    /** Largest Hash in MB that stays on the heap; bigger ones go off-heap. */
+    public static final int MAX_HEAP_HASH_MB = 1024;
+
+    private static final int MAX_HASH_MB = 16384;
+    private static final int MAX_THREADS = 256;
+    private static final int CENTIPAWNS_PER_UNIT = 10;
+    private static final int MATE_RANGE = 1000;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+
+    // the position the GUI set up: where it started and the moves played since
+    private String positionStart;
+    private final List<String> positionMoves = new ArrayList<>();
+    private Board board;
+    private String sideToMove;
+
+    private int skillLevel = 10;
+    private int threads = 1;
+    private AIPlayer whiteAI;
+    private AIPlayer blackAI;
+
+    // the running search; the flags are read by the search thread between two moves
+    private Thread searchThread;
+    private AIPlayer searchingAI;
+    private SearchLimits limits;
+    private volatile boolean stopped;
+    private volatile boolean pondering;
+    private volatile long deadline;
+    private long startTime;
+    private long startNodes;
+    private Move bestMove;
+    private int bestScore;
+
+    /**
+     * Creates an engine that talks over the given streams
+     *
+     * @param in  where the commands come from
+     * @param out where the answers go
+     */
+    public UciMain(BufferedReader in, PrintStream out) {
+        this.in = in;
+        this.out = out;
+        setStartPosition(Fen.START);
+    }
+
+    /**
+     * Reads and answers commands until {@code quit} or the end of the input
+     *
+     * @throws IOException if the input can't be read
+     */
+    public void run() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!handle(line.trim())) {
+                break;
+            }
+        }
+        stopSearch();
+    }
+
+    /**
+     * Answers one command
+     *
+     * @param line the command
+     * @return {@code false} after {@code quit}
+     */
+    public boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        try {
+            switch (tokens[0]) {
+                case "uci":
+                    send("id name Chess Group3");
+                    send("id author Group3");
+                    send("option name Hash type spin default 1 min 1 max " + MAX_HASH_MB);
+                    send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                    send("option name Skill Level type spin default 10 min 1 max 10");
+                    send("option name Ponder type check default false");
+                    send("option name Clear Hash type button");
+                    send("uciok");
+                    break;
+                case "isready":
+                    // the book and endgame tables now, not on the clock of the first go that needs them
+                    AIPlayer.loadTables();
+                    send("readyok");
+                    break;
+                case "ucinewgame":
+                    stopSearch();
+                    EvalCache.shared().clear();
+                    setStartPosition(Fen.START);
+                    break;
+                case "setoption":
+                    stopSearch();
+                    setOption(line);
+                    break;
+                case "position":
+                    stopSearch();
+                    setPosition(tokens);
+                    break;
+                case "go":
+                    stopSearch();
+                    startSearch(SearchLimits.parse(tokens));
+                    break;
+                case "stop":
+                    stopSearch();
+                    break;
+                case "ponderhit":
+                    ponderHit();
+                    break;
+                case "quit":
+                    return false;
+                case "d":
+                    send(board.toString());
+                    send("Fen: " + Fen.toFen(board.snapshot(), sideToMove));
+                    break;
+                default:
+                    break; // debug, register and unknown commands are ignored, as UCI asks
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+        }
+        return true;
+    }
+
+    // setoption name <id> [value <x>]; option names may have spaces
+    private void setOption(String line) {
+        int nameAt = line.indexOf(" name ");
+        int valueAt = line.indexOf(" value ");
+        if (nameAt < 0) {
+            return;
+        }
+        String name = (valueAt < 0 ? line.substring(nameAt + 6) : line.substring(nameAt + 6, valueAt)).trim();
+        String value = valueAt < 0 ? "" : line.substring(valueAt + 7).trim();
+        switch (name.toLowerCase()) {
+            case "hash":
+                int megabytes = clamp(Integer.parseInt(value), 1, MAX_HASH_MB);
+                if (megabytes > MAX_HEAP_HASH_MB) {
+                    EvalCache.configureSharedOffHeap((long) megabytes << 20, false);
+                } else {
+                    EvalCache.configureShared((megabytes << 20) / Long.BYTES);
+                }
+                // the evaluators hold on to the cache they were made with
+                whiteAI = null;
+                blackAI = null;
+                break;
+            case "threads":
+                threads = clamp(Integer.parseInt(value), 1, MAX_THREADS);
+                break;
+            case "skill level":
+                skillLevel = clamp(Integer.parseInt(value), 1, 10);
+                whiteAI = null;
+                blackAI = null;
+                break;
+            case "clear hash":
+                EvalCache.shared().clear();
+                break;
+            default:
+                break; // Ponder only tells us the GUI may ponder
+        }
+    }
+
+    // position startpos|fen <fen> [moves <m1> ...]
+    private void setPosition(String[] tokens) {
+        int movesAt = Arrays.asList(tokens).indexOf("moves");
+        int end = movesAt < 0 ? tokens.length : movesAt;
+        String start;
+        if (tokens.length > 1 && tokens[1].equals("startpos")) {
+            start = "startpos";
+        } else if (tokens.length > 2 && tokens[1].equals("fen")) {
+            start = String.join(" ", Arrays.copyOfRange(tokens, 2, end));
+        } else {
+            throw new IllegalArgumentException("Bad position command");
+        }
+        List<String> moves = movesAt < 0 ? new ArrayList<>()
+                : Arrays.asList(tokens).subList(movesAt + 1, tokens.length);
+
+        // GUIs send the whole game every time; only play the moves that are new
+        if (!start.equals(positionStart) || moves.size() < positionMoves.size()
+                || !moves.subList(0, positionMoves.size()).equals(positionMoves)) {
+            setStartPosition(start.equals("startpos") ? Fen.START : start);
+            positionStart = start;
+        }
+        for (String text : moves.subList(positionMoves.size(), moves.size())) {
+            if (!playMove(text)) {
+                throw new IllegalArgumentException("Illegal move " + text + ", ignoring the rest");
+            }
+        }
+    }
+
+    private void setStartPosition(String fen) {
+        Fen parsed = Fen.parse(fen);
+        board = parsed.getPosition().toBoard();
+        sideToMove = parsed.getSideToMove();
+        positionMoves.clear();
+        positionStart = "";
+    }
+
+    private boolean playMove(String text) {
+        Move move = UciMoves.find(new RuleEngine(board).getLegalMoves(sideToMove), text);
+        if (move == null) {
+            return false;
+        }
+        String promotion = AIPlayer.promotionFor(move) == null ? null
+                : UciMoves.promotion(text) != null ? UciMoves.promotion(text) : "Queen";
+        board.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                move.getTo().getCol(), promotion, false);
+        sideToMove = sideToMove.equals("White") ? "Black" : "White";
+        positionMoves.add(text);
+        return true;
+    }
+
+    private void startSearch(SearchLimits limits) {
+        if (limits.getDepth() > 0 && limits.getDepth() != SEARCH_DEPTH) {
+            send("info string depth " + limits.getDepth() + " is not supported, the look-ahead is always "
+                    + SEARCH_DEPTH + " plies; time and node limits still apply");
+        }
+        boolean white = sideToMove.equals("White");
+        AIPlayer ai = ai(white);
+        Position position = board.snapshot();
+
+        this.limits = limits;
+        searchingAI = ai;
+        stopped = false;
+        pondering = limits.isPonder();
+        startTime = System.currentTimeMillis();
+        long budget = limits.timeBudget(white);
+        deadline = budget < 0 ? 0 : startTime + budget;
+        startNodes = ai.getNodes();
+        synchronized (this) {
+            bestMove = null;
+            bestScore = Integer.MIN_VALUE;
+        }
+
+        searchThread = new Thread(() -> search(ai, position), "UCI search");
+        searchThread.start();
+    }
+
+    private void search(AIPlayer ai, Position position) {
+        Move move = null;
+        try {
+            move = ai.makeMove(position.toBoard());
+        } catch (RuntimeException e) {
+            send("info string Search failed: " + e);
+        }
+        synchronized (this) {
+            // the move of an infinite or pondering search waits for stop or ponderhit
+            while ((limits.isInfinite() || pondering) && !stopped) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            if (move == null) {
+                send("bestmove " + UciMoves.NULL_MOVE);
+                return;
+            }
+            boolean scored = bestMove != null && UciMoves.toUci(bestMove).equals(UciMoves.toUci(move));
+            // a book move has no search score; the evaluation after it stands in
+            int score = scored ? bestScore : staticScore(ai, position, move);
+            send(info(score(score)) + " pv " + UciMoves.toUci(move));
+            send("bestmove " + UciMoves.toUci(move));
+        }
+    }
+
+    // the evaluation of the position after a move, for the side that plays it
+    private static int staticScore(AIPlayer ai, Position position, Move move) {
+        Board after = position.toBoard();
+        after.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                move.getTo().getCol(), AIPlayer.promotionFor(move), false);
+        return ai.getEvaluator().evaluate(after, ai.getColor());
+    }
+
+    // stops the running search, if any, and waits for its bestmove
+    private void stopSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        synchronized (this) {
+            stopped = true;
+            notifyAll();
+        }
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    // the opponent played the expected move: the clock runs from now on
+    private void ponderHit() {
+        if (searchThread == null) {
+            return;
+        }
+        long budget = limits.timeBudget(sideToMove.equals("White"));
+        deadline = budget < 0 ? 0 : System.currentTimeMillis() + budget;
+        synchronized (this) {
+            pondering = false;
+            notifyAll();
+        }
+    }
+
+    private AIPlayer ai(boolean white) {
+        if (whiteAI == null) {
+            whiteAI = new AIPlayer("White AI", "White", skillLevel);
+            blackAI = new AIPlayer("Black AI", "Black", skillLevel);
+            whiteAI.setSearchListener(this);
+            blackAI.setSearchListener(this);
+        }
+        whiteAI.setThreads(threads);
+        blackAI.setThreads(threads);
+        return white ? whiteAI : blackAI;
+    }
+
+    @Override
+    public boolean isStopped() {
+        if (stopped) {
+            return true;
+        }
+        if (pondering) {
+            return false;
+        }
+        return (deadline > 0 && System.currentTimeMillis() >= deadline)
+                || (limits.getNodes() > 0 && searchingAI.getNodes() - startNodes >= limits.getNodes());
+    }
+
+    @Override
+    public synchronized void rootMoveSearched(Move move, int score, int searched, int total) {
+        send(info("") + " currmove " + UciMoves.toUci(move) + " currmovenumber " + searched);
+        if (score > bestScore) {
+            bestScore = score;
+            bestMove = move;
+            send(info(score(score)) + " pv " + UciMoves.toUci(move));
+        }
+    }
+
+    // "info depth ... nodes ... nps ... time ..." with the score in between if there is one
+    private String info(String score) {
+        long time = System.currentTimeMillis() - startTime;
+        long nodes = searchingAI.getNodes() - startNodes;
+        return "info depth " + SEARCH_DEPTH + score + " nodes " + nodes + " nps " + nodes * 1000 / Math.max(1, time)
+                + " time " + time;
+    }
+
+    private static String score(int score) {
+        if (Math.abs(score) > Tablebase.MATE_SCORE - MATE_RANGE) {
+            int plies = Tablebase.MATE_SCORE - Math.abs(score);
+            int moves = (plies + 1) / 2 + 1; // the look-ahead's own two plies come first
+            return " score mate " + (score > 0 ? moves : -moves);
+        }
+        return " score cp " + score * CENTIPAWNS_PER_UNIT;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private synchronized void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+
+    /**
+     * Command line entry point
+     *
+     * @param args not used
+     * @throws IOException if standard input can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintStream protocol = System.out;
+        // the engine prints messages of its own; they go to stderr so they can't mix with the protocol
+        System.setOut(System.err);
+        new UciMain(in, protocol).run();
+    }
+}
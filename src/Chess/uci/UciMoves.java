@@ -0,0 +1,98 @@
+package Chess.uci;
+
+import Chess.engine.AIPlayer;
+import Chess.engine.Move;
+
+import java.util.List;
+
+/**
+ * Moves in the notation of the UCI protocol
+ * <p>
+ * UCI writes a move as the square it starts on and the square it goes to,
+ * plus the piece a pawn promotes to: {@code e2e4}, {@code e1g1} for castling
+ * short, {@code e7e8q}. Squares are rows and columns here, row 0 being
+ * rank 1 and column 0 the a-file.
+ * </p>
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public final class UciMoves {
+
+    /** What a side with no legal move answers instead of a move. */
+    public static final String NULL_MOVE = "0000";
+
+    private UciMoves() {
+    }
+
+    /**
+     * Writes a move. A pawn reaching the last rank without a promotion piece
+     * is written as promoting to a queen, as the AI does.
+     *
+     * @param move the move
+     * @return e.g. "e2e4" or "e7e8q"
+     */
+    public static String toUci(Move move) {
+        String promotion = move.getPromotionPiece() != null ? move.getPromotionPiece() : AIPlayer.promotionFor(move);
+        return square(move.getFrom().getRow(), move.getFrom().getCol())
+                + square(move.getTo().getRow(), move.getTo().getCol())
+                + (promotion == null ? "" : promotion.equals("Knight") ? "n" : promotion.substring(0, 1).toLowerCase());
+    }
+
+    /**
+     * Finds the move a text means among the legal moves
+     *
+     * @param legalMoves the legal moves of the position
+     * @param text       the move, e.g. "g1f3"
+     * @return the legal move from and to those squares, or {@code null} if
+     *         there is none or the text isn't a move
+     */
+    public static Move find(List<Move> legalMoves, String text) {
+        if (!text.matches("[a-h][1-8][a-h][1-8][qrbn]?")) {
+            return null;
+        }
+        int fromCol = text.charAt(0) - 'a';
+        int fromRow = text.charAt(1) - '1';
+        int toCol = text.charAt(2) - 'a';
+        int toRow = text.charAt(3) - '1';
+        for (Move move : legalMoves) {
+            if (move.getFrom().getRow() == fromRow && move.getFrom().getCol() == fromCol
+                    && move.getTo().getRow() == toRow && move.getTo().getCol() == toCol) {
+                return move;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param text the move, e.g. "e7e8n"
+     * @return "Queen", "Rook", "Bishop" or "Knight", or {@code null} if the
+     *         move has no promotion letter
+     */
+    public static String promotion(String text) {
+        if (text.length() < 5) {
+            return null;
+        }
+        switch (text.charAt(4)) {
+            case 'q':
+                return "Queen";
+            case 'r':
+                return "Rook";
+            case 'b':
+                return "Bishop";
+            case 'n':
+                return "Knight";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param row the row, 0 being rank 1
+     * @param col the column, 0 being the a-file
+     * @return the square's name, e.g. "e4"
+     */
+    public static String square(int row, int col) {
+        return "" + (char) ('a' + col) + (char) ('1' + row);
+    }
+}
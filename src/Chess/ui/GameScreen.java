@@ -1,5 +1,6 @@
 package Chess.ui;
 import Chess.*;
+import Chess.engine.*;
 import javax.swing.*;
 import java.awt.*;
 /**
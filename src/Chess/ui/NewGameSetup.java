@@ -22,6 +22,7 @@ import javax.swing.DefaultListCellRenderer;
 import javax.swing.Icon;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JList;
@@ -29,14 +30,16 @@ import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
 import javax.swing.JSlider;
+import javax.swing.JTextField;
 import javax.swing.SwingConstants;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
-import Chess.AIPlayer;
+import Chess.engine.AIPlayer;
 import Chess.GameManager;
-import Chess.HumanPlayer;
-import Chess.Player;
+import Chess.engine.HumanPlayer;
+import Chess.engine.Player;
+import Chess.uci.UciEnginePlayer;
 
 /**
  * The NewGameSetup class provides the user interface for configuring a new
@@ -55,6 +58,9 @@ public class NewGameSetup extends JPanel {
 
     private JComboBox<String> modeBox;
     private JSlider aiSlider;
+    private JTextField engineField;
+    private JButton browseBtn;
+    private JPanel enginePanel;
     private JRadioButton whiteBtn, blackBtn;
     private JLabel lblAi;
     private JPanel summaryBox;
@@ -66,6 +72,7 @@ public class NewGameSetup extends JPanel {
     private JLabel titleLabel;
     private JLabel lblMode;
     private JLabel lblColor;
+    private JLabel lblEngine;
     private JLabel summaryTitle;
     private JLabel beginnerLabel;
     private JLabel expertLabel;
@@ -186,7 +193,7 @@ public class NewGameSetup extends JPanel {
         mainCard.add(lblMode, c);
 
         modeBox = new JComboBox<>(new String[] {
-                "Human vs Human", "Human vs AI", "AI vs AI"
+                "Human vs Human", "Human vs AI", "Human vs UCI Engine", "AI vs AI"
         });
         styleComboBox(modeBox);
         modeBox.setSelectedIndex(1);
@@ -195,6 +202,39 @@ public class NewGameSetup extends JPanel {
         c.insets = new Insets(5, 0, 15, 0);
         mainCard.add(modeBox, c);
 
+        // === UCI Engine ===
+        lblEngine = new JLabel("Engine Command");
+        lblEngine.setForeground(theme.getPrimaryText());
+        lblEngine.setFont(ResourceManager.uiFont(14));
+        c.gridy++;
+        c.insets = new Insets(10, 0, 5, 0);
+        mainCard.add(lblEngine, c);
+
+        // our own AI as an engine until another one is picked
+        engineField = new JTextField(UciEnginePlayer.ownEngineCommand());
+        styleTextField(engineField);
+        browseBtn = new JButton("Browse...");
+        browseBtn.setFont(ResourceManager.uiFont(13));
+        browseBtn.setFocusPainted(false);
+        browseBtn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        browseBtn.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Choose a UCI engine");
+            if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+                String path = chooser.getSelectedFile().getAbsolutePath();
+                engineField.setText(path.contains(" ") ? "\"" + path + "\"" : path);
+                updateSummary();
+            }
+        });
+
+        enginePanel = new JPanel(new BorderLayout(10, 0));
+        enginePanel.setOpaque(false);
+        enginePanel.add(engineField, BorderLayout.CENTER);
+        enginePanel.add(browseBtn, BorderLayout.EAST);
+        c.gridy++;
+        c.insets = new Insets(5, 0, 15, 0);
+        mainCard.add(enginePanel, c);
+
         // === AI Difficulty ===
         lblAi = new JLabel("AI Difficulty: 5 / 10");
         lblAi.setForeground(theme.getPrimaryText());
@@ -322,6 +362,12 @@ public class NewGameSetup extends JPanel {
                     blackPlayer = new AIPlayer("AI Black", "Black", aiLevel);
                     break;
 
+                case "Human vs UCI Engine":
+                    // the engine process is only started by the GameManager
+                    whitePlayer = null;
+                    blackPlayer = null;
+                    break;
+
                 default:
                     whitePlayer = new HumanPlayer("Human 1", "White");
                     blackPlayer = new HumanPlayer("Human 2", "Black");
@@ -330,7 +376,7 @@ public class NewGameSetup extends JPanel {
 
             // Players are currently not passed into GameManager here, but
             // we preserve your existing signature.
-            manager.startGame(aiLevel, gameMode, playerWhite);
+            manager.startGame(aiLevel, gameMode, playerWhite, engineField.getText());
 
         });
         c.gridy++;
@@ -402,6 +448,24 @@ public class NewGameSetup extends JPanel {
                 new EmptyBorder(8, 12, 8, 12)));
     }
 
+    /**
+     * Applies themed styling to text fields, matching the combo boxes.
+     *
+     * @param field the text field to style
+     */
+    private void styleTextField(JTextField field) {
+        Color bg = theme.isDarkMode() ? new Color(28, 28, 28) : Color.WHITE;
+        Color borderColor = theme.isDarkMode() ? new Color(60, 60, 60) : new Color(200, 200, 200);
+
+        field.setBackground(bg);
+        field.setForeground(theme.getPrimaryText());
+        field.setCaretColor(theme.getPrimaryText());
+        field.setFont(ResourceManager.uiFont(13));
+        field.setBorder(new CompoundBorder(
+                new LineBorder(borderColor, 1, true),
+                new EmptyBorder(8, 12, 8, 12)));
+    }
+
     /**
      * Customizes the slider UI for AI difficulty selection with a themed look.
      *
@@ -550,16 +614,24 @@ public class NewGameSetup extends JPanel {
         int ai = aiSlider.getValue();
         String color = whiteBtn.isSelected() ? "White" : "Black";
 
+        boolean engine = mode.equals("Human vs UCI Engine");
         addSummaryLine("Mode: " + (mode.equals("Human vs Human") ? "Player vs Player"
-                : mode.equals("Human vs AI") ? "Player vs Computer" : "Computer vs Computer"));
+                : mode.equals("Human vs AI") ? "Player vs Computer"
+                : engine ? "Player vs UCI Engine" : "Computer vs Computer"));
         if (mode.equals("Human vs AI") || mode.equals("AI vs AI")) {
             addSummaryLine("AI Level: " + ai + " / 10");
         }
+        if (engine) {
+            addSummaryLine("Engine Level: " + ai + " / 10 (" + ai * UciEnginePlayer.THINK_MS_PER_LEVEL / 1000.0
+                    + " s per move)");
+        }
         if (!mode.equals("AI vs AI")) {
             addSummaryLine("You play as: " + color);
         }
 
-        boolean showAI = mode.equals("Human vs AI") || mode.equals("AI vs AI");
+        boolean showAI = !mode.equals("Human vs Human");
+        lblEngine.setVisible(engine);
+        enginePanel.setVisible(engine);
         lblAi.setVisible(showAI);
         aiSlider.setVisible(showAI);
         aiLabelsPanel.setVisible(showAI);
@@ -614,6 +686,10 @@ public class NewGameSetup extends JPanel {
             lblAi.setForeground(theme.getPrimaryText());
         }
 
+        if (lblEngine != null) {
+            lblEngine.setForeground(theme.getPrimaryText());
+        }
+
         // 🔹 PLAYER COLOR
         if (lblColor != null) {
             lblColor.setForeground(theme.getPrimaryText());
@@ -656,6 +732,7 @@ public class NewGameSetup extends JPanel {
 
         // Re-style components that depend on theme colors
         styleComboBox(modeBox);
+        styleTextField(engineField);
         styleSlider(aiSlider);
         styleSquareRadio(whiteBtn);
         styleSquareRadio(blackBtn);
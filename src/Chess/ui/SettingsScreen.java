@@ -28,7 +28,7 @@ import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
 
-import Chess.Board;
+import Chess.engine.Board;
 import Chess.GUIBoard;
 import Chess.GameManager;
 import Chess.ModernDialog;
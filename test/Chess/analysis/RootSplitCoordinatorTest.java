@@ -0,0 +1,121 @@
+package Chess.analysis;
+
+import Chess.engine.Fen;
+import Chess.engine.Move;
+import Chess.engine.RuleEngine;
+import Chess.uci.UciMoves;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the root split protocol against worker processes on this machine
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class RootSplitCoordinatorTest {
+
+    private static final String BACK_RANK = "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1";
+    private static final long TIMEOUT_MS = 120_000;
+
+    private RootSplitCoordinator coordinator;
+
+    @Before
+    public void setUp() throws IOException, InterruptedException {
+        coordinator = new RootSplitCoordinator(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+        coordinator.spawnLocalWorkers(2, 1);
+        assertTrue("workers did not connect", coordinator.awaitWorkers(2, 60_000));
+    }
+
+    @After
+    public void tearDown() {
+        coordinator.close();
+        ProcessHandle.current().children().forEach(ProcessHandle::destroyForcibly);
+    }
+
+    @Test
+    public void everyLegalMoveIsScoredAndRanked() throws Exception {
+        List<RootSplitCoordinator.Line> lines = coordinator.analyse(BACK_RANK, TIMEOUT_MS);
+
+        assertEquals(legalMoves(BACK_RANK), moves(lines));
+        assertRanked(lines);
+        assertEquals("a1a8", lines.get(0).getMove());
+        assertEquals("mate 1", lines.get(0).getScoreText());
+    }
+
+    @Test
+    public void aKilledWorkersMovesAreReassigned() throws Exception {
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<RootSplitCoordinator.Line>> analysis = runner.submit(
+                    () -> coordinator.analyse("startpos", TIMEOUT_MS));
+            // once the workers are into the list, one of them dies with a move outstanding
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (movesSearched() < 2 && !analysis.isDone() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            ProcessHandle worker = ProcessHandle.current().children().findFirst().orElseThrow();
+            worker.destroyForcibly();
+
+            List<RootSplitCoordinator.Line> lines = analysis.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            assertEquals(legalMoves(Fen.START), moves(lines));
+            assertRanked(lines);
+            assertEquals(1, coordinator.describeWorkers().size());
+        } finally {
+            runner.shutdownNow();
+        }
+    }
+
+    private int movesSearched() {
+        int searched = 0;
+        for (String worker : coordinator.describeWorkers()) {
+            // "NAME: N slots, N moves searched, N nodes"
+            searched += Integer.parseInt(worker.split(", ")[1].split(" ")[0]);
+        }
+        return searched;
+    }
+
+    private static Set<String> legalMoves(String fen) {
+        Fen parsed = Fen.parse(fen);
+        Set<String> legal = new HashSet<>();
+        for (Move move : new RuleEngine(parsed.getPosition().toBoard()).getLegalMoves(parsed.getSideToMove())) {
+            legal.add(UciMoves.toUci(move));
+        }
+        return legal;
+    }
+
+    private static Set<String> moves(List<RootSplitCoordinator.Line> lines) {
+        Set<String> moves = new HashSet<>();
+        for (RootSplitCoordinator.Line line : lines) {
+            moves.add(line.getMove());
+        }
+        assertEquals("a move came back twice", lines.size(), moves.size());
+        return moves;
+    }
+
+    private static void assertRanked(List<RootSplitCoordinator.Line> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            assertNotEquals(lines.get(i).getMove() + " has no score", "-", lines.get(i).getScoreText());
+            if (i > 0) {
+                assertTrue("not ranked at " + lines.get(i).getMove(),
+                        lines.get(i - 1).getScore() >= lines.get(i).getScore());
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package Chess.backend;
+
+import Chess.engine.Board;
+import Chess.engine.Fen;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the move trees of the usual perft positions on every backend
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class BoardBackendTest {
+
+    private static final String[] BACKENDS = { "square", "0x88", "bitboard" };
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String ROOK_ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String CHECKS = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    public void startPosition() {
+        assertPerft(Fen.START, 3, 8902);
+    }
+
+    @Test
+    public void castlingAndPins() {
+        assertPerft(KIWIPETE, 2, 2039);
+    }
+
+    @Test
+    public void enPassantAndDiscoveredChecks() {
+        assertPerft(ROOK_ENDGAME, 4, 43238);
+    }
+
+    @Test
+    public void promotions() {
+        assertPerft(PROMOTIONS, 3, 9467);
+    }
+
+    @Test
+    public void checksAndPromotionCaptures() {
+        assertPerft(CHECKS, 2, 1486);
+    }
+
+    private static void assertPerft(String fen, int depth, long expected) {
+        for (String name : BACKENDS) {
+            Fen parsed = Fen.parse(fen);
+            Board board = parsed.getPosition().toBoard();
+            BoardBackend backend = BackendCrossCheck.create(name);
+            backend.load(board, parsed.getSideToMove());
+            assertEquals(name + " perft(" + depth + ") of " + fen, expected, BackendCrossCheck.perft(backend, depth));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package Chess.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks which material signatures are dead draws, drawish or playable
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class DeadDrawTest {
+
+    @Test
+    public void noMatingMaterialIsDead() {
+        assertDead("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        assertDead("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1");
+        assertDead("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1");
+        assertDead("4k3/8/8/8/8/8/8/1n2K3 w - - 0 1");
+    }
+
+    @Test
+    public void bishopsOnOneColorAreDead() {
+        // c1 and f8 are both dark squares
+        assertDead("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1");
+        assertDead("4k3/8/8/8/8/8/8/B1B1K3 w - - 0 1");
+    }
+
+    @Test
+    public void bishopsOnBothColorsAreOnlyDrawish() {
+        // f1 is light, f8 dark: a mate in the corner is possible
+        assertDrawish("4kb2/8/8/8/8/8/8/4KB2 w - - 0 1");
+        assertDrawish("4k3/8/8/8/8/8/8/1NN1K3 w - - 0 1");
+        assertDrawish("4kb2/8/8/8/8/8/8/R3K3 w - - 0 1");
+    }
+
+    @Test
+    public void matingMaterialIsPlayable() {
+        assertPlayable("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        assertPlayable("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+        assertPlayable("4k3/8/8/8/8/8/8/1NB1K3 w - - 0 1");
+        assertPlayable("4k3/8/8/8/8/8/8/2B1KB2 w - - 0 1");
+        assertPlayable(Fen.START);
+    }
+
+    private static void assertDead(String fen) {
+        Board board = Fen.parse(fen).getPosition().toBoard();
+        assertTrue(fen, board.isDeadDraw());
+        assertTrue(fen, board.isDrawishMaterial());
+    }
+
+    private static void assertDrawish(String fen) {
+        Board board = Fen.parse(fen).getPosition().toBoard();
+        assertFalse(fen, board.isDeadDraw());
+        assertTrue(fen, board.isDrawishMaterial());
+    }
+
+    private static void assertPlayable(String fen) {
+        Board board = Fen.parse(fen).getPosition().toBoard();
+        assertFalse(fen, board.isDeadDraw());
+        assertFalse(fen, board.isDrawishMaterial());
+    }
+}
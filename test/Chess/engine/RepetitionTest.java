@@ -0,0 +1,79 @@
+package Chess.engine;
+
+import Chess.uci.UciMoves;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that repetitions are counted by position, castling rights and en
+ * passant right included
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class RepetitionTest {
+
+    private static final String[] KNIGHT_SHUFFLE = { "g1f3", "g8f6", "f3g1", "f6g8" };
+
+    @Test
+    public void knightShuffleRepeatsThreeTimes() {
+        Board board = Fen.parse(Fen.START).getPosition().toBoard();
+        play(board, KNIGHT_SHUFFLE);
+        assertEquals(1, board.getRepetitionCount());
+        assertFalse(board.isThreefoldRepetition());
+        play(board, KNIGHT_SHUFFLE);
+        assertEquals(2, board.getRepetitionCount());
+        assertTrue(board.isThreefoldRepetition());
+    }
+
+    @Test
+    public void losingCastlingRightsIsANewPosition() {
+        Board board = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1").getPosition().toBoard();
+        String[] rookShuffle = { "a1b1", "a8b8", "b1a1", "b8a8" };
+        play(board, rookShuffle);
+        assertEquals(0, board.getRepetitionCount());
+        play(board, rookShuffle);
+        assertEquals(1, board.getRepetitionCount());
+    }
+
+    @Test
+    public void keepingCastlingRightsRepeats() {
+        Board board = Fen.parse("r3k1nr/8/8/8/8/8/8/R3K1NR w KQkq - 0 1").getPosition().toBoard();
+        play(board, KNIGHT_SHUFFLE);
+        assertEquals(1, board.getRepetitionCount());
+    }
+
+    @Test
+    public void enPassantRightIsANewPosition() {
+        // after e2e4 the f4 pawn could take en passant, after the shuffle it can't
+        Board board = Fen.parse("4k1n1/8/8/8/5p2/8/4P3/4K1N1 w - - 0 1").getPosition().toBoard();
+        play(board, "e2e4");
+        play(board, KNIGHT_SHUFFLE[1], KNIGHT_SHUFFLE[0], KNIGHT_SHUFFLE[3], KNIGHT_SHUFFLE[2]);
+        assertEquals(0, board.getRepetitionCount());
+        play(board, KNIGHT_SHUFFLE[1], KNIGHT_SHUFFLE[0], KNIGHT_SHUFFLE[3], KNIGHT_SHUFFLE[2]);
+        assertEquals(1, board.getRepetitionCount());
+    }
+
+    @Test
+    public void doubleStepWithoutACaptureRepeats() {
+        // nothing stands beside e4, so there is no en passant right to lose
+        Board board = Fen.parse("4k1n1/8/8/8/8/8/4P3/4K1N1 w - - 0 1").getPosition().toBoard();
+        play(board, "e2e4");
+        play(board, KNIGHT_SHUFFLE[1], KNIGHT_SHUFFLE[0], KNIGHT_SHUFFLE[3], KNIGHT_SHUFFLE[2]);
+        assertEquals(1, board.getRepetitionCount());
+    }
+
+    private static void play(Board board, String... moves) {
+        for (String uci : moves) {
+            String side = board.getPieceAt(uci.charAt(1) - '1', uci.charAt(0) - 'a').getColor();
+            Move move = UciMoves.find(new RuleEngine(board).getLegalMoves(side), uci);
+            assertNotNull(uci, move);
+            board.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                    move.getTo().getCol(), null, false);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package Chess.search;
+
+import Chess.engine.Board;
+import Chess.engine.Fen;
+import Chess.engine.Move;
+import Chess.engine.RuleEngine;
+import Chess.uci.UciMoves;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Solves short mates and checks that they really are mates
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class MateSolverTest {
+
+    @Test
+    public void mateInOne() {
+        MateSolver.Mate mate = solve("6k1/5ppp/8/8/8/8/8/4R1K1 w - - 0 1", 3);
+        assertNotNull(mate);
+        assertEquals(1, mate.getMoves());
+        assertEquals("e1e8", X88Position.toString(mate.getMove()));
+    }
+
+    @Test
+    public void mateInTwo() {
+        String fen = "k7/8/2K5/8/8/8/8/7R w - - 0 1";
+        MateSolver.Mate mate = solve(fen, 3);
+        assertNotNull(mate);
+        assertEquals(2, mate.getMoves());
+
+        // every reply to the first move runs into a mate in one
+        Board board = Fen.parse(fen).getPosition().toBoard();
+        play(board, X88Position.toString(mate.getMove()));
+        for (Move reply : new RuleEngine(board).getLegalMoves("Black")) {
+            Board after = board.copy();
+            play(after, UciMoves.toUci(reply));
+            MateSolver.Mate finish = new MateSolver().solve(after, "White", 1);
+            assertNotNull(UciMoves.toUci(reply), finish);
+        }
+    }
+
+    @Test
+    public void noMateFromTheStart() {
+        assertNull(solve(Fen.START, 2));
+    }
+
+    private static MateSolver.Mate solve(String fen, int maxMoves) {
+        Fen parsed = Fen.parse(fen);
+        return new MateSolver().solve(parsed.getPosition().toBoard(), parsed.getSideToMove(), maxMoves);
+    }
+
+    private static void play(Board board, String uci) {
+        String side = board.getPieceAt(uci.charAt(1) - '1', uci.charAt(0) - 'a').getColor();
+        Move move = UciMoves.find(new RuleEngine(board).getLegalMoves(side), uci);
+        assertNotNull(uci, move);
+        board.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                move.getTo().getCol(), null, false);
+    }
+}
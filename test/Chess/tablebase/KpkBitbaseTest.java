@@ -0,0 +1,62 @@
+package Chess.tablebase;
+
+import Chess.engine.Fen;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Probes the KPK bitbase on positions whose result is known
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class KpkBitbaseTest {
+
+    @Test
+    public void kingInFrontOfItsPawnWins() {
+        assertProbe(KpkBitbase.WIN, "4k3/8/4K3/4P3/8/8/8/8 w - - 0 1");
+        assertProbe(KpkBitbase.LOSS, "4k3/8/4K3/4P3/8/8/8/8 b - - 0 1");
+    }
+
+    @Test
+    public void blackPawnWinsForBlack() {
+        assertProbe(KpkBitbase.WIN, "8/8/8/8/4p3/4k3/8/4K3 b - - 0 1");
+        assertProbe(KpkBitbase.LOSS, "8/8/8/8/4p3/4k3/8/4K3 w - - 0 1");
+    }
+
+    @Test
+    public void defendingKingInFrontOfThePawnDraws() {
+        assertProbe(KpkBitbase.DRAW, "8/8/4k3/8/4P3/4K3/8/8 w - - 0 1");
+        // stalemate
+        assertProbe(KpkBitbase.DRAW, "4k3/4P3/4K3/8/8/8/8/8 b - - 0 1");
+        // but with White to move Kd6 Kf7 Kd7 queens
+        assertProbe(KpkBitbase.WIN, "4k3/4P3/4K3/8/8/8/8/8 w - - 0 1");
+    }
+
+    @Test
+    public void rookPawnWithTheKingInTheCornerDraws() {
+        assertProbe(KpkBitbase.DRAW, "k7/8/8/8/8/8/P7/7K w - - 0 1");
+    }
+
+    @Test
+    public void otherMaterialIsUnknown() {
+        assertProbe(KpkBitbase.UNKNOWN, Fen.START);
+        assertProbe(KpkBitbase.UNKNOWN, "4k3/8/4K3/4Q3/8/8/8/8 w - - 0 1");
+    }
+
+    @Test
+    public void evaluateScoresTheWinForTheStrongSide() {
+        Fen fen = Fen.parse("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1");
+        int white = KpkBitbase.shared().evaluate(fen.getPosition().toBoard(), "White", "White");
+        int black = KpkBitbase.shared().evaluate(fen.getPosition().toBoard(), "Black", "White");
+        assertTrue(white >= KpkBitbase.WIN_SCORE);
+        assertEquals(-white, black);
+    }
+
+    private static void assertProbe(int expected, String fen) {
+        Fen parsed = Fen.parse(fen);
+        assertEquals(fen, expected, KpkBitbase.shared().probe(parsed.getPosition().toBoard(), parsed.getSideToMove()));
+    }
+}
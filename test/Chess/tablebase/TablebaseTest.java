@@ -0,0 +1,93 @@
+package Chess.tablebase;
+
+import Chess.engine.Board;
+import Chess.engine.Fen;
+import Chess.engine.Move;
+import Chess.engine.RuleEngine;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Generates the KQvK and KRvK tables and probes positions whose result is
+ * known
+ *
+ * @author Group3
+ * @version 1.0
+ */
+public class TablebaseTest {
+
+    @ClassRule
+    public static final TemporaryFolder FOLDER = new TemporaryFolder();
+
+    private static TablebaseGenerator generator;
+    private static Tablebase tablebase;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generator = new TablebaseGenerator(FOLDER.getRoot(), 2);
+        generator.generate(Material.parse("KQvK"));
+        generator.generate(Material.parse("KRvK"));
+        tablebase = new Tablebase(FOLDER.getRoot());
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        generator.shutdown();
+    }
+
+    @Test
+    public void mateInOne() {
+        int value = probe("6k1/8/6K1/8/8/8/8/R7 w - - 0 1");
+        assertTrue(Tablebase.isWin(value));
+        assertEquals(1, Tablebase.plies(value));
+    }
+
+    @Test
+    public void checkmated() {
+        int value = probe("R5k1/8/6K1/8/8/8/8/8 b - - 0 1");
+        assertTrue(Tablebase.isLoss(value));
+        assertEquals(0, Tablebase.plies(value));
+    }
+
+    @Test
+    public void stalemateIsADraw() {
+        assertEquals(Tablebase.DRAW, probe("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"));
+    }
+
+    @Test
+    public void takingTheQueenIsADraw() {
+        assertEquals(Tablebase.DRAW, probe("8/8/8/8/8/8/1Q6/k5K1 b - - 0 1"));
+    }
+
+    @Test
+    public void theBestMoveIsOnePlyShorter() {
+        String fen = "8/8/8/4k3/8/8/8/R3K3 w - - 0 1";
+        int value = probe(fen);
+        assertTrue(Tablebase.isWin(value));
+
+        Fen parsed = Fen.parse(fen);
+        Board board = parsed.getPosition().toBoard();
+        int best = Integer.MAX_VALUE;
+        for (Move move : new RuleEngine(board).getLegalMoves("White")) {
+            Board after = board.copy();
+            after.movePiece(move.getFrom().getRow(), move.getFrom().getCol(), move.getTo().getRow(),
+                    move.getTo().getCol(), null, false);
+            int reply = tablebase.probe(after, "Black");
+            if (Tablebase.isLoss(reply)) {
+                best = Math.min(best, Tablebase.plies(reply));
+            }
+        }
+        assertEquals(Tablebase.plies(value) - 1, best);
+    }
+
+    private static int probe(String fen) {
+        Fen parsed = Fen.parse(fen);
+        return tablebase.probe(parsed.getPosition().toBoard(), parsed.getSideToMove());
+    }
+}